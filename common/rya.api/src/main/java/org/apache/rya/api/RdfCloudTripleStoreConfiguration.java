@@ -54,6 +54,8 @@ public abstract class RdfCloudTripleStoreConfiguration extends Configuration {
     public static final String CONF_LIMIT = "query.limit";
     public static final String CONF_QUERYPLAN_FLAG = "query.printqueryplan";
     public static final String CONF_QUERY_AUTH = "query.auth";
+    public static final String CONF_QUERY_PLAN_CACHE_SIZE = "query.plancache.size";
+    public static final String CONF_QUERY_PLAN_CACHE_TTL = "query.plancache.ttl";
     public static final String CONF_RESULT_FORMAT = "query.resultformat";
     public static final String CONF_CV = "conf.cv";
     public static final String CONF_TBL_SPO = "tbl.spo";
@@ -67,6 +69,7 @@ public abstract class RdfCloudTripleStoreConfiguration extends Configuration {
     public static final String CONF_PCJ_TABLES = "pcj.index.tables";
     public static final String CONF_STATEMENT_METADATA_PROPERTIES = "statement.metadata.properites";
     public static final String CONF_USE_STATEMENT_METADATA = "use.statement.metadata";
+    public static final String CONF_STATEMENT_METADATA_BATCH_SIZE = "statement.metadata.batchsize";
     public static final String STATS_PUSH_EMPTY_RDFTYPE_DOWN = "conf.stats.rdftype.down";
     public static final String INFER_INCLUDE_ALL_VALUES_FROM = "infer.include.allvaluesfrom";
     public static final String INFER_INCLUDE_DOMAIN_RANGE = "infer.include.domainrange";
@@ -260,6 +263,32 @@ public abstract class RdfCloudTripleStoreConfiguration extends Configuration {
     }
 
 
+    /**
+     * @return The maximum number of optimized query plans that are cached by the Sail.
+     *   A size of 0, the default, disables the cache.
+     */
+    public int getQueryPlanCacheSize() {
+        return getInt(CONF_QUERY_PLAN_CACHE_SIZE, 0);
+    }
+
+    public void setQueryPlanCacheSize(final int size) {
+        Preconditions.checkArgument(size >= 0, "The query plan cache size may not be negative.");
+        setInt(CONF_QUERY_PLAN_CACHE_SIZE, size);
+    }
+
+    /**
+     * @return How many milliseconds a cached query plan is used before the query is optimized
+     *   again. This bounds how long a plan may be based on stale statistics or inference rules.
+     */
+    public long getQueryPlanCacheTtl() {
+        return getLong(CONF_QUERY_PLAN_CACHE_TTL, 60_000L);
+    }
+
+    public void setQueryPlanCacheTtl(final long ttl) {
+        Preconditions.checkArgument(ttl > 0, "The query plan cache TTL must be positive.");
+        setLong(CONF_QUERY_PLAN_CACHE_TTL, ttl);
+    }
+
     public Boolean isDisplayQueryPlan() {
         return getBoolean(CONF_QUERYPLAN_FLAG, false);
     }
@@ -657,6 +686,19 @@ public abstract class RdfCloudTripleStoreConfiguration extends Configuration {
         return getBoolean(CONF_USE_STATEMENT_METADATA, false);
     }
 
+    /**
+     * @param batchSize - The maximum number of distinct statement lookups a reified
+     *   query sends to the query engine at once.
+     */
+    public void setStatementMetadataBatchSize(final int batchSize) {
+        Preconditions.checkArgument(batchSize > 0, "The statement metadata batch size must be positive.");
+        setInt(CONF_STATEMENT_METADATA_BATCH_SIZE, batchSize);
+    }
+
+    public int getStatementMetadataBatchSize() {
+        return getInt(CONF_STATEMENT_METADATA_BATCH_SIZE, 1000);
+    }
+
     public void setStatementMetadataProperties(final Set<RyaIRI> metadataProperties) {
 
         final String[] propArray = new String[metadataProperties.size()];
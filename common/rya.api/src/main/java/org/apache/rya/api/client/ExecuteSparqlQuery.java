@@ -19,9 +19,15 @@
 package org.apache.rya.api.client;
 
 import java.io.Closeable;
+import java.io.OutputStream;
 
+import org.apache.rya.api.client.resultio.BinaryQueryResultsParser;
+import org.apache.rya.api.client.resultio.BinaryQueryResultsWriter;
 import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.QueryResults;
 import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.query.TupleQueryResultHandlerException;
 
 import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
 import edu.umd.cs.findbugs.annotations.NonNull;
@@ -42,4 +48,24 @@ public interface ExecuteSparqlQuery extends Closeable {
      * @throws RyaClientException Something caused the command to fail.
      */
     public TupleQueryResult executeSparqlQuery(String ryaInstanceName, String sparqlQuery) throws InstanceDoesNotExistException, RyaClientException;
-}
\ No newline at end of file
+
+    /**
+     * Executes a SPARQL Query against an instance of Rya and writes the results to a stream
+     * using the compact binary result format. They may be read back with
+     * {@link BinaryQueryResultsParser#parse(java.io.InputStream)}.
+     *
+     * @param ryaInstanceName - The name of the Rya instance the query will be executed against. (not null)
+     * @param sparqlQuery - A SPARQL Query. (not null)
+     * @param out - The stream the results are written to. It is not closed. (not null)
+     * @throws InstanceDoesNotExistException No instance of Rya exists for the provided name.
+     * @throws RyaClientException Something caused the command to fail.
+     */
+    public default void executeSparqlQuery(final String ryaInstanceName, final String sparqlQuery, final OutputStream out) throws InstanceDoesNotExistException, RyaClientException {
+        final TupleQueryResult result = executeSparqlQuery(ryaInstanceName, sparqlQuery);
+        try {
+            QueryResults.report(result, new BinaryQueryResultsWriter(out));
+        } catch (final QueryEvaluationException | TupleQueryResultHandlerException e) {
+            throw new RyaClientException("There was a problem writing the results of the supplied query.", e);
+        }
+    }
+}
@@ -20,8 +20,18 @@ package org.apache.rya.api.client;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Objects;
 
+import org.apache.rya.api.RdfCloudTripleStoreConstants.TABLE_LAYOUT;
+
 import edu.umd.cs.findbugs.annotations.Nullable;
 import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
 import edu.umd.cs.findbugs.annotations.NonNull;
@@ -71,6 +81,7 @@ public interface Install {
         private final boolean enableTemporalIndex;
         private final boolean enablePcjIndex;
         private final Optional<String> fluoPcjAppName;
+        private final Map<TABLE_LAYOUT, List<byte[]>> tableSplits;
 
         /**
          * Use a {@link Builder} to create instances of this class.
@@ -82,7 +93,8 @@ public interface Install {
                 final boolean enableEntityCentricIndex,
                 final boolean enableTemporalIndex,
                 final boolean enablePcjIndex,
-                final Optional<String> fluoPcjAppName) {
+                final Optional<String> fluoPcjAppName,
+                final Map<TABLE_LAYOUT, List<byte[]>> tableSplits) {
             this.enableTableHashPrefix = requireNonNull(enableTableHashPrefix);
             this.enableFreeTextIndex = requireNonNull(enableFreeTextIndex);
             this.enableGeoIndex = requireNonNull(enableGeoIndex);
@@ -90,6 +102,7 @@ public interface Install {
             this.enableTemporalIndex = requireNonNull(enableTemporalIndex);
             this.enablePcjIndex = requireNonNull(enablePcjIndex);
             this.fluoPcjAppName = requireNonNull(fluoPcjAppName);
+            this.tableSplits = Collections.unmodifiableMap(requireNonNull(tableSplits));
         }
 
         /**
@@ -142,8 +155,22 @@ public interface Install {
             return fluoPcjAppName;
         }
 
+        /**
+         * @param layout - The core table whose split points will be fetched. (not null)
+         * @return The split points the core table is created with. Empty if it is not pre-split.
+         */
+        public List<byte[]> getTableSplits(final TABLE_LAYOUT layout) {
+            requireNonNull(layout);
+            final List<byte[]> splits = tableSplits.get(layout);
+            return splits == null ? Collections.<byte[]>emptyList() : splits;
+        }
+
         @Override
         public int hashCode() {
+            int splitsHash = 0;
+            for(final Entry<TABLE_LAYOUT, List<byte[]>> entry : tableSplits.entrySet()) {
+                splitsHash += entry.getKey().hashCode() ^ Arrays.deepHashCode(entry.getValue().toArray());
+            }
             return Objects.hash(
                     enableTableHashPrefix,
                     enableFreeTextIndex,
@@ -151,7 +178,8 @@ public interface Install {
                     enableEntityCentricIndex,
                     enableTemporalIndex,
                     enablePcjIndex,
-                    fluoPcjAppName);
+                    fluoPcjAppName,
+                    splitsHash);
         }
 
         @Override
@@ -167,11 +195,24 @@ public interface Install {
                         enableEntityCentricIndex == config.enableEntityCentricIndex &&
                         enableTemporalIndex == config.enableTemporalIndex &&
                         enablePcjIndex == config.enablePcjIndex &&
-                        Objects.equals(fluoPcjAppName, config.fluoPcjAppName);
+                        Objects.equals(fluoPcjAppName, config.fluoPcjAppName) &&
+                        splitsEqual(tableSplits, config.tableSplits);
             }
             return false;
         }
 
+        private static boolean splitsEqual(final Map<TABLE_LAYOUT, List<byte[]>> splits1, final Map<TABLE_LAYOUT, List<byte[]>> splits2) {
+            if(!splits1.keySet().equals(splits2.keySet())) {
+                return false;
+            }
+            for(final Entry<TABLE_LAYOUT, List<byte[]>> entry : splits1.entrySet()) {
+                if(!Arrays.deepEquals(entry.getValue().toArray(), splits2.get(entry.getKey()).toArray())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
         /**
          * @return An empty instance of {@link Builder}.
          */
@@ -191,6 +232,7 @@ public interface Install {
             private boolean enableTemporalIndex = false;
             private boolean enablePcjIndex = false;
             private String fluoPcjAppName = null;
+            private final Map<TABLE_LAYOUT, List<byte[]>> tableSplits = new EnumMap<>(TABLE_LAYOUT.class);
 
             /**
              * @param enabled - Whether or not the installed instance of Rya will include table prefix hashing.
@@ -251,6 +293,22 @@ public interface Install {
                 return this;
             }
 
+            /**
+             * @param layout - The core table that will be pre-split. (not null)
+             * @param splits - The split points the table is created with. (not null)
+             * @return This {@link Builder} so that method invocations may be chained.
+             */
+            public Builder setTableSplits(final TABLE_LAYOUT layout, final Collection<byte[]> splits) {
+                requireNonNull(layout);
+                requireNonNull(splits);
+                final List<byte[]> copy = new ArrayList<>(splits.size());
+                for(final byte[] split : splits) {
+                    copy.add(split.clone());
+                }
+                tableSplits.put(layout, Collections.unmodifiableList(copy));
+                return this;
+            }
+
             /**
              * @return Builds an instance of {@link InstallConfiguration} using this builder's values.
              */
@@ -262,7 +320,8 @@ public interface Install {
                         enableEntityCentricIndex,
                         enableTemporalIndex,
                         enablePcjIndex,
-                        Optional.fromNullable(fluoPcjAppName));
+                        Optional.fromNullable(fluoPcjAppName),
+                        new EnumMap<>(tableSplits));
             }
         }
     }
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.api.client.resultio;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A compact binary encoding of SPARQL tuple query results. It is selected by setting
+ * {@link org.apache.rya.api.RdfCloudTripleStoreConfiguration#CONF_RESULT_FORMAT} to {@link #FORMAT_NAME}.
+ * <p>
+ * A response starts with a header that holds the magic bytes, a version, and the binding names.
+ * Each row follows as a {@link #ROW} marker and one value code per binding name. The results end
+ * with an {@link #END} marker. A value code is a varint:
+ * <ul>
+ *   <li>{@link #UNBOUND} - the binding has no value in this row.</li>
+ *   <li>{@link #NEW_VALUE} - the value is written inline and is added to the response's dictionary.</li>
+ *   <li>any larger code - the dictionary entry at index {@code code - 2}.</li>
+ * </ul>
+ * Values are numbered in the order they first appear. So that neither side holds more than a bounded
+ * number of values, the writer starts a new dictionary once the current one holds
+ * {@link #MAX_DICTIONARY_SIZE} values or {@link #MAX_DICTIONARY_CHARS} characters. It does so by
+ * writing a {@link #RESET} marker between rows, after which the dictionary starts out empty again.
+ */
+public final class BinaryQueryResults {
+
+    /**
+     * The value of {@link org.apache.rya.api.RdfCloudTripleStoreConfiguration#CONF_RESULT_FORMAT} that selects this encoding.
+     */
+    public static final String FORMAT_NAME = "binary";
+
+    /**
+     * The MIME type of a response that uses this encoding.
+     */
+    public static final String MIME_TYPE = "application/x-rya-binary-results";
+
+    static final byte[] MAGIC = { 'R', 'Y', 'A', 'B' };
+    static final int VERSION = 2;
+
+    static final int END = 0;
+    static final int ROW = 1;
+    static final int RESET = 2;
+
+    static final int UNBOUND = 0;
+    static final int NEW_VALUE = 1;
+    static final int FIRST_DICTIONARY_CODE = 2;
+
+    static final int TYPE_IRI = 1;
+    static final int TYPE_BNODE = 2;
+    static final int TYPE_LITERAL = 3;
+    static final int TYPE_LANGUAGE_LITERAL = 4;
+
+    static final int MAX_DICTIONARY_SIZE = 1 << 16;
+    static final int MAX_DICTIONARY_CHARS = 1 << 22;
+
+    private BinaryQueryResults() { }
+
+    static void writeVarInt(final DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(final DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            final int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in binary query results.");
+    }
+
+    static void writeString(final DataOutput out, final String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(final DataInput in) throws IOException {
+        final byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
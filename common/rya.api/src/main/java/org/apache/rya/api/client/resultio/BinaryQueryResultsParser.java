@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.api.client.resultio;
+
+import static java.util.Objects.requireNonNull;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.END;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.FIRST_DICTIONARY_CODE;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.MAGIC;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.NEW_VALUE;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.RESET;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.ROW;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.TYPE_BNODE;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.TYPE_IRI;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.TYPE_LANGUAGE_LITERAL;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.TYPE_LITERAL;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.UNBOUND;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.VERSION;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.readString;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.readVarInt;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.eclipse.rdf4j.common.iteration.AbstractCloseableIteration;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.query.impl.IteratingTupleQueryResult;
+import org.eclipse.rdf4j.query.impl.ListBindingSet;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Reads tuple query results that were written using the {@link BinaryQueryResults} encoding.
+ */
+@DefaultAnnotation(NonNull.class)
+public final class BinaryQueryResultsParser {
+
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+    private BinaryQueryResultsParser() { }
+
+    /**
+     * Reads the header of a binary result stream and returns the results. Rows are
+     * decoded from the stream as the result is iterated over, and closing the
+     * result closes the stream.
+     *
+     * @param in - The stream to read. (not null)
+     * @return The results held by the stream.
+     * @throws IOException The stream could not be read or does not hold binary query results.
+     */
+    public static TupleQueryResult parse(final InputStream in) throws IOException {
+        requireNonNull(in);
+        final DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        try {
+            final byte[] magic = new byte[MAGIC.length];
+            data.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("The stream does not hold binary query results.");
+            }
+            final int version = readVarInt(data);
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary query results version: " + version);
+            }
+
+            final int bindingCount = readVarInt(data);
+            final List<String> bindingNames = new ArrayList<>(bindingCount);
+            for (int i = 0; i < bindingCount; i++) {
+                bindingNames.add(readString(data));
+            }
+            return new IteratingTupleQueryResult(bindingNames, new RowIteration(data, bindingNames));
+        } catch (final IOException e) {
+            data.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Decodes rows from the stream one at a time.
+     */
+    private static final class RowIteration extends AbstractCloseableIteration<BindingSet, QueryEvaluationException> {
+        private final DataInputStream in;
+        private final List<String> bindingNames;
+        private final List<Value> dictionary = new ArrayList<>();
+
+        private BindingSet next = null;
+        private boolean ended = false;
+
+        public RowIteration(final DataInputStream in, final List<String> bindingNames) {
+            this.in = in;
+            this.bindingNames = bindingNames;
+        }
+
+        @Override
+        public boolean hasNext() throws QueryEvaluationException {
+            if (next == null && !ended && !isClosed()) {
+                next = readRow();
+            }
+            return next != null;
+        }
+
+        @Override
+        public BindingSet next() throws QueryEvaluationException {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final BindingSet current = next;
+            next = null;
+            return current;
+        }
+
+        @Override
+        public void remove() throws QueryEvaluationException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void handleClose() throws QueryEvaluationException {
+            try {
+                in.close();
+            } catch (final IOException e) {
+                throw new QueryEvaluationException(e);
+            }
+        }
+
+        private BindingSet readRow() throws QueryEvaluationException {
+            try {
+                int marker = readVarInt(in);
+                if (marker == RESET) {
+                    dictionary.clear();
+                    marker = readVarInt(in);
+                }
+                if (marker == END) {
+                    ended = true;
+                    return null;
+                } else if (marker != ROW) {
+                    throw new IOException("Unexpected row marker in binary query results: " + marker);
+                }
+
+                final List<Value> values = new ArrayList<>(bindingNames.size());
+                for (int i = 0; i < bindingNames.size(); i++) {
+                    values.add(readValue());
+                }
+                return new ListBindingSet(bindingNames, values);
+            } catch (final IOException e) {
+                throw new QueryEvaluationException("Could not read binary query results.", e);
+            }
+        }
+
+        private Value readValue() throws IOException {
+            final int code = readVarInt(in);
+            if (code == UNBOUND) {
+                return null;
+            } else if (code >= FIRST_DICTIONARY_CODE) {
+                final int index = code - FIRST_DICTIONARY_CODE;
+                if (index >= dictionary.size()) {
+                    throw new IOException("Unknown dictionary entry in binary query results: " + index);
+                }
+                return dictionary.get(index);
+            } else if (code != NEW_VALUE) {
+                throw new IOException("Unexpected value code in binary query results: " + code);
+            }
+
+            final Value value;
+            final int type = readVarInt(in);
+            switch (type) {
+                case TYPE_IRI:
+                    value = VF.createIRI(readString(in));
+                    break;
+                case TYPE_BNODE:
+                    value = VF.createBNode(readString(in));
+                    break;
+                case TYPE_LITERAL:
+                    final String label = readString(in);
+                    final Value datatype = readValue();
+                    if (!(datatype instanceof IRI)) {
+                        throw new IOException("A literal in the binary query results does not have a datatype IRI.");
+                    }
+                    value = VF.createLiteral(label, (IRI) datatype);
+                    break;
+                case TYPE_LANGUAGE_LITERAL:
+                    final String languageLabel = readString(in);
+                    value = VF.createLiteral(languageLabel, readString(in));
+                    break;
+                default:
+                    throw new IOException("Unexpected value type in binary query results: " + type);
+            }
+
+            dictionary.add(value);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.api.client.resultio;
+
+import static java.util.Objects.requireNonNull;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.END;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.FIRST_DICTIONARY_CODE;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.MAGIC;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.MAX_DICTIONARY_CHARS;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.MAX_DICTIONARY_SIZE;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.NEW_VALUE;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.RESET;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.ROW;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.TYPE_BNODE;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.TYPE_IRI;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.TYPE_LANGUAGE_LITERAL;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.TYPE_LITERAL;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.UNBOUND;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.VERSION;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.writeString;
+import static org.apache.rya.api.client.resultio.BinaryQueryResults.writeVarInt;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryResultHandlerException;
+import org.eclipse.rdf4j.query.TupleQueryResultHandler;
+import org.eclipse.rdf4j.query.TupleQueryResultHandlerException;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Writes tuple query results using the {@link BinaryQueryResults} encoding.
+ * The results are written to the stream as they are handled and the stream is
+ * flushed once they end. It is not closed.
+ */
+@DefaultAnnotation(NonNull.class)
+public class BinaryQueryResultsWriter implements TupleQueryResultHandler {
+
+    private final DataOutputStream out;
+    private final Map<Value, Integer> dictionary = new HashMap<>();
+    // The number of characters held by the values in the dictionary.
+    private long dictionaryChars = 0;
+    private List<String> bindingNames = null;
+
+    /**
+     * Constructs an instance of {@link BinaryQueryResultsWriter}.
+     *
+     * @param out - The stream the results are written to. (not null)
+     */
+    public BinaryQueryResultsWriter(final OutputStream out) {
+        this.out = new DataOutputStream(requireNonNull(out));
+    }
+
+    @Override
+    public void startQueryResult(final List<String> bindingNames) throws TupleQueryResultHandlerException {
+        this.bindingNames = new ArrayList<>(bindingNames);
+        dictionary.clear();
+        dictionaryChars = 0;
+        try {
+            out.write(MAGIC);
+            writeVarInt(out, VERSION);
+            writeVarInt(out, bindingNames.size());
+            for (final String bindingName : bindingNames) {
+                writeString(out, bindingName);
+            }
+        } catch (final IOException e) {
+            throw new TupleQueryResultHandlerException(e);
+        }
+    }
+
+    @Override
+    public void handleSolution(final BindingSet bindingSet) throws TupleQueryResultHandlerException {
+        if (bindingNames == null) {
+            throw new IllegalStateException("startQueryResult must be called before handleSolution.");
+        }
+        try {
+            if (dictionary.size() >= MAX_DICTIONARY_SIZE || dictionaryChars >= MAX_DICTIONARY_CHARS) {
+                writeVarInt(out, RESET);
+                dictionary.clear();
+                dictionaryChars = 0;
+            }
+            writeVarInt(out, ROW);
+            for (final String bindingName : bindingNames) {
+                final Value value = bindingSet.getValue(bindingName);
+                if (value == null) {
+                    writeVarInt(out, UNBOUND);
+                } else {
+                    writeValue(value);
+                }
+            }
+        } catch (final IOException e) {
+            throw new TupleQueryResultHandlerException(e);
+        }
+    }
+
+    @Override
+    public void endQueryResult() throws TupleQueryResultHandlerException {
+        try {
+            writeVarInt(out, END);
+            out.flush();
+        } catch (final IOException e) {
+            throw new TupleQueryResultHandlerException(e);
+        }
+    }
+
+    @Override
+    public void handleBoolean(final boolean value) throws QueryResultHandlerException {
+        throw new UnsupportedOperationException("The binary result format only encodes tuple query results.");
+    }
+
+    @Override
+    public void handleLinks(final List<String> linkUrls) throws QueryResultHandlerException {
+        // Links are not part of the binary result format.
+    }
+
+    private void writeValue(final Value value) throws IOException {
+        final Integer index = dictionary.get(value);
+        if (index != null) {
+            writeVarInt(out, index + FIRST_DICTIONARY_CODE);
+            return;
+        }
+
+        writeVarInt(out, NEW_VALUE);
+        if (value instanceof Literal) {
+            final Literal literal = (Literal) value;
+            if (literal.getLanguage().isPresent()) {
+                writeVarInt(out, TYPE_LANGUAGE_LITERAL);
+                writeString(out, literal.getLabel());
+                writeString(out, literal.getLanguage().get());
+            } else {
+                writeVarInt(out, TYPE_LITERAL);
+                writeString(out, literal.getLabel());
+                writeValue(literal.getDatatype());
+            }
+        } else if (value instanceof BNode) {
+            writeVarInt(out, TYPE_BNODE);
+            writeString(out, ((BNode) value).getID());
+        } else {
+            writeVarInt(out, TYPE_IRI);
+            writeString(out, value.stringValue());
+        }
+
+        // The reader numbers a value after reading all of it, so this must happen after any nested values are written.
+        dictionary.put(value, dictionary.size());
+        dictionaryChars += value.stringValue().length();
+    }
+}
@@ -50,6 +50,20 @@ public interface RyaSecondaryIndexer extends Closeable, Flushable, Configurable
 
     public void deleteStatement(RyaStatement stmt) throws IOException;
 
+    /**
+     * Removes a batch of statements from the index. Indexers that can remove many
+     * statements at once should override this; by default each statement is deleted
+     * individually.
+     *
+     * @param statements - The statements to remove. (not null)
+     * @throws IOException The statements could not be removed.
+     */
+    public default void deleteStatements(final Collection<RyaStatement> statements) throws IOException {
+        for (final RyaStatement statement : statements) {
+            deleteStatement(statement);
+        }
+    }
+
     public void dropGraph(RyaIRI... graphs);
 
     /**
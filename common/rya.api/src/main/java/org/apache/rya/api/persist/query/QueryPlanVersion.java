@@ -0,0 +1,89 @@
+package org.apache.rya.api.persist.query;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A process wide version of the state that query plans are optimized against, such
+ * as the PCJs that exist and the cardinality statistics. Code that creates or drops
+ * a PCJ increments the version. Plans that were cached under an older version are
+ * optimized again the next time they are used.
+ * <p>
+ * Statistics change with every batch of writes, so they only increment the version once
+ * {@link #STATISTICS_CHANGE_THRESHOLD} statements have been added or removed since the
+ * last time they did, and no more than once every {@link #STATISTICS_MIN_INTERVAL_MILLIS}.
+ * Smaller drifts are picked up when cached plans expire.
+ * <p>
+ * Changes made by other processes do not increment this version. Plans only pick
+ * those up once they expire.
+ */
+public final class QueryPlanVersion {
+
+    /**
+     * The number of added or removed statements that make the statistics worth optimizing plans against again.
+     */
+    public static final long STATISTICS_CHANGE_THRESHOLD = 100000;
+
+    /**
+     * The least time between two increments of the version that are caused by statistics.
+     */
+    public static final long STATISTICS_MIN_INTERVAL_MILLIS = 60000;
+
+    private static final AtomicLong VERSION = new AtomicLong();
+
+    private static final AtomicLong STATISTICS_CHANGES = new AtomicLong();
+    private static final AtomicLong LAST_STATISTICS_INCREMENT = new AtomicLong();
+
+    private QueryPlanVersion() { }
+
+    /**
+     * @return The current version.
+     */
+    public static long get() {
+        return VERSION.get();
+    }
+
+    /**
+     * Records that something query plans are optimized against has changed.
+     */
+    public static void increment() {
+        VERSION.incrementAndGet();
+    }
+
+    /**
+     * Records that statistics were written for a number of added or removed statements.
+     * The version is incremented once enough of them have accumulated.
+     *
+     * @param statements - The number of statements the written statistics account for.
+     */
+    public static void statisticsChanged(final long statements) {
+        if (STATISTICS_CHANGES.addAndGet(statements) < STATISTICS_CHANGE_THRESHOLD) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        final long last = LAST_STATISTICS_INCREMENT.get();
+        if (now - last < STATISTICS_MIN_INTERVAL_MILLIS || !LAST_STATISTICS_INCREMENT.compareAndSet(last, now)) {
+            return;
+        }
+        STATISTICS_CHANGES.set(0);
+        increment();
+    }
+}
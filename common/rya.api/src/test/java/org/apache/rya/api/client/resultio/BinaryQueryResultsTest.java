@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.api.client.resultio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
+import org.junit.Test;
+
+/**
+ * Tests the methods of {@link BinaryQueryResultsWriter} and {@link BinaryQueryResultsParser}.
+ */
+public class BinaryQueryResultsTest {
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+    @Test
+    public void roundTrip() throws Exception {
+        final List<String> bindingNames = Arrays.asList("person", "name", "age", "node");
+
+        final QueryBindingSet alice = new QueryBindingSet();
+        alice.addBinding("person", VF.createIRI("urn:alice"));
+        alice.addBinding("name", VF.createLiteral("Alice", "en"));
+        alice.addBinding("age", VF.createLiteral("42", XMLSchema.INTEGER));
+        alice.addBinding("node", VF.createBNode("b1"));
+
+        // Bob has no age, and repeats values that are already in the dictionary.
+        final QueryBindingSet bob = new QueryBindingSet();
+        bob.addBinding("person", VF.createIRI("urn:bob"));
+        bob.addBinding("name", VF.createLiteral("Bob é"));
+        bob.addBinding("node", VF.createBNode("b1"));
+
+        final QueryBindingSet aliceAgain = new QueryBindingSet(alice);
+
+        final List<BindingSet> expected = Arrays.asList(alice, bob, aliceAgain);
+        final List<BindingSet> results = roundTrip(bindingNames, expected);
+
+        assertEquals(expected, results);
+        assertEquals(3, results.get(1).size());
+    }
+
+    @Test
+    public void repeatedValuesAreEncodedOnce() throws Exception {
+        final List<String> bindingNames = Arrays.asList("s");
+        final QueryBindingSet bs = new QueryBindingSet();
+        bs.addBinding("s", VF.createIRI("urn:a-fairly-long-subject-iri-that-should-only-be-written-once"));
+
+        final ByteArrayOutputStream once = new ByteArrayOutputStream();
+        write(once, bindingNames, Arrays.asList(bs));
+        final ByteArrayOutputStream many = new ByteArrayOutputStream();
+        write(many, bindingNames, Arrays.asList(bs, bs, bs, bs));
+
+        // Each repeated row is the row marker plus a one byte dictionary code.
+        assertEquals(once.size() + 3 * 2, many.size());
+    }
+
+    @Test
+    public void dictionaryIsResetOnceFull() throws Exception {
+        final List<String> bindingNames = Arrays.asList("s", "o");
+
+        // Every row adds a new value, and every row repeats the first value.
+        final List<BindingSet> expected = new ArrayList<>();
+        for (int i = 0; i < BinaryQueryResults.MAX_DICTIONARY_SIZE + 10; i++) {
+            final QueryBindingSet bs = new QueryBindingSet();
+            bs.addBinding("s", VF.createIRI("urn:first"));
+            bs.addBinding("o", VF.createLiteral(i));
+            expected.add(bs);
+        }
+
+        assertEquals(expected, roundTrip(bindingNames, expected));
+    }
+
+    @Test
+    public void emptyResults() throws Exception {
+        final List<String> bindingNames = Arrays.asList("a", "b");
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out, bindingNames, new ArrayList<>());
+
+        try (final TupleQueryResult result = BinaryQueryResultsParser.parse(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(bindingNames, result.getBindingNames());
+            assertTrue(!result.hasNext());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void notBinaryResults() throws Exception {
+        BinaryQueryResultsParser.parse(new ByteArrayInputStream("<sparql/>".getBytes()));
+    }
+
+    private static List<BindingSet> roundTrip(final List<String> bindingNames, final List<BindingSet> bindingSets) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out, bindingNames, bindingSets);
+
+        final List<BindingSet> results = new ArrayList<>();
+        try (final TupleQueryResult result = BinaryQueryResultsParser.parse(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(bindingNames, result.getBindingNames());
+            while (result.hasNext()) {
+                results.add(result.next());
+            }
+        }
+        return results;
+    }
+
+    private static void write(final ByteArrayOutputStream out, final List<String> bindingNames, final List<BindingSet> bindingSets) throws Exception {
+        final BinaryQueryResultsWriter writer = new BinaryQueryResultsWriter(out);
+        writer.startQueryResult(bindingNames);
+        for (final BindingSet bindingSet : bindingSets) {
+            writer.handleSolution(bindingSet);
+        }
+        writer.endQueryResult();
+    }
+}
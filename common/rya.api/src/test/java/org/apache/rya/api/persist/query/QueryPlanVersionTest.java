@@ -0,0 +1,52 @@
+package org.apache.rya.api.persist.query;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests how statistics changes move the {@link QueryPlanVersion}.
+ */
+public class QueryPlanVersionTest {
+
+    @Test
+    public void statisticsChangesAreThrottled() {
+        final long start = QueryPlanVersion.get();
+
+        // Routine batches of writes leave the cached plans alone.
+        QueryPlanVersion.statisticsChanged(10);
+        QueryPlanVersion.statisticsChanged(QueryPlanVersion.STATISTICS_CHANGE_THRESHOLD / 2);
+        assertEquals(start, QueryPlanVersion.get());
+
+        // Enough of them make the plans stale.
+        QueryPlanVersion.statisticsChanged(QueryPlanVersion.STATISTICS_CHANGE_THRESHOLD / 2);
+        assertEquals(start + 1, QueryPlanVersion.get());
+
+        // But not again within the minimum interval.
+        QueryPlanVersion.statisticsChanged(QueryPlanVersion.STATISTICS_CHANGE_THRESHOLD);
+        assertEquals(start + 1, QueryPlanVersion.get());
+
+        // Other changes are never throttled.
+        QueryPlanVersion.increment();
+        assertEquals(start + 2, QueryPlanVersion.get());
+    }
+}
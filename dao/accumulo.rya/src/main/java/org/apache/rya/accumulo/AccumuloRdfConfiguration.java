@@ -18,19 +18,26 @@
  */
 package org.apache.rya.accumulo;
 
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 import org.apache.accumulo.core.client.Connector;
 import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
 import org.apache.rya.accumulo.experimental.AccumuloIndexer;
 import org.apache.rya.api.RdfCloudTripleStoreConfiguration;
+import org.apache.rya.api.RdfCloudTripleStoreConstants.TABLE_LAYOUT;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
@@ -45,10 +52,28 @@ public class AccumuloRdfConfiguration extends RdfCloudTripleStoreConfiguration {
 
     public static final String MAXRANGES_SCANNER = "ac.query.maxranges";
 
+    public static final String CONF_SCANNER_READ_AHEAD = "ac.query.readahead";
+
+    public static final String CONF_SCANNER_ORDERED = "ac.query.ordered";
+
+    public static final String CONF_SCANNER_READ_AHEAD_THREADS = "ac.query.readahead.threads";
+
     public static final String CONF_ADDITIONAL_INDEXERS = "ac.additional.indexers";
 
     public static final String CONF_FLUSH_EACH_UPDATE = "ac.dao.flush";
 
+    public static final String CONF_DELETE_BATCH_SIZE = "ac.dao.delete.batchsize";
+
+    public static final String CONF_ASYNC_INDEXING = "ac.dao.indexer.async";
+
+    public static final String CONF_INDEXER_BATCH_SIZE = "ac.dao.indexer.batchsize";
+
+    public static final String CONF_INDEXER_MAX_PENDING_BATCHES = "ac.dao.indexer.maxpending";
+
+    public static final String CONF_INCREMENTAL_STATS = "ac.dao.stats.incremental";
+
+    public static final String CONF_TABLE_SPLITS = "ac.dao.splits.%s";
+
     public static final String ITERATOR_SETTINGS_SIZE = "ac.iterators.size";
     public static final String ITERATOR_SETTINGS_BASE = "ac.iterators.%d.";
     public static final String ITERATOR_SETTINGS_NAME = ITERATOR_SETTINGS_BASE + "name";
@@ -310,6 +335,46 @@ public class AccumuloRdfConfiguration extends RdfCloudTripleStoreConfiguration {
         return getInt(MAXRANGES_SCANNER, 2);
     }
 
+    /**
+     * @param readAhead - How many of the per-range Scanners used for up to
+     *   {@link #getMaxRangesForScanner()} ranges are opened ahead of the one
+     *   being read. 0 reads them one after another.
+     */
+    public void setScannerReadAhead(final int readAhead) {
+        Preconditions.checkArgument(readAhead >= 0, "readAhead must not be negative");
+        setInt(CONF_SCANNER_READ_AHEAD, readAhead);
+    }
+
+    public int getScannerReadAhead() {
+        return getInt(CONF_SCANNER_READ_AHEAD, 4);
+    }
+
+    /**
+     * @param threads - How many threads a query engine uses to read Scanners
+     *   ahead, across all of its queries. When they are all busy, Scanners are
+     *   read by the query's own thread as it reaches them.
+     */
+    public void setScannerReadAheadThreads(final int threads) {
+        Preconditions.checkArgument(threads > 0, "threads must be greater than 0");
+        setInt(CONF_SCANNER_READ_AHEAD_THREADS, threads);
+    }
+
+    public int getScannerReadAheadThreads() {
+        return getInt(CONF_SCANNER_READ_AHEAD_THREADS, 16);
+    }
+
+    /**
+     * @param ordered - Whether the results of per-range Scanners that are read
+     *   ahead are returned in range order, or in the order they arrive.
+     */
+    public void setScannerOrdered(final boolean ordered) {
+        setBoolean(CONF_SCANNER_ORDERED, ordered);
+    }
+
+    public boolean isScannerOrdered() {
+        return getBoolean(CONF_SCANNER_ORDERED, true);
+    }
+
     public void setAdditionalIndexers(final Class<? extends AccumuloIndexer>... indexers) {
         final List<String> strs = Lists.newArrayList();
         for (final Class<? extends AccumuloIndexer> ai : indexers){
@@ -330,6 +395,107 @@ public class AccumuloRdfConfiguration extends RdfCloudTripleStoreConfiguration {
         setBoolean(CONF_FLUSH_EACH_UPDATE, flush);
     }
 
+    /**
+     * @return The number of statements {@link AccumuloRyaDAO#delete(java.util.Iterator, AccumuloRdfConfiguration)}
+     *   resolves with a single batch scan per table.
+     */
+    public int getDeleteBatchSize() {
+        return getInt(CONF_DELETE_BATCH_SIZE, 1000);
+    }
+
+    public void setDeleteBatchSize(final int batchSize) {
+        Preconditions.checkArgument(batchSize > 0, "The delete batch size must be positive.");
+        setInt(CONF_DELETE_BATCH_SIZE, batchSize);
+    }
+
+    /**
+     * @return {@code true} if {@link AccumuloRyaDAO} hands statements to its additional indexers
+     *   on background workers instead of indexing them on the calling thread.
+     */
+    public boolean isAsyncIndexing() {
+        return getBoolean(CONF_ASYNC_INDEXING, false);
+    }
+
+    public void setAsyncIndexing(final boolean async) {
+        setBoolean(CONF_ASYNC_INDEXING, async);
+    }
+
+    /**
+     * @return The number of statements grouped into a single {@code storeStatements} call
+     *   when indexing asynchronously.
+     */
+    public int getIndexerBatchSize() {
+        return getInt(CONF_INDEXER_BATCH_SIZE, 1000);
+    }
+
+    public void setIndexerBatchSize(final int batchSize) {
+        Preconditions.checkArgument(batchSize > 0, "The indexer batch size must be positive.");
+        setInt(CONF_INDEXER_BATCH_SIZE, batchSize);
+    }
+
+    /**
+     * @return The number of batches an asynchronous indexer may fall behind before ingest
+     *   blocks and waits for it to catch up.
+     */
+    public int getIndexerMaxPendingBatches() {
+        return getInt(CONF_INDEXER_MAX_PENDING_BATCHES, 4);
+    }
+
+    public void setIndexerMaxPendingBatches(final int maxPending) {
+        Preconditions.checkArgument(maxPending > 0, "The maximum number of pending indexer batches must be positive.");
+        setInt(CONF_INDEXER_MAX_PENDING_BATCHES, maxPending);
+    }
+
+    /**
+     * @return {@code true} if {@link AccumuloRyaDAO} keeps the eval table's
+     *   cardinalities up to date as statements are added and deleted.
+     */
+    public boolean isIncrementalStats() {
+        return getBoolean(CONF_INCREMENTAL_STATS, false);
+    }
+
+    /**
+     * @param incremental - Whether {@link AccumuloRyaDAO} writes count deltas to the
+     *   eval table on every add and delete. The deltas are summed by a combiner that
+     *   is attached when the DAO is initialized. A rerun of the batch count tool
+     *   replaces the counts it writes along with their deltas.
+     */
+    public void setIncrementalStats(final boolean incremental) {
+        setBoolean(CONF_INCREMENTAL_STATS, incremental);
+    }
+
+    /**
+     * Sets the split points a core table is given when {@link AccumuloRyaDAO} creates it.
+     *
+     * @param layout - The table the split points are for. (not null)
+     * @param splits - The split points. (not null)
+     */
+    public void setTableSplits(final TABLE_LAYOUT layout, final Collection<Text> splits) {
+        Preconditions.checkNotNull(layout);
+        Preconditions.checkNotNull(splits);
+        final List<String> encoded = new ArrayList<>();
+        for (final Text split : splits) {
+            encoded.add(Base64.getEncoder().encodeToString(split.copyBytes()));
+        }
+        setStrings(String.format(CONF_TABLE_SPLITS, layout.name().toLowerCase()), encoded.toArray(new String[encoded.size()]));
+    }
+
+    /**
+     * @param layout - The table whose split points will be fetched. (not null)
+     * @return The split points a core table is given when it is created. Empty if it is not pre-split.
+     */
+    public SortedSet<Text> getTableSplits(final TABLE_LAYOUT layout) {
+        Preconditions.checkNotNull(layout);
+        final SortedSet<Text> splits = new TreeSet<>();
+        final String[] encoded = getStrings(String.format(CONF_TABLE_SPLITS, layout.name().toLowerCase()));
+        if (encoded != null) {
+            for (final String split : encoded) {
+                splits.add(new Text(Base64.getDecoder().decode(split)));
+            }
+        }
+        return splits;
+    }
+
     public void setAdditionalIterators(final IteratorSetting... additionalIterators){
         //TODO do we need to worry about cleaning up
         this.set(ITERATOR_SETTINGS_SIZE, Integer.toString(additionalIterators.length));
@@ -31,17 +31,24 @@ import static org.apache.rya.api.RdfCloudTripleStoreConstants.VERSION_RYA;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
 import org.apache.accumulo.core.client.BatchDeleter;
+import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.BatchWriter;
 import org.apache.accumulo.core.client.BatchWriterConfig;
 import org.apache.accumulo.core.client.Connector;
@@ -59,16 +66,23 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.io.Text;
 import org.apache.rya.accumulo.experimental.AccumuloIndexer;
+import org.apache.rya.accumulo.experimental.AccumuloIndexerPipeline;
 import org.apache.rya.accumulo.query.AccumuloRyaQueryEngine;
 import org.apache.rya.api.RdfCloudTripleStoreConfiguration;
 import org.apache.rya.api.RdfCloudTripleStoreConstants.TABLE_LAYOUT;
-import org.apache.rya.api.domain.RyaStatement;
 import org.apache.rya.api.domain.RyaIRI;
+import org.apache.rya.api.domain.RyaRange;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.domain.RyaType;
 import org.apache.rya.api.layout.TableLayoutStrategy;
 import org.apache.rya.api.persist.RyaDAO;
 import org.apache.rya.api.persist.RyaDAOException;
 import org.apache.rya.api.persist.RyaNamespaceManager;
+import org.apache.rya.api.query.strategy.TriplePatternStrategy;
+import org.apache.rya.api.resolver.RyaContext;
 import org.apache.rya.api.resolver.RyaTripleContext;
+import org.apache.rya.api.resolver.RyaTypeResolverException;
+import org.apache.rya.api.resolver.triple.TripleRow;
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.model.Namespace;
 
@@ -78,6 +92,15 @@ import com.google.common.collect.Lists;
 public class AccumuloRyaDAO implements RyaDAO<AccumuloRdfConfiguration>, RyaNamespaceManager<AccumuloRdfConfiguration> {
     private static final Log logger = LogFactory.getLog(AccumuloRyaDAO.class);
 
+    // The number of eval table cells whose deltas are held before they are written.
+    private static final int MAX_STATS_DELTAS = 10000;
+
+    // The number of deleted statements that are handed to the secondary indexers at a time.
+    private static final int INDEXER_DELETE_BATCH_SIZE = 1000;
+
+    // The number of added statements that are looked up in the SPO table at a time.
+    private static final int STATS_LOOKUP_BATCH_SIZE = 1000;
+
     private final AtomicBoolean isInitialized = new AtomicBoolean();
     private final AtomicBoolean flushEachUpdate = new AtomicBoolean(true);
     private Connector connector;
@@ -91,8 +114,14 @@ public class AccumuloRyaDAO implements RyaDAO<AccumuloRdfConfiguration>, RyaName
     private BatchWriter bw_osp;
 
     private BatchWriter bw_ns;
+    // Only set when the eval table is maintained incrementally.
+    private BatchWriter bw_eval;
+    // The authorizations used to find out whether an added statement is already stored.
+    private Authorizations statsAuths;
 
     private List<AccumuloIndexer> secondaryIndexers;
+    // Only set when the additional indexers run in the background.
+    private AccumuloIndexerPipeline indexerPipeline;
 
     private AccumuloRdfConfiguration conf = new AccumuloRdfConfiguration();
     private RyaTableMutationsFactory ryaTableMutationsFactory;
@@ -130,9 +159,9 @@ public class AccumuloRyaDAO implements RyaDAO<AccumuloRdfConfiguration>, RyaName
             flushEachUpdate.set(conf.flushEachUpdate());
 
             final TableOperations tableOperations = connector.tableOperations();
-            AccumuloRdfUtils.createTableIfNotExist(tableOperations, tableLayoutStrategy.getSpo());
-            AccumuloRdfUtils.createTableIfNotExist(tableOperations, tableLayoutStrategy.getPo());
-            AccumuloRdfUtils.createTableIfNotExist(tableOperations, tableLayoutStrategy.getOsp());
+            createCoreTableIfNotExist(tableOperations, tableLayoutStrategy.getSpo(), TABLE_LAYOUT.SPO);
+            createCoreTableIfNotExist(tableOperations, tableLayoutStrategy.getPo(), TABLE_LAYOUT.PO);
+            createCoreTableIfNotExist(tableOperations, tableLayoutStrategy.getOsp(), TABLE_LAYOUT.OSP);
             AccumuloRdfUtils.createTableIfNotExist(tableOperations, tableLayoutStrategy.getNs());
 
             for (final AccumuloIndexer index : secondaryIndexers) {
@@ -148,12 +177,23 @@ public class AccumuloRyaDAO implements RyaDAO<AccumuloRdfConfiguration>, RyaName
 
             bw_ns = mt_bw.getBatchWriter(tableLayoutStrategy.getNs());
 
+            if (conf.isIncrementalStats()) {
+                AccumuloRdfUtils.createTableIfNotExist(tableOperations, tableLayoutStrategy.getEval());
+                EvalStatsDeltas.attachCombiner(connector, tableLayoutStrategy.getEval());
+                bw_eval = mt_bw.getBatchWriter(tableLayoutStrategy.getEval());
+                statsAuths = connector.securityOperations().getUserAuthorizations(connector.whoami());
+            }
+
             for (final AccumuloIndexer index : secondaryIndexers) {
                index.setConnector(connector);
                index.setMultiTableBatchWriter(mt_bw);
                index.init();
             }
 
+            if (conf.isAsyncIndexing() && !secondaryIndexers.isEmpty()) {
+                indexerPipeline = new AccumuloIndexerPipeline(secondaryIndexers, conf.getIndexerBatchSize(), conf.getIndexerMaxPendingBatches());
+            }
+
             queryEngine = new AccumuloRyaQueryEngine(connector, conf);
 
             checkVersion();
@@ -164,6 +204,21 @@ public class AccumuloRyaDAO implements RyaDAO<AccumuloRdfConfiguration>, RyaName
         }
     }
 
+    /**
+     * Creates a core table, pre-split with the split points configured for its layout.
+     * Tables that already exist are left as they are.
+     */
+    private void createCoreTableIfNotExist(final TableOperations tableOperations, final String tableName, final TABLE_LAYOUT layout) throws Exception {
+        if (!tableOperations.exists(tableName)) {
+            AccumuloRdfUtils.createTableIfNotExist(tableOperations, tableName);
+            final SortedSet<Text> splits = conf.getTableSplits(layout);
+            if (!splits.isEmpty()) {
+                logger.info("Adding " + splits.size() + " split points to accumulo table: " + tableName);
+                tableOperations.addSplits(tableName, splits);
+            }
+        }
+    }
+
     @Override
     public String getVersion() throws RyaDAOException {
         String version = null;
@@ -193,19 +248,27 @@ public class AccumuloRyaDAO implements RyaDAO<AccumuloRdfConfiguration>, RyaName
 
     @Override
     public void delete(final Iterator<RyaStatement> statements, final AccumuloRdfConfiguration conf) throws RyaDAOException {
+        final int batchSize = (conf != null ? conf : this.conf).getDeleteBatchSize();
         try {
+            // Statements still waiting to be indexed must be stored before they can be removed.
+            if (indexerPipeline != null) {
+                indexerPipeline.flush();
+            }
+            final EvalStatsDeltas statsDeltas = bw_eval != null ? new EvalStatsDeltas() : null;
+            final List<RyaStatement> batch = new ArrayList<>(batchSize);
             while (statements.hasNext()) {
-                final RyaStatement stmt = statements.next();
-                //query first
-                final CloseableIteration<RyaStatement, RyaDAOException> query = this.queryEngine.query(stmt, conf);
-                while (query.hasNext()) {
-                    deleteSingleRyaStatement(query.next());
-                }
-
-                for (final AccumuloIndexer index : secondaryIndexers) {
-                    index.deleteStatement(stmt);
+                batch.add(statements.next());
+                if (batch.size() == batchSize) {
+                    deleteBatch(batch, conf, statsDeltas);
+                    batch.clear();
                 }
             }
+            if (!batch.isEmpty()) {
+                deleteBatch(batch, conf, statsDeltas);
+            }
+            if (statsDeltas != null) {
+                statsDeltas.write(bw_eval);
+            }
             if (flushEachUpdate.get()) {
                 mt_bw.flush();
             }
@@ -214,6 +277,124 @@ public class AccumuloRyaDAO implements RyaDAO<AccumuloRdfConfiguration>, RyaName
         }
     }
 
+    /**
+     * Deletes every statement that matches one of a batch of patterns. Patterns that are
+     * answered by the same table and named graph are resolved with a single batch scan.
+     * A statement that matches several of the patterns is only deleted once, and the
+     * secondary indexers are handed the statements that were deleted rather than the patterns.
+     */
+    private void deleteBatch(final List<RyaStatement> patterns, final AccumuloRdfConfiguration conf, final EvalStatsDeltas statsDeltas) throws Exception {
+        final Map<List<Object>, List<RyaStatement>> scanGroups = new LinkedHashMap<>();
+        final DeletedStatements deleted = new DeletedStatements(patterns.size() > 1, statsDeltas);
+        for (final RyaStatement pattern : patterns) {
+            final TriplePatternStrategy strategy = ryaContext.retrieveStrategy(pattern);
+            if (strategy == null || pattern.getQualifer() != null || pattern.getObject() instanceof RyaRange) {
+                // Full table scans, qualifiers, and ranges are only handled by a single pattern query.
+                deleteMatches(queryEngine.query(pattern, conf), Collections.singletonList(pattern), deleted);
+            } else {
+                final List<Object> groupKey = Arrays.asList(strategy.getLayout(), pattern.getContext());
+                List<RyaStatement> group = scanGroups.get(groupKey);
+                if (group == null) {
+                    group = new ArrayList<>();
+                    scanGroups.put(groupKey, group);
+                }
+                group.add(pattern);
+            }
+        }
+
+        for (final List<RyaStatement> group : scanGroups.values()) {
+            if (group.size() == 1) {
+                deleteMatches(queryEngine.query(group.get(0), conf), group, deleted);
+            } else {
+                deleteMatches(queryEngine.batchQuery(group, conf), group, deleted);
+            }
+        }
+        deleted.flushIndexers();
+    }
+
+    private void deleteMatches(final CloseableIteration<RyaStatement, RyaDAOException> matches, final List<RyaStatement> patterns,
+            final DeletedStatements deleted) throws Exception {
+        try {
+            while (matches.hasNext()) {
+                final RyaStatement match = matches.next();
+                // A batch scan does not filter on the object's type, so it may return
+                // statements that none of the patterns match.
+                if (patterns.size() == 1 || matchesAny(patterns, match)) {
+                    deleted.delete(match);
+                }
+            }
+        } finally {
+            matches.close();
+        }
+    }
+
+    /**
+     * The statements that one batch of delete patterns has removed.
+     */
+    private class DeletedStatements {
+        // Null when the batch has a single pattern, which can not match a statement twice.
+        private final Set<RyaStatement> seen;
+        private final EvalStatsDeltas statsDeltas;
+        private List<RyaStatement> forIndexers = new ArrayList<>(INDEXER_DELETE_BATCH_SIZE);
+
+        DeletedStatements(final boolean deduplicate, final EvalStatsDeltas statsDeltas) {
+            this.seen = deduplicate ? new HashSet<>() : null;
+            this.statsDeltas = statsDeltas;
+        }
+
+        void delete(final RyaStatement stmt) throws Exception {
+            if (seen != null && !seen.add(stmt)) {
+                return;
+            }
+            deleteSingleRyaStatement(stmt);
+            if (statsDeltas != null) {
+                statsDeltas.deleted(stmt);
+            }
+            forIndexers.add(stmt);
+            if (forIndexers.size() == INDEXER_DELETE_BATCH_SIZE) {
+                flushIndexers();
+            }
+        }
+
+        void flushIndexers() throws IOException {
+            if (forIndexers.isEmpty()) {
+                return;
+            }
+            for (final AccumuloIndexer index : secondaryIndexers) {
+                index.deleteStatements(forIndexers);
+            }
+            // The indexers may hold on to the batch, so it is not reused.
+            forIndexers = new ArrayList<>(INDEXER_DELETE_BATCH_SIZE);
+        }
+    }
+
+    private static boolean matchesAny(final List<RyaStatement> patterns, final RyaStatement stmt) throws RyaTypeResolverException {
+        for (final RyaStatement pattern : patterns) {
+            if (sameValue(pattern.getSubject(), stmt.getSubject()) &&
+                    sameValue(pattern.getPredicate(), stmt.getPredicate()) &&
+                    sameValue(pattern.getObject(), stmt.getObject()) &&
+                    sameValue(pattern.getContext(), stmt.getContext())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compares a pattern position with a scanned value by their serialized form, since
+     * typed literals such as doubles and dates are normalized when they are written.
+     */
+    private static boolean sameValue(final RyaType pattern, final RyaType value) throws RyaTypeResolverException {
+        if (pattern == null) {
+            return true;
+        }
+        if (value == null) {
+            return false;
+        }
+        final RyaContext typeContext = RyaContext.getInstance();
+        return Arrays.deepEquals(typeContext.serializeType(pattern), typeContext.serializeType(value));
+    }
+
     @Override
     public void dropGraph(final AccumuloRdfConfiguration conf, final RyaIRI... graphs) throws RyaDAOException {
         BatchDeleter bd_spo = null;
@@ -270,23 +451,23 @@ public class AccumuloRyaDAO implements RyaDAO<AccumuloRdfConfiguration>, RyaName
     protected void commit(final Iterator<RyaStatement> commitStatements) throws RyaDAOException {
         try {
             //TODO: Should have a lock here in case we are adding and committing at the same time
+            final AddedStatements added = bw_eval != null ? new AddedStatements() : null;
             while (commitStatements.hasNext()) {
                 final RyaStatement stmt = commitStatements.next();
-
-                final Map<TABLE_LAYOUT, Collection<Mutation>> mutationMap = ryaTableMutationsFactory.serialize(stmt);
-                final Collection<Mutation> spo = mutationMap.get(TABLE_LAYOUT.SPO);
-                final Collection<Mutation> po = mutationMap.get(TABLE_LAYOUT.PO);
-                final Collection<Mutation> osp = mutationMap.get(TABLE_LAYOUT.OSP);
-                bw_spo.addMutations(spo);
-                bw_po.addMutations(po);
-                bw_osp.addMutations(osp);
-
-                for (final AccumuloIndexer index : secondaryIndexers) {
-                    index.storeStatement(stmt);
+                if (added != null) {
+                    added.add(stmt);
+                } else {
+                    store(stmt);
                 }
             }
+            if (added != null) {
+                added.flush();
+            }
 
             if (flushEachUpdate.get()) {
+                if (indexerPipeline != null) {
+                    indexerPipeline.flush();
+                }
                 mt_bw.flush();
             }
         } catch (final Exception e) {
@@ -294,6 +475,84 @@ public class AccumuloRyaDAO implements RyaDAO<AccumuloRdfConfiguration>, RyaName
         }
     }
 
+    private void store(final RyaStatement stmt) throws Exception {
+        final Map<TABLE_LAYOUT, Collection<Mutation>> mutationMap = ryaTableMutationsFactory.serialize(stmt);
+        final Collection<Mutation> spo = mutationMap.get(TABLE_LAYOUT.SPO);
+        final Collection<Mutation> po = mutationMap.get(TABLE_LAYOUT.PO);
+        final Collection<Mutation> osp = mutationMap.get(TABLE_LAYOUT.OSP);
+        bw_spo.addMutations(spo);
+        bw_po.addMutations(po);
+        bw_osp.addMutations(osp);
+
+        if (indexerPipeline != null) {
+            indexerPipeline.add(stmt);
+        } else {
+            for (final AccumuloIndexer index : secondaryIndexers) {
+                index.storeStatement(stmt);
+            }
+        }
+    }
+
+    /**
+     * The statements that one commit adds while the eval table is maintained incrementally.
+     * They are held until it is known which of them are already in the SPO table, so that
+     * only statements that were not stored yet are counted.
+     */
+    private class AddedStatements {
+        private final EvalStatsDeltas statsDeltas = new EvalStatsDeltas();
+        private final List<RyaStatement> pending = new ArrayList<>(STATS_LOOKUP_BATCH_SIZE);
+
+        void add(final RyaStatement stmt) throws Exception {
+            pending.add(stmt);
+            if (pending.size() == STATS_LOOKUP_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() throws Exception {
+            if (!pending.isEmpty()) {
+                final List<Range> spoRows = new ArrayList<>(pending.size());
+                for (final RyaStatement stmt : pending) {
+                    final TripleRow spo = ryaContext.serializeTriple(stmt).get(TABLE_LAYOUT.SPO);
+                    spoRows.add(Range.exact(new Text(spo.getRow()), new Text(spo.getColumnFamily())));
+                }
+
+                // Holds the rows that are already stored, and those added earlier in the batch.
+                final Set<Range> stored = findStored(spoRows);
+                for (int i = 0; i < pending.size(); i++) {
+                    final RyaStatement stmt = pending.get(i);
+                    store(stmt);
+                    if (stored.add(spoRows.get(i))) {
+                        statsDeltas.added(stmt);
+                        if (statsDeltas.size() >= MAX_STATS_DELTAS) {
+                            statsDeltas.write(bw_eval);
+                        }
+                    }
+                }
+                pending.clear();
+            }
+            statsDeltas.write(bw_eval);
+        }
+
+        private Set<Range> findStored(final List<Range> spoRows) throws Exception {
+            // Statements added by earlier commits may still be held by the batch writer.
+            mt_bw.flush();
+
+            final Set<Range> stored = new HashSet<>();
+            final BatchScanner scanner = connector.createBatchScanner(tableLayoutStrategy.getSpo(), statsAuths, NUM_THREADS);
+            try {
+                scanner.setRanges(spoRows);
+                for (final Map.Entry<Key, Value> entry : scanner) {
+                    final Key key = entry.getKey();
+                    stored.add(Range.exact(key.getRow(), key.getColumnFamily()));
+                }
+            } finally {
+                scanner.close();
+            }
+            return stored;
+        }
+    }
+
     @Override
     public void destroy() throws RyaDAOException {
         if (!isInitialized.get()) {
@@ -302,9 +561,14 @@ public class AccumuloRyaDAO implements RyaDAO<AccumuloRdfConfiguration>, RyaName
         //TODO: write lock
         try {
             isInitialized.set(false);
+            if (indexerPipeline != null) {
+                indexerPipeline.close();
+                indexerPipeline = null;
+            }
             mt_bw.flush();
 
             mt_bw.close();
+            queryEngine.close();
         } catch (final Exception e) {
             throw new RyaDAOException(e);
         }
@@ -481,9 +745,12 @@ public class AccumuloRyaDAO implements RyaDAO<AccumuloRdfConfiguration>, RyaName
     @Override
     public void flush() throws RyaDAOException {
         try {
+            if (indexerPipeline != null) {
+                indexerPipeline.flush();
+            }
             mt_bw.flush();
             flushIndexers();
-        } catch (final MutationsRejectedException e) {
+        } catch (final MutationsRejectedException | IOException e) {
             throw new RyaDAOException(e);
         }
     }
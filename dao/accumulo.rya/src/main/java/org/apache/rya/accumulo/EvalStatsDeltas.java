@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.accumulo;
+
+import static org.apache.rya.accumulo.AccumuloRdfConstants.EMPTY_CV;
+import static org.apache.rya.api.RdfCloudTripleStoreConstants.DELIM;
+import static org.apache.rya.api.RdfCloudTripleStoreConstants.EMPTY_TEXT;
+import static org.apache.rya.api.RdfCloudTripleStoreConstants.PREDOBJECT_CF_TXT;
+import static org.apache.rya.api.RdfCloudTripleStoreConstants.PRED_CF_TXT;
+import static org.apache.rya.api.RdfCloudTripleStoreConstants.SUBJECTOBJECT_CF_TXT;
+import static org.apache.rya.api.RdfCloudTripleStoreConstants.SUBJECTPRED_CF_TXT;
+import static org.apache.rya.api.RdfCloudTripleStoreConstants.SUBJECT_CF_TXT;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.BatchWriterConfig;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.client.MutationsRejectedException;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.client.admin.TableOperations;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.Combiner;
+import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
+import org.apache.accumulo.core.iterators.LongCombiner;
+import org.apache.accumulo.core.iterators.user.SummingCombiner;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.hadoop.io.Text;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.persist.query.QueryPlanVersion;
+
+/**
+ * Collects the changes that a batch of added or deleted statements makes to the
+ * cardinalities stored in the eval table, so that the statistics read by
+ * {@link AccumuloRdfEvalStatsDAO} stay current without rerunning the count tool.
+ * <p>
+ * Each cardinality is written as a signed delta in the same row, column family, and
+ * column qualifier layout the count tool uses. A {@link SummingCombiner} attached to
+ * the eval table with {@link #attachCombiner(Connector, String)} folds the
+ * deltas, and any count written by an earlier batch run, into a single value.
+ * <p>
+ * The caller decides which statements change the counts. {@link AccumuloRyaDAO} only
+ * counts an added statement when its SPO row and context are not already stored, and only
+ * counts a deleted statement once even when several delete patterns match it.
+ * <p>
+ * This class is not thread safe. Use one instance per batch of updates.
+ */
+public class EvalStatsDeltas {
+
+    /**
+     * The name of the iterator that sums the eval table's deltas.
+     */
+    public static final String COMBINER_NAME = "evalStatsSum";
+
+    /**
+     * Runs ahead of the table's default versioning iterator so that every delta is summed.
+     */
+    public static final int COMBINER_PRIORITY = 10;
+
+    private final Map<Cell, Long> deltas = new HashMap<>();
+
+    // The number of statements the collected changes account for.
+    private long statements = 0;
+
+    /**
+     * Counts a statement that was added to the store.
+     *
+     * @param stmt - The statement that was added. (not null)
+     */
+    public void added(final RyaStatement stmt) {
+        update(stmt, 1L);
+    }
+
+    /**
+     * Counts a statement that was removed from the store.
+     *
+     * @param stmt - The statement that was removed. (not null)
+     */
+    public void deleted(final RyaStatement stmt) {
+        update(stmt, -1L);
+    }
+
+    private void update(final RyaStatement stmt, final long delta) {
+        statements++;
+        final String subj = stmt.getSubject().getData();
+        final String pred = stmt.getPredicate().getData();
+        final String obj = stmt.getObject().getData();
+        final Text context = stmt.getContext() == null ? EMPTY_TEXT : new Text(stmt.getContext().getData());
+
+        add(new Cell(subj, SUBJECT_CF_TXT, context), delta);
+        add(new Cell(pred, PRED_CF_TXT, context), delta);
+        add(new Cell(subj + DELIM + pred, SUBJECTPRED_CF_TXT, context), delta);
+        add(new Cell(subj + DELIM + obj, SUBJECTOBJECT_CF_TXT, context), delta);
+        add(new Cell(pred + DELIM + obj, PREDOBJECT_CF_TXT, context), delta);
+    }
+
+    private void add(final Cell cell, final long delta) {
+        final Long current = deltas.get(cell);
+        deltas.put(cell, current == null ? delta : current + delta);
+    }
+
+    /**
+     * @return The number of eval table cells that have collected changes.
+     */
+    public int size() {
+        return deltas.size();
+    }
+
+    /**
+     * @return {@code true} if no changes have been collected since the last write.
+     */
+    public boolean isEmpty() {
+        return deltas.isEmpty();
+    }
+
+    /**
+     * Writes the collected changes to the eval table and clears them. Changes that
+     * cancel out within the batch are not written. The written changes are reported to
+     * {@link QueryPlanVersion#statisticsChanged(long)}, which only has cached query plans
+     * optimized again once enough of them have accumulated.
+     *
+     * @param writer - A writer for the eval table. (not null)
+     * @throws MutationsRejectedException The mutations could not be written.
+     */
+    public void write(final BatchWriter writer) throws MutationsRejectedException {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        for (final Map.Entry<Cell, Long> entry : deltas.entrySet()) {
+            final long delta = entry.getValue();
+            if (delta == 0) {
+                continue;
+            }
+            final Cell cell = entry.getKey();
+            final Mutation m = new Mutation(new Text(cell.row.getBytes(StandardCharsets.UTF_8)));
+            m.put(cell.columnFamily, cell.columnQualifier, EMPTY_CV,
+                    new Value(Long.toString(delta).getBytes(StandardCharsets.UTF_8)));
+            writer.addMutation(m);
+        }
+        deltas.clear();
+        QueryPlanVersion.statisticsChanged(statements);
+        statements = 0;
+    }
+
+    /**
+     * Attaches the {@link SummingCombiner} that folds the deltas to the eval table
+     * for every scope. Nothing is changed if the combiner is already attached.
+     * <p>
+     * The table's versioning iterator only shows the newest count of a cell, but the
+     * combiner sums every version that has not been compacted away. So before the
+     * combiner is attached, each cell's older versions are deleted and its newest
+     * count is written again as the one value the deltas are added to.
+     *
+     * @param connector - Used to rewrite and configure the table. (not null)
+     * @param evalTable - The name of the eval table. (not null)
+     */
+    public static void attachCombiner(final Connector connector, final String evalTable)
+            throws AccumuloException, AccumuloSecurityException, TableNotFoundException {
+        final TableOperations tableOperations = connector.tableOperations();
+        if (tableOperations.listIterators(evalTable).containsKey(COMBINER_NAME)) {
+            return;
+        }
+        collapseVersions(connector, evalTable);
+        final IteratorSetting setting = new IteratorSetting(COMBINER_PRIORITY, COMBINER_NAME, SummingCombiner.class);
+        // The count tool and AccumuloRdfEvalStatsDAO both use decimal strings.
+        LongCombiner.setEncodingType(setting, LongCombiner.Type.STRING);
+        Combiner.setCombineAllColumns(setting, true);
+        tableOperations.attachIterator(evalTable, setting, EnumSet.allOf(IteratorScope.class));
+    }
+
+    /**
+     * Replaces every version of each eval table cell with a single copy of its newest value.
+     */
+    private static void collapseVersions(final Connector connector, final String evalTable)
+            throws AccumuloException, AccumuloSecurityException, TableNotFoundException {
+        final Scanner scanner = connector.createScanner(evalTable,
+                connector.securityOperations().getUserAuthorizations(connector.whoami()));
+        final BatchWriter writer = connector.createBatchWriter(evalTable, new BatchWriterConfig());
+        try {
+            for (final Map.Entry<Key, Value> entry : scanner) {
+                final Key key = entry.getKey();
+                final ColumnVisibility cv = new ColumnVisibility(key.getColumnVisibility());
+                // The delete hides every version up to the newest; the copy is written just after it.
+                final Mutation m = new Mutation(key.getRow());
+                m.putDelete(key.getColumnFamily(), key.getColumnQualifier(), cv, key.getTimestamp());
+                m.put(key.getColumnFamily(), key.getColumnQualifier(), cv, key.getTimestamp() + 1, entry.getValue());
+                writer.addMutation(m);
+            }
+        } finally {
+            scanner.close();
+            writer.close();
+        }
+    }
+
+    /**
+     * The eval table cell a delta is written to.
+     */
+    private static final class Cell {
+        private final String row;
+        private final Text columnFamily;
+        private final Text columnQualifier;
+
+        Cell(final String row, final Text columnFamily, final Text columnQualifier) {
+            this.row = row;
+            this.columnFamily = columnFamily;
+            this.columnQualifier = columnQualifier;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Cell)) {
+                return false;
+            }
+            final Cell other = (Cell) o;
+            return row.equals(other.row) && columnFamily.equals(other.columnFamily) && columnQualifier.equals(other.columnQualifier);
+        }
+
+        @Override
+        public int hashCode() {
+            return (row.hashCode() * 31 + columnFamily.hashCode()) * 31 + columnQualifier.hashCode();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.accumulo.experimental;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.rya.api.domain.RyaStatement;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Fans statements out to a set of {@link AccumuloIndexer}s in the background.
+ * <p>
+ * Statements are grouped into batches on the calling thread. Each full batch is
+ * handed to every indexer's {@link AccumuloIndexer#storeStatements(Collection)}.
+ * Every indexer has its own single worker thread, so indexers run in parallel
+ * with each other and with the caller, while each indexer still sees its
+ * statements in order from one thread. An indexer may fall at most
+ * {@code maxPendingBatches} batches behind before {@link #add(RyaStatement)} blocks.
+ * <p>
+ * A failure within a stage is reported by the next call to {@link #add(RyaStatement)}
+ * or {@link #flush()}.
+ * <p>
+ * This class is thread safe. {@link org.apache.rya.accumulo.AccumuloRyaDAO} shares one
+ * pipeline between every thread that commits or flushes through it, so
+ * {@link #add(RyaStatement)}, {@link #flush()}, and {@link #close()} are serialized on
+ * the pipeline. A flush waits for every statement that any producer queued before it. The worker threads write
+ * through the DAO's {@link org.apache.accumulo.core.client.MultiTableBatchWriter},
+ * whose writers are safe to use from several threads.
+ */
+public class AccumuloIndexerPipeline implements Flushable, Closeable {
+    private static final Log logger = LogFactory.getLog(AccumuloIndexerPipeline.class);
+
+    private final int batchSize;
+    private final List<Stage> stages = new ArrayList<>();
+    private List<RyaStatement> batch;
+
+    /**
+     * Constructs an instance of {@link AccumuloIndexerPipeline}.
+     *
+     * @param indexers - The initialized indexers that will receive the statements. (not null)
+     * @param batchSize - The number of statements handed to an indexer at a time. (&gt; 0)
+     * @param maxPendingBatches - The number of batches an indexer may fall behind. (&gt; 0)
+     */
+    public AccumuloIndexerPipeline(final List<AccumuloIndexer> indexers, final int batchSize, final int maxPendingBatches) {
+        checkNotNull(indexers);
+        checkArgument(batchSize > 0, "The batch size must be positive.");
+        checkArgument(maxPendingBatches > 0, "The maximum number of pending batches must be positive.");
+        this.batchSize = batchSize;
+        for (final AccumuloIndexer indexer : indexers) {
+            stages.add(new Stage(indexer, maxPendingBatches));
+        }
+        batch = new ArrayList<>(batchSize);
+    }
+
+    /**
+     * Queues a statement to be indexed. Blocks if an indexer has fallen too far behind.
+     *
+     * @param statement - The statement to index. (not null)
+     * @throws IOException A previously queued batch could not be indexed.
+     */
+    public synchronized void add(final RyaStatement statement) throws IOException {
+        checkNotNull(statement);
+        batch.add(statement);
+        if (batch.size() >= batchSize) {
+            dispatch();
+        }
+    }
+
+    /**
+     * Hands any partially filled batch to the indexers and waits until every
+     * indexer has stored every statement queued so far.
+     *
+     * @throws IOException A queued batch could not be indexed.
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        if (!batch.isEmpty()) {
+            dispatch();
+        }
+        for (final Stage stage : stages) {
+            stage.await();
+        }
+        for (final Stage stage : stages) {
+            stage.checkFailure();
+        }
+    }
+
+    /**
+     * Flushes the pipeline and stops its worker threads. The indexers themselves are not closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            for (final Stage stage : stages) {
+                stage.executor.shutdownNow();
+            }
+        }
+    }
+
+    private void dispatch() throws IOException {
+        final Collection<RyaStatement> statements = Collections.unmodifiableList(batch);
+        batch = new ArrayList<>(batchSize);
+        for (final Stage stage : stages) {
+            stage.submit(statements);
+        }
+    }
+
+    /**
+     * A single indexer's worker along with the permits that bound how far behind it may fall.
+     */
+    private static class Stage {
+        private final AccumuloIndexer indexer;
+        private final int maxPendingBatches;
+        private final Semaphore pending;
+        private final ExecutorService executor;
+        private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+        public Stage(final AccumuloIndexer indexer, final int maxPendingBatches) {
+            this.indexer = indexer;
+            this.maxPendingBatches = maxPendingBatches;
+            pending = new Semaphore(maxPendingBatches);
+            executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                    .setNameFormat("Rya Indexer " + indexer.getClass().getSimpleName() + " - %d")
+                    .setDaemon(true)
+                    .build());
+        }
+
+        public void submit(final Collection<RyaStatement> statements) throws IOException {
+            checkFailure();
+            acquire(1);
+            try {
+                executor.execute(() -> {
+                    try {
+                        indexer.storeStatements(statements);
+                    } catch (final Exception e) {
+                        logger.error("Error indexing statements in indexer: " + indexer.getClass().getSimpleName(), e);
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        pending.release();
+                    }
+                });
+            } catch (final RuntimeException e) {
+                pending.release();
+                throw new IOException("Could not queue statements for indexer: " + indexer.getClass().getSimpleName(), e);
+            }
+        }
+
+        /**
+         * Waits for every batch submitted to this stage to complete.
+         */
+        public void await() throws IOException {
+            acquire(maxPendingBatches);
+            pending.release(maxPendingBatches);
+        }
+
+        public void checkFailure() throws IOException {
+            final Exception e = failure.getAndSet(null);
+            if (e != null) {
+                throw new IOException("Indexer " + indexer.getClass().getSimpleName() + " failed to store statements.", e);
+            }
+        }
+
+        private void acquire(final int permits) throws IOException {
+            try {
+                pending.acquire(permits);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting on indexer: " + indexer.getClass().getSimpleName());
+            }
+        }
+    }
+}
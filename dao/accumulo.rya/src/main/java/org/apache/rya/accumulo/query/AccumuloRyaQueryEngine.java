@@ -26,7 +26,12 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.Connector;
@@ -60,16 +65,16 @@ import org.apache.rya.api.resolver.RyaContext;
 import org.apache.rya.api.resolver.RyaTripleContext;
 import org.apache.rya.api.resolver.triple.TripleRowRegex;
 import org.apache.rya.api.utils.CloseableIterableIteration;
+import org.calrissian.mango.collect.AbstractCloseableIterable;
 import org.calrissian.mango.collect.CloseableIterable;
-import org.calrissian.mango.collect.CloseableIterables;
 import org.calrissian.mango.collect.FluentCloseableIterable;
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.query.BindingSet;
 
-import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.FluentIterable;
 import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * Date: 7/17/12 Time: 9:28 AM
@@ -80,6 +85,7 @@ public class AccumuloRyaQueryEngine implements RyaQueryEngine<AccumuloRdfConfigu
     private Connector connector;
     private RyaTripleContext ryaContext;
     private final Map<TABLE_LAYOUT, KeyValueToRyaStatementFunction> keyValueToRyaStatementFunctionMap = new HashMap<TABLE_LAYOUT, KeyValueToRyaStatementFunction>();
+    private ExecutorService readAheadExecutor;
 
     public AccumuloRyaQueryEngine(Connector connector) {
         this(connector, new AccumuloRdfConfiguration());
@@ -211,17 +217,14 @@ public class AccumuloRyaQueryEngine implements RyaQueryEngine<AccumuloRdfConfigu
                 fillScanner(scanner, columnFamily, null, ttl, null, tripleRowRegex, conf);
                 iterator = new RyaStatementBindingSetKeyValueIterator(layout, ryaContext, scanner, rangeMap);
             } else {
-                Scanner scannerBase = null;
-                Iterator<Map.Entry<Key, Value>>[] iters = new Iterator[ranges.size()];
-                int i = 0;
+                List<Scanner> scanners = Lists.newArrayListWithCapacity(ranges.size());
                 for (Range range : ranges) {
-                    scannerBase = connector.createScanner(table, authorizations);
+                    Scanner scannerBase = connector.createScanner(table, authorizations);
                     scannerBase.setRange(range);
                     fillScanner(scannerBase, columnFamily, null, ttl, null, tripleRowRegex, conf);
-                    iters[i] = scannerBase.iterator();
-                    i++;
+                    scanners.add(scannerBase);
                 }
-                iterator = new RyaStatementBindingSetKeyValueIterator(layout, Iterators.concat(iters), rangeMap, ryaContext);
+                iterator = new RyaStatementBindingSetKeyValueIterator(layout, scan(scanners, conf), rangeMap, ryaContext);
             }
             if (maxResults != null) {
                 iterator.setMaxResults(maxResults);
@@ -382,24 +385,33 @@ public class AccumuloRyaQueryEngine implements RyaQueryEngine<AccumuloRdfConfigu
                 results = FluentCloseableIterable.from(new ScannerBaseCloseableIterable(scanner))
                         .transform(keyValueToRyaStatementFunctionMap.get(layout));
             } else {
-                final RyaIRI fcontext = context;
+                final List<Scanner> scanners = Lists.newArrayListWithCapacity(ranges.size());
+                for (Range range : ranges) {
+                    Scanner scanner = connector.createScanner(table, authorizations);
+                    scanner.setRange(range);
+                    fillScanner(scanner, context, null, ttl, null, tripleRowRegex, ryaQuery.getConf());
+                    scanners.add(scanner);
+                }
                 final RdfCloudTripleStoreConfiguration fconf = ryaQuery.getConf();
-                FluentIterable<RyaStatement> fluent = FluentIterable.from(ranges)
-                        .transformAndConcat(new Function<Range, Iterable<Map.Entry<Key, Value>>>() {
-                            @Override
-                            public Iterable<Map.Entry<Key, Value>> apply(Range range) {
-                                try {
-                                    Scanner scanner = connector.createScanner(table, authorizations);
-                                    scanner.setRange(range);
-                                    fillScanner(scanner, fcontext, null, ttl, null, tripleRowRegex, fconf);
-                                    return scanner;
-                                } catch (Exception e) {
-                                    throw new RuntimeException(e);
-                                }
+                results = FluentCloseableIterable.from(new AbstractCloseableIterable<Map.Entry<Key, Value>>() {
+                    private final List<Iterator<Map.Entry<Key, Value>>> iterators = Lists.newArrayList();
+
+                    @Override
+                    protected void doClose() throws IOException {
+                        for (Iterator<Map.Entry<Key, Value>> iterator : iterators) {
+                            if (iterator instanceof ReadAheadScannerIterator) {
+                                ((ReadAheadScannerIterator) iterator).close();
                             }
-                        }).transform(keyValueToRyaStatementFunctionMap.get(layout));
-
-                results = FluentCloseableIterable.from(CloseableIterables.wrap(fluent));
+                        }
+                    }
+
+                    @Override
+                    protected Iterator<Map.Entry<Key, Value>> retrieveIterator() {
+                        Iterator<Map.Entry<Key, Value>> iterator = scan(scanners, fconf);
+                        iterators.add(iterator);
+                        return iterator;
+                    }
+                }).transform(keyValueToRyaStatementFunctionMap.get(layout));
             }
             if (maxResults != null) {
                 results = results.limit(maxResults.intValue());
@@ -410,6 +422,38 @@ public class AccumuloRyaQueryEngine implements RyaQueryEngine<AccumuloRdfConfigu
         }
     }
 
+    /**
+     * Reads the results of per-range Scanners one after another, opening the
+     * next {@link AccumuloRdfConfiguration#getScannerReadAhead()} Scanners
+     * while the current one is read.
+     */
+    private Iterator<Map.Entry<Key, Value>> scan(List<Scanner> scanners, RdfCloudTripleStoreConfiguration conf) {
+        AccumuloRdfConfiguration accumuloConf = conf instanceof AccumuloRdfConfiguration ? (AccumuloRdfConfiguration) conf : configuration;
+        int readAhead = Math.min(accumuloConf.getScannerReadAhead(), scanners.size() - 1);
+        if (readAhead <= 0) {
+            List<Iterator<Map.Entry<Key, Value>>> iters = Lists.newArrayListWithCapacity(scanners.size());
+            for (Scanner scanner : scanners) {
+                iters.add(scanner.iterator());
+            }
+            return Iterators.concat(iters.iterator());
+        }
+        return new ReadAheadScannerIterator(scanners, getReadAheadExecutor(), readAhead, accumuloConf.isScannerOrdered());
+    }
+
+    private synchronized ExecutorService getReadAheadExecutor() {
+        if (readAheadExecutor == null) {
+            // Fetches beyond the thread limit are rejected rather than queued,
+            // and ReadAheadScannerIterator then reads those Scanners itself.
+            readAheadExecutor = new ThreadPoolExecutor(0, configuration.getScannerReadAheadThreads(),
+                    60L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+                    new ThreadFactoryBuilder()
+                    .setNameFormat("Rya Scanner Read Ahead - %d")
+                    .setDaemon(true)
+                    .build());
+        }
+        return readAheadExecutor;
+    }
+
     protected void fillScanner(ScannerBase scanner, RyaIRI context, String qualifier, Long ttl, Long currentTime,
             TripleRowRegex tripleRowRegex, RdfCloudTripleStoreConfiguration conf) throws IOException {
         if (context != null && qualifier != null) {
@@ -456,6 +500,10 @@ public class AccumuloRyaQueryEngine implements RyaQueryEngine<AccumuloRdfConfigu
     }
 
     @Override
-    public void close() throws IOException {
+    public synchronized void close() throws IOException {
+        if (readAheadExecutor != null) {
+            readAheadExecutor.shutdownNow();
+            readAheadExecutor = null;
+        }
     }
 }
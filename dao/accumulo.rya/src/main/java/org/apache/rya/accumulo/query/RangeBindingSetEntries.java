@@ -18,68 +18,161 @@
  */
 package org.apache.rya.accumulo.query;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.hadoop.io.Text;
-import org.apache.hadoop.io.WritableComparator;
 import org.eclipse.rdf4j.query.BindingSet;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimap;
-
 /**
  * Class RangeBindingSetCollection Date: Feb 23, 2011 Time: 10:15:48 AM
+ * <p>
+ * Maps the Ranges of a batched query to the BindingSets that produced them,
+ * so that scanned Keys can be joined back to their BindingSets. The Ranges
+ * are indexed as a sorted array of non-overlapping segments, bounded by every
+ * start and end Key, that each list the Ranges overlapping them. Looking up
+ * a Key is a binary search for its segment followed by a check of the few
+ * Ranges in it. The index is rebuilt on the first lookup after a put.
  */
 public class RangeBindingSetEntries {
-    private Multimap<Range, BindingSet> ranges = HashMultimap.create();
+    /**
+     * Lower bound used for Ranges without a start Key. Scanned Keys are never
+     * delete markers, so nothing a scanner returns sorts before it.
+     */
+    private static final Key MIN_KEY = new Key();
+
+    private final Map<Range, Set<BindingSet>> ranges = new HashMap<>();
+
+    private Key[] segmentStarts;
+    private RangeEntry[][] segments;
 
     public RangeBindingSetEntries() {
-        ranges = HashMultimap.create();
     }
 
     public void put(Range range, BindingSet bs) {
-        ranges.put(range, bs);
+        Set<BindingSet> bindingSets = ranges.get(range);
+        if (bindingSets == null) {
+            bindingSets = new HashSet<>();
+            ranges.put(range, bindingSets);
+        }
+        bindingSets.add(bs);
+        segments = null;
     }
 
+    /**
+     * @param key - Key returned by the scanner.
+     * @return the BindingSets of every Range that contains the Key. The result
+     *         must not be modified; it is shared when a single Range matches.
+     */
     public Collection<BindingSet> containsKey(Key key) {
-        Set<BindingSet> bsSet = new HashSet<>();
+        if (segments == null) {
+            buildIndex();
+        }
+        int segment = Arrays.binarySearch(segmentStarts, key);
+        if (segment < 0) {
+            segment = -segment - 2;
+            if (segment < 0) {
+                return Collections.emptySet();
+            }
+        }
+
+        Set<BindingSet> matched = null;
+        boolean shared = true;
+        for (RangeEntry entry : segments[segment]) {
+            if (entry.contains(key)) {
+                if (matched == null) {
+                    matched = entry.bindingSets;
+                } else {
+                    if (shared) {
+                        matched = new HashSet<>(matched);
+                        shared = false;
+                    }
+                    matched.addAll(entry.bindingSets);
+                }
+            }
+        }
+        return matched == null ? Collections.<BindingSet>emptySet() : matched;
+    }
+
+    private void buildIndex() {
+        TreeSet<Key> boundaries = new TreeSet<>();
         for (Range range : ranges.keySet()) {
-            // Check to see if the Key falls within Range and has same ColumnFamily
-            // as beginning and ending key of Range.
-            // The additional ColumnFamily check by the method
-            // validateContext(...) is necessary because range.contains(key)
-            // returns true if only the Row is within the Range but the ColumnFamily
-            // doesn't fall within the Range ColumnFamily bounds.
-            if (range.contains(key) && validateContext(key.getColumnFamily(), range.getStartKey().getColumnFamily(),
-                    range.getEndKey().getColumnFamily())) {
-                bsSet.addAll(ranges.get(range));
+            boundaries.add(lowerBound(range));
+            if (range.getEndKey() != null) {
+                boundaries.add(range.getEndKey());
             }
         }
-        return bsSet;
+        segmentStarts = boundaries.toArray(new Key[boundaries.size()]);
+
+        List<List<RangeEntry>> overlapping = new ArrayList<>(segmentStarts.length);
+        for (int i = 0; i < segmentStarts.length; i++) {
+            overlapping.add(new ArrayList<RangeEntry>(1));
+        }
+        // A Key in a Range lies between its lower bound and its end Key, so its
+        // segment is one of those from the lower bound's through the end Key's.
+        for (Map.Entry<Range, Set<BindingSet>> range : ranges.entrySet()) {
+            RangeEntry entry = new RangeEntry(range.getKey(), range.getValue());
+            int first = Arrays.binarySearch(segmentStarts, lowerBound(range.getKey()));
+            int last = range.getKey().getEndKey() == null ? segmentStarts.length - 1
+                    : Arrays.binarySearch(segmentStarts, range.getKey().getEndKey());
+            for (int i = first; i <= last; i++) {
+                overlapping.get(i).add(entry);
+            }
+        }
+        segments = new RangeEntry[segmentStarts.length][];
+        for (int i = 0; i < segmentStarts.length; i++) {
+            segments[i] = overlapping.get(i).toArray(new RangeEntry[overlapping.get(i).size()]);
+        }
+    }
+
+    private static Key lowerBound(Range range) {
+        return range.getStartKey() == null ? MIN_KEY : range.getStartKey();
     }
 
     /**
-     * 
-     * @param colFamily
-     * @param startColFamily
-     * @param stopColFamily
-     * @return true if colFamily lies between startColFamily and stopColFamily
+     * A Range with its BindingSets and the ColumnFamily bounds it was given.
      */
-    private boolean validateContext(Text colFamily, Text startColFamily, Text stopColFamily) {
-        byte[] cfBytes = colFamily.getBytes();
-        byte[] start = startColFamily.getBytes();
-        byte[] stop = stopColFamily.getBytes();
-        // range has empty column family, so all Keys falling with Range Row
-        // constraints should match
-        if (start.length == 0 && stop.length == 0) {
-            return true;
+    private static class RangeEntry {
+        private final Range range;
+        private final Set<BindingSet> bindingSets;
+        private final Text startColFamily;
+        private final Text stopColFamily;
+
+        RangeEntry(Range range, Set<BindingSet> bindingSets) {
+            this.range = range;
+            this.bindingSets = bindingSets;
+            Text start = range.getStartKey() == null ? new Text() : range.getStartKey().getColumnFamily();
+            Text stop = range.getEndKey() == null ? new Text() : range.getEndKey().getColumnFamily();
+            // range has empty column family, so all Keys falling with Range Row
+            // constraints should match
+            boolean unbounded = start.getLength() == 0 && stop.getLength() == 0;
+            this.startColFamily = unbounded ? null : start;
+            this.stopColFamily = unbounded ? null : stop;
+        }
+
+        /**
+         * Check to see if the Key falls within Range and has same ColumnFamily
+         * as beginning and ending key of Range. The additional ColumnFamily
+         * check is necessary because range.contains(key) returns true if only
+         * the Row is within the Range but the ColumnFamily doesn't fall within
+         * the Range ColumnFamily bounds.
+         */
+        boolean contains(Key key) {
+            if (!range.contains(key)) {
+                return false;
+            }
+            return startColFamily == null
+                    || (key.compareColumnFamily(startColFamily) >= 0 && key.compareColumnFamily(stopColFamily) <= 0);
         }
-        int result1 = WritableComparator.compareBytes(cfBytes, 0, cfBytes.length, start, 0, start.length);
-        int result2 = WritableComparator.compareBytes(cfBytes, 0, cfBytes.length, stop, 0, stop.length);
-        return result1 >= 0 && result2 <= 0;
     }
 }
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.accumulo.query;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Iterates over the results of a list of {@link Scanner}s while the first batch
+ * of the next few Scanners is fetched in the background. This hides the
+ * round-trip of each Scanner when scanning a handful of small ranges, which
+ * is what bind-joins over point lookups do.
+ * <p>
+ * When ordered, the results of each Scanner are returned in the order the
+ * Scanners were given. Otherwise the Scanners are returned in the order their
+ * first batch arrives. The results of a single Scanner are never interleaved
+ * with another's.
+ * <p>
+ * The executor may reject fetches when it is saturated. A rejected Scanner is
+ * read by the thread consuming this iterator when it reaches it, so a busy
+ * executor degrades to reading Scanners one after another.
+ */
+public class ReadAheadScannerIterator implements Iterator<Map.Entry<Key, Value>>, Closeable {
+
+    private final Iterator<Scanner> pending;
+    private final boolean ordered;
+    private final ExecutorService executor;
+
+    private final Queue<Future<Iterator<Map.Entry<Key, Value>>>> inFlight = new ArrayDeque<>();
+    private final Queue<Future<Iterator<Map.Entry<Key, Value>>>> rejected = new ArrayDeque<>();
+    private final BlockingQueue<Future<Iterator<Map.Entry<Key, Value>>>> completed = new LinkedBlockingQueue<>();
+    private Iterator<Map.Entry<Key, Value>> current = Collections.emptyIterator();
+    private boolean closed = false;
+
+    /**
+     * @param scanners - The configured Scanners to read from.
+     * @param executor - Runs the fetches of the Scanners that are read ahead.
+     * @param readAhead - How many Scanners may be fetched ahead of the one being consumed.
+     * @param ordered - Whether the Scanners' results are returned in the order of {@code scanners}.
+     */
+    public ReadAheadScannerIterator(List<Scanner> scanners, ExecutorService executor, int readAhead, boolean ordered) {
+        Preconditions.checkNotNull(scanners);
+        Preconditions.checkNotNull(executor);
+        Preconditions.checkArgument(readAhead > 0, "readAhead must be greater than 0");
+        this.pending = new ArrayList<>(scanners).iterator();
+        this.ordered = ordered;
+        this.executor = executor;
+        // The Scanner being consumed is fetched as well as the ones read ahead of it.
+        for (int i = 0; i <= readAhead; i++) {
+            submitNext();
+        }
+    }
+
+    private void submitNext() {
+        if (!pending.hasNext()) {
+            return;
+        }
+        final Scanner scanner = pending.next();
+        final Callable<Iterator<Map.Entry<Key, Value>>> fetch = new Callable<Iterator<Map.Entry<Key, Value>>>() {
+            @Override
+            public Iterator<Map.Entry<Key, Value>> call() throws Exception {
+                Iterator<Map.Entry<Key, Value>> iterator = scanner.iterator();
+                // hasNext() blocks until the Scanner's first batch has arrived.
+                iterator.hasNext();
+                return iterator;
+            }
+        };
+        final FutureTask<Iterator<Map.Entry<Key, Value>>> task = new FutureTask<Iterator<Map.Entry<Key, Value>>>(fetch) {
+            @Override
+            protected void done() {
+                if (!ordered) {
+                    completed.add(this);
+                }
+            }
+        };
+        inFlight.add(task);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejected.add(task);
+        }
+    }
+
+    /**
+     * @return The fetch whose results are read next, after running it on this
+     *   thread if the executor rejected it.
+     */
+    private Future<Iterator<Map.Entry<Key, Value>>> nextFetch() throws InterruptedException {
+        Future<Iterator<Map.Entry<Key, Value>>> next;
+        if (ordered) {
+            next = inFlight.peek();
+            if (rejected.remove(next)) {
+                ((FutureTask<?>) next).run();
+            }
+        } else {
+            // Prefer a fetch that has already arrived over reading a rejected one.
+            next = completed.poll();
+            if (next == null && !rejected.isEmpty()) {
+                next = rejected.poll();
+                ((FutureTask<?>) next).run();
+            } else if (next == null) {
+                next = completed.take();
+            }
+        }
+        inFlight.remove(next);
+        completed.remove(next);
+        return next;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!closed && !current.hasNext()) {
+            if (inFlight.isEmpty()) {
+                return false;
+            }
+            try {
+                current = nextFetch().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for a Scanner's results.", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+            submitNext();
+        }
+        return !closed && current.hasNext();
+    }
+
+    @Override
+    public Map.Entry<Key, Value> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("remove");
+    }
+
+    /**
+     * Cancels the fetches that are still running; Scanners that have not
+     * started are never read.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Future<Iterator<Map.Entry<Key, Value>>> future : inFlight) {
+            future.cancel(true);
+        }
+        inFlight.clear();
+        rejected.clear();
+        completed.clear();
+        current = Collections.emptyIterator();
+    }
+}
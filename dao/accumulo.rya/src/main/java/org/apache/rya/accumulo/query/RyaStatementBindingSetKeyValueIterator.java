@@ -69,6 +69,9 @@ public class RyaStatementBindingSetKeyValueIterator implements CloseableIteratio
 
     @Override
     public void close() throws RyaDAOException {
+        if (dataIterator instanceof ReadAheadScannerIterator) {
+            ((ReadAheadScannerIterator) dataIterator).close();
+        }
         dataIterator = null;
         if (scanner != null && isBatchScanner) {
             scanner.close();
@@ -0,0 +1,271 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.accumulo.utils;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.apache.accumulo.core.data.Range;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableComparator;
+import org.apache.rya.accumulo.AccumuloRdfConfiguration;
+import org.apache.rya.api.RdfCloudTripleStoreConfiguration;
+import org.apache.rya.api.RdfCloudTripleStoreConstants.TABLE_LAYOUT;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.resolver.RyaTripleContext;
+import org.apache.rya.api.resolver.triple.TripleRow;
+import org.apache.rya.api.resolver.triple.TripleRowResolverException;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Computes split points that divide each of Rya's core tables into tablets
+ * holding roughly the same number of rows.
+ * <p>
+ * The distribution of rows is learned from a uniform sample of statements,
+ * which are serialized exactly as the DAO would write them (including any
+ * hashed row prefixes), and optionally from counts of the rows that share a
+ * prefix. The resulting split points may be stored in an
+ * {@link AccumuloRdfConfiguration} so that the tables are pre-split when
+ * they are created. Only the core tables are split; the tables of the
+ * secondary indexes are left to Accumulo.
+ */
+@DefaultAnnotation(NonNull.class)
+public class SplitPointAdvisor {
+
+    private static final byte MAX_BYTE = (byte) 0xff;
+
+    private final RyaTripleContext ryaContext;
+    private final int maxSamples;
+    private final Random random = new Random();
+
+    private final List<Map<TABLE_LAYOUT, byte[]>> samples = new ArrayList<>();
+    private long statementsSeen = 0;
+
+    private final Map<TABLE_LAYOUT, List<WeightedRow>> weightedRows = new EnumMap<>(TABLE_LAYOUT.class);
+
+    /**
+     * Constructs an instance of {@link SplitPointAdvisor}.
+     *
+     * @param conf - Determines how statements are serialized into rows. (not null)
+     * @param maxSamples - The number of statements held in the sample. (&gt; 0)
+     */
+    public SplitPointAdvisor(final RdfCloudTripleStoreConfiguration conf, final int maxSamples) {
+        requireNonNull(conf);
+        if(maxSamples <= 0) {
+            throw new IllegalArgumentException("The sample size must be positive.");
+        }
+        ryaContext = RyaTripleContext.getInstance(conf);
+        this.maxSamples = maxSamples;
+        for(final TABLE_LAYOUT layout : TABLE_LAYOUT.values()) {
+            weightedRows.put(layout, new ArrayList<>());
+        }
+    }
+
+    /**
+     * Offers a statement to the sample. Once the sample is full, each new
+     * statement replaces a random one with a decreasing probability, so the
+     * sample stays uniform over every statement offered.
+     *
+     * @param statement - A statement from the dataset being loaded. (not null)
+     * @throws TripleRowResolverException The statement could not be serialized.
+     */
+    public void addStatement(final RyaStatement statement) throws TripleRowResolverException {
+        requireNonNull(statement);
+        statementsSeen++;
+
+        int slot = samples.size();
+        if(samples.size() >= maxSamples) {
+            final long candidate = (long) (random.nextDouble() * statementsSeen);
+            if(candidate >= maxSamples) {
+                return;
+            }
+            slot = (int) candidate;
+        }
+
+        final Map<TABLE_LAYOUT, byte[]> rows = new EnumMap<>(TABLE_LAYOUT.class);
+        for(final Entry<TABLE_LAYOUT, TripleRow> entry : ryaContext.serializeTriple(statement).entrySet()) {
+            rows.put(entry.getKey(), entry.getValue().getRow());
+        }
+
+        if(slot == samples.size()) {
+            samples.add(rows);
+        } else {
+            samples.set(slot, rows);
+        }
+    }
+
+    /**
+     * Offers every statement of a dataset to the sample.
+     *
+     * @param statements - The statements of the dataset being loaded. (not null)
+     * @throws TripleRowResolverException A statement could not be serialized.
+     */
+    public void addStatements(final Iterator<RyaStatement> statements) throws TripleRowResolverException {
+        requireNonNull(statements);
+        while(statements.hasNext()) {
+            addStatement(statements.next());
+        }
+    }
+
+    /**
+     * Records that some number of rows in a table begin with a prefix.
+     *
+     * @param layout - The table the rows belong to. (not null)
+     * @param rowPrefix - The prefix the rows share. (not null)
+     * @param count - The number of rows that share the prefix.
+     */
+    public void addRowCount(final TABLE_LAYOUT layout, final byte[] rowPrefix, final long count) {
+        requireNonNull(layout);
+        requireNonNull(rowPrefix);
+        if(count > 0) {
+            weightedRows.get(layout).add(new WeightedRow(rowPrefix, count));
+        }
+    }
+
+    /**
+     * Computes split points that divide a table into tablets of about equal size.
+     * Each split point is a short row that separates two neighbouring
+     * rows, so fewer points may be returned when the rows are not diverse enough.
+     *
+     * @param layout - The table to split. (not null)
+     * @param numSplits - The number of split points to compute.
+     * @return The split points in sorted order.
+     */
+    public SortedSet<Text> getSplits(final TABLE_LAYOUT layout, final int numSplits) {
+        requireNonNull(layout);
+        final SortedSet<Text> splits = new TreeSet<>();
+
+        final List<WeightedRow> rows = new ArrayList<>(weightedRows.get(layout));
+        if(!samples.isEmpty()) {
+            // Each sampled statement stands in for an equal share of the statements seen.
+            final double sampleWeight = (double) statementsSeen / samples.size();
+            for(final Map<TABLE_LAYOUT, byte[]> sample : samples) {
+                rows.add(new WeightedRow(sample.get(layout), sampleWeight));
+            }
+        }
+        if(numSplits <= 0 || rows.size() < 2) {
+            return splits;
+        }
+        Collections.sort(rows);
+
+        double total = 0;
+        for(final WeightedRow row : rows) {
+            total += row.weight;
+        }
+
+        final double step = total / (numSplits + 1);
+        double nextBoundary = step;
+        double cumulative = 0;
+        for(int i = 0; i < rows.size() - 1 && splits.size() < numSplits; i++) {
+            cumulative += rows.get(i).weight;
+            if(cumulative >= nextBoundary) {
+                final byte[] split = separator(rows.get(i).row, rows.get(i + 1).row);
+                if(split != null) {
+                    splits.add(new Text(split));
+                    while(nextBoundary <= cumulative) {
+                        nextBoundary += step;
+                    }
+                }
+            }
+        }
+        return splits;
+    }
+
+    /**
+     * Either row may be a prefix that stands for every row beginning with it.
+     *
+     * @return A short split point that places the rows beginning with {@code lower}
+     *   in one tablet and those beginning with {@code upper} in the next, or {@code null}
+     *   if the rows are equal.
+     */
+    static byte[] separator(final byte[] lower, final byte[] upper) {
+        int common = 0;
+        while(common < lower.length && common < upper.length && lower[common] == upper[common]) {
+            common++;
+        }
+        if(common == upper.length) {
+            return null;
+        }
+
+        // A tablet holds every row up to and including its split point.
+        if(common == lower.length) {
+            // Some of the rows beginning with lower sort after upper, so the split keeps
+            // as many of them as it can while staying below upper.
+            final byte[] head = Arrays.copyOf(upper, upper.length - 1);
+            final int last = upper[upper.length - 1] & 0xff;
+            return last == 0 ? head : concat(head, (byte) (last - 1), MAX_BYTE);
+        }
+
+        // The rows beginning with lower all sort before the following prefix of their
+        // first differing byte, which is the shortest split that holds them.
+        final byte[] following = Arrays.copyOf(lower, common + 1);
+        following[common]++;
+        if(compare(following, upper) < 0) {
+            return following;
+        }
+        final Text followingLower = Range.followingPrefix(new Text(lower));
+        if(followingLower != null && compare(followingLower.copyBytes(), upper) < 0) {
+            return followingLower.copyBytes();
+        }
+        // Upper is the prefix that follows lower, so no row lies between them. Rows are
+        // UTF-8 text, which never holds the byte 0xff.
+        return concat(lower, MAX_BYTE);
+    }
+
+    private static byte[] concat(final byte[] prefix, final byte... suffix) {
+        final byte[] joined = Arrays.copyOf(prefix, prefix.length + suffix.length);
+        System.arraycopy(suffix, 0, joined, prefix.length, suffix.length);
+        return joined;
+    }
+
+    private static int compare(final byte[] a, final byte[] b) {
+        return WritableComparator.compareBytes(a, 0, a.length, b, 0, b.length);
+    }
+
+    /**
+     * A row, or row prefix, along with the number of rows it represents.
+     */
+    private static class WeightedRow implements Comparable<WeightedRow> {
+        private final byte[] row;
+        private final double weight;
+
+        public WeightedRow(final byte[] row, final double weight) {
+            this.row = row;
+            this.weight = weight;
+        }
+
+        @Override
+        public int compareTo(final WeightedRow other) {
+            return compare(row, other.row);
+        }
+    }
+}
@@ -25,27 +25,36 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.BatchWriterConfig;
 import org.apache.accumulo.core.client.Connector;
 import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.client.Scanner;
 import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.client.mock.MockInstance;
+import org.apache.accumulo.core.data.Mutation;
 import org.apache.accumulo.core.iterators.FirstEntryInRowIterator;
+import org.apache.hadoop.io.Text;
 import org.apache.rya.accumulo.query.AccumuloRyaQueryEngine;
+import org.apache.rya.api.RdfCloudTripleStoreConstants;
+import org.apache.rya.api.RdfCloudTripleStoreConstants.TABLE_LAYOUT;
 import org.apache.rya.api.domain.RyaStatement;
 import org.apache.rya.api.domain.RyaType;
 import org.apache.rya.api.domain.RyaIRI;
 import org.apache.rya.api.domain.StatementMetadata;
+import org.apache.rya.api.persist.RdfEvalStatsDAO.CARDINALITY_OF;
 import org.apache.rya.api.persist.RyaDAOException;
 import org.apache.rya.api.persist.query.RyaQuery;
 import org.apache.rya.api.resolver.RdfToRyaConversions;
 import org.apache.rya.api.resolver.RyaContext;
 import org.calrissian.mango.collect.FluentCloseableIterable;
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
@@ -206,6 +215,247 @@ public class AccumuloRyaDAOTest {
         assertEquals(0, count);
     }
 
+    @Test
+    public void testDeleteBatchOfPatterns() throws Exception {
+        RyaIRI cpu = new RyaIRI(litdupsNS + "cpu");
+        RyaIRI cpu2 = new RyaIRI(litdupsNS + "cpu2");
+        RyaIRI loadPerc = new RyaIRI(litdupsNS + "loadPerc");
+        RyaType intFive = new RyaType(XMLSchema.INT, "5");
+        RyaType stringFive = new RyaType(XMLSchema.STRING, "5");
+        dao.add(new RyaStatement(cpu, loadPerc, intFive));
+        dao.add(new RyaStatement(cpu, loadPerc, stringFive));
+        dao.add(new RyaStatement(cpu2, loadPerc, intFive));
+        dao.add(new RyaStatement(cpu2, loadPerc, new RyaIRI(litdupsNS + "uri1")));
+
+        // Both patterns are resolved by one batch scan, which must not remove the string typed value.
+        conf.setDeleteBatchSize(10);
+        List<RyaStatement> patterns = new ArrayList<>();
+        patterns.add(new RyaStatement(cpu, loadPerc, intFive));
+        patterns.add(new RyaStatement(cpu2, loadPerc, intFive));
+        dao.delete(patterns.iterator(), conf);
+
+        CloseableIteration<RyaStatement, RyaDAOException> iter = dao.getQueryEngine().query(new RyaStatement(null, loadPerc, null), conf);
+        List<RyaStatement> remaining = new ArrayList<>();
+        while (iter.hasNext()) {
+            remaining.add(iter.next());
+        }
+        iter.close();
+
+        assertEquals(2, remaining.size());
+        for (RyaStatement stmt : remaining) {
+            assertFalse(intFive.equals(stmt.getObject()));
+        }
+    }
+
+    @Test
+    public void testDeleteBatchOfPatternsNormalizedLiterals() throws Exception {
+        RyaIRI cpu = new RyaIRI(litdupsNS + "cpu");
+        RyaIRI cpu2 = new RyaIRI(litdupsNS + "cpu2");
+        RyaIRI loadPerc = new RyaIRI(litdupsNS + "loadPerc");
+        RyaType doubleFive = new RyaType(XMLSchema.DOUBLE, "5");
+        RyaType date = new RyaType(XMLSchema.DATETIME, "2017-01-01T00:00:00Z");
+        RyaType stringFive = new RyaType(XMLSchema.STRING, "5");
+        dao.add(new RyaStatement(cpu, loadPerc, doubleFive));
+        dao.add(new RyaStatement(cpu, loadPerc, stringFive));
+        dao.add(new RyaStatement(cpu2, loadPerc, date));
+
+        // The scanned literals come back in their normalized lexical form.
+        conf.setDeleteBatchSize(10);
+        List<RyaStatement> patterns = new ArrayList<>();
+        patterns.add(new RyaStatement(cpu, loadPerc, doubleFive));
+        patterns.add(new RyaStatement(cpu2, loadPerc, date));
+        dao.delete(patterns.iterator(), conf);
+
+        CloseableIteration<RyaStatement, RyaDAOException> iter = dao.getQueryEngine().query(new RyaStatement(null, loadPerc, null), conf);
+        List<RyaStatement> remaining = new ArrayList<>();
+        while (iter.hasNext()) {
+            remaining.add(iter.next());
+        }
+        iter.close();
+
+        assertEquals(1, remaining.size());
+        assertEquals(stringFive, remaining.get(0).getObject());
+    }
+
+    @Test
+    public void testCoreTablesPreSplit() throws Exception {
+        final AccumuloRdfConfiguration splitConf = new AccumuloRdfConfiguration();
+        splitConf.setTablePrefix("presplit_");
+        splitConf.setTableSplits(TABLE_LAYOUT.SPO, Arrays.asList(new Text("urn:m")));
+        splitConf.setTableSplits(TABLE_LAYOUT.PO, Arrays.asList(new Text("urn:f"), new Text("urn:p")));
+
+        final AccumuloRyaDAO splitDao = new AccumuloRyaDAO();
+        splitDao.setConnector(connector);
+        splitDao.setConf(splitConf);
+        splitDao.init();
+        try {
+            assertEquals(1, connector.tableOperations().listSplits("presplit_spo").size());
+            assertEquals(2, connector.tableOperations().listSplits("presplit_po").size());
+            assertTrue(connector.tableOperations().listSplits("presplit_osp").isEmpty());
+        } finally {
+            splitDao.dropAndDestroy();
+        }
+    }
+
+    @Test
+    public void testIncrementalStats() throws Exception {
+        final AccumuloRdfConfiguration statsConf = new AccumuloRdfConfiguration();
+        statsConf.setTablePrefix("stats_");
+        statsConf.setIncrementalStats(true);
+
+        final AccumuloRyaDAO statsDao = new AccumuloRyaDAO();
+        statsDao.setConnector(connector);
+        statsDao.setConf(statsConf);
+        statsDao.init();
+        try {
+            RyaIRI cpu = new RyaIRI(litdupsNS + "cpu");
+            RyaIRI cpu2 = new RyaIRI(litdupsNS + "cpu2");
+            RyaIRI loadPerc = new RyaIRI(litdupsNS + "loadPerc");
+            statsDao.add(Arrays.asList(
+                    new RyaStatement(cpu, loadPerc, new RyaIRI(litdupsNS + "uri1")),
+                    new RyaStatement(cpu, loadPerc, new RyaIRI(litdupsNS + "uri2")),
+                    new RyaStatement(cpu2, loadPerc, new RyaIRI(litdupsNS + "uri1"))).iterator());
+            statsDao.delete(new RyaStatement(cpu, loadPerc, new RyaIRI(litdupsNS + "uri2")), statsConf);
+            statsDao.add(new RyaStatement(cpu2, loadPerc, new RyaIRI(litdupsNS + "uri3")));
+
+            final AccumuloRdfEvalStatsDAO statsReader = new AccumuloRdfEvalStatsDAO();
+            statsReader.setConnector(connector);
+            statsReader.setConf(statsConf);
+            statsReader.init();
+
+            assertEquals(3, statsReader.getCardinality(statsConf, CARDINALITY_OF.PREDICATE,
+                    Arrays.<Value>asList(VF.createIRI(litdupsNS, "loadPerc"))), 0);
+            assertEquals(1, statsReader.getCardinality(statsConf, CARDINALITY_OF.SUBJECT,
+                    Arrays.<Value>asList(VF.createIRI(litdupsNS, "cpu"))), 0);
+            assertEquals(2, statsReader.getCardinality(statsConf, CARDINALITY_OF.PREDICATEOBJECT,
+                    Arrays.<Value>asList(VF.createIRI(litdupsNS, "loadPerc"), VF.createIRI(litdupsNS, "uri1"))), 0);
+            assertEquals(0, statsReader.getCardinality(statsConf, CARDINALITY_OF.SUBJECTOBJECT,
+                    Arrays.<Value>asList(VF.createIRI(litdupsNS, "cpu"), VF.createIRI(litdupsNS, "uri2"))), 0);
+            statsReader.destroy();
+        } finally {
+            statsDao.dropAndDestroy();
+        }
+    }
+
+    @Test
+    public void testIncrementalStatsOverlappingDeletePatterns() throws Exception {
+        final AccumuloRdfConfiguration statsConf = new AccumuloRdfConfiguration();
+        statsConf.setTablePrefix("overlap_");
+        statsConf.setIncrementalStats(true);
+        statsConf.setDeleteBatchSize(10);
+
+        final AccumuloRyaDAO statsDao = new AccumuloRyaDAO();
+        statsDao.setConnector(connector);
+        statsDao.setConf(statsConf);
+        statsDao.init();
+        try {
+            RyaIRI cpu = new RyaIRI(litdupsNS + "cpu");
+            RyaIRI cpu2 = new RyaIRI(litdupsNS + "cpu2");
+            RyaIRI loadPerc = new RyaIRI(litdupsNS + "loadPerc");
+            statsDao.add(Arrays.asList(
+                    new RyaStatement(cpu, loadPerc, new RyaIRI(litdupsNS + "uri1")),
+                    new RyaStatement(cpu, loadPerc, new RyaIRI(litdupsNS + "uri2")),
+                    new RyaStatement(cpu2, loadPerc, new RyaIRI(litdupsNS + "uri1"))).iterator());
+
+            // Both patterns match the cpu statements, which must only be counted as removed once.
+            statsDao.delete(Arrays.asList(
+                    new RyaStatement(cpu, loadPerc, null),
+                    new RyaStatement(cpu, null, null)).iterator(), statsConf);
+
+            final AccumuloRdfEvalStatsDAO statsReader = new AccumuloRdfEvalStatsDAO();
+            statsReader.setConnector(connector);
+            statsReader.setConf(statsConf);
+            statsReader.init();
+
+            assertEquals(1, statsReader.getCardinality(statsConf, CARDINALITY_OF.PREDICATE,
+                    Arrays.<Value>asList(VF.createIRI(litdupsNS, "loadPerc"))), 0);
+            assertEquals(0, statsReader.getCardinality(statsConf, CARDINALITY_OF.SUBJECT,
+                    Arrays.<Value>asList(VF.createIRI(litdupsNS, "cpu"))), 0);
+            assertEquals(1, statsReader.getCardinality(statsConf, CARDINALITY_OF.PREDICATEOBJECT,
+                    Arrays.<Value>asList(VF.createIRI(litdupsNS, "loadPerc"), VF.createIRI(litdupsNS, "uri1"))), 0);
+            statsReader.destroy();
+        } finally {
+            statsDao.dropAndDestroy();
+        }
+    }
+
+    @Test
+    public void testIncrementalStatsReaddedStatements() throws Exception {
+        final AccumuloRdfConfiguration statsConf = new AccumuloRdfConfiguration();
+        statsConf.setTablePrefix("readd_");
+        statsConf.setIncrementalStats(true);
+
+        final AccumuloRyaDAO statsDao = new AccumuloRyaDAO();
+        statsDao.setConnector(connector);
+        statsDao.setConf(statsConf);
+        statsDao.init();
+        try {
+            RyaIRI cpu = new RyaIRI(litdupsNS + "cpu");
+            RyaIRI loadPerc = new RyaIRI(litdupsNS + "loadPerc");
+            RyaIRI uri1 = new RyaIRI(litdupsNS + "uri1");
+            statsDao.add(new RyaStatement(cpu, loadPerc, uri1));
+
+            // Adding a stored statement again, or twice in one batch, does not change the counts.
+            statsDao.add(new RyaStatement(cpu, loadPerc, uri1));
+            statsDao.add(Arrays.asList(
+                    new RyaStatement(cpu, loadPerc, uri1),
+                    new RyaStatement(cpu, loadPerc, new RyaIRI(litdupsNS + "uri2")),
+                    new RyaStatement(cpu, loadPerc, new RyaIRI(litdupsNS + "uri2"))).iterator());
+
+            final AccumuloRdfEvalStatsDAO statsReader = new AccumuloRdfEvalStatsDAO();
+            statsReader.setConnector(connector);
+            statsReader.setConf(statsConf);
+            statsReader.init();
+
+            assertEquals(2, statsReader.getCardinality(statsConf, CARDINALITY_OF.PREDICATE,
+                    Arrays.<Value>asList(VF.createIRI(litdupsNS, "loadPerc"))), 0);
+            assertEquals(1, statsReader.getCardinality(statsConf, CARDINALITY_OF.PREDICATEOBJECT,
+                    Arrays.<Value>asList(VF.createIRI(litdupsNS, "loadPerc"), VF.createIRI(litdupsNS, "uri1"))), 0);
+            statsReader.destroy();
+        } finally {
+            statsDao.dropAndDestroy();
+        }
+    }
+
+    @Test
+    public void testIncrementalStatsKeepsNewestBatchCount() throws Exception {
+        // Two runs of the count tool left two versions of the predicate's count.
+        final String evalTable = "migrate_" + RdfCloudTripleStoreConstants.TBL_EVAL_SUFFIX;
+        connector.tableOperations().create(evalTable);
+        final BatchWriter writer = connector.createBatchWriter(evalTable, new BatchWriterConfig());
+        final Mutation m = new Mutation(litdupsNS + "loadPerc");
+        m.put(RdfCloudTripleStoreConstants.PRED_CF_TXT, RdfCloudTripleStoreConstants.EMPTY_TEXT, 1L,
+                new org.apache.accumulo.core.data.Value("7".getBytes()));
+        m.put(RdfCloudTripleStoreConstants.PRED_CF_TXT, RdfCloudTripleStoreConstants.EMPTY_TEXT, 2L,
+                new org.apache.accumulo.core.data.Value("10".getBytes()));
+        writer.addMutation(m);
+        writer.close();
+
+        final AccumuloRdfConfiguration statsConf = new AccumuloRdfConfiguration();
+        statsConf.setTablePrefix("migrate_");
+        statsConf.setIncrementalStats(true);
+
+        final AccumuloRyaDAO statsDao = new AccumuloRyaDAO();
+        statsDao.setConnector(connector);
+        statsDao.setConf(statsConf);
+        statsDao.init();
+        try {
+            statsDao.add(new RyaStatement(new RyaIRI(litdupsNS + "cpu"), new RyaIRI(litdupsNS + "loadPerc"), new RyaIRI(litdupsNS + "uri1")));
+
+            final AccumuloRdfEvalStatsDAO statsReader = new AccumuloRdfEvalStatsDAO();
+            statsReader.setConnector(connector);
+            statsReader.setConf(statsConf);
+            statsReader.init();
+
+            // Only the newest count is added to, not every version of it.
+            assertEquals(11, statsReader.getCardinality(statsConf, CARDINALITY_OF.PREDICATE,
+                    Arrays.<Value>asList(VF.createIRI(litdupsNS, "loadPerc"))), 0);
+            statsReader.destroy();
+        } finally {
+            statsDao.dropAndDestroy();
+        }
+    }
+
     @Test
     public void testAddEmptyString() throws Exception {
         RyaIRI cpu = RdfToRyaConversions.convertIRI(VF.createIRI(litdupsNS, "cpu"));
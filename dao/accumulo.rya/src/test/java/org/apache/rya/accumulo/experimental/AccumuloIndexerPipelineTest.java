@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.accumulo.experimental;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.accumulo.core.client.Connector;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.rya.api.RdfCloudTripleStoreConfiguration;
+import org.apache.rya.api.domain.RyaIRI;
+import org.apache.rya.api.domain.RyaStatement;
+import org.eclipse.rdf4j.model.IRI;
+import org.junit.Test;
+
+/**
+ * Unit tests the methods of {@link AccumuloIndexerPipeline}.
+ */
+public class AccumuloIndexerPipelineTest {
+
+    @Test
+    public void flushStoresEveryStatementInEveryIndexer() throws Exception {
+        final RecordingIndexer first = new RecordingIndexer();
+        final RecordingIndexer second = new RecordingIndexer();
+
+        final List<RyaStatement> expected = new ArrayList<>();
+        try(final AccumuloIndexerPipeline pipeline = new AccumuloIndexerPipeline(Arrays.asList(first, second), 3, 1)) {
+            for(int i = 0; i < 10; i++) {
+                final RyaStatement statement = new RyaStatement(new RyaIRI("urn:subject" + i), new RyaIRI("urn:predicate"), new RyaIRI("urn:object"));
+                expected.add(statement);
+                pipeline.add(statement);
+            }
+            pipeline.flush();
+
+            // Statements arrive in order and in batches no larger than the batch size.
+            assertEquals(expected, first.getStored());
+            assertEquals(expected, second.getStored());
+            assertEquals(Arrays.asList(3, 3, 3, 1), first.getBatchSizes());
+        }
+    }
+
+    @Test
+    public void failureReportedOnFlush() throws Exception {
+        final RecordingIndexer failing = new RecordingIndexer() {
+            @Override
+            public void storeStatements(final Collection<RyaStatement> statements) throws IOException {
+                throw new IOException("Simulated failure.");
+            }
+        };
+
+        final AccumuloIndexerPipeline pipeline = new AccumuloIndexerPipeline(Collections.singletonList(failing), 10, 2);
+        pipeline.add(new RyaStatement(new RyaIRI("urn:subject"), new RyaIRI("urn:predicate"), new RyaIRI("urn:object")));
+        try {
+            pipeline.flush();
+            fail("The indexer's failure should have been reported.");
+        } catch(final IOException e) {
+            assertTrue(e.getCause().getMessage().contains("Simulated failure."));
+        }
+
+        // The failure is only reported once.
+        pipeline.close();
+    }
+
+    @Test
+    public void concurrentProducers() throws Exception {
+        final RecordingIndexer indexer = new RecordingIndexer();
+        final int producers = 4;
+        final int perProducer = 500;
+
+        try(final AccumuloIndexerPipeline pipeline = new AccumuloIndexerPipeline(Collections.singletonList(indexer), 7, 2)) {
+            final ExecutorService executor = Executors.newFixedThreadPool(producers);
+            try {
+                final List<Future<?>> futures = new ArrayList<>();
+                for(int p = 0; p < producers; p++) {
+                    final int producer = p;
+                    futures.add(executor.submit(() -> {
+                        for(int i = 0; i < perProducer; i++) {
+                            pipeline.add(new RyaStatement(new RyaIRI("urn:subject" + producer + "_" + i), new RyaIRI("urn:predicate"), new RyaIRI("urn:object")));
+                            if(i % 100 == 0) {
+                                pipeline.flush();
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for(final Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            pipeline.flush();
+
+            // No statement is lost or stored twice.
+            assertEquals(producers * perProducer, indexer.getStored().size());
+            assertEquals(producers * perProducer, new HashSet<>(indexer.getStored()).size());
+        }
+    }
+
+    /**
+     * Remembers every batch of statements it is asked to store.
+     */
+    private static class RecordingIndexer extends AbstractAccumuloIndexer {
+        private final List<RyaStatement> stored = Collections.synchronizedList(new ArrayList<>());
+        private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void storeStatements(final Collection<RyaStatement> statements) throws IOException {
+            batchSizes.add(statements.size());
+            stored.addAll(statements);
+        }
+
+        @Override
+        public void storeStatement(final RyaStatement statement) throws IOException {
+            storeStatements(Collections.singleton(statement));
+        }
+
+        public List<RyaStatement> getStored() {
+            return stored;
+        }
+
+        public List<Integer> getBatchSizes() {
+            return batchSizes;
+        }
+
+        @Override
+        public void init() { }
+
+        @Override
+        public String getTableName() {
+            return null;
+        }
+
+        @Override
+        public Set<IRI> getIndexablePredicates() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public void setConnector(final Connector connector) { }
+
+        @Override
+        public void destroy() { }
+
+        @Override
+        public void purge(final RdfCloudTripleStoreConfiguration configuration) { }
+
+        @Override
+        public void dropAndDestroy() { }
+
+        @Override
+        public void setConf(final Configuration conf) { }
+
+        @Override
+        public Configuration getConf() {
+            return null;
+        }
+    }
+}
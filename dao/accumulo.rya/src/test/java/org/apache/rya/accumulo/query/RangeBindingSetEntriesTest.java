@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.accumulo.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.accumulo.core.data.Column;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.hadoop.io.Text;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.impl.MapBindingSet;
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Unit tests the methods of {@link RangeBindingSetEntries}.
+ */
+public class RangeBindingSetEntriesTest {
+
+    @Test
+    public void disjointRanges() {
+        final RangeBindingSetEntries entries = new RangeBindingSetEntries();
+        final BindingSet a = bindingSet("a");
+        final BindingSet b = bindingSet("b");
+        entries.put(Range.prefix("urn:a"), a);
+        entries.put(Range.prefix("urn:b"), b);
+
+        assertEquals(Sets.newHashSet(a), new HashSet<>(entries.containsKey(new Key("urn:a1"))));
+        assertEquals(Sets.newHashSet(b), new HashSet<>(entries.containsKey(new Key("urn:b"))));
+        assertTrue(entries.containsKey(new Key("urn:c")).isEmpty());
+        assertTrue(entries.containsKey(new Key("urn:")).isEmpty());
+    }
+
+    @Test
+    public void overlappingRanges() {
+        final RangeBindingSetEntries entries = new RangeBindingSetEntries();
+        final BindingSet wide = bindingSet("wide");
+        final BindingSet exact = bindingSet("exact");
+        final BindingSet open = bindingSet("open");
+        entries.put(new Range("urn:a", "urn:z"), wide);
+        entries.put(new Range("urn:m"), exact);
+        entries.put(new Range("urn:x", null), open);
+
+        assertEquals(Sets.newHashSet(wide), new HashSet<>(entries.containsKey(new Key("urn:c"))));
+        assertEquals(Sets.newHashSet(wide, exact), new HashSet<>(entries.containsKey(new Key("urn:m"))));
+        assertEquals(Sets.newHashSet(wide, open), new HashSet<>(entries.containsKey(new Key("urn:y"))));
+        assertEquals(Sets.newHashSet(open), new HashSet<>(entries.containsKey(new Key("urn:zz"))));
+    }
+
+    @Test
+    public void contextBoundRanges() {
+        final RangeBindingSetEntries entries = new RangeBindingSetEntries();
+        final BindingSet graph1 = bindingSet("graph1");
+        final BindingSet graph2 = bindingSet("graph2");
+        entries.put(contextRange("urn:s", "urn:graph1"), graph1);
+        entries.put(contextRange("urn:s", "urn:graph2"), graph2);
+
+        assertEquals(Sets.newHashSet(graph1), new HashSet<>(entries.containsKey(new Key("urn:s1", "urn:graph1"))));
+        assertEquals(Sets.newHashSet(graph2), new HashSet<>(entries.containsKey(new Key("urn:s1", "urn:graph2"))));
+        assertTrue(entries.containsKey(new Key("urn:s1", "urn:graph3")).isEmpty());
+    }
+
+    @Test
+    public void putAfterLookup() {
+        final RangeBindingSetEntries entries = new RangeBindingSetEntries();
+        final BindingSet a = bindingSet("a");
+        final BindingSet b = bindingSet("b");
+        entries.put(Range.prefix("urn:a"), a);
+        assertTrue(entries.containsKey(new Key("urn:b")).isEmpty());
+
+        entries.put(Range.prefix("urn:b"), b);
+        entries.put(Range.prefix("urn:b"), a);
+        final Set<BindingSet> expected = Sets.newHashSet(a, b);
+        assertEquals(expected, new HashSet<>(entries.containsKey(new Key("urn:b"))));
+    }
+
+    private static Range contextRange(final String rowPrefix, final String context) {
+        final byte[] contextBytes = context.getBytes();
+        return Range.prefix(new Text(rowPrefix)).bound(
+                new Column(contextBytes, new byte[] { (byte) 0x00 }, new byte[] { (byte) 0x00 }),
+                new Column(contextBytes, new byte[] { (byte) 0xff }, new byte[] { (byte) 0xff }));
+    }
+
+    private static BindingSet bindingSet(final String name) {
+        final MapBindingSet bs = new MapBindingSet();
+        bs.addBinding("name", SimpleValueFactory.getInstance().createLiteral(name));
+        return bs;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.accumulo.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.BatchWriterConfig;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.mock.MockInstance;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.Authorizations;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests the methods of {@link ReadAheadScannerIterator}.
+ */
+public class ReadAheadScannerIteratorTest {
+    private static final String TABLE = "readahead";
+
+    private Connector connector;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        connector = new MockInstance("ReadAheadScannerIteratorTest").getConnector("root", new byte[0]);
+        if (connector.tableOperations().exists(TABLE)) {
+            connector.tableOperations().delete(TABLE);
+        }
+        connector.tableOperations().create(TABLE);
+        final BatchWriter writer = connector.createBatchWriter(TABLE, new BatchWriterConfig());
+        for (int i = 0; i < 10; i++) {
+            for (int j = 0; j < 3; j++) {
+                final Mutation m = new Mutation("row" + i + "_" + j);
+                m.put("cf", "cq", new Value(new byte[0]));
+                writer.addMutation(m);
+            }
+        }
+        writer.close();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void orderedResults() throws Exception {
+        final List<String> expected = new ArrayList<>();
+        for (int i = 9; i >= 0; i--) {
+            for (int j = 0; j < 3; j++) {
+                expected.add("row" + i + "_" + j);
+            }
+        }
+
+        final List<String> rows = new ArrayList<>();
+        try (ReadAheadScannerIterator iterator = new ReadAheadScannerIterator(descendingScanners(), executor, 3, true)) {
+            while (iterator.hasNext()) {
+                rows.add(iterator.next().getKey().getRow().toString());
+            }
+        }
+        assertEquals(expected, rows);
+    }
+
+    @Test
+    public void unorderedResults() throws Exception {
+        final List<String> rows = new ArrayList<>();
+        try (ReadAheadScannerIterator iterator = new ReadAheadScannerIterator(descendingScanners(), executor, 3, false)) {
+            while (iterator.hasNext()) {
+                final Map.Entry<Key, Value> entry = iterator.next();
+                rows.add(entry.getKey().getRow().toString());
+            }
+        }
+        assertEquals(30, rows.size());
+        assertEquals(30, new HashSet<>(rows).size());
+    }
+
+    @Test
+    public void saturatedExecutorReadsOnCaller() throws Exception {
+        // A single thread and no queue, so most fetches are rejected.
+        final ExecutorService saturated = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new SynchronousQueue<Runnable>());
+        try {
+            final List<String> ordered = new ArrayList<>();
+            try (ReadAheadScannerIterator iterator = new ReadAheadScannerIterator(descendingScanners(), saturated, 3, true)) {
+                while (iterator.hasNext()) {
+                    ordered.add(iterator.next().getKey().getRow().toString());
+                }
+            }
+            assertEquals(30, ordered.size());
+            assertEquals("row9_0", ordered.get(0));
+            assertEquals("row0_2", ordered.get(29));
+
+            final List<String> unordered = new ArrayList<>();
+            try (ReadAheadScannerIterator iterator = new ReadAheadScannerIterator(descendingScanners(), saturated, 3, false)) {
+                while (iterator.hasNext()) {
+                    unordered.add(iterator.next().getKey().getRow().toString());
+                }
+            }
+            assertEquals(30, new HashSet<>(unordered).size());
+        } finally {
+            saturated.shutdownNow();
+        }
+    }
+
+    @Test
+    public void closeStopsIteration() throws Exception {
+        final ReadAheadScannerIterator iterator = new ReadAheadScannerIterator(descendingScanners(), executor, 2, true);
+        iterator.next();
+        iterator.close();
+        assertFalse(iterator.hasNext());
+    }
+
+    private List<Scanner> descendingScanners() throws Exception {
+        final List<Scanner> scanners = new ArrayList<>();
+        for (int i = 9; i >= 0; i--) {
+            final Scanner scanner = connector.createScanner(TABLE, new Authorizations());
+            scanner.setRange(Range.prefix("row" + i + "_"));
+            scanners.add(scanner);
+        }
+        return scanners;
+    }
+}
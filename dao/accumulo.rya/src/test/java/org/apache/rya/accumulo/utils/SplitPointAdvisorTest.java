@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.accumulo.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+
+import org.apache.hadoop.io.Text;
+import org.apache.rya.accumulo.AccumuloRdfConfiguration;
+import org.apache.rya.api.RdfCloudTripleStoreConstants.TABLE_LAYOUT;
+import org.apache.rya.api.domain.RyaIRI;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.resolver.RyaTripleContext;
+import org.junit.Test;
+
+/**
+ * Unit tests the methods of {@link SplitPointAdvisor}.
+ */
+public class SplitPointAdvisorTest {
+
+    @Test
+    public void splitsAreBalanced() throws Exception {
+        final AccumuloRdfConfiguration conf = new AccumuloRdfConfiguration();
+        final SplitPointAdvisor advisor = new SplitPointAdvisor(conf, 10_000);
+
+        final List<Text> spoRows = new ArrayList<>();
+        for(int i = 0; i < 1000; i++) {
+            final RyaStatement statement = new RyaStatement(
+                    new RyaIRI(String.format("urn:subject%04d", i)),
+                    new RyaIRI("urn:predicate" + (i % 10)),
+                    new RyaIRI("urn:object" + i));
+            advisor.addStatement(statement);
+            spoRows.add(new Text(RyaTripleContext.getInstance(conf).serializeTriple(statement).get(TABLE_LAYOUT.SPO).getRow()));
+        }
+
+        final SortedSet<Text> splits = advisor.getSplits(TABLE_LAYOUT.SPO, 3);
+        assertEquals(3, splits.size());
+
+        // Each of the four tablets holds about a quarter of the rows.
+        Text lower = null;
+        for(final Text upper : splits) {
+            assertTablet(spoRows, lower, upper, 250);
+            lower = upper;
+        }
+        assertTablet(spoRows, lower, null, 250);
+
+        // Every layout is split from the same sample.
+        assertEquals(3, advisor.getSplits(TABLE_LAYOUT.PO, 3).size());
+        assertEquals(3, advisor.getSplits(TABLE_LAYOUT.OSP, 3).size());
+    }
+
+    @Test
+    public void rowCountsWeightSplits() {
+        final SplitPointAdvisor advisor = new SplitPointAdvisor(new AccumuloRdfConfiguration(), 10);
+        advisor.addRowCount(TABLE_LAYOUT.PO, "urn:a".getBytes(), 1);
+        advisor.addRowCount(TABLE_LAYOUT.PO, "urn:b".getBytes(), 1);
+        advisor.addRowCount(TABLE_LAYOUT.PO, "urn:c".getBytes(), 1);
+        advisor.addRowCount(TABLE_LAYOUT.PO, "urn:e".getBytes(), 3);
+
+        // Three of the six rows begin with one of the first three prefixes, and every
+        // one of them sorts before the split.
+        final SortedSet<Text> splits = advisor.getSplits(TABLE_LAYOUT.PO, 1);
+        assertEquals(1, splits.size());
+        assertEquals(new Text("urn:d"), splits.first());
+    }
+
+    @Test
+    public void separatorKeepsPrefixedRowsTogether() {
+        // The split follows every row that begins with the lower prefix.
+        assertSeparates("urn:c", "urn:e", "urn:c#row");
+        assertSeparates("urn:ca", "urn:d", "urn:ca#row");
+        assertSeparates("urn:c", "urn:d", "urn:c#row");
+
+        // Rows beginning with a prefix of upper are kept below it where they can be.
+        assertSeparates("urn:", "urn:d", "urn:c#row");
+        assertSeparates("urn:", "urn:da", "urn:d#row");
+    }
+
+    private static void assertSeparates(final String lower, final String upper, final String lowerRow) {
+        final Text split = new Text(SplitPointAdvisor.separator(lower.getBytes(), upper.getBytes()));
+        assertTrue(new Text(lower).compareTo(split) <= 0);
+        assertTrue(new Text(lowerRow).compareTo(split) <= 0);
+        assertTrue(new Text(upper).compareTo(split) > 0);
+    }
+
+    private static void assertTablet(final List<Text> rows, final Text lower, final Text upper, final int expected) {
+        int count = 0;
+        for(final Text row : rows) {
+            if((lower == null || row.compareTo(lower) > 0) && (upper == null || row.compareTo(upper) <= 0)) {
+                count++;
+            }
+        }
+        assertTrue("Expected about " + expected + " rows but found " + count, Math.abs(count - expected) <= expected / 10);
+    }
+}
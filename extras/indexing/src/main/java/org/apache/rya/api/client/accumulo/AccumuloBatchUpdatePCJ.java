@@ -20,9 +20,7 @@ package org.apache.rya.api.client.accumulo;
 
 import static java.util.Objects.requireNonNull;
 
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
 
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
@@ -43,23 +41,18 @@ import org.apache.rya.api.instance.RyaDetailsRepository.RyaDetailsRepositoryExce
 import org.apache.rya.api.instance.RyaDetailsUpdater;
 import org.apache.rya.api.instance.RyaDetailsUpdater.RyaDetailsMutator;
 import org.apache.rya.api.instance.RyaDetailsUpdater.RyaDetailsMutator.CouldNotApplyMutationException;
-import org.apache.rya.api.model.VisibilityBindingSet;
 import org.apache.rya.api.persist.RyaDAOException;
 import org.apache.rya.indexing.accumulo.ConfigUtils;
-import org.apache.rya.indexing.pcj.storage.PcjMetadata;
+import org.apache.rya.indexing.pcj.storage.PcjPopulator;
 import org.apache.rya.indexing.pcj.storage.PrecomputedJoinStorage;
 import org.apache.rya.indexing.pcj.storage.PrecomputedJoinStorage.PCJStorageException;
 import org.apache.rya.indexing.pcj.storage.accumulo.AccumuloPcjStorage;
 import org.apache.rya.rdftriplestore.inference.InferenceEngineException;
 import org.apache.rya.sail.config.RyaSailFactory;
-import org.eclipse.rdf4j.common.iteration.CloseableIteration;
-import org.eclipse.rdf4j.query.BindingSet;
-import org.eclipse.rdf4j.query.MalformedQueryException;
-import org.eclipse.rdf4j.query.QueryEvaluationException;
-import org.eclipse.rdf4j.query.parser.ParsedQuery;
-import org.eclipse.rdf4j.query.parser.sparql.SPARQLParser;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.repository.sail.SailRepositoryConnection;
 import org.eclipse.rdf4j.sail.Sail;
-import org.eclipse.rdf4j.sail.SailConnection;
 import org.eclipse.rdf4j.sail.SailException;
 
 import com.google.common.base.Optional;
@@ -122,8 +115,7 @@ public class AccumuloBatchUpdatePCJ extends AccumuloCommand implements BatchUpda
     private void updatePCJResults(final String ryaInstanceName, final String pcjId) throws InstanceDoesNotExistException, PCJDoesNotExistException, RyaClientException {
         // Things that have to be closed before we exit.
         Sail sail = null;
-        SailConnection sailConn = null;
-        CloseableIteration<? extends BindingSet, QueryEvaluationException> results = null;
+        SailRepositoryConnection ryaConn = null;
 
         try(final PrecomputedJoinStorage pcjStorage = new AccumuloPcjStorage(super.getConnector(), ryaInstanceName)) {
             // Create an instance of Sail backed by the Rya instance.
@@ -137,48 +129,22 @@ public class AccumuloBatchUpdatePCJ extends AccumuloCommand implements BatchUpda
                         "results could not be purged from it.", e);
             }
 
-            // Parse the PCJ's SPARQL query.
-            final PcjMetadata metadata = pcjStorage.getPcjMetadata(pcjId);
-            final String sparql = metadata.getSparql();
-            final SPARQLParser parser = new SPARQLParser();
-            final ParsedQuery parsedQuery = parser.parseQuery(sparql, null);
-
-            // Execute the query.
-            sailConn = sail.getConnection();
-            results = sailConn.evaluate(parsedQuery.getTupleExpr(), null, null, false);
-
-            // Load the results into the PCJ table.
-            final List<VisibilityBindingSet> batch = new ArrayList<>(1000);
-
-            while(results.hasNext()) {
-                final VisibilityBindingSet result = new VisibilityBindingSet(results.next(), "");
-                batch.add(result);
-
-                if(batch.size() == 1000) {
-                    pcjStorage.addResults(pcjId, batch);
-                    batch.clear();
-                }
-            }
-
-            if(!batch.isEmpty()) {
-                pcjStorage.addResults(pcjId, batch);
-                batch.clear();
-            }
-        } catch(final MalformedQueryException | PCJStorageException | SailException | QueryEvaluationException e) {
+            // Evaluate the PCJ's SPARQL query in partitions and load the results into the PCJ table.
+            final String sparql = pcjStorage.getPcjMetadata(pcjId).getSparql();
+            ryaConn = new SailRepository(sail).getConnection();
+            final long written = PcjPopulator.builder()
+                    .setProgressListener((statements, results) ->
+                        log.info("Batch update of PCJ '" + pcjId + "' has covered " + statements + " statements and written " + results + " results."))
+                    .build()
+                    .populate(ryaConn, sparql, results -> pcjStorage.addResults(pcjId, results));
+            log.info("Batch update of PCJ '" + pcjId + "' wrote " + written + " results.");
+        } catch(final PCJStorageException | RepositoryException e) {
             throw new RyaClientException("Fail to batch load new results into the PCJ with ID '" + pcjId + "'.", e);
         } finally {
-            if(results != null) {
+            if(ryaConn != null) {
                 try {
-                    results.close();
-                } catch (final QueryEvaluationException e) {
-                    log.warn(e.getMessage(), e);
-                }
-            }
-
-            if(sailConn != null) {
-                try {
-                    sailConn.close();
-                } catch (final SailException e) {
+                    ryaConn.close();
+                } catch (final RepositoryException e) {
                     log.warn(e.getMessage(), e);
                 }
             }
@@ -42,6 +42,7 @@ import org.apache.rya.api.instance.RyaDetailsUpdater.RyaDetailsMutator.CouldNotA
 import org.apache.rya.api.persist.RyaDAOException;
 import org.apache.rya.indexing.pcj.fluo.api.CreateFluoPcj;
 import org.apache.rya.indexing.pcj.fluo.app.query.UnsupportedQueryException;
+import org.apache.rya.indexing.pcj.matching.provider.PcjCatalog;
 import org.apache.rya.indexing.pcj.storage.PcjException;
 import org.apache.rya.indexing.pcj.storage.PrecomputedJoinStorage;
 import org.apache.rya.indexing.pcj.storage.PrecomputedJoinStorage.PCJStorageException;
@@ -97,6 +98,7 @@ public class AccumuloCreatePCJ extends AccumuloCommand implements CreatePCJ {
         final String pcjId;
         try(final PrecomputedJoinStorage pcjStorage = new AccumuloPcjStorage(getConnector(), instanceName)) {
             pcjId = pcjStorage.createPcj(sparql);
+            PcjCatalog.getInstance().invalidateAll();
 
             // If a Fluo application is being used, task it with updating the PCJ.
             final Optional<FluoDetails> fluoDetailsHolder = pcjIndexDetails.getFluoDetails();
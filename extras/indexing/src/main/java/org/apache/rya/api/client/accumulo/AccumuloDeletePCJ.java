@@ -32,6 +32,7 @@ import org.apache.rya.api.instance.RyaDetails.PCJIndexDetails.FluoDetails;
 import org.apache.rya.api.instance.RyaDetails.PCJIndexDetails.PCJDetails;
 import org.apache.rya.api.instance.RyaDetails.PCJIndexDetails.PCJDetails.PCJUpdateStrategy;
 import org.apache.rya.indexing.pcj.fluo.api.DeleteFluoPcj;
+import org.apache.rya.indexing.pcj.matching.provider.PcjCatalog;
 import org.apache.rya.indexing.pcj.storage.PrecomputedJoinStorage;
 import org.apache.rya.indexing.pcj.storage.PrecomputedJoinStorage.PCJStorageException;
 import org.apache.rya.indexing.pcj.storage.accumulo.AccumuloPcjStorage;
@@ -105,6 +106,7 @@ public class AccumuloDeletePCJ extends AccumuloCommand implements DeletePCJ {
         // Drop the table that holds the PCJ results from Accumulo.
         try(final PrecomputedJoinStorage pcjs = new AccumuloPcjStorage(getConnector(), instanceName)) {
             pcjs.dropPcj(pcjId);
+            PcjCatalog.getInstance().invalidateAll();
         } catch (final PCJStorageException e) {
             throw new RyaClientException("Could not drop the PCJ's table from Accumulo.", e);
         }
@@ -20,11 +20,16 @@ package org.apache.rya.api.client.accumulo;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
 import org.apache.accumulo.core.client.Connector;
+import org.apache.hadoop.io.Text;
 import org.apache.rya.accumulo.AccumuloRdfConfiguration;
 import org.apache.rya.accumulo.instance.AccumuloRyaInstanceDetailsRepository;
+import org.apache.rya.api.RdfCloudTripleStoreConstants.TABLE_LAYOUT;
 import org.apache.rya.api.client.Install;
 import org.apache.rya.api.client.InstanceExists;
 import org.apache.rya.api.client.RyaClientException;
@@ -97,7 +102,7 @@ public class AccumuloInstall extends AccumuloCommand implements Install {
         }
 
         // Initialize the rest of the tables used by the Rya instance.
-        final AccumuloRdfConfiguration ryaConfig = makeRyaConfig(getAccumuloConnectionDetails(), details);
+        final AccumuloRdfConfiguration ryaConfig = makeRyaConfig(getAccumuloConnectionDetails(), details, installConfig);
         try {
             final Sail ryaSail = RyaSailFactory.getInstance(ryaConfig);
             ryaSail.shutDown();
@@ -179,14 +184,25 @@ public class AccumuloInstall extends AccumuloCommand implements Install {
      *
      * @param connectionDetails - Indicates how to connect to Accumulo. (not null)
      * @param details - Indicates what needs to be installed. (not null)
+     * @param installConfig - Holds the split points the core tables are created with. (not null)
      * @return A Rya Configuration object that can be used to perform the install.
      */
-    private static AccumuloRdfConfiguration makeRyaConfig(final AccumuloConnectionDetails connectionDetails, final RyaDetails details) {
+    private static AccumuloRdfConfiguration makeRyaConfig(final AccumuloConnectionDetails connectionDetails, final RyaDetails details,
+            final InstallConfiguration installConfig) {
         final AccumuloRdfConfiguration conf = new AccumuloRdfConfiguration();
 
         // The Rya Instance Name is used as a prefix for the index tables in Accumulo.
         conf.setTablePrefix( details.getRyaInstanceName() );
 
+        // Pre-split the core tables so that ingest is spread across tablet servers from the start.
+        for(final TABLE_LAYOUT layout : TABLE_LAYOUT.values()) {
+            final List<Text> splits = new ArrayList<>();
+            for(final byte[] split : installConfig.getTableSplits(layout)) {
+                splits.add(new Text(split));
+            }
+            conf.setTableSplits(layout, splits);
+        }
+
         // Enable the indexers that the instance is configured to use.
         /**
          * RYA-215
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.api.client.http;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.util.EntityUtils;
+import org.apache.log4j.Logger;
+import org.apache.rya.api.RdfCloudTripleStoreConfiguration;
+import org.apache.rya.api.client.ExecuteSparqlQuery;
+import org.apache.rya.api.client.InstanceDoesNotExistException;
+import org.apache.rya.api.client.RyaClientException;
+import org.apache.rya.api.client.resultio.BinaryQueryResults;
+import org.apache.rya.api.client.resultio.BinaryQueryResultsParser;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * An implementation of the {@link ExecuteSparqlQuery} command that sends the query to the
+ * {@code queryrdf} endpoint of a Rya web server. The results are requested using the
+ * {@link BinaryQueryResults} format and are decoded as they are iterated over.
+ * <p>
+ * A web server hosts a single Rya instance, so the instance name that is passed to
+ * {@link #executeSparqlQuery(String, String)} is not sent to the server.
+ */
+@DefaultAnnotation(NonNull.class)
+public class HttpExecuteSparqlQuery implements ExecuteSparqlQuery {
+    private static final Logger log = Logger.getLogger(HttpExecuteSparqlQuery.class);
+
+    private final URI queryEndpoint;
+    private final CloseableHttpClient client = HttpClients.createDefault();
+
+    /**
+     * Constructs an instance of {@link HttpExecuteSparqlQuery}.
+     *
+     * @param queryEndpoint - The URI of the web server's {@code queryrdf} endpoint,
+     *   for example {@code http://localhost:8080/web.rya/queryrdf}. (not null)
+     */
+    public HttpExecuteSparqlQuery(final URI queryEndpoint) {
+        this.queryEndpoint = requireNonNull(queryEndpoint);
+    }
+
+    @Override
+    public TupleQueryResult executeSparqlQuery(final String ryaInstanceName, final String sparqlQuery)
+            throws InstanceDoesNotExistException, RyaClientException {
+        requireNonNull(ryaInstanceName);
+        requireNonNull(sparqlQuery);
+
+        final HttpPost post = new HttpPost(queryEndpoint);
+        post.setEntity(new UrlEncodedFormEntity(Arrays.asList(
+                new BasicNameValuePair("query", sparqlQuery),
+                new BasicNameValuePair(RdfCloudTripleStoreConfiguration.CONF_RESULT_FORMAT, BinaryQueryResults.FORMAT_NAME)),
+                StandardCharsets.UTF_8));
+
+        CloseableHttpResponse response = null;
+        try {
+            log.info("Executing SPARQL Query against " + queryEndpoint);
+            response = client.execute(post);
+
+            final int status = response.getStatusLine().getStatusCode();
+            final HttpEntity entity = response.getEntity();
+            if (status != HttpStatus.SC_OK) {
+                final String message = entity == null ? "" : EntityUtils.toString(entity);
+                throw new RyaClientException("The server could not execute the query. It responded with " +
+                        response.getStatusLine() + ": " + message);
+            }
+
+            final ContentType contentType = entity == null ? null : ContentType.get(entity);
+            if (contentType == null || !BinaryQueryResults.MIME_TYPE.equals(contentType.getMimeType())) {
+                throw new RyaClientException("The server did not return tuple query results for the query. " +
+                        "Only SELECT queries may be executed by this command.");
+            }
+
+            // Closing the result closes the entity's stream, which releases the connection.
+            return BinaryQueryResultsParser.parse(entity.getContent());
+        } catch (final IOException e) {
+            close(response);
+            throw new RyaClientException("Could not execute the SPARQL Query against " + queryEndpoint, e);
+        } catch (final RyaClientException e) {
+            close(response);
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        client.close();
+    }
+
+    private static void close(final CloseableHttpResponse response) {
+        if (response != null) {
+            try {
+                response.close();
+            } catch (final IOException e) {
+                log.warn("Could not close the response from the server.", e);
+            }
+        }
+    }
+}
@@ -21,9 +21,7 @@ package org.apache.rya.api.client.mongo;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
 
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
 
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
@@ -43,7 +41,7 @@ import org.apache.rya.api.instance.RyaDetailsUpdater.RyaDetailsMutator;
 import org.apache.rya.api.instance.RyaDetailsUpdater.RyaDetailsMutator.CouldNotApplyMutationException;
 import org.apache.rya.api.model.VisibilityBindingSet;
 import org.apache.rya.api.persist.RyaDAOException;
-import org.apache.rya.indexing.pcj.storage.PcjMetadata;
+import org.apache.rya.indexing.pcj.storage.PcjPopulator;
 import org.apache.rya.indexing.pcj.storage.PrecomputedJoinStorage;
 import org.apache.rya.indexing.pcj.storage.PrecomputedJoinStorage.PCJStorageException;
 import org.apache.rya.indexing.pcj.storage.mongo.MongoPcjStorage;
@@ -51,18 +49,10 @@ import org.apache.rya.mongodb.MongoDBRdfConfiguration;
 import org.apache.rya.mongodb.instance.MongoRyaInstanceDetailsRepository;
 import org.apache.rya.rdftriplestore.inference.InferenceEngineException;
 import org.apache.rya.sail.config.RyaSailFactory;
-import org.eclipse.rdf4j.query.AbstractTupleQueryResultHandler;
-import org.eclipse.rdf4j.query.BindingSet;
-import org.eclipse.rdf4j.query.MalformedQueryException;
-import org.eclipse.rdf4j.query.QueryEvaluationException;
-import org.eclipse.rdf4j.query.QueryLanguage;
-import org.eclipse.rdf4j.query.TupleQuery;
-import org.eclipse.rdf4j.query.TupleQueryResultHandlerException;
 import org.eclipse.rdf4j.repository.RepositoryException;
 import org.eclipse.rdf4j.repository.sail.SailRepository;
 import org.eclipse.rdf4j.repository.sail.SailRepositoryConnection;
 import org.eclipse.rdf4j.sail.Sail;
-import org.eclipse.rdf4j.sail.SailConnection;
 import org.eclipse.rdf4j.sail.SailException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -138,13 +128,12 @@ public class MongoBatchUpdatePCJ implements BatchUpdatePCJ {
     private void updatePCJResults(final String ryaInstanceName, final String pcjId, final MongoClient client) throws InstanceDoesNotExistException, PCJDoesNotExistException, RyaClientException {
         // Things that have to be closed before we exit.
         Sail sail = null;
-        SailConnection sailConn = null;
+        SailRepositoryConnection ryaConn = null;
 
         try(final PrecomputedJoinStorage pcjStorage = new MongoPcjStorage(client, ryaInstanceName)) {
             // Create an instance of Sail backed by the Rya instance.
             sail = connectToRya(ryaInstanceName);
-            final SailRepository sailRepo = new SailRepository(sail);
-            final SailRepositoryConnection sailRepoConn = sailRepo.getConnection();
+
             // Purge the old results from the PCJ.
             try {
                 pcjStorage.purge(pcjId);
@@ -153,45 +142,24 @@ public class MongoBatchUpdatePCJ implements BatchUpdatePCJ {
                         "results could not be purged from it.", e);
             }
 
-            // Parse the PCJ's SPARQL query.
-            final PcjMetadata metadata = pcjStorage.getPcjMetadata(pcjId);
-            final String sparql = metadata.getSparql();
-            sailConn = sail.getConnection();
-            final TupleQuery tupleQuery = sailRepoConn.prepareTupleQuery(QueryLanguage.SPARQL, sparql);
-
-            // Execute the query.
-            final List<VisibilityBindingSet> batch = new ArrayList<>(1000);
-            tupleQuery.evaluate(new AbstractTupleQueryResultHandler() {
-                @Override
-                public void handleSolution(final BindingSet bindingSet) throws TupleQueryResultHandlerException {
-                    final VisibilityBindingSet result = new VisibilityBindingSet(bindingSet, "");
-                    log.warn("Visibility information on the binding set is lost during a batch update."
-                            + "  This can create data leaks.");
-                    batch.add(result);
-
-                    if(batch.size() == 1000) {
-                        try {
-                            pcjStorage.addResults(pcjId, batch);
-                        } catch (final PCJStorageException e) {
-                            throw new TupleQueryResultHandlerException("Fail to batch load new results into the PCJ with ID '" + pcjId + "'.", e);
-                        }
-                        batch.clear();
-                    }
-                }
-            });
-
-            if(!batch.isEmpty()) {
-                pcjStorage.addResults(pcjId, batch);
-                batch.clear();
-            }
-        } catch(final MalformedQueryException | PCJStorageException | SailException |
-                QueryEvaluationException | RepositoryException | TupleQueryResultHandlerException e) {
+            // Evaluate the PCJ's SPARQL query in partitions and load the results into the PCJ.
+            log.warn("Visibility information on the binding set is lost during a batch update."
+                    + "  This can create data leaks.");
+            final String sparql = pcjStorage.getPcjMetadata(pcjId).getSparql();
+            ryaConn = new SailRepository(sail).getConnection();
+            final long written = PcjPopulator.builder()
+                    .setProgressListener((statements, results) ->
+                        log.info("Batch update of PCJ '{}' has covered {} statements and written {} results.", pcjId, statements, results))
+                    .build()
+                    .populate(ryaConn, sparql, results -> pcjStorage.addResults(pcjId, results));
+            log.info("Batch update of PCJ '{}' wrote {} results.", pcjId, written);
+        } catch(final PCJStorageException | RepositoryException e) {
             throw new RyaClientException("Fail to batch load new results into the PCJ with ID '" + pcjId + "'.", e);
         } finally {
-            if(sailConn != null) {
+            if(ryaConn != null) {
                 try {
-                    sailConn.close();
-                } catch (final SailException e) {
+                    ryaConn.close();
+                } catch (final RepositoryException e) {
                     log.warn(e.getMessage(), e);
                 }
             }
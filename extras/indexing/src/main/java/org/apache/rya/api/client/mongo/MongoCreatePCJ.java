@@ -26,6 +26,7 @@ import org.apache.rya.api.client.CreatePCJ;
 import org.apache.rya.api.client.InstanceDoesNotExistException;
 import org.apache.rya.api.client.InstanceExists;
 import org.apache.rya.api.client.RyaClientException;
+import org.apache.rya.indexing.pcj.matching.provider.PcjCatalog;
 import org.apache.rya.indexing.pcj.storage.PrecomputedJoinStorage.PCJStorageException;
 import org.apache.rya.indexing.pcj.storage.mongo.MongoPcjStorage;
 
@@ -63,7 +64,9 @@ public class MongoCreatePCJ implements CreatePCJ {
         }
 
         try(final MongoPcjStorage pcjStore = new MongoPcjStorage(mongoClient, ryaInstanceName)) {
-        	return pcjStore.createPcj(sparql);
+            final String pcjId = pcjStore.createPcj(sparql);
+            PcjCatalog.getInstance().invalidateAll();
+            return pcjId;
         } catch (final PCJStorageException e) {
             throw new RyaClientException("Unable to create PCJ for: " + sparql, e);
         }
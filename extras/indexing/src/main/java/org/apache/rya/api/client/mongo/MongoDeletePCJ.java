@@ -24,6 +24,7 @@ import org.apache.rya.api.client.DeletePCJ;
 import org.apache.rya.api.client.InstanceDoesNotExistException;
 import org.apache.rya.api.client.InstanceExists;
 import org.apache.rya.api.client.RyaClientException;
+import org.apache.rya.indexing.pcj.matching.provider.PcjCatalog;
 import org.apache.rya.indexing.pcj.storage.PrecomputedJoinStorage.PCJStorageException;
 import org.apache.rya.indexing.pcj.storage.mongo.MongoPcjStorage;
 
@@ -61,6 +62,7 @@ public class MongoDeletePCJ implements DeletePCJ {
 
         try(final MongoPcjStorage pcjStore = new MongoPcjStorage(mongoClient, ryaInstanceName)) {
             pcjStore.dropPcj(pcjId);
+            PcjCatalog.getInstance().invalidateAll();
         } catch (final PCJStorageException e) {
             throw new RyaClientException("Unable to drop PCJ : " + pcjId, e);
         }
@@ -35,6 +35,7 @@ import org.apache.hadoop.conf.Configurable;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.log4j.Logger;
 import org.apache.rya.accumulo.AccumuloRdfConfiguration;
+import org.apache.rya.api.RdfCloudTripleStoreConfiguration;
 import org.apache.rya.indexing.IndexingFunctionRegistry.FUNCTION_TYPE;
 import org.apache.rya.indexing.accumulo.ConfigUtils;
 import org.apache.rya.indexing.accumulo.freetext.AccumuloFreeTextIndexer;
@@ -43,20 +44,26 @@ import org.apache.rya.indexing.accumulo.temporal.AccumuloTemporalIndexer;
 import org.apache.rya.mongodb.MongoSecondaryIndex;
 import org.apache.rya.mongodb.StatefulMongoDBRdfConfiguration;
 import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.Binding;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.Dataset;
 import org.eclipse.rdf4j.query.algebra.And;
+import org.eclipse.rdf4j.query.algebra.Extension;
 import org.eclipse.rdf4j.query.algebra.Filter;
 import org.eclipse.rdf4j.query.algebra.FunctionCall;
 import org.eclipse.rdf4j.query.algebra.Join;
 import org.eclipse.rdf4j.query.algebra.LeftJoin;
+import org.eclipse.rdf4j.query.algebra.Projection;
 import org.eclipse.rdf4j.query.algebra.QueryModelNode;
+import org.eclipse.rdf4j.query.algebra.Slice;
 import org.eclipse.rdf4j.query.algebra.StatementPattern;
 import org.eclipse.rdf4j.query.algebra.TupleExpr;
+import org.eclipse.rdf4j.query.algebra.UnaryTupleOperator;
 import org.eclipse.rdf4j.query.algebra.ValueConstant;
 import org.eclipse.rdf4j.query.algebra.ValueExpr;
 import org.eclipse.rdf4j.query.algebra.Var;
@@ -121,6 +128,8 @@ public class FilterFunctionOptimizer implements QueryOptimizer, Configurable {
         tupleExpr.visit(searchVars);
         // rewrites for property searches:
         processPropertySearches(tupleExpr, searchVars.searchProperties);
+        // tell the free text searches how many results the query needs from them:
+        tupleExpr.visit(new FreeTextLimitVisitor(getConfiguredLimit(bindings)));
 
     }
 
@@ -280,6 +289,60 @@ public class FilterFunctionOptimizer implements QueryOptimizer, Configurable {
         }
     }
 
+    /**
+     * @return The {@link RdfCloudTripleStoreConfiguration#CONF_LIMIT} of the query, or -1 if it does not have one.
+     */
+    private static long getConfiguredLimit(final BindingSet bindings) {
+        final Binding limit = bindings == null ? null : bindings.getBinding(RdfCloudTripleStoreConfiguration.CONF_LIMIT);
+        return limit == null ? -1 : Long.parseLong(limit.getValue().stringValue());
+    }
+
+    //pass a query's limits down to its free text searches. Like the statement pattern scans, every
+    //search is capped by the configured limit. A LIMIT only caps a search that alone produces the query's results.
+    private static class FreeTextLimitVisitor extends AbstractQueryModelVisitor<RuntimeException> {
+        private final long configuredLimit;
+
+        public FreeTextLimitVisitor(final long configuredLimit) {
+            this.configuredLimit = configuredLimit;
+        }
+
+        @Override
+        public void meet(final Slice node) {
+            if (node.hasLimit()) {
+                TupleExpr arg = node.getArg();
+                while (arg instanceof Projection || arg instanceof Extension || arg instanceof Slice || isTrueFilter(arg)) {
+                    arg = ((UnaryTupleOperator) arg).getArg();
+                }
+                if (arg instanceof FreeTextTupleSet) {
+                    restrictLimit((FreeTextTupleSet) arg, Math.max(node.getOffset(), 0) + node.getLimit());
+                }
+            }
+            super.meet(node);
+        }
+
+        @Override
+        public void meetOther(final QueryModelNode node) {
+            if (node instanceof FreeTextTupleSet) {
+                restrictLimit((FreeTextTupleSet) node, configuredLimit);
+            }
+            super.meetOther(node);
+        }
+
+        private static boolean isTrueFilter(final TupleExpr expr) {
+            if (expr instanceof Filter && ((Filter) expr).getCondition() instanceof ValueConstant) {
+                final Value condition = ((ValueConstant) ((Filter) expr).getCondition()).getValue();
+                return condition instanceof Literal && ((Literal) condition).booleanValue();
+            }
+            return false;
+        }
+
+        private static void restrictLimit(final FreeTextTupleSet search, final long limit) {
+            if (limit >= 0 && (search.getLimit() < 0 || limit < search.getLimit())) {
+                search.setLimit(limit);
+            }
+        }
+    }
+
     private interface TupleExprReplacer {
         List<TupleExpr> createReplacement(TupleExpr org);
     }
@@ -305,9 +368,8 @@ public class FilterFunctionOptimizer implements QueryOptimizer, Configurable {
                 }
                 break;
             case TEMPORAL:
-                for (final IndexingExpr indx : indxExpr) {
-                    indexTuples.add(new TemporalTupleSet(indx, temporalIndexer));
-                }
+                // The temporal filters on a variable are intersected and answered by one scan.
+                indexTuples.add(new TemporalTupleSet(indxExpr, temporalIndexer));
                 break;
             default:
                 throw new IllegalArgumentException("Incorrect type!");
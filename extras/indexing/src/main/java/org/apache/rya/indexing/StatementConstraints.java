@@ -28,6 +28,7 @@ public class StatementConstraints {
 	private Resource context = null;
 	private Resource subject = null;
 	private Set<IRI> predicates = null;
+	private long limit = -1;
 
 	public StatementConstraints setContext(Resource context) {
 		this.context = context;
@@ -44,6 +45,14 @@ public class StatementConstraints {
 		return this;
 	}
 
+	/**
+	 * @param limit - The maximum number of statements the query needs, or a negative number for all of them.
+	 */
+	public StatementConstraints setLimit(long limit) {
+		this.limit = limit;
+		return this;
+	}
+
 	public Resource getContext() {
 		return context;
 	}
@@ -56,6 +65,10 @@ public class StatementConstraints {
 		return subject;
 	}
 
+	public long getLimit() {
+		return limit;
+	}
+
 	public boolean hasSubject() {
 		return subject != null;
 	}
@@ -68,4 +81,8 @@ public class StatementConstraints {
 		return context != null;
 	}
 
+	public boolean hasLimit() {
+		return limit >= 0;
+	}
+
 }
@@ -119,6 +119,23 @@ public interface TemporalIndexer extends RyaSecondaryIndexer {
             TemporalInterval queryInterval, StatementConstraints contraints)
             throws QueryEvaluationException;
 
+    /**
+     * Returns statements that contain a time instant that falls within the
+     * queried {@link TemporalInstantRange} and meet the {@link StatementConstraints}.
+     * Several instant relations on the same variable are answered with one
+     * scan by intersecting their ranges first.
+     *
+     * @param range
+     *            the range the time instant must fall within
+     * @param contraints
+     *            the {@link StatementConstraints}
+     * @return
+     * @throws QueryEvaluationException
+     */
+    public CloseableIteration<Statement, QueryEvaluationException> queryInstantInRange(
+            TemporalInstantRange range, StatementConstraints contraints)
+            throws QueryEvaluationException;
+
     /**
      * Returns statements that contain a time instance that is equal to the
      * queried time and meet the {@link StatementConstraints}.
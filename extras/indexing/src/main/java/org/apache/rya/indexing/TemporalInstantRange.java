@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing;
+
+import java.util.Objects;
+
+/**
+ * A range of time that the instants returned by a temporal query must fall within. Each bound may be open (null), inclusive, or
+ * exclusive. Every instant relation of {@link TemporalIndexer} can be written as one of these, and the conjunction of several of them
+ * is the {@link #intersect(TemporalInstantRange) intersection} of their ranges.
+ * <p>
+ * Immutable, so it's thread safe.
+ */
+public class TemporalInstantRange {
+
+    private static final TemporalInstantRange ALL = new TemporalInstantRange(null, false, null, false);
+
+    private final TemporalInstant lower;
+    private final boolean lowerInclusive;
+    private final TemporalInstant upper;
+    private final boolean upperInclusive;
+
+    /**
+     * Constructs an instance of {@link TemporalInstantRange}.
+     *
+     * @param lower - The earliest instant of the range, or null if it has no beginning.
+     * @param lowerInclusive - Whether the lower instant is part of the range.
+     * @param upper - The latest instant of the range, or null if it has no end.
+     * @param upperInclusive - Whether the upper instant is part of the range.
+     */
+    public TemporalInstantRange(final TemporalInstant lower, final boolean lowerInclusive, final TemporalInstant upper, final boolean upperInclusive) {
+        this.lower = lower;
+        this.lowerInclusive = lower != null && lowerInclusive;
+        this.upper = upper;
+        this.upperInclusive = upper != null && upperInclusive;
+    }
+
+    /**
+     * @return A range that holds every instant.
+     */
+    public static TemporalInstantRange all() {
+        return ALL;
+    }
+
+    /**
+     * @return The instants strictly before the given instant.
+     */
+    public static TemporalInstantRange before(final TemporalInstant instant) {
+        return new TemporalInstantRange(null, false, Objects.requireNonNull(instant), false);
+    }
+
+    /**
+     * @return The instants strictly after the given instant.
+     */
+    public static TemporalInstantRange after(final TemporalInstant instant) {
+        return new TemporalInstantRange(Objects.requireNonNull(instant), false, null, false);
+    }
+
+    /**
+     * @return The given instant.
+     */
+    public static TemporalInstantRange equalTo(final TemporalInstant instant) {
+        Objects.requireNonNull(instant);
+        return new TemporalInstantRange(instant, true, instant, true);
+    }
+
+    /**
+     * @return The instants strictly inside the given interval.
+     */
+    public static TemporalInstantRange inside(final TemporalInterval interval) {
+        return new TemporalInstantRange(interval.getHasBeginning(), false, interval.getHasEnd(), false);
+    }
+
+    /**
+     * @param other - The range to intersect with. (not null)
+     * @return The instants that are in both this range and the other one.
+     */
+    public TemporalInstantRange intersect(final TemporalInstantRange other) {
+        Objects.requireNonNull(other);
+
+        TemporalInstant newLower = lower;
+        boolean newLowerInclusive = lowerInclusive;
+        final int lowerComparison = compareLowers(other);
+        if (lowerComparison < 0) {
+            newLower = other.lower;
+            newLowerInclusive = other.lowerInclusive;
+        } else if (lowerComparison == 0) {
+            newLowerInclusive = lowerInclusive && other.lowerInclusive;
+        }
+
+        TemporalInstant newUpper = upper;
+        boolean newUpperInclusive = upperInclusive;
+        final int upperComparison = compareUppers(other);
+        if (upperComparison > 0) {
+            newUpper = other.upper;
+            newUpperInclusive = other.upperInclusive;
+        } else if (upperComparison == 0) {
+            newUpperInclusive = upperInclusive && other.upperInclusive;
+        }
+
+        return new TemporalInstantRange(newLower, newLowerInclusive, newUpper, newUpperInclusive);
+    }
+
+    /**
+     * @return {@code true} if no instant can be in the range.
+     */
+    public boolean isEmpty() {
+        if (lower == null || upper == null) {
+            return false;
+        }
+        final int comparison = lower.compareTo(upper);
+        return comparison > 0 || (comparison == 0 && !(lowerInclusive && upperInclusive));
+    }
+
+    /**
+     * @param instant - The instant to check. (not null)
+     * @return {@code true} if the instant is in the range.
+     */
+    public boolean contains(final TemporalInstant instant) {
+        Objects.requireNonNull(instant);
+        if (lower != null) {
+            final int comparison = instant.compareTo(lower);
+            if (comparison < 0 || (comparison == 0 && !lowerInclusive)) {
+                return false;
+            }
+        }
+        if (upper != null) {
+            final int comparison = instant.compareTo(upper);
+            if (comparison > 0 || (comparison == 0 && !upperInclusive)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The earliest instant of the range, or null if it has no beginning.
+     */
+    public TemporalInstant getLower() {
+        return lower;
+    }
+
+    /**
+     * @return Whether the lower instant is part of the range.
+     */
+    public boolean isLowerInclusive() {
+        return lowerInclusive;
+    }
+
+    /**
+     * @return The latest instant of the range, or null if it has no end.
+     */
+    public TemporalInstant getUpper() {
+        return upper;
+    }
+
+    /**
+     * @return Whether the upper instant is part of the range.
+     */
+    public boolean isUpperInclusive() {
+        return upperInclusive;
+    }
+
+    /**
+     * Orders the lower bounds, where no bound is the smallest and an inclusive bound is smaller than an exclusive one at the same
+     * instant.
+     */
+    private int compareLowers(final TemporalInstantRange other) {
+        if (lower == null || other.lower == null) {
+            return lower == null ? (other.lower == null ? 0 : -1) : 1;
+        }
+        final int comparison = lower.compareTo(other.lower);
+        return comparison != 0 ? comparison : Boolean.compare(!lowerInclusive, !other.lowerInclusive);
+    }
+
+    /**
+     * Orders the upper bounds, where no bound is the largest and an inclusive bound is larger than an exclusive one at the same
+     * instant.
+     */
+    private int compareUppers(final TemporalInstantRange other) {
+        if (upper == null || other.upper == null) {
+            return upper == null ? (other.upper == null ? 0 : 1) : -1;
+        }
+        final int comparison = upper.compareTo(other.upper);
+        return comparison != 0 ? comparison : Boolean.compare(upperInclusive, other.upperInclusive);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TemporalInstantRange)) {
+            return false;
+        }
+        final TemporalInstantRange other = (TemporalInstantRange) o;
+        return compareLowers(other) == 0 && compareUppers(other) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(lower == null ? null : lower.getAsKeyString(), lowerInclusive,
+                upper == null ? null : upper.getAsKeyString(), upperInclusive);
+    }
+
+    @Override
+    public String toString() {
+        return (lowerInclusive ? "[" : "(") + (lower == null ? "-inf" : lower.getAsReadable()) + ", "
+                + (upper == null ? "+inf" : upper.getAsReadable()) + (upperInclusive ? "]" : ")");
+    }
+}
@@ -18,6 +18,10 @@
  */
 package org.apache.rya.indexing;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -32,26 +36,46 @@ import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
 import org.eclipse.rdf4j.query.algebra.QueryModelVisitor;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
 import org.joda.time.DateTime;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
 
 /**
  * Indexing Node for temporal expressions to be inserted into execution plan
- * to delegate temporal portion of query to temporal index
+ * to delegate temporal portion of query to temporal index.
+ * <p>
+ * When several temporal filters constrain the same variable, they are held by a
+ * single tuple set. Their instant ranges are intersected and the index is
+ * scanned once for the result instead of once per filter.
  */
 public class TemporalTupleSet extends ExternalTupleSet {
     private static final long serialVersionUID = 1L;
 
     private static final ValueFactory VF = SimpleValueFactory.getInstance();
 
+    private static final String TEMPORAL_NS = "tag:rya-rdf.org,2015:temporal#";
+
     private final Configuration conf;
     private final TemporalIndexer temporalIndexer;
-    private final IndexingExpr filterInfo;
+    private final List<IndexingExpr> filterInfos;
 
     public TemporalTupleSet(final IndexingExpr filterInfo, final TemporalIndexer temporalIndexer) {
-        this.filterInfo = filterInfo;
+        this(Collections.singletonList(filterInfo), temporalIndexer);
+    }
+
+    /**
+     * Constructs an instance of {@link TemporalTupleSet} that answers the conjunction of
+     * several temporal filters.
+     *
+     * @param filterInfos - The temporal filters. They must all constrain the same {@link StatementPattern}. (not empty)
+     * @param temporalIndexer - The index that is queried.
+     */
+    public TemporalTupleSet(final List<IndexingExpr> filterInfos, final TemporalIndexer temporalIndexer) {
+        checkArgument(!filterInfos.isEmpty(), "At least one temporal filter is required.");
+        this.filterInfos = ImmutableList.copyOf(filterInfos);
         this.temporalIndexer = temporalIndexer;
         conf = temporalIndexer.getConf();
     }
@@ -61,7 +85,7 @@ public class TemporalTupleSet extends ExternalTupleSet {
      */
     @Override
     public Set<String> getBindingNames() {
-        return filterInfo.getBindingNames();
+        return filterInfos.get(0).getBindingNames();
     }
 
     /**
@@ -72,7 +96,7 @@ public class TemporalTupleSet extends ExternalTupleSet {
      */
     @Override
     public TemporalTupleSet clone() {
-        return new TemporalTupleSet(filterInfo, temporalIndexer);
+        return new TemporalTupleSet(filterInfos, temporalIndexer);
     }
 
     @Override
@@ -95,19 +119,19 @@ public class TemporalTupleSet extends ExternalTupleSet {
             return false;
         }
         final TemporalTupleSet arg = (TemporalTupleSet) other;
-        return filterInfo.equals(arg.filterInfo);
+        return filterInfos.equals(arg.filterInfos);
     }
 
     @Override
     public int hashCode() {
         int result = 17;
-        result = 31*result + filterInfo.hashCode();
+        result = 31*result + filterInfos.hashCode();
 
         return result;
     }
 
     /**
-     * Returns an iterator over the result set associated with contained IndexingExpr.
+     * Returns an iterator over the result set associated with contained IndexingExprs.
      * <p>
      * Should be thread-safe (concurrent invocation {@link OfflineIterable} this
      * method can be expected with some query evaluators.
@@ -115,15 +139,68 @@ public class TemporalTupleSet extends ExternalTupleSet {
     @Override
     public CloseableIteration<BindingSet, QueryEvaluationException> evaluate(final BindingSet bindings)
             throws QueryEvaluationException {
-        final IRI funcURI = filterInfo.getFunction();
-        final SearchFunction searchFunction = new TemporalSearchFunctionFactory(conf, temporalIndexer).getSearchFunction(funcURI);
+        final IndexingExpr filterInfo = filterInfos.get(0);
+        if (filterInfos.size() == 1) {
+            final IRI funcURI = filterInfo.getFunction();
+            final SearchFunction searchFunction = new TemporalSearchFunctionFactory(conf, temporalIndexer).getSearchFunction(funcURI);
+            return IteratorFactory.getIterator(filterInfo.getSpConstraint(), bindings, getQueryText(filterInfo), searchFunction);
+        }
+
+        TemporalInstantRange range = TemporalInstantRange.all();
+        for (final IndexingExpr expr : filterInfos) {
+            range = range.intersect(getInstantRange(expr.getFunction(), getQueryText(expr)));
+        }
+        final TemporalInstantRange queryRange = range;
+        final SearchFunction searchFunction = new SearchFunction() {
+            @Override
+            public CloseableIteration<Statement, QueryEvaluationException> performSearch(final String searchTerms,
+                    final StatementConstraints contraints) throws QueryEvaluationException {
+                return temporalIndexer.queryInstantInRange(queryRange, contraints);
+            }
+
+            @Override
+            public String toString() {
+                return "TEMPORAL_InstantInRange";
+            }
+        };
+        return IteratorFactory.getIterator(filterInfo.getSpConstraint(), bindings, queryRange.toString(), searchFunction);
+    }
 
+    private static String getQueryText(final IndexingExpr filterInfo) {
         if(filterInfo.getArguments().length > 1) {
             throw new IllegalArgumentException("Index functions do not support more than two arguments.");
         }
+        return ((Value) filterInfo.getArguments()[0]).stringValue();
+    }
 
-        final String queryText = ((Value) filterInfo.getArguments()[0]).stringValue();
-        return IteratorFactory.getIterator(filterInfo.getSpConstraint(), bindings, queryText, searchFunction);
+    /**
+     * Converts a temporal filter function into the range of instants that satisfy it.
+     *
+     * @param function - The temporal function. (not null)
+     * @param queryText - The instant or interval the function is applied to. (not null)
+     * @return The instants that satisfy the function.
+     */
+    static TemporalInstantRange getInstantRange(final IRI function, final String queryText) {
+        switch (function.stringValue()) {
+        case TEMPORAL_NS + "after":
+            return TemporalInstantRange.after(new TemporalInstantRfc3339(DateTime.parse(queryText)));
+        case TEMPORAL_NS + "before":
+            return TemporalInstantRange.before(new TemporalInstantRfc3339(DateTime.parse(queryText)));
+        case TEMPORAL_NS + "equals":
+            return TemporalInstantRange.equalTo(new TemporalInstantRfc3339(DateTime.parse(queryText)));
+        case TEMPORAL_NS + "beforeInterval":
+            return TemporalInstantRange.before(TemporalInstantRfc3339.parseInterval(queryText).getHasBeginning());
+        case TEMPORAL_NS + "afterInterval":
+            return TemporalInstantRange.after(TemporalInstantRfc3339.parseInterval(queryText).getHasEnd());
+        case TEMPORAL_NS + "insideInterval":
+            return TemporalInstantRange.inside(TemporalInstantRfc3339.parseInterval(queryText));
+        case TEMPORAL_NS + "hasBeginningInterval":
+            return TemporalInstantRange.equalTo(TemporalInstantRfc3339.parseInterval(queryText).getHasBeginning());
+        case TEMPORAL_NS + "hasEndInterval":
+            return TemporalInstantRange.equalTo(TemporalInstantRfc3339.parseInterval(queryText).getHasEnd());
+        default:
+            throw new IllegalArgumentException("Unknown Search Function: " + function.stringValue());
+        }
     }
 
     //returns appropriate search function for a given URI
@@ -275,8 +352,6 @@ public class TemporalTupleSet extends ExternalTupleSet {
         };
 
         {
-            final String TEMPORAL_NS = "tag:rya-rdf.org,2015:temporal#";
-
             SEARCH_FUNCTION_MAP.put(VF.createIRI(TEMPORAL_NS+"after"), TEMPORAL_InstantAfterInstant);
             SEARCH_FUNCTION_MAP.put(VF.createIRI(TEMPORAL_NS+"before"), TEMPORAL_InstantBeforeInstant);
             SEARCH_FUNCTION_MAP.put(VF.createIRI(TEMPORAL_NS+"equals"), TEMPORAL_InstantEqualsInstant);
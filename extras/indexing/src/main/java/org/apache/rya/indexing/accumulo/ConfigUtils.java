@@ -127,6 +127,7 @@ public class ConfigUtils {
     public static final String USE_PCJ_FLUO_UPDATER = "rya.indexing.pcj.updater.fluo";
     public static final String PCJ_STORAGE_TYPE = "rya.indexing.pcj.storageType";
     public static final String PCJ_UPDATER_TYPE = "rya.indexing.pcj.updaterType";
+    public static final String PCJ_CATALOG_REFRESH_MILLIS = "rya.indexing.pcj.catalog.refreshMillis";
 
     public static final String USE_MOCK_INSTANCE = AccumuloRdfConfiguration.USE_MOCK_INSTANCE;
 
@@ -141,6 +142,10 @@ public class ConfigUtils {
     public static final String FREETEXT_PREDICATES_LIST = "sc.freetext.predicates";
     public static final String FREETEXT_DOC_NUM_PARTITIONS = "sc.freetext.numPartitions.text";
     public static final String FREETEXT_TERM_NUM_PARTITIONS = "sc.freetext.numPartitions.term";
+    public static final String FREETEXT_WILDCARD_MAX_EXPANSION = "sc.freetext.wildcard.maxExpansion";
+    public static final String FREETEXT_WILDCARD_CACHE_SIZE = "sc.freetext.wildcard.cacheSize";
+    public static final String FREETEXT_WILDCARD_REFRESH_MILLIS = "sc.freetext.wildcard.refreshMillis";
+    public static final String FREETEXT_WILDCARD_DICTIONARY_MAX_TERMS = "sc.freetext.wildcard.dictionary.maxTerms";
 
     public static final String TOKENIZER_CLASS = "sc.freetext.tokenizer.class";
 
@@ -404,6 +409,37 @@ public class ConfigUtils {
         return conf.getInt(FREETEXT_TERM_NUM_PARTITIONS, getNumPartitions(conf));
     }
 
+    /**
+     * @return The most terms a free text wildcard may expand to. A wildcard that matches more terms is matched against the term columns
+     *   of the document table on the server instead.
+     */
+    public static int getFreeTextWildcardMaxExpansion(final Configuration conf) {
+        return conf.getInt(FREETEXT_WILDCARD_MAX_EXPANSION, 5000);
+    }
+
+    /**
+     * @return The number of free text wildcard expansions that are cached.
+     */
+    public static int getFreeTextWildcardCacheSize(final Configuration conf) {
+        return conf.getInt(FREETEXT_WILDCARD_CACHE_SIZE, 1000);
+    }
+
+    /**
+     * @return How long, in milliseconds, cached wildcard expansions and the in memory term dictionary are used before they are re-read
+     *   from the term table. This bounds how long terms written by other clients can be missed.
+     */
+    public static long getFreeTextWildcardRefreshMillis(final Configuration conf) {
+        return conf.getLong(FREETEXT_WILDCARD_REFRESH_MILLIS, 60000L);
+    }
+
+    /**
+     * @return The most terms the in memory term dictionary may hold. Larger term tables are expanded with table scans. 0 disables the
+     *   dictionary.
+     */
+    public static int getFreeTextWildcardDictionaryMaxTerms(final Configuration conf) {
+        return conf.getInt(FREETEXT_WILDCARD_DICTIONARY_MAX_TERMS, 100000);
+    }
+
     public static boolean getUseFreeText(final Configuration conf) {
         return conf.getBoolean(USE_FREETEXT, false);
     }
@@ -428,6 +464,14 @@ public class ConfigUtils {
         return conf.getBoolean(USE_PCJ_UPDATER_INDEX, false);
     }
 
+    /**
+     * @return How many milliseconds the shared PCJ catalog may be used before it checks
+     *         whether the PCJs have changed. The default of 0 checks before every query.
+     */
+    public static long getPcjCatalogRefreshMillis(final Configuration conf) {
+        return conf.getLong(PCJ_CATALOG_REFRESH_MILLIS, 0L);
+    }
+
 
     /**
      * @return The name of the Fluo Application this instance of RYA is using to
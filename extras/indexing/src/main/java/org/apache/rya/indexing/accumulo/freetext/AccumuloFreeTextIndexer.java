@@ -20,15 +20,24 @@ package org.apache.rya.indexing.accumulo.freetext;
 
 import static java.util.Objects.requireNonNull;
 import static org.apache.rya.indexing.accumulo.freetext.query.ASTNodeUtils.getNodeIterator;
+import static org.apache.rya.indexing.accumulo.freetext.query.ASTNodeUtils.isNotFlag;
 
 import java.io.IOException;
 import java.nio.charset.CharacterCodingException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Optional;
 import java.util.Objects;
 import java.util.Set;
 import java.util.SortedSet;
@@ -36,12 +45,15 @@ import java.util.TreeSet;
 
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.BatchWriterConfig;
 import org.apache.accumulo.core.client.Connector;
 import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.client.MultiTableBatchWriter;
 import org.apache.accumulo.core.client.MutationsRejectedException;
 import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.ScannerBase;
 import org.apache.accumulo.core.client.TableExistsException;
 import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.client.admin.TableOperations;
@@ -50,7 +62,12 @@ import org.apache.accumulo.core.data.Mutation;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.file.keyfunctor.ColumnFamilyFunctor;
+import org.apache.accumulo.core.iterators.Combiner;
+import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
+import org.apache.accumulo.core.iterators.LongCombiner;
 import org.apache.accumulo.core.iterators.user.IntersectingIterator;
+import org.apache.accumulo.core.iterators.user.RegExFilter;
+import org.apache.accumulo.core.iterators.user.SummingCombiner;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.Validate;
 import org.apache.hadoop.conf.Configuration;
@@ -65,6 +82,7 @@ import org.apache.rya.indexing.Md5Hash;
 import org.apache.rya.indexing.StatementConstraints;
 import org.apache.rya.indexing.StatementSerializer;
 import org.apache.rya.indexing.accumulo.ConfigUtils;
+import org.apache.rya.indexing.accumulo.freetext.iterators.AndingIterator;
 import org.apache.rya.indexing.accumulo.freetext.iterators.BooleanTreeIterator;
 import org.apache.rya.indexing.accumulo.freetext.query.ASTExpression;
 import org.apache.rya.indexing.accumulo.freetext.query.ASTNodeUtils;
@@ -112,16 +130,22 @@ import com.google.common.collect.Lists;
  * information:
  *
  * <pre>
- * Row (partition)   | CF/CQ/Value
- * ==================+=============
- * l\x00token        | (empty)
- * r\x00Reversetoken | (empty)
+ * Row (partition)   | Column Family  | Value
+ * ==================+================+==========
+ * l\x00token        | (empty)        | (empty)
+ * l\x00token        | f\x00          | Document Frequency
+ * r\x00Reversetoken | (empty)        | (empty)
  * </pre>
  * <p>
  * There are two prefixes in the table, "token list" (keys with an "l" prefix) and "reverse token list" (keys with a "r" prefix). This table
  * is uses the "token list" to expand foo* into terms like food, foot, and football. This table uses the "reverse token list" to expand *ar
  * into car, bar, and far.
  * <p>
+ * The "token list" also counts the documents that contain each token. Every stored document writes a 1 and every deleted document writes
+ * a -1 to the f\x00 column, and a {@link SummingCombiner} folds them into the token's document frequency. Queries use the frequencies to
+ * evaluate the rarest clause of each "and" first.
+ * Tables indexed before the column existed are counted once, when the indexer first opens them.
+ * <p>
  * Example: Given these three statements as inputs:
  *
  * <pre>
@@ -167,20 +191,26 @@ import com.google.common.collect.Lists;
  * <p>
  *
  * <pre>
- * Row (partition)   | CF/CQ/Value
- * ==================+=============
- * l\x00paul         | (empty)
- * l\x00smith        | (empty)
- * l\x00steven       | (empty)
- * l\x00anthony      | (empty)
- * l\x00miller       | (empty)
- * l\x00steve        | (empty)
- * r\x00luap         | (empty)
- * r\x00htims        | (empty)
- * r\x00nevets       | (empty)
- * r\x00ynohtna      | (empty)
- * r\x00rellim       | (empty)
- * r\x00evets        | (empty)
+ * Row (partition)   | Column Family  | Value
+ * ==================+================+==========
+ * l\x00paul         | (empty)        | (empty)
+ * l\x00paul         | f\x00          | 1
+ * l\x00smith        | (empty)        | (empty)
+ * l\x00smith        | f\x00          | 1
+ * l\x00steven       | (empty)        | (empty)
+ * l\x00steven       | f\x00          | 1
+ * l\x00anthony      | (empty)        | (empty)
+ * l\x00anthony      | f\x00          | 1
+ * l\x00miller       | (empty)        | (empty)
+ * l\x00miller       | f\x00          | 2
+ * l\x00steve        | (empty)        | (empty)
+ * l\x00steve        | f\x00          | 1
+ * r\x00luap         | (empty)        | (empty)
+ * r\x00htims        | (empty)        | (empty)
+ * r\x00nevets       | (empty)        | (empty)
+ * r\x00ynohtna      | (empty)        | (empty)
+ * r\x00rellim       | (empty)        | (empty)
+ * r\x00evets        | (empty)        | (empty)
  *
  * <pre>
  */
@@ -197,6 +227,29 @@ public class AccumuloFreeTextIndexer extends AbstractAccumuloIndexer implements
     private static final Text EMPTY_TEXT = new Text(EMPTY_BYTES);
     private static final Value EMPTY_VALUE = new Value(EMPTY_BYTES);
 
+    private static final Value ADD_DOC_VALUE = new Value("1".getBytes(Charsets.UTF_8));
+    private static final Value REMOVE_DOC_VALUE = new Value("-1".getBytes(Charsets.UTF_8));
+
+    /**
+     * The name of the iterator that sums the term table's document frequency column.
+     */
+    public static final String DOC_FREQ_COMBINER_NAME = "docFreqSum";
+
+    /**
+     * The document frequency of a term that is not in the term table, or of a clause that can not be estimated.
+     */
+    private static final long UNKNOWN_FREQUENCY = Long.MAX_VALUE;
+
+    /**
+     * A query term that will never be in the index.
+     */
+    private static final String NO_DOCS_TERM = "\1\1\1";
+
+    /**
+     * The number of documents that are written before the indexer flushes so it can stop remembering them.
+     */
+    private static final int MAX_UNFLUSHED_DOCS = 10000;
+
     private Tokenizer tokenizer;
 
     private BatchWriter docTableBw;
@@ -209,8 +262,13 @@ public class AccumuloFreeTextIndexer extends AbstractAccumuloIndexer implements
 
     private Set<IRI> validPredicates;
 
+    private WildcardExpander wildcardExpander;
+
     private Configuration conf;
 
+    // Whether each document written or deleted since the last flush is stored. A scan of the document table might not see these changes yet.
+    private final Map<Text, Boolean> unflushedDocs = Collections.synchronizedMap(new HashMap<Text, Boolean>());
+
     private boolean isInit = false;
 
     /**
@@ -254,6 +312,7 @@ public class AccumuloFreeTextIndexer extends AbstractAccumuloIndexer implements
             }
             tableOps.addSplits(termtable, splits);
         }
+        final boolean countsDocFrequencies = tableOps.listIterators(termtable).containsKey(DOC_FREQ_COMBINER_NAME);
 
         // Create document (text) table partitions
         final boolean createdDocTable = ConfigUtils.createTableIfNotExists(conf, doctable);
@@ -270,6 +329,13 @@ public class AccumuloFreeTextIndexer extends AbstractAccumuloIndexer implements
             tableOps.setProperty(doctable, "table.bloom.enabled", Boolean.TRUE.toString());
         }
 
+        if (!countsDocFrequencies) {
+            if (!createdDocTable) {
+                backfillDocFrequencies(doctable, termtable);
+            }
+            attachDocFrequencyCombiner(tableOps, termtable);
+        }
+
         // Set mtbw by calling setMultiTableBatchWriter().  The DAO does this and manages flushing.
         // If you create it here, tests work, but a real Accumulo may lose writes due to unmanaged flushing.
         if (mtbw != null) {
@@ -280,6 +346,59 @@ public class AccumuloFreeTextIndexer extends AbstractAccumuloIndexer implements
         validPredicates = ConfigUtils.getFreeTextPredicates(conf);
 
         queryTermLimit = ConfigUtils.getFreeTextTermLimit(conf);
+
+        wildcardExpander = new WildcardExpander(conf, termtable);
+    }
+
+    /**
+     * Sums the +1/-1 entries that are written to the term table's document frequency column. Tables created before the column existed
+     * get the combiner the first time they are opened.
+     */
+    private static void attachDocFrequencyCombiner(final TableOperations tableOps, final String termtable) throws AccumuloException,
+            AccumuloSecurityException, TableNotFoundException {
+        final IteratorSetting setting = new IteratorSetting(10, DOC_FREQ_COMBINER_NAME, SummingCombiner.class);
+        LongCombiner.setEncodingType(setting, LongCombiner.Type.STRING);
+        Combiner.setColumns(setting, Collections.singletonList(new IteratorSetting.Column(ColumnPrefixes.TERM_DOC_FREQ_CF)));
+        tableOps.attachIterator(termtable, setting, EnumSet.allOf(IteratorScope.class));
+    }
+
+    /**
+     * Counts the documents of every token in an existing document table and writes the counts to the term table, so that the +1/-1
+     * entries of later stores and deletes start from the right frequency. Any frequency already in the term table is replaced.
+     */
+    private void backfillDocFrequencies(final String doctable, final String termtable) throws AccumuloException,
+            AccumuloSecurityException, TableNotFoundException {
+        logger.info("Counting the document frequencies of the terms in " + doctable);
+        final Map<Text, Long> frequencies = new HashMap<Text, Long>();
+        final BatchScanner docTableScan = ConfigUtils.createBatchScanner(doctable, conf);
+        try {
+            docTableScan.setRanges(Collections.singleton(new Range()));
+            // Each document of a token is one entry in the token's column family.
+            final IteratorSetting termsOnly = new IteratorSetting(20, "termsOnly", RegExFilter.class);
+            RegExFilter.setRegexs(termsOnly, null, ColumnPrefixes.TERM_CF_PREFIX + ".*", null, null, false);
+            docTableScan.addScanIterator(termsOnly);
+            for (final Entry<Key, Value> e : docTableScan) {
+                final Text term = ColumnPrefixes.removePrefix(e.getKey().getColumnFamily());
+                final Long frequency = frequencies.get(term);
+                frequencies.put(term, frequency == null ? 1L : frequency + 1L);
+            }
+        } finally {
+            docTableScan.close();
+        }
+
+        final BatchWriter termWriter = ConfigUtils.getConnector(conf).createBatchWriter(termtable, new BatchWriterConfig());
+        try {
+            final long now = System.currentTimeMillis();
+            for (final Entry<Text, Long> frequency : frequencies.entrySet()) {
+                final Mutation m = new Mutation(ColumnPrefixes.getTermListColFam(frequency.getKey().toString()));
+                // Delete any partial count, then write the full one just after it.
+                m.putDelete(ColumnPrefixes.TERM_DOC_FREQ_CF, EMPTY_TEXT, now);
+                m.put(ColumnPrefixes.TERM_DOC_FREQ_CF, EMPTY_TEXT, now + 1, new Value(Long.toString(frequency.getValue()).getBytes(Charsets.UTF_8)));
+                termWriter.addMutation(m);
+            }
+        } finally {
+            termWriter.close();
+        }
     }
 
     /**
@@ -309,69 +428,153 @@ public class AccumuloFreeTextIndexer extends AbstractAccumuloIndexer implements
     }
 
 
-    private void storeStatement(final Statement statement) throws IOException {
-        Objects.requireNonNull(mtbw, "Freetext indexer attempting to store, but setMultiTableBatchWriter() was not set.");
+    /**
+     * A statement that has free text to index, and where it is stored in the document table.
+     */
+    private static class IndexedDocument {
+        final Statement statement;
+        final SortedSet<String> tokens;
+        final String docContent;
+        final Text docId;
+        final Text partition;
+
+        IndexedDocument(final Statement statement, final SortedSet<String> tokens, final int docTableNumPartitions) {
+            this.statement = statement;
+            this.tokens = tokens;
+            docContent = StatementSerializer.writeStatement(statement);
+            docId = new Text(Md5Hash.md5Base64(docContent));
+            partition = genPartition(docContent.hashCode(), docTableNumPartitions);
+        }
+    }
 
+    /**
+     * @return The statement's document, or null if the statement has no free text to index.
+     */
+    private IndexedDocument toDocument(final Statement statement) {
         // if the predicate list is empty, accept all predicates.
         // Otherwise, make sure the predicate is on the "valid" list
         final boolean isValidPredicate = validPredicates.isEmpty() || validPredicates.contains(statement.getPredicate());
 
         if (isValidPredicate && (statement.getObject() instanceof Literal)) {
-
             // Get the tokens
             final String text = statement.getObject().stringValue().toLowerCase();
             final SortedSet<String> tokens = tokenizer.tokenize(text);
-
             if (!tokens.isEmpty()) {
-                // Get Document Data
-                final String docContent = StatementSerializer.writeStatement(statement);
+                return new IndexedDocument(statement, tokens, docTableNumPartitions);
+            }
+        }
+        return null;
+    }
 
-                final String docId = Md5Hash.md5Base64(docContent);
+    private void storeDocument(final IndexedDocument doc, final boolean isNewDocument) throws IOException {
+        final Statement statement = doc.statement;
+        final Text docIdText = doc.docId;
 
-                // Setup partition
-                final Text partition = genPartition(docContent.hashCode(), docTableNumPartitions);
+        final Mutation docTableMut = new Mutation(doc.partition);
+        final List<Mutation> termTableMutations = new ArrayList<Mutation>();
 
-                final Mutation docTableMut = new Mutation(partition);
-                final List<Mutation> termTableMutations = new ArrayList<Mutation>();
+        // Store the Document Data
+        docTableMut.put(ColumnPrefixes.DOCS_CF_PREFIX, docIdText, new Value(doc.docContent.getBytes(Charsets.UTF_8)));
 
-                final Text docIdText = new Text(docId);
+        // index the statement parts
+        docTableMut.put(ColumnPrefixes.getSubjColFam(statement), docIdText, EMPTY_VALUE);
+        docTableMut.put(ColumnPrefixes.getPredColFam(statement), docIdText, EMPTY_VALUE);
+        docTableMut.put(ColumnPrefixes.getObjColFam(statement), docIdText, EMPTY_VALUE);
+        docTableMut.put(ColumnPrefixes.getContextColFam(statement), docIdText, EMPTY_VALUE);
 
-                // Store the Document Data
-                docTableMut.put(ColumnPrefixes.DOCS_CF_PREFIX, docIdText, new Value(docContent.getBytes(Charsets.UTF_8)));
+        // index the statement terms
+        for (final String token : doc.tokens) {
+            // tie the token to the document
+            docTableMut.put(ColumnPrefixes.getTermColFam(token), docIdText, EMPTY_VALUE);
 
-                // index the statement parts
-                docTableMut.put(ColumnPrefixes.getSubjColFam(statement), docIdText, EMPTY_VALUE);
-                docTableMut.put(ColumnPrefixes.getPredColFam(statement), docIdText, EMPTY_VALUE);
-                docTableMut.put(ColumnPrefixes.getObjColFam(statement), docIdText, EMPTY_VALUE);
-                docTableMut.put(ColumnPrefixes.getContextColFam(statement), docIdText, EMPTY_VALUE);
+            // store the term in the term table (useful for wildcard searches) and count the document if it was not indexed before
+            final Mutation termListMut = createEmptyPutMutation(ColumnPrefixes.getTermListColFam(token));
+            if (isNewDocument) {
+                termListMut.put(ColumnPrefixes.TERM_DOC_FREQ_CF, EMPTY_TEXT, ADD_DOC_VALUE);
+            }
+            termTableMutations.add(termListMut);
+            termTableMutations.add(createEmptyPutMutation(ColumnPrefixes.getRevTermListColFam(token)));
+        }
 
-                // index the statement terms
-                for (final String token : tokens) {
-                    // tie the token to the document
-                    docTableMut.put(ColumnPrefixes.getTermColFam(token), docIdText, EMPTY_VALUE);
+        // write the mutations
+        try {
+            docTableBw.addMutation(docTableMut);
+            termTableBw.addMutations(termTableMutations);
+        } catch (final MutationsRejectedException e) {
+            logger.error("error adding mutation", e);
+            throw new IOException(e);
+        }
 
-                    // store the term in the term table (useful for wildcard searches)
-                    termTableMutations.add(createEmptyPutMutation(ColumnPrefixes.getTermListColFam(token)));
-                    termTableMutations.add(createEmptyPutMutation(ColumnPrefixes.getRevTermListColFam(token)));
-                }
+        wildcardExpander.termsAdded(doc.tokens);
+    }
 
-                // write the mutations
-                try {
-                    docTableBw.addMutation(docTableMut);
-                    termTableBw.addMutations(termTableMutations);
-                } catch (final MutationsRejectedException e) {
-                    logger.error("error adding mutation", e);
-                    throw new IOException(e);
+    /**
+     * Finds the documents that are already in the document table. Documents written or deleted since the last flush
+     * are remembered instead, because the batch writer may not have sent them yet.
+     *
+     * @return The ids of the documents that are stored.
+     */
+    private Set<Text> findStoredDocuments(final List<IndexedDocument> docs) throws IOException {
+        final Set<Text> stored = new HashSet<Text>();
+        final List<Range> ranges = new ArrayList<Range>();
+        for (final IndexedDocument doc : docs) {
+            final Boolean isStored = unflushedDocs.get(doc.docId);
+            if (isStored != null) {
+                if (isStored) {
+                    stored.add(doc.docId);
                 }
+            } else {
+                ranges.add(Range.exact(doc.partition, ColumnPrefixes.DOCS_CF_PREFIX, doc.docId));
+            }
+        }
+        if (ranges.isEmpty()) {
+            return stored;
+        }
+
+        final BatchScanner docTableScan = getBatchScanner(getFreeTextDocTablename(conf));
+        try {
+            docTableScan.setRanges(ranges);
+            docTableScan.fetchColumnFamily(ColumnPrefixes.DOCS_CF_PREFIX);
+            for (final Entry<Key, Value> e : docTableScan) {
+                stored.add(e.getKey().getColumnQualifier());
+            }
+        } finally {
+            docTableScan.close();
+        }
+        return stored;
+    }
+
+    @Override
+    public void storeStatements(final Collection<RyaStatement> statements) throws IOException {
+        Objects.requireNonNull(mtbw, "Freetext indexer attempting to store, but setMultiTableBatchWriter() was not set.");
 
+        final List<IndexedDocument> docs = new ArrayList<IndexedDocument>();
+        for (final RyaStatement statement : statements) {
+            final IndexedDocument doc = toDocument(RyaToRdfConversions.convertStatement(statement));
+            if (doc != null) {
+                docs.add(doc);
             }
+        }
+        if (docs.isEmpty()) {
+            return;
+        }
 
+        // Statements that are stored again, or more than once in the batch, only count their document once.
+        final Set<Text> stored = findStoredDocuments(docs);
+        for (final IndexedDocument doc : docs) {
+            final boolean isNewDocument = stored.add(doc.docId);
+            storeDocument(doc, isNewDocument);
+            unflushedDocs.put(doc.docId, true);
+        }
+
+        if (unflushedDocs.size() >= MAX_UNFLUSHED_DOCS) {
+            flush();
         }
     }
 
     @Override
     public void storeStatement(final RyaStatement statement) throws IOException {
-        storeStatement(RyaToRdfConversions.convertStatement(statement));
+        storeStatements(Collections.singleton(statement));
     }
 
     private static Mutation createEmptyPutMutation(final Text row) {
@@ -399,12 +602,15 @@ public class AccumuloFreeTextIndexer extends AbstractAccumuloIndexer implements
     /** {@inheritDoc} */
     @Override
     public void flush() throws IOException {
+        final long flushStart = System.currentTimeMillis();
         try {
             mtbw.flush();
         } catch (final MutationsRejectedException e) {
             logger.error("error flushing the batch writer", e);
             throw new IOException(e);
         }
+        unflushedDocs.clear();
+        wildcardExpander.flushed(flushStart);
     }
 
     /** {@inheritDoc} */
@@ -419,40 +625,29 @@ public class AccumuloFreeTextIndexer extends AbstractAccumuloIndexer implements
         }
     }
 
-    private Set<String> unrollWildcard(final String string, final boolean reverse) throws IOException {
-        final Scanner termTableScan = getScanner(getFreeTextTermTablename(conf));
-
-        final Set<String> unrolledTerms = new HashSet<String>();
-
-        Text queryTerm;
+    /**
+     * @return The terms the wildcard expands to, or an empty {@link Optional} if it matches too many terms to expand.
+     */
+    private Optional<Set<String>> unrollWildcard(final String string, final boolean reverse) throws IOException {
+        final String stem;
         if (reverse) {
-            final String t = StringUtils.removeStart(string, "*").toLowerCase();
-            queryTerm = ColumnPrefixes.getRevTermListColFam(t);
+            stem = StringUtils.removeStart(string, "*").toLowerCase();
         } else {
-            final String t = StringUtils.removeEnd(string, "*").toLowerCase();
-            queryTerm = ColumnPrefixes.getTermListColFam(t);
-        }
-
-        // perform query and read results
-        termTableScan.setRange(Range.prefix(queryTerm));
-
-        for (final Entry<Key, Value> e : termTableScan) {
-            final String term = ColumnPrefixes.removePrefix(e.getKey().getRow()).toString();
-            if (reverse) {
-                unrolledTerms.add(StringUtils.reverse(term));
-            } else {
-                unrolledTerms.add(term);
-            }
+            stem = StringUtils.removeEnd(string, "*").toLowerCase();
         }
 
-        if (unrolledTerms.isEmpty()) {
+        final Optional<Set<String>> expansion = wildcardExpander.expand(stem, reverse);
+        if (expansion.isPresent() && expansion.get().isEmpty()) {
             // put in a placeholder term that will never be in the index.
-            unrolledTerms.add("\1\1\1");
+            return Optional.<Set<String>>of(Collections.singleton(NO_DOCS_TERM));
         }
-
-        return unrolledTerms;
+        return expansion;
     }
 
+    /**
+     * Replaces the wildcard terms in the query tree with an "or" of the terms they expand to. A wildcard that matches too many terms is
+     * left in the query, and the {@link BooleanTreeIterator} matches it against the term columns of the documents on the server.
+     */
     private void unrollWildcards(final SimpleNode node) throws IOException {
         if (node instanceof ASTExpression || node instanceof ASTSimpleNode) {
             for (final SimpleNode n : getNodeIterator(node)) {
@@ -463,14 +658,18 @@ public class AccumuloFreeTextIndexer extends AbstractAccumuloIndexer implements
             final boolean isWildTerm = term.getType().equals(ASTTerm.WILDTERM);
             final boolean isPreWildTerm = term.getType().equals(ASTTerm.PREFIXTERM);
             if (isWildTerm || isPreWildTerm) {
-                final Set<String> unrolledTerms = unrollWildcard(term.getTerm(), isPreWildTerm);
+                final Optional<Set<String>> unrolledTerms = unrollWildcard(term.getTerm(), isPreWildTerm);
+                if (!unrolledTerms.isPresent()) {
+                    logger.debug("Wildcard " + term.getTerm() + " matches too many terms to expand. Matching it on the server instead.");
+                    return;
+                }
 
                 // create a new expression
                 final ASTExpression newExpression = new ASTExpression(QueryParserTreeConstants.JJTEXPRESSION);
                 newExpression.setType(ASTExpression.OR);
                 newExpression.setNotFlag(term.isNotFlag());
 
-                for (final String unrolledTerm : unrolledTerms) {
+                for (final String unrolledTerm : unrolledTerms.get()) {
                     final ASTTerm t = new ASTTerm(QueryParserTreeConstants.JJTTERM);
                     t.setNotFlag(false);
                     t.setTerm(unrolledTerm);
@@ -478,13 +677,14 @@ public class AccumuloFreeTextIndexer extends AbstractAccumuloIndexer implements
                     ASTNodeUtils.pushChild(newExpression, t);
                 }
 
-                // replace "term" node with "expression" node in "term" node parent
+                // replace "term" node with the new expression in "term" node parent
                 final SimpleNode parent = (SimpleNode) term.jjtGetParent();
                 final int index = ASTNodeUtils.getChildIndex(parent, term);
 
                 Validate.isTrue(index >= 0, "child not found in parent");
 
                 parent.jjtAddChild(newExpression, index);
+                newExpression.jjtSetParent(parent);
             }
 
         } else {
@@ -501,22 +701,163 @@ public class AccumuloFreeTextIndexer extends AbstractAccumuloIndexer implements
         }
     }
 
+    private BatchScanner getBatchScanner(final String tablename) throws IOException {
+        try {
+            return ConfigUtils.createBatchScanner(tablename, conf);
+        } catch (AccumuloException | AccumuloSecurityException | TableNotFoundException e) {
+            logger.error("Error connecting to " + tablename);
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * One range per tablet of the document table, so that the partitions are searched in parallel.
+     */
+    private List<Range> getPartitionRanges(final String tablename) throws IOException {
+        final Collection<Text> splits;
+        try {
+            splits = ConfigUtils.getConnector(conf).tableOperations().listSplits(tablename);
+        } catch (AccumuloException | AccumuloSecurityException | TableNotFoundException e) {
+            logger.error("Error reading the splits of " + tablename);
+            throw new IOException(e);
+        }
+
+        final List<Range> ranges = new ArrayList<Range>();
+        Text previous = null;
+        for (final Text split : splits) {
+            ranges.add(new Range(previous, false, split, true));
+            previous = split;
+        }
+        ranges.add(new Range(previous, false, null, true));
+        return ranges;
+    }
+
+    /**
+     * Collect the terms in the query tree that have a document frequency in the term table.
+     */
+    private static void getQueryTerms(final SimpleNode node, final Set<String> terms) {
+        if (node instanceof ASTTerm) {
+            final ASTTerm termNode = (ASTTerm) node;
+            final String term = termNode.getTerm();
+            // null is "all docs", terms with a null char are statement constraints, and wildcards have no document frequency
+            final boolean isWildcard = termNode.getType().equals(ASTTerm.WILDTERM) || termNode.getType().equals(ASTTerm.PREFIXTERM);
+            if (term != null && !term.contains("\0") && !isWildcard) {
+                terms.add(term.toLowerCase());
+            }
+        } else {
+            for (final SimpleNode n : getNodeIterator(node)) {
+                getQueryTerms(n, terms);
+            }
+        }
+    }
+
+    private Map<String, Long> getDocumentFrequencies(final Set<String> terms) throws IOException {
+        final Map<String, Long> frequencies = new HashMap<String, Long>();
+        if (terms.isEmpty()) {
+            return frequencies;
+        }
+
+        final List<Range> ranges = new ArrayList<Range>();
+        for (final String term : terms) {
+            ranges.add(Range.exact(ColumnPrefixes.getTermListColFam(term)));
+        }
+
+        final BatchScanner termTableScan = getBatchScanner(getFreeTextTermTablename(conf));
+        try {
+            termTableScan.setRanges(ranges);
+            termTableScan.fetchColumnFamily(ColumnPrefixes.TERM_DOC_FREQ_CF);
+            for (final Entry<Key, Value> e : termTableScan) {
+                final String term = ColumnPrefixes.removePrefix(e.getKey().getRow()).toString();
+                try {
+                    final long frequency = Long.parseLong(new String(e.getValue().get(), Charsets.UTF_8));
+                    // A token can not be in fewer than one document, so the count is missing some of them.
+                    if (frequency > 0) {
+                        frequencies.put(term, frequency);
+                    }
+                } catch (final NumberFormatException nfe) {
+                    logger.warn("Ignoring malformed document frequency for term: " + term);
+                }
+            }
+        } finally {
+            termTableScan.close();
+        }
+        return frequencies;
+    }
+
+    /**
+     * Reorders the children of every "and" expression in the query tree so that the clause matching the fewest documents comes first and
+     * negated clauses come last. The {@link AndingIterator} that evaluates an "and" seeks its other sources to the documents of the first
+     * one, so putting the rarest clause first minimizes the number of seeks.
+     *
+     * @param node - The query tree to reorder. (not null)
+     * @param frequencies - The document frequency of each term in the query. Terms that are missing are treated as unknown. (not null)
+     * @return An estimate of the number of documents that match the node.
+     */
+    static long orderRarestFirst(final SimpleNode node, final Map<String, Long> frequencies) {
+        if (node instanceof ASTTerm) {
+            final String term = ((ASTTerm) node).getTerm();
+            if (term == null) {
+                return UNKNOWN_FREQUENCY;
+            }
+            final Long frequency = frequencies.get(term.toLowerCase());
+            return frequency == null ? UNKNOWN_FREQUENCY : frequency;
+        }
+
+        final List<SimpleNode> children = new ArrayList<SimpleNode>();
+        final Map<SimpleNode, Long> estimates = new IdentityHashMap<SimpleNode, Long>();
+        for (final SimpleNode child : getNodeIterator(node)) {
+            children.add(child);
+            estimates.put(child, orderRarestFirst(child, frequencies));
+        }
+
+        if (node instanceof ASTExpression && ((ASTExpression) node).getType().equals(ASTExpression.AND)) {
+            // the sort is stable, so clauses with the same estimate keep the order they were written in
+            Collections.sort(children, new Comparator<SimpleNode>() {
+                @Override
+                public int compare(final SimpleNode a, final SimpleNode b) {
+                    final boolean aNot = isNotFlag(a);
+                    final boolean bNot = isNotFlag(b);
+                    if (aNot != bNot) {
+                        return aNot ? 1 : -1;
+                    }
+                    return Long.compare(estimates.get(a), estimates.get(b));
+                }
+            });
+            for (int i = 0; i < children.size(); i++) {
+                node.jjtAddChild(children.get(i), i);
+            }
+
+            long estimate = UNKNOWN_FREQUENCY;
+            for (final SimpleNode child : children) {
+                if (!isNotFlag(child)) {
+                    estimate = Math.min(estimate, estimates.get(child));
+                }
+            }
+            return estimate;
+        }
+
+        if (node instanceof ASTExpression && ((ASTExpression) node).getType().equals(ASTExpression.OR)) {
+            long estimate = 0;
+            for (final SimpleNode child : children) {
+                final long childEstimate = estimates.get(child);
+                estimate = (UNKNOWN_FREQUENCY - estimate < childEstimate) ? UNKNOWN_FREQUENCY : estimate + childEstimate;
+            }
+            return estimate;
+        }
+
+        // the root of the tree wraps a single expression
+        return children.isEmpty() ? UNKNOWN_FREQUENCY : estimates.get(children.get(0));
+    }
+
     /** {@inheritDoc} */
     @Override
     public CloseableIteration<Statement, QueryEvaluationException> queryText(final String query, final StatementConstraints contraints)
             throws IOException {
-        final Scanner docTableScan = getScanner(getFreeTextDocTablename(conf));
-
         // test the query to see if it's parses correctly.
         SimpleNode root = parseQuery(query);
 
-        // unroll any wildcard nodes before it goes to the server
-        unrollWildcards(root);
-
-        final String unrolledQuery = ASTNodeUtils.serializeExpression(root);
-
         // Add S P O C constraints to query
-        final StringBuilder constrainedQuery = new StringBuilder("(" + unrolledQuery + ")");
+        final StringBuilder constrainedQuery = new StringBuilder("(" + ASTNodeUtils.serializeExpression(root) + ")");
 
         if (contraints.hasSubject()) {
             constrainedQuery.append(" AND ");
@@ -536,7 +877,7 @@ public class AccumuloFreeTextIndexer extends AbstractAccumuloIndexer implements
             constrainedQuery.append(")");
         }
 
-        // Verify that the query is a reasonable size
+        // Verify that the query is a reasonable size. A wildcard counts as one term, what it expands to is bounded by the expansion limit.
         root = parseQuery(constrainedQuery.toString());
         final int termCount = ASTNodeUtils.termCount(root);
 
@@ -544,32 +885,56 @@ public class AccumuloFreeTextIndexer extends AbstractAccumuloIndexer implements
             throw new IOException("Query contains too many terms.  Term limit: " + queryTermLimit + ".  Term Count: " + termCount);
         }
 
+        // unroll any wildcard nodes before it goes to the server
+        unrollWildcards(root);
+
+        // Plan the query using the term table's document frequencies
+        final Set<String> queryTerms = new HashSet<String>();
+        getQueryTerms(root, queryTerms);
+        orderRarestFirst(root, getDocumentFrequencies(queryTerms));
+        final String plannedQuery = ASTNodeUtils.serializeExpression(root);
+
         // perform query
-        docTableScan.clearScanIterators();
-        docTableScan.clearColumns();
+        final String doctable = getFreeTextDocTablename(conf);
+        final BatchScanner docTableScan = getBatchScanner(doctable);
 
         final int iteratorPriority = 20;
         final String iteratorName = "booleanTree";
         final IteratorSetting ii = new IteratorSetting(iteratorPriority, iteratorName, BooleanTreeIterator.class);
-        BooleanTreeIterator.setQuery(ii, constrainedQuery.toString());
+        BooleanTreeIterator.setQuery(ii, plannedQuery);
         docTableScan.addScanIterator(ii);
-        docTableScan.setRange(new Range());
+        docTableScan.setRanges(getPartitionRanges(doctable));
 
-        return getIteratorWrapper(docTableScan);
+        return getIteratorWrapper(docTableScan, contraints.getLimit());
     }
 
-    private static CloseableIteration<Statement, QueryEvaluationException> getIteratorWrapper(final Scanner s) {
+    /**
+     * @param s - The scanner that reads the matching documents.
+     * @param limit - The maximum number of statements to return, or a negative number for no limit. The scanner is closed once the limit
+     *   is reached so the remaining partitions are not read.
+     */
+    private static CloseableIteration<Statement, QueryEvaluationException> getIteratorWrapper(final ScannerBase s, final long limit) {
 
         final Iterator<Entry<Key, Value>> i = s.iterator();
 
         return new CloseableIteration<Statement, QueryEvaluationException>() {
+            private long count = 0;
+
             @Override
             public boolean hasNext() {
+                if (limit >= 0 && count >= limit) {
+                    s.close();
+                    return false;
+                }
                 return i.hasNext();
             }
 
             @Override
             public Statement next() throws QueryEvaluationException {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                count++;
                 final Entry<Key, Value> entry = i.next();
                 final Value v = entry.getValue();
                 try {
@@ -732,6 +1097,7 @@ public class AccumuloFreeTextIndexer extends AbstractAccumuloIndexer implements
 
                 final Mutation docTableMut = new Mutation(partition);
                 final List<Mutation> termTableMutations = new ArrayList<Mutation>();
+                final List<String> deletedTerms = new ArrayList<String>();
 
                 final Text docIdText = new Text(docId);
 
@@ -747,17 +1113,29 @@ public class AccumuloFreeTextIndexer extends AbstractAccumuloIndexer implements
 
                 // Delete the statement terms in index
                 for (final String token : tokens) {
+                    boolean isTermDeleted = false;
                     if (IS_TERM_TABLE_TOKEN_DELETION_ENABLED) {
                         final int rowId = Integer.parseInt(partition.toString());
                         final boolean doesTermExistInOtherDocs = doesTermExistInOtherDocs(token, rowId, docIdText);
                         // Only delete the term from the term table if it doesn't appear in other docs
                         if (!doesTermExistInOtherDocs) {
-                            // Delete the term in the term table
-                            termTableMutations.add(createEmptyPutDeleteMutation(ColumnPrefixes.getTermListColFam(token)));
+                            // Delete the term and its document frequency in the term table
+                            final Mutation termListMut = createEmptyPutDeleteMutation(ColumnPrefixes.getTermListColFam(token));
+                            termListMut.putDelete(ColumnPrefixes.TERM_DOC_FREQ_CF, EMPTY_TEXT);
+                            termTableMutations.add(termListMut);
                             termTableMutations.add(createEmptyPutDeleteMutation(ColumnPrefixes.getRevTermListColFam(token)));
+                            deletedTerms.add(token);
+                            isTermDeleted = true;
                         }
                     }
 
+                    if (!isTermDeleted) {
+                        // Un-count the document
+                        final Mutation termListMut = new Mutation(ColumnPrefixes.getTermListColFam(token));
+                        termListMut.put(ColumnPrefixes.TERM_DOC_FREQ_CF, EMPTY_TEXT, REMOVE_DOC_VALUE);
+                        termTableMutations.add(termListMut);
+                    }
+
                     // Un-tie the token to the document
                     docTableMut.putDelete(ColumnPrefixes.getTermColFam(token), docIdText);
                 }
@@ -771,6 +1149,11 @@ public class AccumuloFreeTextIndexer extends AbstractAccumuloIndexer implements
                     throw new IOException(e);
                 }
 
+                unflushedDocs.put(docIdText, false);
+                for (final String term : deletedTerms) {
+                    wildcardExpander.termRemoved(term);
+                }
+
             }
         }
     }
@@ -802,7 +1185,7 @@ public class AccumuloFreeTextIndexer extends AbstractAccumuloIndexer implements
                 final Text row = key.getRow();
                 final int rowId = Integer.parseInt(row.toString());
                 // We only want to check other documents from the one we're deleting
-                if (rowId != currentDocId) {
+                if (rowId != currentDocId || !docIdText.equals(key.getColumnQualifier())) {
                     final Text columnFamily = key.getColumnFamily();
                     final String columnFamilyValue = columnFamily.toString();
                     // Check that the value has the term prefix
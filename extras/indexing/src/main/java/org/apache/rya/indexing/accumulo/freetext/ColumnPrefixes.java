@@ -43,6 +43,11 @@ public class ColumnPrefixes {
 	public static final Text OBJECT_CF_PREFIX = new Text("o\0");
 	public static final Text CONTEXT_CF_PREFIX = new Text("c\0");
 
+	/**
+	 * The term table column that holds the number of documents a term appears in.
+	 */
+	public static final Text TERM_DOC_FREQ_CF = new Text("f\0");
+
 	private static Text concat(Text prefix, String str) {
 		Text temp = new Text(prefix);
 
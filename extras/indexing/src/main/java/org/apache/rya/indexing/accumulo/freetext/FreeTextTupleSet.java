@@ -47,6 +47,8 @@ public class FreeTextTupleSet extends ExternalTupleSet {
     private Configuration conf;
     private FreeTextIndexer freeTextIndexer;
     private IndexingExpr filterInfo;
+    // The number of results the query needs, or a negative number for all of them.
+    private long limit = -1;
     
 
     public FreeTextTupleSet(IndexingExpr filterInfo, FreeTextIndexer freeTextIndexer) {
@@ -71,7 +73,26 @@ public class FreeTextTupleSet extends ExternalTupleSet {
      */
     @Override
     public FreeTextTupleSet clone() {
-        return new FreeTextTupleSet(filterInfo, freeTextIndexer);
+        final FreeTextTupleSet clone = new FreeTextTupleSet(filterInfo, freeTextIndexer);
+        clone.limit = limit;
+        return clone;
+    }
+
+    /**
+     * @return The number of results the query needs from the search, or a negative number for all of them.
+     */
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * Lets the search stop once it has found enough results. Only set this when every result of the
+     * search is a result of the query, such as when the search is the only thing below a LIMIT.
+     *
+     * @param limit - The number of results the query needs, or a negative number for all of them.
+     */
+    public void setLimit(long limit) {
+        this.limit = limit;
     }
 
     @Override
@@ -133,6 +154,7 @@ public class FreeTextTupleSet extends ExternalTupleSet {
             public CloseableIteration<Statement, QueryEvaluationException> performSearch(String queryText,
                     StatementConstraints contraints) throws QueryEvaluationException {
                 try {
+                    contraints.setLimit(limit);
                     CloseableIteration<Statement, QueryEvaluationException> statements = freeTextIndexer.queryText(
                             queryText, contraints);
                     return statements;
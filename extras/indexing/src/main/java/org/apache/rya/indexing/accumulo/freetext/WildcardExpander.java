@@ -0,0 +1,480 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.accumulo.freetext;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.apache.log4j.Logger;
+import org.apache.rya.indexing.accumulo.ConfigUtils;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Expands the wildcard terms of a free text query (foo* and *ar) into the terms of the term table that match them.
+ * <p>
+ * Expansions are bounded. A wildcard that matches more than {@link ConfigUtils#getFreeTextWildcardMaxExpansion(Configuration)} terms is
+ * not expanded, and the caller has to evaluate it some other way. At most one term past the limit is read to find that out.
+ * <p>
+ * Expansions are answered from an in memory dictionary of the term table when it fits within
+ * {@link ConfigUtils#getFreeTextWildcardDictionaryMaxTerms(Configuration)} terms, and from a range scan of the term table otherwise. The
+ * dictionary is a sorted set of the terms and a sorted set of the reversed terms, so both kinds of wildcard are answered by reading a
+ * range of one of them. Either way the result is kept in an LRU cache keyed by the wildcard. A term table that is too large for the
+ * dictionary is checked again less and less often, up to {@value #MAX_BACKOFF} times the refresh interval.
+ * <p>
+ * Terms that are stored or deleted through {@link #termsAdded(Collection)}, {@link #termAdded(String)} and {@link #termRemoved(String)}
+ * are seen right away, even before the writes that store them are flushed. They are remembered until {@link #flushed(long)} reports that
+ * the writes reached the table, or until a reload of the dictionary finds them there. Terms written by other clients are seen once the
+ * cache entries and the dictionary are refreshed, see {@link ConfigUtils#getFreeTextWildcardRefreshMillis(Configuration)}.
+ * <p>
+ * This class is thread safe.
+ */
+public class WildcardExpander {
+    private static final Logger logger = Logger.getLogger(WildcardExpander.class);
+
+    /**
+     * The most that the dictionary refresh interval is multiplied by while the term table is too large for the dictionary.
+     */
+    private static final int MAX_BACKOFF = 64;
+
+    /**
+     * The most changes that are remembered while waiting for them to be flushed. The oldest ones are forgotten first.
+     */
+    private static final int MAX_PENDING_CHANGES = 100000;
+
+    private final Configuration conf;
+    private final String termTable;
+    private final int maxExpansion;
+    private final long refreshMillis;
+    private final int dictionaryMaxTerms;
+
+    /**
+     * Expansions keyed by the term table prefix that they were read from. Each one holds at most maxExpansion + 1 terms and is
+     * replaced rather than modified, so the sets that are handed out never change.
+     */
+    private final Cache<String, CachedExpansion> expansions;
+
+    // The fields below are guarded by this.
+
+    // The dictionary of terms, and of the reversed terms for suffix wildcards. Null when it has not been loaded or is too large.
+    private NavigableSet<String> terms = null;
+    private NavigableSet<String> reversedTerms = null;
+    private boolean loadingDictionary = false;
+    private long nextDictionaryLoadTime = 0;
+    private long dictionaryRefreshMillis;
+
+    // The terms that were added or removed through this instance and that may not be in the term table yet, oldest first.
+    private final Map<String, PendingChange> pendingChanges = new LinkedHashMap<>();
+    private final NavigableMap<String, PendingChange> pendingTerms = new TreeMap<>();
+    private final NavigableMap<String, PendingChange> pendingReversedTerms = new TreeMap<>();
+
+    /**
+     * Constructs an instance of {@link WildcardExpander}.
+     *
+     * @param conf - The configuration that holds the expansion settings and Accumulo connection details. (not null)
+     * @param termTable - The name of the free text term table. (not null)
+     */
+    public WildcardExpander(final Configuration conf, final String termTable) {
+        this.conf = requireNonNull(conf);
+        this.termTable = requireNonNull(termTable);
+        maxExpansion = ConfigUtils.getFreeTextWildcardMaxExpansion(conf);
+        refreshMillis = ConfigUtils.getFreeTextWildcardRefreshMillis(conf);
+        dictionaryMaxTerms = ConfigUtils.getFreeTextWildcardDictionaryMaxTerms(conf);
+        dictionaryRefreshMillis = refreshMillis;
+        expansions = CacheBuilder.newBuilder()
+                .maximumSize(ConfigUtils.getFreeTextWildcardCacheSize(conf))
+                .expireAfterWrite(refreshMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Expands a wildcard.
+     *
+     * @param stem - The lower case text of the wildcard without its "*". (not null)
+     * @param isSuffix - {@code true} if the wildcard matches the terms that end with the stem (*ar), {@code false} if it matches the
+     *   terms that start with it (foo*).
+     * @return The terms that match the wildcard, or an empty {@link Optional} if more terms match it than the expansion limit allows.
+     * @throws IOException The term table could not be read.
+     */
+    public Optional<Set<String>> expand(final String stem, final boolean isSuffix) throws IOException {
+        requireNonNull(stem);
+        final Text prefix = isSuffix ? ColumnPrefixes.getRevTermListColFam(stem) : ColumnPrefixes.getTermListColFam(stem);
+
+        // Local changes replace cache entries, which restarts their expiration, so the age of what was read is checked as well.
+        final CachedExpansion cached = expansions.getIfPresent(prefix.toString());
+        final Set<String> expansion;
+        if (cached != null && System.currentTimeMillis() - cached.readTime < refreshMillis) {
+            expansion = cached.terms;
+        } else {
+            expansion = lookup(prefix, isSuffix);
+        }
+
+        if (expansion.size() > maxExpansion) {
+            return Optional.empty();
+        }
+        return Optional.of(expansion);
+    }
+
+    /**
+     * Makes a term that was stored in the term table available to wildcard expansions.
+     *
+     * @param term - The term that was stored. (not null)
+     */
+    public synchronized void termAdded(final String term) {
+        requireNonNull(term);
+        final boolean wasAdded = remember(term, true);
+        final boolean isNewTerm = terms == null ? !wasAdded : terms.add(term);
+        if (terms != null && isNewTerm) {
+            reversedTerms.add(StringUtils.reverse(term));
+        }
+        // The expansions already hold a term that was known before, so most tokens of a document stop here.
+        if (isNewTerm && expansions.size() > 0) {
+            updateExpansions(term, true);
+        }
+    }
+
+    /**
+     * Makes the terms of a document that was stored in the term table available to wildcard expansions. The lock is taken once for
+     * all of them.
+     *
+     * @param added - The terms that were stored. (not null)
+     */
+    public synchronized void termsAdded(final Collection<String> added) {
+        requireNonNull(added);
+        for (final String term : added) {
+            termAdded(term);
+        }
+    }
+
+    /**
+     * Removes a term that was deleted from the term table from wildcard expansions.
+     *
+     * @param term - The term that was deleted. (not null)
+     */
+    public synchronized void termRemoved(final String term) {
+        requireNonNull(term);
+        remember(term, false);
+        if (terms != null && terms.remove(term)) {
+            reversedTerms.remove(StringUtils.reverse(term));
+        }
+        updateExpansions(term, false);
+    }
+
+    /**
+     * Forgets the added and removed terms whose writes are now in the term table.
+     *
+     * @param flushStartMillis - When the flush of the term table writes began. The terms that were added or removed before then were
+     *   part of it.
+     */
+    public synchronized void flushed(final long flushStartMillis) {
+        final Iterator<PendingChange> it = pendingChanges.values().iterator();
+        while (it.hasNext()) {
+            final PendingChange change = it.next();
+            if (change.time >= flushStartMillis) {
+                break;
+            }
+            it.remove();
+            pendingTerms.remove(change.term);
+            pendingReversedTerms.remove(StringUtils.reverse(change.term));
+        }
+    }
+
+    /**
+     * @return How long the dictionary is kept before the term table is read again.
+     */
+    @VisibleForTesting
+    synchronized long getDictionaryRefreshMillis() {
+        return dictionaryRefreshMillis;
+    }
+
+    /**
+     * @return {@code true} if the same change to the term was already remembered.
+     */
+    private boolean remember(final String term, final boolean added) {
+        final PendingChange change = new PendingChange(term, added, System.currentTimeMillis());
+        // Remove first so that the change moves to the end of the insertion order.
+        final PendingChange previous = pendingChanges.remove(term);
+        pendingChanges.put(term, change);
+        pendingTerms.put(term, change);
+        pendingReversedTerms.put(StringUtils.reverse(term), change);
+
+        if (pendingChanges.size() > MAX_PENDING_CHANGES) {
+            final Iterator<PendingChange> it = pendingChanges.values().iterator();
+            final PendingChange oldest = it.next();
+            it.remove();
+            pendingTerms.remove(oldest.term);
+            pendingReversedTerms.remove(StringUtils.reverse(oldest.term));
+        }
+        return previous != null && previous.added == added;
+    }
+
+    /**
+     * Adds the term to, or removes it from, the cached expansions of the wildcards that match it. Only the wildcards that are a prefix
+     * or a suffix of the term are looked up, and an expansion that already agrees with the change is left alone.
+     */
+    private void updateExpansions(final String term, final boolean added) {
+        for (int i = 0; i <= term.length(); i++) {
+            updateExpansion(ColumnPrefixes.getTermListColFam(term.substring(0, i)).toString(), term, added);
+            updateExpansion(ColumnPrefixes.getRevTermListColFam(term.substring(term.length() - i)).toString(), term, added);
+        }
+    }
+
+    private void updateExpansion(final String key, final String term, final boolean added) {
+        final CachedExpansion cached = expansions.getIfPresent(key);
+        if (cached == null || cached.terms.contains(term) == added) {
+            return;
+        }
+
+        if (cached.terms.size() > maxExpansion) {
+            // Only part of a wildcard that matches too many terms is cached, so it can not tell whether removing the term brings it
+            // within the limit. Adding a term keeps it over the limit.
+            if (!added) {
+                expansions.invalidate(key);
+            }
+            return;
+        }
+
+        final Set<String> updated = new HashSet<>(cached.terms);
+        if (added) {
+            updated.add(term);
+        } else {
+            updated.remove(term);
+        }
+        expansions.put(key, new CachedExpansion(updated, cached.readTime));
+    }
+
+    /**
+     * Reads the expansion of a wildcard from the dictionary, or from the term table when there is no dictionary, and caches it.
+     */
+    private Set<String> lookup(final Text prefix, final boolean isSuffix) throws IOException {
+        loadDictionary();
+
+        final long readTime = System.currentTimeMillis();
+        final String key = prefix.toString();
+        final String stem = ColumnPrefixes.removePrefix(prefix).toString();
+        synchronized (this) {
+            final NavigableSet<String> dictionary = isSuffix ? reversedTerms : terms;
+            if (dictionary != null) {
+                final Set<String> matches = new HashSet<>();
+                for (final String term : dictionary.tailSet(stem, true)) {
+                    if (!term.startsWith(stem) || matches.size() > maxExpansion) {
+                        break;
+                    }
+                    matches.add(isSuffix ? StringUtils.reverse(term) : term);
+                }
+                expansions.put(key, new CachedExpansion(matches, readTime));
+                return matches;
+            }
+        }
+
+        final Set<String> matches = scan(prefix, isSuffix);
+        synchronized (this) {
+            // The scan does not see the changes that have not been flushed. The changes made after this are applied to the cache entry.
+            applyPendingChanges(matches, stem, isSuffix);
+            expansions.put(key, new CachedExpansion(matches, readTime));
+        }
+        return matches;
+    }
+
+    /**
+     * Applies the remembered changes of the terms that match a wildcard to the terms that were scanned for it.
+     */
+    private void applyPendingChanges(final Set<String> matches, final String stem, final boolean isSuffix) {
+        if (matches.size() > maxExpansion) {
+            // The scan stopped past the limit without reading every match, so the wildcard stays over the limit.
+            return;
+        }
+
+        final NavigableMap<String, PendingChange> pending = isSuffix ? pendingReversedTerms : pendingTerms;
+        for (final Entry<String, PendingChange> e : pending.tailMap(stem, true).entrySet()) {
+            if (!e.getKey().startsWith(stem)) {
+                break;
+            }
+            final PendingChange change = e.getValue();
+            if (change.added) {
+                matches.add(change.term);
+            } else {
+                matches.remove(change.term);
+            }
+        }
+    }
+
+    /**
+     * Reads the terms that start with the prefix from the term table, stopping one term past the expansion limit.
+     */
+    private Set<String> scan(final Text prefix, final boolean isSuffix) throws IOException {
+        final Scanner termTableScan = createScanner();
+        final Set<String> matches = new HashSet<>();
+        try {
+            termTableScan.setRange(Range.prefix(prefix));
+            for (final Entry<Key, Value> e : termTableScan) {
+                final String term = ColumnPrefixes.removePrefix(e.getKey().getRow()).toString();
+                matches.add(isSuffix ? StringUtils.reverse(term) : term);
+                if (matches.size() > maxExpansion) {
+                    break;
+                }
+            }
+        } finally {
+            termTableScan.close();
+        }
+        return matches;
+    }
+
+    /**
+     * Reads the whole "token list" of the term table into memory if the dictionary is enabled and it is missing or due for a refresh.
+     * The table is read without holding the lock, and only by one thread at a time. Expansions keep using the current dictionary, or
+     * scans, until it is done.
+     * <p>
+     * The dictionary is dropped if the table holds more than the allowed number of terms, and the time until the next attempt doubles
+     * each time that happens in a row.
+     */
+    private void loadDictionary() throws IOException {
+        final long loadStart = System.currentTimeMillis();
+        synchronized (this) {
+            if (dictionaryMaxTerms <= 0 || loadingDictionary || loadStart < nextDictionaryLoadTime) {
+                return;
+            }
+            loadingDictionary = true;
+            nextDictionaryLoadTime = loadStart + dictionaryRefreshMillis;
+        }
+
+        final NavigableSet<String> loadedTerms = new TreeSet<>();
+        boolean tooLarge = false;
+        try {
+            final Scanner termTableScan = createScanner();
+            try {
+                termTableScan.setRange(Range.prefix(ColumnPrefixes.TERM_LIST_CF_PREFIX));
+                for (final Entry<Key, Value> e : termTableScan) {
+                    loadedTerms.add(ColumnPrefixes.removePrefix(e.getKey().getRow()).toString());
+                    if (loadedTerms.size() > dictionaryMaxTerms) {
+                        tooLarge = true;
+                        break;
+                    }
+                }
+            } finally {
+                termTableScan.close();
+            }
+        } finally {
+            synchronized (this) {
+                loadingDictionary = false;
+            }
+        }
+
+        synchronized (this) {
+            if (tooLarge) {
+                if (dictionaryRefreshMillis == refreshMillis) {
+                    logger.info("The term table " + termTable + " holds more than " + dictionaryMaxTerms
+                            + " terms. Wildcards will be expanded by scanning it.");
+                }
+                terms = null;
+                reversedTerms = null;
+                dictionaryRefreshMillis = Math.min(dictionaryRefreshMillis * 2, refreshMillis * MAX_BACKOFF);
+                nextDictionaryLoadTime = loadStart + dictionaryRefreshMillis;
+                return;
+            }
+
+            // The scan may have missed the changes that were not flushed when it read their part of the table. Those that it did see
+            // do not need to be remembered any longer.
+            final Iterator<PendingChange> it = pendingChanges.values().iterator();
+            while (it.hasNext()) {
+                final PendingChange change = it.next();
+                if (loadedTerms.contains(change.term) == change.added) {
+                    it.remove();
+                    pendingTerms.remove(change.term);
+                    pendingReversedTerms.remove(StringUtils.reverse(change.term));
+                } else if (change.added) {
+                    loadedTerms.add(change.term);
+                } else {
+                    loadedTerms.remove(change.term);
+                }
+            }
+
+            final NavigableSet<String> loadedReversedTerms = new TreeSet<>();
+            for (final String term : loadedTerms) {
+                loadedReversedTerms.add(StringUtils.reverse(term));
+            }
+            terms = loadedTerms;
+            reversedTerms = loadedReversedTerms;
+            dictionaryRefreshMillis = refreshMillis;
+        }
+    }
+
+    private Scanner createScanner() throws IOException {
+        try {
+            return ConfigUtils.createScanner(termTable, conf);
+        } catch (AccumuloException | AccumuloSecurityException | TableNotFoundException e) {
+            logger.error("Error connecting to " + termTable);
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * The expansion of a wildcard and when it was read.
+     */
+    private static class CachedExpansion {
+        private final Set<String> terms;
+        private final long readTime;
+
+        public CachedExpansion(final Set<String> terms, final long readTime) {
+            this.terms = terms;
+            this.readTime = readTime;
+        }
+    }
+
+    /**
+     * A term that was added or removed through this instance.
+     */
+    private static class PendingChange {
+        private final String term;
+        private final boolean added;
+        private final long time;
+
+        public PendingChange(final String term, final boolean added, final long time) {
+            this.term = term;
+            this.added = added;
+            this.time = time;
+        }
+    }
+}
@@ -54,6 +54,7 @@ import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.OptionDescriber;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.accumulo.core.iterators.system.MultiIterator;
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.Validate;
 import org.apache.hadoop.io.Text;
 import org.apache.log4j.Logger;
@@ -155,6 +156,9 @@ public class BooleanTreeIterator implements SortedKeyValueIterator<Key, Value>,
             boolean isNotFlag = isNotFlag(n);
             if (n instanceof ASTExpression) {
                 anding.addSource(createIteratorRecursive(n, source, env), env, null, isNotFlag);
+            } else if (isWildcard(n)) {
+                // a wildcard that was not expanded by the client reads the documents of its matching terms itself
+                anding.addSource(getTermRangeIterator((ASTTerm) n, source), env, null, isNotFlag);
             } else if (n instanceof ASTTerm) {
                 ASTTerm term = ((ASTTerm) n);
                 anding.addSource(source, env, getTermColFam(term), isNotFlag);
@@ -181,11 +185,31 @@ public class BooleanTreeIterator implements SortedKeyValueIterator<Key, Value>,
         return ColumnPrefixes.getTermColFam(term.toLowerCase());
     }
 
+    private static boolean isWildcard(SimpleNode node) {
+        if (!(node instanceof ASTTerm)) {
+            return false;
+        }
+        String type = ((ASTTerm) node).getType();
+        return type.equals(ASTTerm.WILDTERM) || type.equals(ASTTerm.PREFIXTERM);
+    }
+
+    private static TermRangeIterator getTermRangeIterator(ASTTerm termnode, SortedKeyValueIterator<Key, Value> source) {
+        String term = termnode.getTerm().toLowerCase();
+        if (termnode.getType().equals(ASTTerm.PREFIXTERM)) {
+            return new TermRangeIterator(source, StringUtils.removeStart(term, "*"), true);
+        }
+        return new TermRangeIterator(source, StringUtils.removeEnd(term, "*"), false);
+    }
+
     private AndingIterator getSimpleAndingIterator(ASTTerm node, SortedKeyValueIterator<Key, Value> source, IteratorEnvironment env) {
         Validate.isTrue(!node.isNotFlag(), "Simple Anding node must not have \"not\" flag set");
 
         AndingIterator anding = new AndingIterator();
-        anding.addSource(source, env, getTermColFam(node), false);
+        if (isWildcard(node)) {
+            anding.addSource(getTermRangeIterator(node, source), env, null, false);
+        } else {
+            anding.addSource(source, env, getTermColFam(node), false);
+        }
         return anding;
     }
 
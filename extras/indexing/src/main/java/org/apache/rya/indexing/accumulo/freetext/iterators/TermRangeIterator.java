@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.accumulo.freetext.iterators;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.hadoop.io.Text;
+import org.apache.rya.indexing.accumulo.freetext.ColumnPrefixes;
+
+/**
+ * Returns the documents of each partition that contain a term matching a wildcard, without expanding the wildcard into its terms first.
+ * This lets a wildcard that matches too many terms to send to the server still be evaluated on the server.
+ * <p>
+ * A wildcard with a trailing "*" only reads the range of term columns that start with its stem. A wildcard with a leading "*" can not be
+ * narrowed that way and reads every term column of the partition.
+ * <p>
+ * The keys have the same form as the keys of an {@link AndingIterator}, so this iterator can be added to one as a source without a term:
+ * <ul>
+ * <li>RowID: partition</li>
+ * <li>CF: (empty)</li>
+ * <li>CQ: docID</li>
+ * </ul>
+ */
+public class TermRangeIterator implements SortedKeyValueIterator<Key, Value> {
+    private static final Value EMPTY_VALUE = new Value(new byte[0]);
+
+    private final SortedKeyValueIterator<Key, Value> source;
+    private final String stem;
+    private final boolean isSuffix;
+
+    private final Text startColFam;
+    private final Text endColFam;
+
+    private Range range;
+    private Text partition = null;
+    private final TreeSet<Text> docIds = new TreeSet<Text>();
+    private Iterator<Text> docIdIterator = Collections.<Text> emptyIterator();
+    private Key topKey = null;
+
+    /**
+     * @param source - The iterator over the document table.
+     * @param stem - The lower case wildcard term without its "*".
+     * @param isSuffix - {@code true} if the terms must end with the stem, {@code false} if they must start with it.
+     */
+    public TermRangeIterator(final SortedKeyValueIterator<Key, Value> source, final String stem, final boolean isSuffix) {
+        this.source = source;
+        this.stem = stem;
+        this.isSuffix = isSuffix;
+
+        final Text prefix = isSuffix ? ColumnPrefixes.TERM_CF_PREFIX : ColumnPrefixes.getTermColFam(stem);
+        startColFam = prefix;
+        endColFam = Range.followingPrefix(prefix);
+    }
+
+    @Override
+    public void init(final SortedKeyValueIterator<Key, Value> source, final Map<String, String> options, final IteratorEnvironment env)
+            throws IOException {
+        throw new UnsupportedOperationException("TermRangeIterator is created by the BooleanTreeIterator");
+    }
+
+    @Override
+    public boolean hasTop() {
+        return topKey != null;
+    }
+
+    @Override
+    public void next() throws IOException {
+        if (topKey == null) {
+            return;
+        }
+        advance();
+    }
+
+    @Override
+    public void seek(final Range range, final Collection<ByteSequence> columnFamilies, final boolean inclusive) throws IOException {
+        this.range = range;
+        topKey = null;
+
+        final Key startKey = range.getStartKey();
+        if (startKey != null && startKey.getRow().equals(partition)) {
+            // the AndingIterator seeks forward within a partition, so reuse the documents that were already read
+            docIdIterator = docIds.tailSet(startKey.getColumnQualifier(), true).iterator();
+        } else if (startKey != null) {
+            readPartition(startKey.getRow());
+        } else {
+            source.seek(new Range(), Collections.<ByteSequence> emptyList(), false);
+            if (!source.hasTop()) {
+                return;
+            }
+            readPartition(source.getTopKey().getRow());
+        }
+        advance();
+    }
+
+    /**
+     * Moves to the next document of the current partition that is in the range, reading the following partitions when it runs out.
+     */
+    private void advance() throws IOException {
+        while (true) {
+            while (docIdIterator.hasNext()) {
+                final Key key = new Key(partition, new Text(), docIdIterator.next());
+                if (range.afterEndKey(key)) {
+                    topKey = null;
+                    return;
+                }
+                if (!range.beforeStartKey(key)) {
+                    topKey = key;
+                    return;
+                }
+            }
+
+            // move on to the next partition
+            source.seek(new Range(new Key(partition).followingKey(PartialKey.ROW), true, null, false), Collections.<ByteSequence> emptyList(),
+                    false);
+            if (!source.hasTop() || range.afterEndKey(new Key(source.getTopKey().getRow()))) {
+                topKey = null;
+                return;
+            }
+            readPartition(source.getTopKey().getRow());
+        }
+    }
+
+    /**
+     * Collects the documents of a partition that contain a matching term.
+     */
+    private void readPartition(final Text row) throws IOException {
+        partition = new Text(row);
+        docIds.clear();
+
+        source.seek(new Range(new Key(partition, startColFam), true, new Key(partition, endColFam), false),
+                Collections.<ByteSequence> emptyList(), false);
+        while (source.hasTop()) {
+            final Key key = source.getTopKey();
+            if (!isSuffix || getTerm(key).endsWith(stem)) {
+                docIds.add(key.getColumnQualifier());
+            }
+            source.next();
+        }
+        docIdIterator = docIds.iterator();
+    }
+
+    private static String getTerm(final Key key) {
+        final Text colFam = key.getColumnFamily();
+        final int prefixLength = ColumnPrefixes.TERM_CF_PREFIX.getLength();
+        return new String(colFam.getBytes(), prefixLength, colFam.getLength() - prefixLength, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Key getTopKey() {
+        return topKey;
+    }
+
+    @Override
+    public Value getTopValue() {
+        // only the documents are of interest
+        return EMPTY_VALUE;
+    }
+
+    @Override
+    public SortedKeyValueIterator<Key, Value> deepCopy(final IteratorEnvironment env) {
+        return new TermRangeIterator(source.deepCopy(env), stem, isSuffix);
+    }
+}
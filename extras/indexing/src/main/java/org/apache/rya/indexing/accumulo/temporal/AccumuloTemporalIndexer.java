@@ -65,10 +65,12 @@ import org.apache.rya.indexing.StatementConstraints;
 import org.apache.rya.indexing.StatementSerializer;
 import org.apache.rya.indexing.TemporalIndexer;
 import org.apache.rya.indexing.TemporalInstant;
+import org.apache.rya.indexing.TemporalInstantRange;
 import org.apache.rya.indexing.TemporalInstantRfc3339;
 import org.apache.rya.indexing.TemporalInterval;
 import org.apache.rya.indexing.accumulo.ConfigUtils;
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.EmptyIteration;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Literal;
 import org.eclipse.rdf4j.model.Resource;
@@ -543,6 +545,54 @@ public class AccumuloTemporalIndexer extends AbstractAccumuloIndexer implements
         return queryInstantEqualsInstant(queryInterval.getHasEnd(), contraints);
     }
 
+    /**
+     * Get instances that fall within a range. Each open bound scans to the edge of the
+     * constraint prefix, the same way the before and after queries do, so the
+     * conjunction of several instant relations costs a single scan per column.
+     */
+    @Override
+    public CloseableIteration<Statement, QueryEvaluationException> queryInstantInRange(
+            final TemporalInstantRange queryRange, final StatementConstraints constraints)
+            throws QueryEvaluationException {
+        requireNonNull(queryRange);
+        if (queryRange.isEmpty()) {
+            return new EmptyIteration<>();
+        }
+
+        final Query query = new Query() {
+            @Override
+            public Range getRange(final KeyParts keyParts) {
+                final TemporalInstant lower = queryRange.getLower();
+                Text start;
+                if (lower == null) {
+                    start = keyParts.constraintPrefix != null ? keyParts.constraintPrefix : new Text(KeyParts.HASH_PREFIX_FOLLOWING);
+                } else if (queryRange.isLowerInclusive()) {
+                    start = keyParts.getQueryKey(lower);
+                } else {
+                    start = Range.followingPrefix(keyParts.getQueryKey(lower));
+                }
+
+                final TemporalInstant upper = queryRange.getUpper();
+                Text endAt;
+                if (upper == null) {
+                    endAt = keyParts.constraintPrefix != null ? Range.followingPrefix(keyParts.constraintPrefix) : null;
+                } else if (queryRange.isUpperInclusive()) {
+                    endAt = Range.followingPrefix(keyParts.getQueryKey(upper));
+                } else {
+                    endAt = keyParts.getQueryKey(upper);
+                }
+                return new Range(start, true, endAt, false);
+            }
+        };
+
+        TemporalInstant anchor = queryRange.getLower() != null ? queryRange.getLower() : queryRange.getUpper();
+        if (anchor == null) {
+            anchor = TemporalInstantRfc3339.getMinimumInstance();
+        }
+        final ScannerBase scanner = query.doQuery(anchor, constraints);
+        return getContextIteratorWrapper(scanner, constraints.getContext());
+    }
+
     /**
      * Get intervals stored in the repository matching the given interval.
      * Indexing Intervals  will probably change or be removed.
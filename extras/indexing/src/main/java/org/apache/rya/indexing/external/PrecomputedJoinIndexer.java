@@ -164,12 +164,18 @@ public class PrecomputedJoinIndexer extends AbstractAccumuloIndexer {
     public void deleteStatement(final RyaStatement statement)
             throws IOException {
         checkNotNull(statement);
+        deleteStatements(Collections.singleton(statement));
+    }
+
+    @Override
+    public void deleteStatements(final Collection<RyaStatement> statements)
+            throws IOException {
+        checkNotNull(statements);
         try {
-            Collection<RyaStatement> statements = Collections.singleton(statement);
             updaterSupplier.get().deleteStatements(statements);
         } catch (final PcjUpdateException e) {
             throw new IOException(
-                    "Could not update the PCJs by removing the provided statement.",
+                    "Could not update the PCJs by removing the provided statements.",
                     e);
         }
     }
@@ -18,8 +18,13 @@
  */
 package org.apache.rya.indexing.mongodb.pcj;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.rya.api.instance.RyaDetailsRepository;
 import org.apache.rya.api.instance.RyaDetailsRepository.RyaDetailsRepositoryException;
@@ -113,6 +118,35 @@ public class MongoPcjIndexSetProvider extends AbstractPcjIndexSetProvider {
         }
     }
 
+    @Override
+    protected Object getCatalogKey() {
+        // The loaded query nodes hold the client they were loaded with, so the client is part of the key.
+        final StatefulMongoDBRdfConfiguration mongoConf = (StatefulMongoDBRdfConfiguration) conf;
+        final List<String> documents = mongoConf.getPcjTables();
+        return Arrays.asList("mongo",
+                mongoConf.getMongoClient(),
+                mongoConf.getRyaInstanceName(),
+                documents == null ? Collections.emptyList() : documents);
+    }
+
+    @Override
+    protected Optional<String> getPcjVersion() {
+        final StatefulMongoDBRdfConfiguration mongoConf = (StatefulMongoDBRdfConfiguration) conf;
+        final List<String> documents = mongoConf.getPcjTables();
+        if (documents != null && !documents.isEmpty()) {
+            return Optional.of(String.join(",", documents));
+        }
+
+        final RyaDetailsRepository detailsRepo = new MongoRyaInstanceDetailsRepository(mongoConf.getMongoClient(), mongoConf.getRyaInstanceName());
+        try {
+            final Set<String> pcjIds = new TreeSet<>(detailsRepo.getRyaInstanceDetails().getPCJIndexDetails().getPCJDetails().keySet());
+            return Optional.of(String.join(",", pcjIds));
+        } catch (final RyaDetailsRepositoryException e) {
+            // Older installs that do not have details are scanned for PCJ documents every time.
+            return Optional.empty();
+        }
+    }
+
     private boolean hasRyaDetails() {
         final StatefulMongoDBRdfConfiguration mongoConf = (StatefulMongoDBRdfConfiguration) conf;
         final RyaDetailsRepository detailsRepo = new MongoRyaInstanceDetailsRepository(mongoConf.getMongoClient(), mongoConf.getRyaInstanceName());
@@ -22,10 +22,13 @@ import static org.apache.rya.indexing.mongodb.temporal.TemporalMongoDBStorageStr
 import static org.apache.rya.indexing.mongodb.temporal.TemporalMongoDBStorageStrategy.INTERVAL_END;
 import static org.apache.rya.indexing.mongodb.temporal.TemporalMongoDBStorageStrategy.INTERVAL_START;
 
+import java.util.Date;
+
 import org.apache.log4j.Logger;
 import org.apache.rya.indexing.StatementConstraints;
 import org.apache.rya.indexing.TemporalIndexer;
 import org.apache.rya.indexing.TemporalInstant;
+import org.apache.rya.indexing.TemporalInstantRange;
 import org.apache.rya.indexing.TemporalInterval;
 import org.apache.rya.indexing.accumulo.ConfigUtils;
 import org.apache.rya.indexing.mongodb.AbstractMongoIndexer;
@@ -114,6 +117,32 @@ public class MongoTemporalIndexer extends AbstractMongoIndexer<TemporalMongoDBSt
         return queryInstantEqualsInstant(queryInterval.getHasEnd(), constraints);
     }
 
+    @Override
+    public CloseableIteration<Statement, QueryEvaluationException> queryInstantInRange(
+            final TemporalInstantRange range, final StatementConstraints constraints) throws QueryEvaluationException {
+        final QueryBuilder qb = QueryBuilder.start(INSTANT);
+        if (range.getLower() == null && range.getUpper() == null) {
+            qb.exists(true);
+        }
+        if (range.getLower() != null) {
+            final Date lower = range.getLower().getAsDateTime().toDate();
+            if (range.isLowerInclusive()) {
+                qb.greaterThanEquals(lower);
+            } else {
+                qb.greaterThan(lower);
+            }
+        }
+        if (range.getUpper() != null) {
+            final Date upper = range.getUpper().getAsDateTime().toDate();
+            if (range.isUpperInclusive()) {
+                qb.lessThanEquals(upper);
+            } else {
+                qb.lessThan(upper);
+            }
+        }
+        return withConstraints(constraints, qb.get());
+    }
+
     @Override
     public CloseableIteration<Statement, QueryEvaluationException> queryIntervalEquals(final TemporalInterval query,
             final StatementConstraints constraints) throws QueryEvaluationException {
@@ -23,16 +23,17 @@ import static java.util.Objects.requireNonNull;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.log4j.Logger;
 import org.apache.rya.api.instance.RyaDetails;
 import org.apache.rya.indexing.IndexPlanValidator.IndexedExecutionPlanGenerator;
 import org.apache.rya.indexing.IndexPlanValidator.ValidIndexCombinationGenerator;
+import org.apache.rya.indexing.accumulo.ConfigUtils;
 import org.apache.rya.indexing.external.matching.ExternalSetProvider;
 import org.apache.rya.indexing.external.matching.QuerySegment;
 import org.apache.rya.indexing.external.tupleSet.ExternalTupleSet;
-import org.apache.rya.indexing.pcj.matching.PCJOptimizerUtilities;
 import org.apache.rya.indexing.pcj.matching.PCJToSegmentConverter;
 import org.eclipse.rdf4j.query.algebra.TupleExpr;
 
@@ -101,10 +102,7 @@ public abstract class AbstractPcjIndexSetProvider implements ExternalSetProvider
     @Override
     public List<ExternalTupleSet> getExternalSets(final QuerySegment<ExternalTupleSet> segment) {
         try {
-            if(!init) {
-                indexCache = PCJOptimizerUtilities.getValidPCJs(getIndices());
-                init = true;
-            }
+            initIndexCache();
             final TupleExpr query = segment.getQuery().getTupleExpr();
             final IndexedExecutionPlanGenerator iep = new IndexedExecutionPlanGenerator(query, indexCache);
             final List<ExternalTupleSet> pcjs = iep.getNormalizedIndices();
@@ -127,13 +125,33 @@ public abstract class AbstractPcjIndexSetProvider implements ExternalSetProvider
      * @throws Exception
      */
     public int size() throws Exception {
+        initIndexCache();
+        return indexCache.size();
+    }
+
+    /**
+     * Fetches the PCJs from the shared {@link PcjCatalog} the first time they are needed.
+     */
+    private void initIndexCache() throws PcjIndexSetException {
         if (!init) {
-            indexCache = PCJOptimizerUtilities.getValidPCJs(getIndices());
+            indexCache = PcjCatalog.getInstance().getPcjs(getCatalogKey(),
+                    ConfigUtils.getPcjCatalogRefreshMillis(conf), this::getPcjVersion, this::getIndices);
             init = true;
         }
-        return indexCache.size();
     }
 
+    /**
+     * @return Identifies the PCJs this provider loads within the {@link PcjCatalog}. Two providers
+     *   may only share a key if the {@link ExternalTupleSet}s they load are interchangeable.
+     */
+    protected abstract Object getCatalogKey();
+
+    /**
+     * @return A cheap to read value that changes whenever the PCJs this provider loads change,
+     *   or empty if the PCJs must be reloaded to find out.
+     */
+    protected abstract Optional<String> getPcjVersion();
+
     /**
      * @param conf - client configuration
      * @return - list of {@link ExternalTupleSet}s or PCJs that are either
@@ -20,8 +20,13 @@ package org.apache.rya.indexing.pcj.matching.provider;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
@@ -127,6 +132,55 @@ public class AccumuloIndexSetProvider extends AbstractPcjIndexSetProvider {
         }
     }
 
+    @Override
+    protected Object getCatalogKey() {
+        // The loaded index sets hold a connector and the query authorizations, so both are part of the key.
+        return Arrays.asList("accumulo",
+                conf.get(ConfigUtils.CLOUDBASE_INSTANCE),
+                conf.get(ConfigUtils.CLOUDBASE_ZOOKEEPERS),
+                conf.get(ConfigUtils.CLOUDBASE_USER),
+                conf.getBoolean(ConfigUtils.USE_MOCK_INSTANCE, false),
+                conf.get(RdfCloudTripleStoreConfiguration.CONF_TBL_PREFIX),
+                conf.get(RdfCloudTripleStoreConfiguration.CONF_QUERY_AUTH, ""),
+                getConfiguredTables());
+    }
+
+    @Override
+    protected Optional<String> getPcjVersion() {
+        try {
+            final String tablePrefix = requireNonNull(conf.get(RdfCloudTripleStoreConfiguration.CONF_TBL_PREFIX));
+            final Connector conn = requireNonNull(ConfigUtils.getConnector(conf));
+
+            final List<String> tables = getConfiguredTables();
+            if (!tables.isEmpty()) {
+                // A table that is dropped and recreated under the same name is given a new ID.
+                final Map<String, String> tableIds = conn.tableOperations().tableIdMap();
+                final StringBuilder version = new StringBuilder();
+                for (final String table : tables) {
+                    version.append(table).append('=').append(tableIds.get(table)).append(';');
+                }
+                return Optional.of(version.toString());
+            }
+
+            final RyaDetailsRepository detailsRepo = new AccumuloRyaInstanceDetailsRepository(conn, tablePrefix);
+            final Set<String> pcjIds = new TreeSet<>(detailsRepo.getRyaInstanceDetails().getPCJIndexDetails().getPCJDetails().keySet());
+            return Optional.of(String.join(",", pcjIds));
+        } catch (final AccumuloException | AccumuloSecurityException | RyaDetailsRepositoryException e) {
+            // Older installs that do not have details are scanned for PCJ tables every time.
+            return Optional.empty();
+        }
+    }
+
+    private List<String> getConfiguredTables() {
+        if (conf instanceof RdfCloudTripleStoreConfiguration) {
+            final List<String> tables = ((RdfCloudTripleStoreConfiguration) conf).getPcjTables();
+            if (tables != null) {
+                return tables;
+            }
+        }
+        return Collections.emptyList();
+    }
+
     private static boolean hasRyaDetails(final String ryaInstanceName, final Connector conn) {
         final RyaDetailsRepository detailsRepo = new AccumuloRyaInstanceDetailsRepository(conn, ryaInstanceName);
         try {
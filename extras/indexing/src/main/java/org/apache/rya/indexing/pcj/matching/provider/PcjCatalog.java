@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.pcj.matching.provider;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.log4j.Logger;
+import org.apache.rya.indexing.external.tupleSet.ExternalTupleSet;
+import org.apache.rya.indexing.pcj.matching.PCJOptimizerUtilities;
+import org.apache.rya.indexing.pcj.matching.provider.AbstractPcjIndexSetProvider.PcjIndexSetException;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * A process wide cache of the parsed and validated {@link ExternalTupleSet}s that
+ * are available to the {@link AbstractPcjIndexSetProvider}s.
+ * <p>
+ * A new provider is created for every query, so without this cache each query would
+ * list the PCJs, read each PCJ's metadata, and parse each PCJ's SPARQL before it could
+ * be optimized. Instead, the PCJs are loaded once per key and reused until their
+ * version stamp changes. The version stamp is cheap to read, such as the PCJ IDs that
+ * are registered in the Rya instance's details. A catalog entry that was checked within
+ * the configured refresh interval is reused without reading the stamp at all.
+ * <p>
+ * The cached {@link ExternalTupleSet}s are shared between queries, so they must not be
+ * modified. Query planning normalizes clones of them.
+ */
+@DefaultAnnotation(NonNull.class)
+public class PcjCatalog {
+    private static final Logger log = Logger.getLogger(PcjCatalog.class);
+
+    private static final PcjCatalog INSTANCE = new PcjCatalog();
+
+    /**
+     * Loads the PCJs of a catalog entry.
+     */
+    @FunctionalInterface
+    public static interface PcjLoader {
+        public List<ExternalTupleSet> load() throws PcjIndexSetException;
+    }
+
+    /**
+     * Reads the version stamp of a catalog entry.
+     */
+    @FunctionalInterface
+    public static interface VersionReader {
+        /**
+         * @return A value that changes whenever the entry's PCJs change, or empty
+         *   if there is no way to tell, in which case the PCJs are reloaded.
+         */
+        public Optional<String> read();
+    }
+
+    private final ConcurrentMap<Object, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Object, Object> locks = new ConcurrentHashMap<>();
+
+    @VisibleForTesting
+    PcjCatalog() { }
+
+    /**
+     * @return The catalog that is shared by all of the PCJ providers in this process.
+     */
+    public static PcjCatalog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the valid PCJs for a key, loading them if they have not been loaded yet
+     * or if they have changed since they were loaded.
+     *
+     * @param key - Identifies the PCJs as well as the connection and authorizations
+     *   that the loaded {@link ExternalTupleSet}s use. (not null)
+     * @param refreshIntervalMillis - How long a loaded entry is used before its version stamp is checked again.
+     * @param versionReader - Reads the entry's version stamp. (not null)
+     * @param loader - Loads the entry's PCJs. (not null)
+     * @return An unmodifiable list of the valid PCJs.
+     * @throws PcjIndexSetException The PCJs could not be loaded.
+     */
+    public List<ExternalTupleSet> getPcjs(final Object key, final long refreshIntervalMillis,
+            final VersionReader versionReader, final PcjLoader loader) throws PcjIndexSetException {
+        requireNonNull(key);
+        requireNonNull(versionReader);
+        requireNonNull(loader);
+
+        final Entry cached = entries.get(key);
+        if(cached != null && cached.isFresh(refreshIntervalMillis)) {
+            return cached.pcjs;
+        }
+
+        // Only one query per key reads the version stamp and reloads the PCJs.
+        synchronized(locks.computeIfAbsent(key, k -> new Object())) {
+            final Entry entry = entries.get(key);
+            if(entry != null && entry.isFresh(refreshIntervalMillis)) {
+                return entry.pcjs;
+            }
+
+            final Optional<String> version = versionReader.read();
+            if(entry != null && version.isPresent() && version.equals(entry.version)) {
+                entry.checkedAt = System.currentTimeMillis();
+                return entry.pcjs;
+            }
+
+            log.debug("Loading the PCJs for catalog entry " + key + " at version " + version.orElse("<unknown>"));
+            final List<ExternalTupleSet> pcjs = Collections.unmodifiableList(
+                    PCJOptimizerUtilities.getValidPCJs(new ArrayList<>(loader.load())));
+            entries.put(key, new Entry(version, pcjs));
+            return pcjs;
+        }
+    }
+
+    /**
+     * Forces the PCJs of a key to be reloaded the next time they are requested.
+     *
+     * @param key - Identifies the catalog entry. (not null)
+     */
+    public void invalidate(final Object key) {
+        requireNonNull(key);
+        entries.remove(key);
+    }
+
+    /**
+     * Forces all PCJs to be reloaded the next time they are requested. This is used
+     * when a PCJ is created or deleted from within this process.
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * The PCJs that were loaded for a key and the version they were loaded at.
+     */
+    private static class Entry {
+        private final Optional<String> version;
+        private final List<ExternalTupleSet> pcjs;
+        private volatile long checkedAt;
+
+        public Entry(final Optional<String> version, final List<ExternalTupleSet> pcjs) {
+            this.version = version;
+            this.pcjs = pcjs;
+            this.checkedAt = System.currentTimeMillis();
+        }
+
+        public boolean isFresh(final long refreshIntervalMillis) {
+            return System.currentTimeMillis() - checkedAt < refreshIntervalMillis;
+        }
+    }
+}
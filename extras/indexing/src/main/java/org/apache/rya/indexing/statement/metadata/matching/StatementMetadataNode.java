@@ -22,12 +22,16 @@ package org.apache.rya.indexing.statement.metadata.matching;
 import static java.util.Objects.requireNonNull;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -62,6 +66,7 @@ import org.eclipse.rdf4j.query.algebra.evaluation.impl.ExternalSet;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 
 /**
  * This class provides users with the ability to issue reified queries to Rya.
@@ -312,7 +317,10 @@ public class StatementMetadataNode<C extends RdfCloudTripleStoreConfiguration> e
     /**
      * This method pairs each {@link BindingSet} in the specified collection
      * with the StatementPattern constraints and issues a query to Rya using the
-     * {@link RyaQueryEngine}.
+     * {@link RyaQueryEngine}. BindingSets that bind the subject, predicate,
+     * object, and context to the same values share a single lookup, and the
+     * lookups are sent to the query engine in batches of at most
+     * {@link RdfCloudTripleStoreConfiguration#getStatementMetadataBatchSize()}.
      */
     @Override
     public CloseableIteration<BindingSet, QueryEvaluationException> evaluate(Collection<BindingSet> bindingset)
@@ -322,22 +330,42 @@ public class StatementMetadataNode<C extends RdfCloudTripleStoreConfiguration> e
         }
 
         queryEngine = RyaQueryEngineFactory.getQueryEngine(conf);
-        Set<Map.Entry<RyaStatement, BindingSet>> statements = new HashSet<>();
-        Iterator<BindingSet> iter = bindingset.iterator();
-        while (iter.hasNext()) {
-            BindingSet bs = iter.next();
-            statements.add(new RdfCloudTripleStoreUtils.CustomEntry<RyaStatement, BindingSet>(
-                    getRyaStatementFromBindings(bs), bs));
+        Map<List<Value>, List<BindingSet>> lookups = new LinkedHashMap<>();
+        for (BindingSet bs : bindingset) {
+            List<Value> boundValues = getBoundValues(bs);
+            List<BindingSet> group = lookups.get(boundValues);
+            if (group == null) {
+                group = new ArrayList<>();
+                lookups.put(boundValues, group);
+            }
+            group.add(bs);
         }
 
-        final CloseableIteration<? extends Entry<RyaStatement, BindingSet>, RyaDAOException> iteration;
-        try {
-            iteration = queryEngine.queryWithBindingSet(statements, conf);
-        } catch (RyaDAOException e) {
-            throw new RuntimeException(e);
+        // The first BindingSet of each group is sent with its lookup and is
+        // used to find the rest of the group when results come back.
+        Map<BindingSet, List<BindingSet>> joinGroups = new HashMap<>();
+        List<Map.Entry<RyaStatement, BindingSet>> statements = new ArrayList<>(lookups.size());
+        for (Map.Entry<List<Value>, List<BindingSet>> lookup : lookups.entrySet()) {
+            BindingSet groupKey = lookup.getValue().get(0);
+            joinGroups.put(groupKey, lookup.getValue());
+            statements.add(new RdfCloudTripleStoreUtils.CustomEntry<RyaStatement, BindingSet>(
+                    getRyaStatementFromBindings(lookup.getKey()), groupKey));
         }
 
-        return new PropertyFilterAndBindingSetJoinIteration(iteration, properties, statement);
+        return new PropertyFilterAndBindingSetJoinIteration(
+                Lists.partition(statements, conf.getStatementMetadataBatchSize()).iterator(), joinGroups, properties,
+                statement);
+    }
+
+    /**
+     * @param bs
+     * @return The subject, predicate, object, and context values that the
+     *         StatementPattern and the specified BindingSet constrain, with
+     *         null for each position that is not constrained
+     */
+    private List<Value> getBoundValues(BindingSet bs) {
+        return Arrays.asList(getVarValue(statement.getSubjectVar(), bs), getVarValue(statement.getPredicateVar(), bs),
+                getVarValue(statement.getObjectVar(), bs), getVarValue(statement.getContextVar(), bs));
     }
 
     /**
@@ -345,16 +373,17 @@ public class StatementMetadataNode<C extends RdfCloudTripleStoreConfiguration> e
      * any null values with {@link BindingSet} values corresponding to the
      * variable for that position.
      * 
-     * @param bs
+     * @param boundValues
+     *            - values returned by {@link #getBoundValues(BindingSet)}
      * @return RyaStatement whose values are determined by StatementPattern and
      *         BindingSet constraints
      */
-    private RyaStatement getRyaStatementFromBindings(BindingSet bs) {
+    private RyaStatement getRyaStatementFromBindings(List<Value> boundValues) {
 
-        Value subjValue = getVarValue(statement.getSubjectVar(), bs);
-        Value predValue = getVarValue(statement.getPredicateVar(), bs);
-        Value objValue = getVarValue(statement.getObjectVar(), bs);
-        Value contextValue = getVarValue(statement.getContextVar(), bs);
+        Value subjValue = boundValues.get(0);
+        Value predValue = boundValues.get(1);
+        Value objValue = boundValues.get(2);
+        Value contextValue = boundValues.get(3);
         RyaIRI subj = null;
         RyaIRI pred = null;
         RyaType obj = null;
@@ -495,17 +524,32 @@ public class StatementMetadataNode<C extends RdfCloudTripleStoreConfiguration> e
      */
     class PropertyFilterAndBindingSetJoinIteration implements CloseableIteration<BindingSet, QueryEvaluationException> {
 
+        private final Iterator<List<Map.Entry<RyaStatement, BindingSet>>> batches;
+        private final Map<BindingSet, List<BindingSet>> joinGroups;
         private CloseableIteration<? extends Entry<RyaStatement, BindingSet>, RyaDAOException> statements;
         private Map<RyaIRI, Var> properties;
         private StatementPattern sp;
+        private final Deque<BindingSet> joined = new ArrayDeque<>();
         private BindingSet next;
         private boolean hasNextCalled = false;
         private boolean hasNext = false;
 
-        public PropertyFilterAndBindingSetJoinIteration(
-                CloseableIteration<? extends Entry<RyaStatement, BindingSet>, RyaDAOException> statements,
-                Map<RyaIRI, Var> properties, StatementPattern sp) {
-            this.statements = statements;
+        /**
+         * @param batches
+         *            - batches of lookups to issue, one at a time, to the
+         *            {@link RyaQueryEngine}
+         * @param joinGroups
+         *            - maps the BindingSet sent with each lookup to all of the
+         *            BindingSets that the lookup's results are joined with
+         * @param properties
+         *            - metadata properties the results must match
+         * @param sp
+         *            - StatementPattern used to bind the results
+         */
+        public PropertyFilterAndBindingSetJoinIteration(Iterator<List<Map.Entry<RyaStatement, BindingSet>>> batches,
+                Map<BindingSet, List<BindingSet>> joinGroups, Map<RyaIRI, Var> properties, StatementPattern sp) {
+            this.batches = batches;
+            this.joinGroups = joinGroups;
             this.properties = properties;
             this.sp = sp;
         }
@@ -561,7 +605,9 @@ public class StatementMetadataNode<C extends RdfCloudTripleStoreConfiguration> e
         @Override
         public void close() throws QueryEvaluationException {
             try {
-                statements.close();
+                if (statements != null) {
+                    statements.close();
+                }
             } catch (RyaDAOException e) {
                 throw new QueryEvaluationException(e);
             }
@@ -569,55 +615,63 @@ public class StatementMetadataNode<C extends RdfCloudTripleStoreConfiguration> e
 
         /**
          * Fast-forwards Iteration to next valid Entry and builds the
-         * BindingSet.
+         * BindingSet. The next batch of lookups is issued once the results of
+         * the current one are used up.
          * 
          * @return BindingSet
          * @throws RyaDAOException
          */
         private Optional<BindingSet> getNext() throws RyaDAOException {
-            Optional<BindingSet> optionalBs = Optional.empty();
-            while (statements.hasNext() && !optionalBs.isPresent()) {
-                Map.Entry<RyaStatement, BindingSet> next = statements.next();
-                optionalBs = buildBindingSet(next.getKey(), next.getValue());
+            while (joined.isEmpty()) {
+                if (statements != null && statements.hasNext()) {
+                    Map.Entry<RyaStatement, BindingSet> next = statements.next();
+                    joinBindingSets(next.getKey(), joinGroups.get(next.getValue()));
+                } else if (batches.hasNext()) {
+                    if (statements != null) {
+                        statements.close();
+                    }
+                    statements = queryEngine.queryWithBindingSet(batches.next(), conf);
+                } else {
+                    return Optional.empty();
+                }
             }
-            return optionalBs;
+            return Optional.of(joined.poll());
         }
 
         /**
-         * Builds BindingSet from Entry if possible. Otherwise returns an empty
-         * Optional if no valid BindingSet can be built. Valid BindingSet can be
-         * built if this class's property Map is consistent with
-         * {@link StatementMetadata} properties for the specified RyaStatement
-         * and if the BindingSet built form the StatementMetadata properties can
-         * be joined with specified BindingSet.
+         * Builds a BindingSet from the specified RyaStatement and joins it with
+         * each of the specified BindingSets that it is consistent with. The
+         * RyaStatement is bound once for the whole group. No BindingSets are
+         * produced if this class's property Map is not consistent with the
+         * {@link StatementMetadata} properties for the RyaStatement.
          * 
          * @param statement
          *            - RyaStatement
-         * @param bindingSet
-         *            - BindingSet
-         * @return - Optional containing BindingSet is a valid BindingSet could
-         *         be built
+         * @param group
+         *            - BindingSets sharing the lookup the RyaStatement was
+         *            returned for
          */
-        private Optional<BindingSet> buildBindingSet(RyaStatement statement, BindingSet bindingSet) {
-
-            QueryBindingSet bs = new QueryBindingSet();
+        private void joinBindingSets(RyaStatement statement, List<BindingSet> group) {
             Optional<BindingSet> optPropBs = buildPropertyBindingSet(statement);
             if (!optPropBs.isPresent()) {
-                return Optional.empty();
+                return;
             }
             BindingSet propBs = optPropBs.get();
             BindingSet spBs = buildBindingSetFromStatementPattern(statement);
             if (!canJoinBindingSets(spBs, propBs)) {
-                return Optional.empty();
+                return;
             }
-            bs.addAll(spBs);
-            bs.addAll(propBs);
-            if (!canJoinBindingSets(bs, bindingSet)) {
-                return Optional.empty();
+            QueryBindingSet statementBs = new QueryBindingSet();
+            statementBs.addAll(spBs);
+            statementBs.addAll(propBs);
+
+            for (BindingSet bindingSet : group) {
+                if (canJoinBindingSets(statementBs, bindingSet)) {
+                    QueryBindingSet bs = new QueryBindingSet(statementBs);
+                    bs.addAll(bindingSet);
+                    joined.add(bs);
+                }
             }
-            bs.addAll(bindingSet);
-            return Optional.of(bs);
-
         }
 
         /**
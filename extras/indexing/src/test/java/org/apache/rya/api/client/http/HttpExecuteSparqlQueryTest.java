@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.api.client.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.rya.api.client.RyaClientException;
+import org.apache.rya.api.client.resultio.BinaryQueryResults;
+import org.apache.rya.api.client.resultio.BinaryQueryResultsWriter;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests the methods of {@link HttpExecuteSparqlQuery} against a stub of the web server's query endpoint.
+ */
+public class HttpExecuteSparqlQueryTest {
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+    private HttpServer server;
+    private URI endpoint;
+
+    // What the stub server saw and how it responds.
+    private volatile String requestBody = null;
+    private volatile int status = 200;
+    private volatile String contentType = BinaryQueryResults.MIME_TYPE;
+    private volatile byte[] responseBody = new byte[0];
+
+    @Before
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/web.rya/queryrdf", exchange -> {
+            requestBody = URLDecoder.decode(new String(ByteStreams.toByteArray(exchange.getRequestBody()), StandardCharsets.UTF_8), "UTF-8");
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.sendResponseHeaders(status, responseBody.length);
+            try (final OutputStream out = exchange.getResponseBody()) {
+                out.write(responseBody);
+            }
+        });
+        server.start();
+        endpoint = new URI("http://localhost:" + server.getAddress().getPort() + "/web.rya/queryrdf");
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void decodesBinaryResults() throws Exception {
+        final QueryBindingSet alice = new QueryBindingSet();
+        alice.addBinding("person", VF.createIRI("urn:alice"));
+        alice.addBinding("name", VF.createLiteral("Alice"));
+        final QueryBindingSet bob = new QueryBindingSet();
+        bob.addBinding("person", VF.createIRI("urn:bob"));
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final BinaryQueryResultsWriter writer = new BinaryQueryResultsWriter(out);
+        writer.startQueryResult(Arrays.asList("person", "name"));
+        writer.handleSolution(alice);
+        writer.handleSolution(bob);
+        writer.endQueryResult();
+        responseBody = out.toByteArray();
+
+        final String sparql = "SELECT ?person ?name WHERE { ?person <urn:name> ?name }";
+        final List<BindingSet> results = new ArrayList<>();
+        try (final HttpExecuteSparqlQuery query = new HttpExecuteSparqlQuery(endpoint);
+                final TupleQueryResult result = query.executeSparqlQuery("rya_", sparql)) {
+            assertEquals(Arrays.asList("person", "name"), result.getBindingNames());
+            while (result.hasNext()) {
+                results.add(result.next());
+            }
+        }
+
+        assertEquals(Arrays.asList(alice, bob), results);
+        assertTrue(requestBody.contains("query=" + sparql));
+        assertTrue(requestBody.contains("query.resultformat=" + BinaryQueryResults.FORMAT_NAME));
+    }
+
+    @Test(expected = RyaClientException.class)
+    public void serverRejectsQuery() throws Exception {
+        status = 503;
+        contentType = "text/plain";
+        responseBody = "Too many queries are running. Try again later.".getBytes(StandardCharsets.UTF_8);
+
+        try (final HttpExecuteSparqlQuery query = new HttpExecuteSparqlQuery(endpoint)) {
+            query.executeSparqlQuery("rya_", "SELECT * WHERE { ?s ?p ?o }");
+        }
+    }
+
+    @Test(expected = RyaClientException.class)
+    public void serverDoesNotReturnBinaryResults() throws Exception {
+        contentType = "application/sparql-results+xml";
+        responseBody = "<sparql/>".getBytes(StandardCharsets.UTF_8);
+
+        try (final HttpExecuteSparqlQuery query = new HttpExecuteSparqlQuery(endpoint)) {
+            query.executeSparqlQuery("rya_", "SELECT * WHERE { ?s ?p ?o }");
+        }
+    }
+}
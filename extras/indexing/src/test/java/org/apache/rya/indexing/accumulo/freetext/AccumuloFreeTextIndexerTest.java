@@ -18,18 +18,28 @@
  */
 package org.apache.rya.indexing.accumulo.freetext;
 
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.BatchWriterConfig;
+import org.apache.accumulo.core.client.Connector;
 import org.apache.accumulo.core.client.Scanner;
 import org.apache.accumulo.core.client.TableExistsException;
 import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.client.admin.TableOperations;
 import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.rya.accumulo.AccumuloRdfConfiguration;
@@ -40,6 +50,9 @@ import org.apache.rya.api.resolver.RdfToRyaConversions;
 import org.apache.rya.api.resolver.RyaToRdfConversions;
 import org.apache.rya.indexing.StatementConstraints;
 import org.apache.rya.indexing.accumulo.ConfigUtils;
+import org.apache.rya.indexing.accumulo.freetext.query.ASTNodeUtils;
+import org.apache.rya.indexing.accumulo.freetext.query.QueryParser;
+import org.apache.rya.indexing.accumulo.freetext.query.SimpleNode;
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Statement;
@@ -244,6 +257,203 @@ public class AccumuloFreeTextIndexerTest {
         }
     }
 
+    @Test
+    public void testDocumentFrequency() throws Exception {
+        try (AccumuloFreeTextIndexer f = new AccumuloFreeTextIndexer()) {
+            f.setConf(conf);
+            f.setMultiTableBatchWriter(ConfigUtils.createMultitableBatchWriter(conf));
+            f.init();
+
+            ValueFactory vf = SimpleValueFactory.getInstance();
+            Statement statement1 = vf.createStatement(vf.createIRI("foo:subj1"), RDFS.LABEL, vf.createLiteral("this is a new hat"));
+            Statement statement2 = vf.createStatement(vf.createIRI("foo:subj2"), RDFS.LABEL, vf.createLiteral("my new hat"));
+            Statement statement3 = vf.createStatement(vf.createIRI("foo:subj3"), RDFS.LABEL, vf.createLiteral("a new coat"));
+            f.storeStatement(RdfToRyaConversions.convertStatement(statement1));
+            f.storeStatement(RdfToRyaConversions.convertStatement(statement2));
+            f.storeStatement(RdfToRyaConversions.convertStatement(statement3));
+            f.flush();
+
+            Assert.assertEquals(Long.valueOf(3), getDocumentFrequency(conf, "new"));
+            Assert.assertEquals(Long.valueOf(2), getDocumentFrequency(conf, "hat"));
+            Assert.assertEquals(Long.valueOf(1), getDocumentFrequency(conf, "coat"));
+
+            Assert.assertEquals(Sets.newHashSet(statement1, statement2), getSet(f.queryText("new & hat", EMPTY_CONSTRAINTS)));
+            Assert.assertEquals(Sets.newHashSet(statement3), getSet(f.queryText("new & !hat", EMPTY_CONSTRAINTS)));
+
+            f.deleteStatement(RdfToRyaConversions.convertStatement(statement2));
+            f.flush();
+
+            Assert.assertEquals(Long.valueOf(2), getDocumentFrequency(conf, "new"));
+            Assert.assertEquals(Long.valueOf(1), getDocumentFrequency(conf, "hat"));
+            Assert.assertNull(getDocumentFrequency(conf, "my"));
+        }
+    }
+
+    @Test
+    public void testDocumentFrequencyRestoredStatements() throws Exception {
+        try (AccumuloFreeTextIndexer f = new AccumuloFreeTextIndexer()) {
+            f.setConf(conf);
+            f.setMultiTableBatchWriter(ConfigUtils.createMultitableBatchWriter(conf));
+            f.init();
+
+            ValueFactory vf = SimpleValueFactory.getInstance();
+            RyaStatement statement1 = RdfToRyaConversions.convertStatement(
+                    vf.createStatement(vf.createIRI("foo:subj1"), RDFS.LABEL, vf.createLiteral("a new hat")));
+            RyaStatement statement2 = RdfToRyaConversions.convertStatement(
+                    vf.createStatement(vf.createIRI("foo:subj2"), RDFS.LABEL, vf.createLiteral("my new hat")));
+
+            // Stored again before and after a flush, and twice in one batch.
+            f.storeStatement(statement1);
+            f.storeStatement(statement1);
+            f.flush();
+            f.storeStatement(statement1);
+            f.storeStatements(Arrays.asList(statement1, statement2, statement2));
+            f.flush();
+
+            Assert.assertEquals(Long.valueOf(2), getDocumentFrequency(conf, "hat"));
+            Assert.assertEquals(Long.valueOf(1), getDocumentFrequency(conf, "my"));
+
+            // A document that was deleted counts again when it is stored again.
+            f.deleteStatement(statement2);
+            f.storeStatement(statement2);
+            f.flush();
+            Assert.assertEquals(Long.valueOf(2), getDocumentFrequency(conf, "hat"));
+        }
+    }
+
+    @Test
+    public void testDocumentFrequencyBackfill() throws Exception {
+        ValueFactory vf = SimpleValueFactory.getInstance();
+        Statement statement1 = vf.createStatement(vf.createIRI("foo:subj1"), RDFS.LABEL, vf.createLiteral("this is a new hat"));
+        Statement statement2 = vf.createStatement(vf.createIRI("foo:subj2"), RDFS.LABEL, vf.createLiteral("my new hat"));
+        Statement statement3 = vf.createStatement(vf.createIRI("foo:subj3"), RDFS.LABEL, vf.createLiteral("a new coat"));
+        try (AccumuloFreeTextIndexer f = new AccumuloFreeTextIndexer()) {
+            f.setConf(conf);
+            f.setMultiTableBatchWriter(ConfigUtils.createMultitableBatchWriter(conf));
+            f.init();
+            f.storeStatement(RdfToRyaConversions.convertStatement(statement1));
+            f.storeStatement(RdfToRyaConversions.convertStatement(statement2));
+            f.storeStatement(RdfToRyaConversions.convertStatement(statement3));
+            f.flush();
+        }
+
+        // Make the term table look like one written before document frequencies were kept.
+        String termtable = AccumuloFreeTextIndexer.getFreeTextTermTablename(conf);
+        Connector connector = ConfigUtils.getConnector(conf);
+        connector.tableOperations().removeIterator(termtable, AccumuloFreeTextIndexer.DOC_FREQ_COMBINER_NAME, EnumSet.allOf(IteratorScope.class));
+        Scanner s = ConfigUtils.createScanner(termtable, conf);
+        s.fetchColumnFamily(ColumnPrefixes.TERM_DOC_FREQ_CF);
+        BatchWriter writer = connector.createBatchWriter(termtable, new BatchWriterConfig());
+        for (Entry<Key, org.apache.accumulo.core.data.Value> entry : s) {
+            Mutation m = new Mutation(entry.getKey().getRow());
+            m.putDelete(ColumnPrefixes.TERM_DOC_FREQ_CF, entry.getKey().getColumnQualifier());
+            writer.addMutation(m);
+        }
+        writer.close();
+        Assert.assertNull(getDocumentFrequency(conf, "new"));
+
+        try (AccumuloFreeTextIndexer f = new AccumuloFreeTextIndexer()) {
+            f.setConf(conf);
+            f.setMultiTableBatchWriter(ConfigUtils.createMultitableBatchWriter(conf));
+            f.init();
+
+            Assert.assertEquals(Long.valueOf(3), getDocumentFrequency(conf, "new"));
+            Assert.assertEquals(Long.valueOf(2), getDocumentFrequency(conf, "hat"));
+            Assert.assertEquals(Long.valueOf(1), getDocumentFrequency(conf, "coat"));
+
+            // Deletes count down from the backfilled frequencies.
+            f.deleteStatement(RdfToRyaConversions.convertStatement(statement2));
+            f.flush();
+            Assert.assertEquals(Long.valueOf(2), getDocumentFrequency(conf, "new"));
+            Assert.assertEquals(Long.valueOf(1), getDocumentFrequency(conf, "hat"));
+        }
+    }
+
+    @Test
+    public void testOrderRarestFirst() throws Exception {
+        Map<String, Long> frequencies = new HashMap<>();
+        frequencies.put("common", 100L);
+        frequencies.put("rare", 2L);
+        frequencies.put("other", 50L);
+        frequencies.put("cat", 10L);
+        frequencies.put("dog", 20L);
+
+        SimpleNode root = QueryParser.parse("common & !other & (cat | dog) & rare");
+        Assert.assertEquals(2L, AccumuloFreeTextIndexer.orderRarestFirst(root, frequencies));
+        Assert.assertEquals(ASTNodeUtils.serializeExpression(QueryParser.parse("rare & (cat | dog) & common & !other")),
+                ASTNodeUtils.serializeExpression(root));
+
+        // terms without a frequency go last
+        root = QueryParser.parse("unknown & common");
+        AccumuloFreeTextIndexer.orderRarestFirst(root, frequencies);
+        Assert.assertEquals(ASTNodeUtils.serializeExpression(QueryParser.parse("common & unknown")),
+                ASTNodeUtils.serializeExpression(root));
+    }
+
+    @Test
+    public void testQueryLimit() throws Exception {
+        try (AccumuloFreeTextIndexer f = new AccumuloFreeTextIndexer()) {
+            f.setConf(conf);
+            f.setMultiTableBatchWriter(ConfigUtils.createMultitableBatchWriter(conf));
+            f.init();
+
+            ValueFactory vf = SimpleValueFactory.getInstance();
+            for (int i = 0; i < 5; i++) {
+                f.storeStatement(RdfToRyaConversions.convertStatement(
+                        vf.createStatement(vf.createIRI("foo:subj" + i), RDFS.LABEL, vf.createLiteral("hat number " + i))));
+            }
+            f.flush();
+
+            Assert.assertEquals(2, getSet(f.queryText("hat", new StatementConstraints().setLimit(2))).size());
+            Assert.assertEquals(5, getSet(f.queryText("hat", EMPTY_CONSTRAINTS)).size());
+        }
+    }
+
+    @Test
+    public void testWildcardFallback() throws Exception {
+        conf.setInt(ConfigUtils.FREETEXT_WILDCARD_MAX_EXPANSION, 2);
+
+        try (AccumuloFreeTextIndexer f = new AccumuloFreeTextIndexer()) {
+            f.setConf(conf);
+            f.setMultiTableBatchWriter(ConfigUtils.createMultitableBatchWriter(conf));
+            f.init();
+
+            ValueFactory vf = SimpleValueFactory.getInstance();
+            Statement statement1 = vf.createStatement(vf.createIRI("foo:subj1"), RDFS.LABEL, vf.createLiteral("a new hat"));
+            Statement statement2 = vf.createStatement(vf.createIRI("foo:subj2"), RDFS.LABEL, vf.createLiteral("i hate rain"));
+            Statement statement3 = vf.createStatement(vf.createIRI("foo:subj3"), RDFS.LABEL, vf.createLiteral("hatch the cat"));
+            Statement statement4 = vf.createStatement(vf.createIRI("foo:subj4"), RDFS.LABEL, vf.createLiteral("a fat cat"));
+            for (Statement statement : Sets.newHashSet(statement1, statement2, statement3, statement4)) {
+                f.storeStatement(RdfToRyaConversions.convertStatement(statement));
+            }
+            f.flush();
+
+            // "hat*" and "*at" match more than two terms, so the server matches them against the term columns of each document
+            Assert.assertEquals(Sets.newHashSet(statement1, statement2, statement3), getSet(f.queryText("hat*", EMPTY_CONSTRAINTS)));
+            Assert.assertEquals(Sets.newHashSet(statement1, statement3, statement4), getSet(f.queryText("*at", EMPTY_CONSTRAINTS)));
+            Assert.assertEquals(Sets.newHashSet(statement4), getSet(f.queryText("cat & !hat*", EMPTY_CONSTRAINTS)));
+            Assert.assertEquals(Sets.newHashSet(statement2, statement3), getSet(f.queryText("rain | (hat* & !new)", EMPTY_CONSTRAINTS)));
+            Assert.assertEquals(Sets.newHashSet(statement1, statement2, statement3, statement4),
+                    getSet(f.queryText("fat | hat*", EMPTY_CONSTRAINTS)));
+            Assert.assertEquals(Sets.newHashSet(statement3), getSet(f.queryText("hat* & cat", EMPTY_CONSTRAINTS)));
+            Assert.assertEquals(Sets.newHashSet(statement2), getSet(f.queryText("!*at", EMPTY_CONSTRAINTS)));
+
+            // "rai*" is still expanded
+            Assert.assertEquals(Sets.newHashSet(statement2), getSet(f.queryText("rai*", EMPTY_CONSTRAINTS)));
+        }
+    }
+
+    private static Long getDocumentFrequency(Configuration conf, String term) throws Exception {
+        Scanner s = ConfigUtils.createScanner(AccumuloFreeTextIndexer.getFreeTextTermTablename(conf), conf);
+        s.setRange(Range.exact(ColumnPrefixes.getTermListColFam(term)));
+        s.fetchColumnFamily(ColumnPrefixes.TERM_DOC_FREQ_CF);
+        Long frequency = null;
+        for (Entry<Key, org.apache.accumulo.core.data.Value> entry : s) {
+            frequency = Long.parseLong(entry.getValue().toString());
+        }
+        return frequency;
+    }
+
     public static void printTables(Configuration conf) throws AccumuloException, AccumuloSecurityException, TableNotFoundException {
         TableOperations tops = ConfigUtils.getConnector(conf).tableOperations();
 
@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.accumulo.freetext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.accumulo.core.client.admin.TableOperations;
+import org.apache.rya.accumulo.AccumuloRdfConfiguration;
+import org.apache.rya.api.domain.RyaIRI;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.domain.RyaType;
+import org.apache.rya.indexing.accumulo.ConfigUtils;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Tests the methods of {@link WildcardExpander}.
+ */
+public class WildcardExpanderTest {
+
+    private AccumuloRdfConfiguration conf;
+
+    @Before
+    public void before() throws Exception {
+        conf = new AccumuloRdfConfiguration();
+        conf.setBoolean(ConfigUtils.USE_MOCK_INSTANCE, true);
+        conf.set(ConfigUtils.CLOUDBASE_USER, "USERNAME");
+        conf.set(ConfigUtils.CLOUDBASE_PASSWORD, "PASS");
+        conf.set(ConfigUtils.CLOUDBASE_AUTHS, "U");
+        conf.setClass(ConfigUtils.TOKENIZER_CLASS, SimpleTokenizer.class, Tokenizer.class);
+        conf.setTablePrefix("wildcard_");
+        conf.setInt(ConfigUtils.FREETEXT_WILDCARD_MAX_EXPANSION, 3);
+
+        final TableOperations tableOps = ConfigUtils.getConnector(conf).tableOperations();
+        for (final String name : AccumuloFreeTextIndexer.getTableNames(conf)) {
+            if (tableOps.exists(name)) {
+                tableOps.delete(name);
+            }
+        }
+
+        storeLabels("hat hate hatch", "cat bat rain tint");
+    }
+
+    @Test
+    public void expand_dictionary() throws Exception {
+        final WildcardExpander expander = new WildcardExpander(conf, AccumuloFreeTextIndexer.getFreeTextTermTablename(conf));
+        assertExpansions(expander);
+    }
+
+    @Test
+    public void expand_scan() throws Exception {
+        conf.setInt(ConfigUtils.FREETEXT_WILDCARD_DICTIONARY_MAX_TERMS, 0);
+        final WildcardExpander expander = new WildcardExpander(conf, AccumuloFreeTextIndexer.getFreeTextTermTablename(conf));
+        assertExpansions(expander);
+    }
+
+    @Test
+    public void expand_dictionaryTooLarge() throws Exception {
+        conf.setInt(ConfigUtils.FREETEXT_WILDCARD_DICTIONARY_MAX_TERMS, 2);
+        final WildcardExpander expander = new WildcardExpander(conf, AccumuloFreeTextIndexer.getFreeTextTermTablename(conf));
+        assertExpansions(expander);
+    }
+
+    @Test
+    public void termAdded() throws Exception {
+        final WildcardExpander expander = new WildcardExpander(conf, AccumuloFreeTextIndexer.getFreeTextTermTablename(conf));
+        assertEquals(Optional.of(Sets.newHashSet("rain")), expander.expand("ra", false));
+
+        // The cached expansion is replaced.
+        expander.termAdded("rag");
+        assertEquals(Optional.of(Sets.newHashSet("rain", "rag")), expander.expand("ra", false));
+        assertEquals(Optional.of(Sets.newHashSet("rag")), expander.expand("ag", true));
+
+        expander.termRemoved("rain");
+        assertEquals(Optional.of(Sets.newHashSet("rag")), expander.expand("ra", false));
+    }
+
+    @Test
+    public void termAdded_knownTermKeepsExpansion() throws Exception {
+        conf.setInt(ConfigUtils.FREETEXT_WILDCARD_DICTIONARY_MAX_TERMS, 0);
+        final WildcardExpander expander = new WildcardExpander(conf, AccumuloFreeTextIndexer.getFreeTextTermTablename(conf));
+        assertEquals(Optional.of(Sets.newHashSet("rain")), expander.expand("ra", false));
+
+        // Another client stores "ram". Adding a term that the cached expansion already holds does not read the table again.
+        storeLabels("ram");
+        expander.termAdded("rain");
+        assertEquals(Optional.of(Sets.newHashSet("rain")), expander.expand("ra", false));
+
+        expander.termAdded("rag");
+        assertEquals(Optional.of(Sets.newHashSet("rain", "rag")), expander.expand("ra", false));
+    }
+
+    @Test
+    public void termsAdded() throws Exception {
+        conf.setInt(ConfigUtils.FREETEXT_WILDCARD_DICTIONARY_MAX_TERMS, 0);
+        final WildcardExpander expander = new WildcardExpander(conf, AccumuloFreeTextIndexer.getFreeTextTermTablename(conf));
+        assertEquals(Optional.of(Sets.newHashSet("rain")), expander.expand("ra", false));
+        assertEquals(Optional.of(Sets.newHashSet("rain")), expander.expand("ain", true));
+
+        // The terms of a document, and the same terms again from the next one.
+        expander.termsAdded(Arrays.asList("rag", "rain", "tag"));
+        expander.termsAdded(Arrays.asList("rag", "tag"));
+        assertEquals(Optional.of(Sets.newHashSet("rain", "rag")), expander.expand("ra", false));
+        assertEquals(Optional.of(Sets.newHashSet("rain")), expander.expand("ain", true));
+        assertEquals(Optional.of(Sets.newHashSet("rag", "tag")), expander.expand("ag", true));
+    }
+
+    @Test
+    public void termAdded_notFlushed_dictionary() throws Exception {
+        conf.setLong(ConfigUtils.FREETEXT_WILDCARD_REFRESH_MILLIS, 1);
+        final WildcardExpander expander = new WildcardExpander(conf, AccumuloFreeTextIndexer.getFreeTextTermTablename(conf));
+        assertEquals(Optional.of(Sets.newHashSet("rain")), expander.expand("ra", false));
+
+        // "rag" is not in the term table, as if its write had not been flushed yet. Reloading the dictionary keeps it.
+        expander.termAdded("rag");
+        Thread.sleep(10);
+        assertEquals(Optional.of(Sets.newHashSet("rain", "rag")), expander.expand("ra", false));
+        assertEquals(Optional.of(Sets.newHashSet("rag")), expander.expand("ag", true));
+
+        // Once the write is reported as flushed, the term table is trusted again.
+        expander.flushed(System.currentTimeMillis() + 1);
+        Thread.sleep(10);
+        assertEquals(Optional.of(Sets.newHashSet("rain")), expander.expand("ra", false));
+    }
+
+    @Test
+    public void termAdded_notFlushed_scan() throws Exception {
+        conf.setInt(ConfigUtils.FREETEXT_WILDCARD_DICTIONARY_MAX_TERMS, 0);
+        conf.setLong(ConfigUtils.FREETEXT_WILDCARD_REFRESH_MILLIS, 1);
+        final WildcardExpander expander = new WildcardExpander(conf, AccumuloFreeTextIndexer.getFreeTextTermTablename(conf));
+
+        // Neither change is in the term table yet, so the scans have to apply them.
+        expander.termAdded("rag");
+        expander.termRemoved("rain");
+        assertEquals(Optional.of(Sets.newHashSet("rag")), expander.expand("ra", false));
+        Thread.sleep(10);
+        assertEquals(Optional.of(Sets.newHashSet("rag")), expander.expand("ra", false));
+    }
+
+    @Test
+    public void dictionaryTooLarge_backsOff() throws Exception {
+        conf.setInt(ConfigUtils.FREETEXT_WILDCARD_DICTIONARY_MAX_TERMS, 2);
+        conf.setLong(ConfigUtils.FREETEXT_WILDCARD_REFRESH_MILLIS, 200);
+        final WildcardExpander expander = new WildcardExpander(conf, AccumuloFreeTextIndexer.getFreeTextTermTablename(conf));
+        assertEquals(200, expander.getDictionaryRefreshMillis());
+
+        expander.expand("ha", false);
+        assertEquals(400, expander.getDictionaryRefreshMillis());
+
+        // The term table is not read again until the longer interval has passed.
+        expander.expand("ca", false);
+        assertEquals(400, expander.getDictionaryRefreshMillis());
+
+        Thread.sleep(500);
+        assertEquals(Optional.of(Sets.newHashSet("bat")), expander.expand("ba", false));
+        assertEquals(800, expander.getDictionaryRefreshMillis());
+    }
+
+    private void storeLabels(final String... labels) throws Exception {
+        try (AccumuloFreeTextIndexer f = new AccumuloFreeTextIndexer()) {
+            f.setConf(conf);
+            f.setMultiTableBatchWriter(ConfigUtils.createMultitableBatchWriter(conf));
+            f.init();
+            for (int i = 0; i < labels.length; i++) {
+                f.storeStatement(new RyaStatement(new RyaIRI("foo:subj" + (i + 1)), new RyaIRI(RDFS.LABEL.toString()), new RyaType(labels[i])));
+            }
+            f.flush();
+        }
+    }
+
+    private static void assertExpansions(final WildcardExpander expander) throws Exception {
+        assertEquals(Optional.of(Sets.newHashSet("hat", "hate", "hatch")), expander.expand("ha", false));
+        assertEquals(Optional.of(Sets.newHashSet("hatch")), expander.expand("hatc", false));
+        assertEquals(Optional.of(Sets.newHashSet("hat", "cat", "bat")), expander.expand("at", true));
+        assertEquals(Optional.of(Sets.<String>newHashSet()), expander.expand("zebra", false));
+
+        // Too many terms end with "t".
+        final Optional<Set<String>> expansion = expander.expand("t", true);
+        assertFalse(expansion.isPresent());
+    }
+}
@@ -57,6 +57,7 @@ import org.apache.rya.api.domain.RyaStatement;
 import org.apache.rya.indexing.StatementConstraints;
 import org.apache.rya.indexing.StatementSerializer;
 import org.apache.rya.indexing.TemporalInstant;
+import org.apache.rya.indexing.TemporalInstantRange;
 import org.apache.rya.indexing.TemporalInstantRfc3339;
 import org.apache.rya.indexing.TemporalInterval;
 import org.apache.rya.indexing.accumulo.ConfigUtils;
@@ -779,6 +780,69 @@ public final class AccumuloTemporalIndexerTest {
         Assert.assertEquals("Should find count of rows.", expectedResultCount, count);
     }
 
+    /**
+     * Test instants within the intersection of several instant relations.
+     */
+    @Test
+    public void testQueryInstantInRange() throws IOException, QueryEvaluationException {
+        // these should not match as they are not instances.
+        tIndexer.storeStatement(convertStatement(spo_B03_E20));
+        tIndexer.storeStatement(convertStatement(spo_B02_E30));
+        tIndexer.storeStatement(convertStatement(spo_B30_E32));
+
+        // seriesSpo[s] and seriesTs[s] are statements and instants for s seconds after the uniform time.
+        for (int s = 0; s <= 40; s++) {
+            tIndexer.storeStatement(convertStatement(seriesSpo[s]));
+        }
+        tIndexer.flush();
+
+        // after 5 seconds, inside 2 to 31 seconds, and before 20 seconds: 6,7,...,19 seconds.
+        TemporalInstantRange range = TemporalInstantRange.after(seriesTs[5])
+                .intersect(TemporalInstantRange.inside(tvB02_E31))
+                .intersect(TemporalInstantRange.before(seriesTs[20]));
+        CloseableIteration<Statement, QueryEvaluationException> iter = tIndexer.queryInstantInRange(range, EMPTY_CONSTRAINTS);
+        int count = 0;
+        while (iter.hasNext()) {
+            Statement s = iter.next();
+            Statement nextExpectedStatement = seriesSpo[count + 6]; // <== logic here
+            assertTrue("Should match: " + nextExpectedStatement + " == " + s, nextExpectedStatement.equals(s));
+            count++;
+        }
+        iter.close();
+        Assert.assertEquals("Should find count of rows.", 14, count);
+
+        // inclusive bounds: 10,11,12 seconds.
+        range = new TemporalInstantRange(seriesTs[10], true, seriesTs[12], true);
+        iter = tIndexer.queryInstantInRange(range, EMPTY_CONSTRAINTS);
+        count = 0;
+        while (iter.hasNext()) {
+            Statement s = iter.next();
+            Statement nextExpectedStatement = seriesSpo[count + 10]; // <== logic here
+            assertTrue("Should match: " + nextExpectedStatement + " == " + s, nextExpectedStatement.equals(s));
+            count++;
+        }
+        iter.close();
+        Assert.assertEquals("Should find count of rows.", 3, count);
+
+        // unbounded above: 38,39,40 seconds.
+        range = new TemporalInstantRange(seriesTs[38], true, null, false);
+        iter = tIndexer.queryInstantInRange(range, EMPTY_CONSTRAINTS);
+        count = 0;
+        while (iter.hasNext()) {
+            Statement s = iter.next();
+            Statement nextExpectedStatement = seriesSpo[count + 38]; // <== logic here
+            assertTrue("Should match: " + nextExpectedStatement + " == " + s, nextExpectedStatement.equals(s));
+            count++;
+        }
+        iter.close();
+        Assert.assertEquals("Should find count of rows.", 3, count);
+
+        // contradictory relations find nothing.
+        range = TemporalInstantRange.after(seriesTs[20]).intersect(TemporalInstantRange.before(seriesTs[5]));
+        Assert.assertTrue(range.isEmpty());
+        Assert.assertFalse(tIndexer.queryInstantInRange(range, EMPTY_CONSTRAINTS).hasNext());
+    }
+
     /**
      * Test method for
      * {@link org.apache.rya.indexing.accumulo.temporal.AccumuloTemporalIndexer#queryIntervalEquals(TemporalInterval, StatementConstraints)}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.accumulo.temporal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.rya.indexing.TemporalInstant;
+import org.apache.rya.indexing.TemporalInstantRange;
+import org.apache.rya.indexing.TemporalInstantRfc3339;
+import org.apache.rya.indexing.TemporalInterval;
+import org.junit.Test;
+
+/**
+ * Tests the methods of {@link TemporalInstantRange}.
+ */
+public class TemporalInstantRangeTest {
+
+    private static final TemporalInstant T10 = new TemporalInstantRfc3339(2015, 12, 30, 12, 0, 10);
+    private static final TemporalInstant T20 = new TemporalInstantRfc3339(2015, 12, 30, 12, 0, 20);
+    private static final TemporalInstant T30 = new TemporalInstantRfc3339(2015, 12, 30, 12, 0, 30);
+
+    @Test
+    public void intersect_afterAndBefore() {
+        final TemporalInstantRange range = TemporalInstantRange.after(T10).intersect(TemporalInstantRange.before(T30));
+        assertEquals(new TemporalInstantRange(T10, false, T30, false), range);
+        assertTrue(range.contains(T20));
+        assertFalse(range.contains(T10));
+        assertFalse(range.contains(T30));
+    }
+
+    @Test
+    public void intersect_keepsTighterBound() {
+        final TemporalInstantRange inside = TemporalInstantRange.inside(new TemporalInterval(T10, T30));
+        assertEquals(new TemporalInstantRange(T20, false, T30, false), inside.intersect(TemporalInstantRange.after(T20)));
+        assertEquals(new TemporalInstantRange(T10, false, T20, false), TemporalInstantRange.before(T20).intersect(inside));
+        assertEquals(inside, inside.intersect(TemporalInstantRange.all()));
+    }
+
+    @Test
+    public void intersect_exclusiveWinsAtSameInstant() {
+        final TemporalInstantRange inclusive = new TemporalInstantRange(T10, true, T30, true);
+        final TemporalInstantRange range = inclusive.intersect(TemporalInstantRange.after(T10));
+        assertFalse(range.isLowerInclusive());
+        assertTrue(range.isUpperInclusive());
+    }
+
+    @Test
+    public void isEmpty() {
+        assertFalse(TemporalInstantRange.all().isEmpty());
+        assertFalse(TemporalInstantRange.equalTo(T20).isEmpty());
+        assertTrue(TemporalInstantRange.after(T30).intersect(TemporalInstantRange.before(T10)).isEmpty());
+        assertTrue(TemporalInstantRange.equalTo(T20).intersect(TemporalInstantRange.after(T20)).isEmpty());
+    }
+
+    @Test
+    public void contains_equalTo() {
+        final TemporalInstantRange range = TemporalInstantRange.equalTo(T20);
+        assertTrue(range.contains(T20));
+        assertFalse(range.contains(T10));
+        assertFalse(range.contains(T30));
+    }
+}
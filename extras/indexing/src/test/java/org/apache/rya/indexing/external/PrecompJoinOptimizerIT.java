@@ -30,6 +30,8 @@ import org.apache.accumulo.core.client.mock.MockInstance;
 import org.apache.accumulo.core.client.security.tokens.PasswordToken;
 import org.apache.rya.api.persist.RyaDAOException;
 import org.apache.rya.indexing.pcj.storage.PcjException;
+import org.apache.rya.indexing.pcj.storage.accumulo.PcjTables;
+import org.apache.rya.rdftriplestore.RdfCloudTripleStore;
 import org.apache.rya.rdftriplestore.inference.InferenceEngineException;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.ValueFactory;
@@ -455,6 +457,43 @@ public class PrecompJoinOptimizerIT {
 
 	}
 
+	@Test
+	public void testCachedPlanAfterPcjDropped() throws Exception {
+
+		final RdfCloudTripleStore<?> store = (RdfCloudTripleStore<?>) pcjRepo.getSail();
+		store.getConf().setQueryPlanCacheSize(10);
+
+		final String indexSparqlString = ""//
+				+ "SELECT ?e ?l ?c " //
+				+ "{" //
+				+ "  ?e a ?c . "//
+				+ "  ?e <http://www.w3.org/2000/01/rdf-schema#label> ?l "//
+				+ "}";//
+
+		PcjIntegrationTestingUtil.createAndPopulatePcj(conn, accCon, tablePrefix
+				+ "INDEX_1", indexSparqlString, new String[] { "e", "l", "c" },
+				Optional.absent());
+		final String queryString = ""//
+				+ "SELECT ?e ?c ?l ?o " //
+				+ "{" //
+				+ "  ?e a ?c . "//
+				+ "  ?e <http://www.w3.org/2000/01/rdf-schema#label> ?l . "//
+				+ "  ?e <uri:talksTo> ?o . "//
+				+ "}";//
+
+		final CountingResultHandler crh = new CountingResultHandler();
+		pcjConn.prepareTupleQuery(QueryLanguage.SPARQL, queryString).evaluate(crh);
+		Assert.assertEquals(2, crh.getCount());
+
+		// The cached plan reads INDEX_1, so it must not be reused once the PCJ is gone.
+		new PcjTables().dropPcjTable(accCon, tablePrefix + "INDEX_1");
+
+		crh.resetCount();
+		pcjConn.prepareTupleQuery(QueryLanguage.SPARQL, queryString).evaluate(crh);
+		Assert.assertEquals(2, crh.getCount());
+		Assert.assertEquals(2, store.getQueryPlanCache().getStats().missCount());
+	}
+
 	public static class CountingResultHandler implements
 			TupleQueryResultHandler {
 		private int count = 0;
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.pcj.matching.provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.rya.indexing.external.tupleSet.ExternalTupleSet;
+import org.apache.rya.indexing.external.tupleSet.SimpleExternalTupleSet;
+import org.apache.rya.indexing.pcj.matching.provider.PcjCatalog.PcjLoader;
+import org.eclipse.rdf4j.query.algebra.Projection;
+import org.eclipse.rdf4j.query.parser.sparql.SPARQLParser;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Tests the methods of {@link PcjCatalog}.
+ */
+public class PcjCatalogTest {
+
+    private static final String PCJ_SPARQL =
+            "SELECT ?person ?place " +
+            "WHERE { " +
+                "?person <http://worksAt> ?place . " +
+                "?person <http://livesIn> ?place . " +
+            "}";
+
+    @Test
+    public void reusedWhileVersionUnchanged() throws Exception {
+        final PcjCatalog catalog = new PcjCatalog();
+        final AtomicInteger loads = new AtomicInteger();
+        final PcjLoader loader = countingLoader(loads);
+
+        final List<ExternalTupleSet> first = catalog.getPcjs("key", 0L, () -> Optional.of("v1"), loader);
+        final List<ExternalTupleSet> second = catalog.getPcjs("key", 0L, () -> Optional.of("v1"), loader);
+
+        assertEquals(1, loads.get());
+        assertEquals(1, first.size());
+        assertSame(first, second);
+    }
+
+    @Test
+    public void reloadedWhenVersionChanges() throws Exception {
+        final PcjCatalog catalog = new PcjCatalog();
+        final AtomicInteger loads = new AtomicInteger();
+        final PcjLoader loader = countingLoader(loads);
+        final AtomicReference<String> version = new AtomicReference<>("v1");
+
+        catalog.getPcjs("key", 0L, () -> Optional.of(version.get()), loader);
+        version.set("v2");
+        catalog.getPcjs("key", 0L, () -> Optional.of(version.get()), loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void reloadedWhenVersionUnknown() throws Exception {
+        final PcjCatalog catalog = new PcjCatalog();
+        final AtomicInteger loads = new AtomicInteger();
+        final PcjLoader loader = countingLoader(loads);
+
+        catalog.getPcjs("key", 0L, Optional::empty, loader);
+        catalog.getPcjs("key", 0L, Optional::empty, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void versionNotReadWithinRefreshInterval() throws Exception {
+        final PcjCatalog catalog = new PcjCatalog();
+        final AtomicInteger loads = new AtomicInteger();
+        final AtomicInteger versionReads = new AtomicInteger();
+        final PcjLoader loader = countingLoader(loads);
+
+        for(int i = 0; i < 3; i++) {
+            catalog.getPcjs("key", 60_000L, () -> {
+                versionReads.incrementAndGet();
+                return Optional.empty();
+            }, loader);
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(1, versionReads.get());
+    }
+
+    @Test
+    public void keysAreIndependent() throws Exception {
+        final PcjCatalog catalog = new PcjCatalog();
+        final AtomicInteger loads = new AtomicInteger();
+        final PcjLoader loader = countingLoader(loads);
+
+        catalog.getPcjs("key1", 0L, () -> Optional.of("v1"), loader);
+        catalog.getPcjs("key2", 0L, () -> Optional.of("v1"), loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void invalidateAll() throws Exception {
+        final PcjCatalog catalog = new PcjCatalog();
+        final AtomicInteger loads = new AtomicInteger();
+        final PcjLoader loader = countingLoader(loads);
+
+        catalog.getPcjs("key", 60_000L, () -> Optional.of("v1"), loader);
+        catalog.invalidateAll();
+        catalog.getPcjs("key", 60_000L, () -> Optional.of("v1"), loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    private static PcjLoader countingLoader(final AtomicInteger loads) {
+        return () -> {
+            loads.incrementAndGet();
+            try {
+                final Projection projection = (Projection) new SPARQLParser().parseQuery(PCJ_SPARQL, null).getTupleExpr();
+                return Lists.newArrayList(new SimpleExternalTupleSet(projection));
+            } catch (final Exception e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+}
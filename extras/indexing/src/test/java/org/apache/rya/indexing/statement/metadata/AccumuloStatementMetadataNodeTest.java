@@ -20,7 +20,9 @@ package org.apache.rya.indexing.statement.metadata;
  */
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.accumulo.core.client.Connector;
 import org.apache.rya.accumulo.AccumuloRdfConfiguration;
@@ -363,6 +365,80 @@ public class AccumuloStatementMetadataNodeTest {
         dao.delete(statement2, conf);
     }
 
+    /**
+     * Tests that BindingSets sharing a lookup are each joined with the results
+     * of that lookup when the lookups are issued in several batches.
+     * 
+     * @throws MalformedQueryException
+     * @throws QueryEvaluationException
+     * @throws RyaDAOException
+     */
+    @Test
+    public void simpleQueryWithBindingSetCollectionInBatches()
+            throws MalformedQueryException, QueryEvaluationException, RyaDAOException {
+
+        StatementMetadata metadata = new StatementMetadata();
+        metadata.addMetadata(new RyaIRI("http://createdBy"), new RyaType("Joe"));
+        metadata.addMetadata(new RyaIRI("http://createdOn"), new RyaType(XMLSchema.DATE, "2017-01-04"));
+
+        RyaStatement statement1 = new RyaStatement(new RyaIRI("http://Joe"), new RyaIRI("http://worksAt"),
+                new RyaType("CoffeeShop"), new RyaIRI("http://context"), "", metadata);
+        RyaStatement statement2 = new RyaStatement(new RyaIRI("http://Joe"), new RyaIRI("http://worksAt"),
+                new RyaType("HardwareStore"), new RyaIRI("http://context"), "", metadata);
+        dao.add(statement1);
+        dao.add(statement2);
+
+        SPARQLParser parser = new SPARQLParser();
+        ParsedQuery pq = parser.parseQuery(query, null);
+        List<StatementPattern> spList = StatementPatternCollector.process(pq.getTupleExpr());
+        AccumuloRdfConfiguration batchConf = conf.clone();
+        batchConf.setStatementMetadataBatchSize(1);
+        StatementMetadataNode<AccumuloRdfConfiguration> node = new StatementMetadataNode<>(spList, batchConf);
+
+        List<BindingSet> bsCollection = new ArrayList<>();
+        QueryBindingSet bsConstraint1 = new QueryBindingSet();
+        bsConstraint1.addBinding("x", VF.createLiteral("CoffeeShop"));
+        bsConstraint1.addBinding("z", VF.createLiteral("Virginia"));
+
+        QueryBindingSet bsConstraint2 = new QueryBindingSet();
+        bsConstraint2.addBinding("x", VF.createLiteral("CoffeeShop"));
+        bsConstraint2.addBinding("z", VF.createLiteral("Maryland"));
+
+        QueryBindingSet bsConstraint3 = new QueryBindingSet();
+        bsConstraint3.addBinding("x", VF.createLiteral("HardwareStore"));
+        bsConstraint3.addBinding("z", VF.createLiteral("Delaware"));
+
+        QueryBindingSet bsConstraint4 = new QueryBindingSet();
+        bsConstraint4.addBinding("x", VF.createLiteral("BurgerShack"));
+        bsConstraint4.addBinding("z", VF.createLiteral("Delaware"));
+        bsCollection.add(bsConstraint1);
+        bsCollection.add(bsConstraint2);
+        bsCollection.add(bsConstraint3);
+        bsCollection.add(bsConstraint4);
+
+        CloseableIteration<BindingSet, QueryEvaluationException> iteration = node.evaluate(bsCollection);
+
+        Set<BindingSet> expected = new HashSet<>();
+        for (BindingSet constraint : bsCollection.subList(0, 3)) {
+            QueryBindingSet bs = new QueryBindingSet(constraint);
+            bs.addBinding("y", VF.createLiteral("Joe"));
+            expected.add(bs);
+        }
+
+        Set<BindingSet> bsSet = new HashSet<>();
+        int count = 0;
+        while (iteration.hasNext()) {
+            bsSet.add(iteration.next());
+            count++;
+        }
+
+        Assert.assertEquals(3, count);
+        Assert.assertEquals(expected, bsSet);
+
+        dao.delete(statement1, conf);
+        dao.delete(statement2, conf);
+    }
+
     /**
      * Tests if StatementMetadataNode joins BindingSet values correctly for
      * variables appearing as the object in one of the StatementPattern
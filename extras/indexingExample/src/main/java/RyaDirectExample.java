@@ -38,6 +38,7 @@ import org.apache.rya.indexing.accumulo.ConfigUtils;
 import org.apache.rya.indexing.external.PrecomputedJoinIndexerConfig;
 import org.apache.rya.indexing.external.PrecomputedJoinIndexerConfig.PrecomputedJoinStorageType;
 import org.apache.rya.indexing.pcj.storage.PcjException;
+import org.apache.rya.indexing.pcj.storage.PcjPopulator;
 import org.apache.rya.indexing.pcj.storage.accumulo.PcjTables;
 import org.apache.rya.rdftriplestore.inference.InferenceEngineException;
 import org.apache.rya.sail.config.RyaSailFactory;
@@ -773,11 +774,12 @@ public class RyaDirectExample {
 			final Connector accCon = new MockInstance(INSTANCE).getConnector(
 					"root", new PasswordToken("".getBytes(StandardCharsets.UTF_8)));
 
-			new PcjTables().createAndPopulatePcj(conn, accCon, tablename1,
+			final PcjTables pcjTables = new PcjTables(PcjPopulator.builder().fromConfiguration(config).build());
+			pcjTables.createAndPopulatePcj(conn, accCon, tablename1,
 					queryString1, new String[] { "e", "c", "l", "o" },
 					Optional.absent());
 
-			new PcjTables().createAndPopulatePcj(conn, accCon, tablename2,
+			pcjTables.createAndPopulatePcj(conn, accCon, tablename2,
 					queryString2, new String[] { "e", "c", "l", "o" },
 					Optional.absent());
 
@@ -35,6 +35,7 @@ import org.apache.rya.api.client.RyaClientException;
 import org.apache.rya.api.client.accumulo.AccumuloConnectionDetails;
 import org.apache.rya.api.client.accumulo.AccumuloRyaClientFactory;
 import org.apache.rya.api.log.LogUtils;
+import org.apache.rya.api.persist.RyaDAO;
 import org.apache.rya.api.persist.RyaDAOException;
 import org.apache.rya.kafka.connect.api.sink.RyaSinkTask;
 import org.apache.rya.rdftriplestore.inference.InferenceEngineException;
@@ -94,7 +95,33 @@ public class AccumuloRyaSinkTask extends RyaSinkTask {
         // Parse the configuration object.
         final AccumuloRyaSinkConfig config = new AccumuloRyaSinkConfig(taskConfig);
 
-        // Move the configuration into a Rya Configuration object.
+        // Create the Sail object.
+        try {
+            return RyaSailFactory.getInstance( makeRyaConfig(config) );
+        } catch (SailException | AccumuloException | AccumuloSecurityException | RyaDAOException | InferenceEngineException e) {
+            throw new ConnectException("Could not connect to the Rya Instance named " + config.getRyaInstanceName(), e);
+        }
+    }
+
+    @Override
+    protected RyaDAO<?> makeRyaDAO(final Map<String, String> taskConfig) throws ConnectException {
+        requireNonNull(taskConfig);
+
+        // Parse the configuration object.
+        final AccumuloRyaSinkConfig config = new AccumuloRyaSinkConfig(taskConfig);
+
+        // Create the DAO. Its writes are buffered until the task is flushed.
+        try {
+            return RyaSailFactory.getAccumuloDAOWithUpdatedConfig( makeRyaConfig(config) );
+        } catch (AccumuloException | AccumuloSecurityException | RyaDAOException e) {
+            throw new ConnectException("Could not connect to the Rya Instance named " + config.getRyaInstanceName(), e);
+        }
+    }
+
+    /**
+     * Moves the sink's configuration into a Rya Configuration object.
+     */
+    private static AccumuloRdfConfiguration makeRyaConfig(final AccumuloRyaSinkConfig config) {
         final AccumuloRdfConfiguration ryaConfig = new AccumuloRdfConfiguration();
         ryaConfig.setTablePrefix( config.getRyaInstanceName() );
         ryaConfig.setAccumuloZookeepers( config.getZookeepers() );
@@ -102,12 +129,6 @@ public class AccumuloRyaSinkTask extends RyaSinkTask {
         ryaConfig.setAccumuloUser( config.getUsername() );
         ryaConfig.setAccumuloPassword( config.getPassword() );
         ryaConfig.setFlush(false);
-
-        // Create the Sail object.
-        try {
-            return RyaSailFactory.getInstance(ryaConfig);
-        } catch (SailException | AccumuloException | AccumuloSecurityException | RyaDAOException | InferenceEngineException e) {
-            throw new ConnectException("Could not connect to the Rya Instance named " + config.getRyaInstanceName(), e);
-        }
+        return ryaConfig;
     }
 }
\ No newline at end of file
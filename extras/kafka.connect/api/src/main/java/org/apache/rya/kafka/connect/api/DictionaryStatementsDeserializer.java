@@ -0,0 +1,182 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.kafka.connect.api;
+
+import static org.apache.rya.kafka.connect.api.DictionaryStatementsSerializer.BNODE_TERM;
+import static org.apache.rya.kafka.connect.api.DictionaryStatementsSerializer.IRI_TERM;
+import static org.apache.rya.kafka.connect.api.DictionaryStatementsSerializer.LANGUAGE_LITERAL_TERM;
+import static org.apache.rya.kafka.connect.api.DictionaryStatementsSerializer.LITERAL_TERM;
+import static org.apache.rya.kafka.connect.api.DictionaryStatementsSerializer.MAGIC;
+import static org.apache.rya.kafka.connect.api.DictionaryStatementsSerializer.VERSION;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.kafka.common.serialization.Deserializer;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * A Kafka {@link Deserializer} that is able to deserialize a set of {@link Statement}s that was
+ * written by a {@link DictionaryStatementsSerializer}.
+ */
+@DefaultAnnotation(NonNull.class)
+public class DictionaryStatementsDeserializer implements Deserializer<Set<Statement>> {
+    private static final Logger log = LoggerFactory.getLogger(DictionaryStatementsDeserializer.class);
+
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+    /**
+     * @param data - A serialized record. (not null)
+     * @return {@code true} if the record was written by a {@link DictionaryStatementsSerializer}.
+     */
+    public static boolean isDictionaryFormat(final byte[] data) {
+        if(data.length < MAGIC.length) {
+            return false;
+        }
+        for(int i = 0; i < MAGIC.length; i++) {
+            if(data[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void configure(final Map<String, ?> configs, final boolean isKey) {
+        // Nothing to do.
+    }
+
+    @Override
+    public Set<Statement> deserialize(final String topic, final byte[] data) {
+        if(data == null || data.length == 0) {
+            // Return null because that is the contract of this method.
+            return null;
+        }
+
+        if(!isDictionaryFormat(data)) {
+            log.error("Could not deserialize a Set of Statements because the record is not in the dictionary format.");
+            return null;
+        }
+
+        try {
+            final DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            in.skipBytes(MAGIC.length);
+            final byte version = in.readByte();
+            if(version != VERSION) {
+                log.error("Could not deserialize a Set of Statements written with unknown dictionary format version " + version + ".");
+                return null;
+            }
+
+            final String[] namespaces = new String[readVarint(in)];
+            for(int i = 0; i < namespaces.length; i++) {
+                namespaces[i] = readString(in);
+            }
+
+            final Value[] terms = new Value[readVarint(in)];
+            for(int i = 0; i < terms.length; i++) {
+                terms[i] = readTerm(in, namespaces, terms);
+            }
+
+            final int count = readVarint(in);
+            final Resource[] subjects = new Resource[count];
+            for(int i = 0; i < count; i++) {
+                subjects[i] = (Resource) terms[readVarint(in)];
+            }
+            final IRI[] predicates = new IRI[count];
+            for(int i = 0; i < count; i++) {
+                predicates[i] = (IRI) terms[readVarint(in)];
+            }
+            final Value[] objects = new Value[count];
+            for(int i = 0; i < count; i++) {
+                objects[i] = terms[readVarint(in)];
+            }
+
+            final Set<Statement> statements = new HashSet<>();
+            for(int i = 0; i < count; i++) {
+                final int context = readVarint(in);
+                final Statement statement = context == 0 ?
+                        VF.createStatement(subjects[i], predicates[i], objects[i]) :
+                        VF.createStatement(subjects[i], predicates[i], objects[i], (Resource) terms[context - 1]);
+                log.debug("Statement: " + statement);
+                statements.add(statement);
+            }
+            return statements;
+
+        } catch(final IOException | RuntimeException e) {
+            log.error("Could not deserialize a Set of Statements using the dictionary format.", e);
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+        // Nothing to do.
+    }
+
+    private static Value readTerm(final DataInputStream in, final String[] namespaces, final Value[] terms) throws IOException {
+        final byte kind = in.readByte();
+        switch(kind) {
+            case IRI_TERM:
+                final String namespace = namespaces[readVarint(in)];
+                return VF.createIRI(namespace, readString(in));
+            case BNODE_TERM:
+                return VF.createBNode(readString(in));
+            case LITERAL_TERM:
+                final String label = readString(in);
+                return VF.createLiteral(label, (IRI) terms[readVarint(in)]);
+            case LANGUAGE_LITERAL_TERM:
+                return VF.createLiteral(readString(in), readString(in));
+            default:
+                throw new IOException("Unknown term kind " + kind + ".");
+        }
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[readVarint(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readVarint(final DataInputStream in) throws IOException {
+        int value = 0;
+        for(int shift = 0; shift < 32; shift += 7) {
+            final byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint.");
+    }
+}
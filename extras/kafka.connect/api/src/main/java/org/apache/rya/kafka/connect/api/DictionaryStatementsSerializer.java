@@ -0,0 +1,218 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.kafka.connect.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * A Kafka {@link Serializer} that writes a set of {@link Statement}s in a compact, columnar format.
+ * <p/>
+ * Every distinct term of the record is written once to a term dictionary, and IRIs that share a namespace
+ * share a single copy of it. The statements are then written as four columns (subjects, predicates, objects,
+ * and contexts) of varint references into the dictionary. The layout of a record is:
+ * <pre>
+ * magic (4 bytes) | version (1 byte)
+ * namespace count | namespaces...
+ * term count      | terms...
+ * statement count | subject column | predicate column | object column | context column
+ * </pre>
+ * All counts and references are unsigned varints and all strings are a varint length followed by UTF-8 bytes.
+ * The context column refers to term {@code index + 1}, and 0 marks the default graph.
+ * <p/>
+ * Records written this way may be read with either a {@link DictionaryStatementsDeserializer} or a
+ * {@link StatementsDeserializer}.
+ */
+@DefaultAnnotation(NonNull.class)
+public class DictionaryStatementsSerializer implements Serializer<Set<Statement>> {
+
+    static final byte[] MAGIC = { 'R', 'Y', 'S', 'D' };
+    static final byte VERSION = 1;
+
+    static final byte IRI_TERM = 0;
+    static final byte BNODE_TERM = 1;
+    static final byte LITERAL_TERM = 2;
+    static final byte LANGUAGE_LITERAL_TERM = 3;
+
+    @Override
+    public void configure(final Map<String, ?> configs, final boolean isKey) {
+        // Nothing to do.
+    }
+
+    @Override
+    public byte[] serialize(final String topic, final Set<Statement> data) {
+        if(data == null) {
+            // Returning null because that is the contract of this method.
+            return null;
+        }
+
+        // Build the dictionaries and the statement columns.
+        final Dictionary dictionary = new Dictionary();
+        final int[] subjects = new int[data.size()];
+        final int[] predicates = new int[data.size()];
+        final int[] objects = new int[data.size()];
+        final int[] contexts = new int[data.size()];
+        int i = 0;
+        for(final Statement stmt : data) {
+            subjects[i] = dictionary.term(stmt.getSubject());
+            predicates[i] = dictionary.term(stmt.getPredicate());
+            objects[i] = dictionary.term(stmt.getObject());
+            final Resource context = stmt.getContext();
+            contexts[i] = context == null ? 0 : dictionary.term(context) + 1;
+            i++;
+        }
+
+        try {
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            final DataOutputStream out = new DataOutputStream(baos);
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+
+            writeVarint(out, dictionary.namespaces.size());
+            for(final String namespace : dictionary.namespaces) {
+                writeString(out, namespace);
+            }
+
+            writeVarint(out, dictionary.terms.size());
+            for(final Value term : dictionary.terms) {
+                dictionary.writeTerm(out, term);
+            }
+
+            writeVarint(out, data.size());
+            writeColumn(out, subjects);
+            writeColumn(out, predicates);
+            writeColumn(out, objects);
+            writeColumn(out, contexts);
+
+            out.flush();
+            return baos.toByteArray();
+        } catch(final IOException e) {
+            throw new SerializationException("Could not serialize a Set of Statements.", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        // Nothing to do.
+    }
+
+    private static void writeColumn(final DataOutputStream out, final int[] column) throws IOException {
+        for(final int ref : column) {
+            writeVarint(out, ref);
+        }
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeVarint(final DataOutputStream out, int value) throws IOException {
+        while((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Assigns each distinct term and IRI namespace of a record its index.
+     */
+    private static final class Dictionary {
+        private final List<String> namespaces = new ArrayList<>();
+        private final Map<String, Integer> namespaceIds = new HashMap<>();
+        private final List<Value> terms = new ArrayList<>();
+        private final Map<Value, Integer> termIds = new HashMap<>();
+
+        /**
+         * @return The index of the term. A literal's datatype is always given a lower index than the literal.
+         */
+        int term(final Value value) {
+            final Integer id = termIds.get(value);
+            if(id != null) {
+                return id;
+            }
+
+            if(value instanceof IRI) {
+                namespace(((IRI) value).getNamespace());
+            } else if(value instanceof Literal && !((Literal) value).getLanguage().isPresent()) {
+                term(((Literal) value).getDatatype());
+            }
+
+            final int newId = terms.size();
+            terms.add(value);
+            termIds.put(value, newId);
+            return newId;
+        }
+
+        private int namespace(final String namespace) {
+            final Integer id = namespaceIds.get(namespace);
+            if(id != null) {
+                return id;
+            }
+            final int newId = namespaces.size();
+            namespaces.add(namespace);
+            namespaceIds.put(namespace, newId);
+            return newId;
+        }
+
+        void writeTerm(final DataOutputStream out, final Value term) throws IOException {
+            if(term instanceof IRI) {
+                final IRI iri = (IRI) term;
+                out.writeByte(IRI_TERM);
+                writeVarint(out, namespaceIds.get(iri.getNamespace()));
+                writeString(out, iri.getLocalName());
+            } else if(term instanceof BNode) {
+                out.writeByte(BNODE_TERM);
+                writeString(out, ((BNode) term).getID());
+            } else {
+                final Literal literal = (Literal) term;
+                if(literal.getLanguage().isPresent()) {
+                    out.writeByte(LANGUAGE_LITERAL_TERM);
+                    writeString(out, literal.getLabel());
+                    writeString(out, literal.getLanguage().get());
+                } else {
+                    out.writeByte(LITERAL_TERM);
+                    writeString(out, literal.getLabel());
+                    writeVarint(out, termIds.get(literal.getDatatype()));
+                }
+            }
+        }
+    }
+}
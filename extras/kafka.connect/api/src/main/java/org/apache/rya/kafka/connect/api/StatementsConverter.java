@@ -23,6 +23,8 @@ import static java.util.Objects.requireNonNull;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaAndValue;
 import org.apache.kafka.connect.storage.Converter;
@@ -35,23 +37,42 @@ import edu.umd.cs.findbugs.annotations.NonNull;
  * A plugin into the Kafka Connect platform that converts {@link Set}s of {@link Statement}s
  * to/from byte[]s by using a {@link StatementsSerializer} and a {@link StatementsDeserializer}.
  * <p/>
+ * Setting {@link #FORMAT} to {@link #DICTIONARY_FORMAT} writes the dictionary encoded format of a
+ * {@link DictionaryStatementsSerializer} instead. Either format is read regardless of that setting.
+ * <p/>
  * This converter does not use Kafka's Schema Registry.
  */
 @DefaultAnnotation(NonNull.class)
 public class StatementsConverter implements Converter {
 
-    private static final StatementsSerializer SERIALIZER = new StatementsSerializer();
+    /**
+     * The configuration key that selects the format Statements are written in.
+     */
+    public static final String FORMAT = "statements.format";
+
+    public static final String BINARY_FORMAT = "binary";
+    public static final String DICTIONARY_FORMAT = "dictionary";
+
     private static final StatementsDeserializer DESERIALIZER = new StatementsDeserializer();
 
+    private Serializer<Set<Statement>> serializer = new StatementsSerializer();
+
     @Override
     public void configure(final Map<String, ?> configs, final boolean isKey) {
-        // This converter's behavior can not be tuned with configurations.
+        final Object format = configs.get(FORMAT);
+        if(format == null || BINARY_FORMAT.equals(format)) {
+            serializer = new StatementsSerializer();
+        } else if(DICTIONARY_FORMAT.equals(format)) {
+            serializer = new DictionaryStatementsSerializer();
+        } else {
+            throw new ConfigException(FORMAT, format, "Must be either " + BINARY_FORMAT + " or " + DICTIONARY_FORMAT + ".");
+        }
     }
 
     @Override
     public byte[] fromConnectData(final String topic, final Schema schema, final Object value) {
         requireNonNull(value);
-        return SERIALIZER.serialize(topic, (Set<Statement>) value);
+        return serializer.serialize(topic, (Set<Statement>) value);
     }
 
     @Override
@@ -39,7 +39,8 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 
 /**
  * A Kafka {@link Deserializer} that is able to deserialize an RDF4J Rio Binary format serialized
- * set of {@link Statement}s.
+ * set of {@link Statement}s. Records that were written by a {@link DictionaryStatementsSerializer}
+ * are recognized and read with a {@link DictionaryStatementsDeserializer}.
  */
 @DefaultAnnotation(NonNull.class)
 public class StatementsDeserializer implements Deserializer<Set<Statement>> {
@@ -47,6 +48,8 @@ public class StatementsDeserializer implements Deserializer<Set<Statement>> {
 
     private static final BinaryRDFParserFactory PARSER_FACTORY = new BinaryRDFParserFactory();
 
+    private final DictionaryStatementsDeserializer dictionaryDeserializer = new DictionaryStatementsDeserializer();
+
     @Override
     public void configure(final Map<String, ?> configs, final boolean isKey) {
         // Nothing to do.
@@ -59,6 +62,10 @@ public class StatementsDeserializer implements Deserializer<Set<Statement>> {
             return null;
         }
 
+        if(DictionaryStatementsDeserializer.isDictionaryFormat(data)) {
+            return dictionaryDeserializer.deserialize(topic, data);
+        }
+
         try {
             final RDFParser parser = PARSER_FACTORY.getParser();
             final Set<Statement> statements = new HashSet<>();
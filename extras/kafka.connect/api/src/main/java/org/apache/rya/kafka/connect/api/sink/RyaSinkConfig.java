@@ -25,6 +25,7 @@ import java.util.Map;
 import org.apache.kafka.common.config.AbstractConfig;
 import org.apache.kafka.common.config.ConfigDef;
 import org.apache.kafka.common.config.ConfigDef.Importance;
+import org.apache.kafka.common.config.ConfigDef.Range;
 import org.apache.kafka.common.config.ConfigDef.Type;
 
 import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
@@ -39,6 +40,18 @@ public class RyaSinkConfig extends AbstractConfig {
     public static final String RYA_INSTANCE_NAME = "rya.instance.name";
     private static final String RYA_INSTANCE_NAME_DOC = "The name of the RYA instance that will be connected to.";
 
+    public static final String DIRECT_INGEST = "rya.sink.direct";
+    private static final String DIRECT_INGEST_DOC = "Write Statements in batches through the Rya DAO instead of " +
+            "through a Sail transaction. Inferencing is not applied to Statements that are written this way.";
+
+    public static final String BATCH_SIZE = "rya.sink.batch.size";
+    private static final String BATCH_SIZE_DOC = "When writing directly, the number of Statements that are " +
+            "converted and added to the Rya DAO together.";
+
+    public static final String CONVERSION_THREADS = "rya.sink.conversion.threads";
+    private static final String CONVERSION_THREADS_DOC = "When writing directly, the number of threads that " +
+            "convert batches of Statements into RyaStatements.";
+
     /**
      * @param configDef - The configuration schema definition that will be updated to include
      *   this configuration's fields. (not null)
@@ -46,6 +59,18 @@ public class RyaSinkConfig extends AbstractConfig {
     public static void addCommonDefinitions(final ConfigDef configDef) {
         requireNonNull(configDef);
         configDef.define(RYA_INSTANCE_NAME, Type.STRING, Importance.HIGH, RYA_INSTANCE_NAME_DOC);
+        addIngestDefinitions(configDef);
+    }
+
+    /**
+     * @param configDef - The configuration schema definition that will be updated to include
+     *   the fields that control how Statements are written to Rya. (not null)
+     */
+    public static void addIngestDefinitions(final ConfigDef configDef) {
+        requireNonNull(configDef);
+        configDef.define(DIRECT_INGEST, Type.BOOLEAN, false, Importance.MEDIUM, DIRECT_INGEST_DOC)
+            .define(BATCH_SIZE, Type.INT, 1000, Range.atLeast(1), Importance.LOW, BATCH_SIZE_DOC)
+            .define(CONVERSION_THREADS, Type.INT, 4, Range.atLeast(1), Importance.LOW, CONVERSION_THREADS_DOC);
     }
 
     /**
@@ -64,4 +89,25 @@ public class RyaSinkConfig extends AbstractConfig {
     public String getRyaInstanceName() {
         return super.getString(RYA_INSTANCE_NAME);
     }
+
+    /**
+     * @return {@code true} if Statements are written through the Rya DAO instead of a Sail transaction.
+     */
+    public boolean isDirectIngest() {
+        return super.getBoolean(DIRECT_INGEST);
+    }
+
+    /**
+     * @return When writing directly, the number of Statements that are converted and added to the Rya DAO together.
+     */
+    public int getBatchSize() {
+        return super.getInt(BATCH_SIZE);
+    }
+
+    /**
+     * @return When writing directly, the number of threads that convert batches of Statements into RyaStatements.
+     */
+    public int getConversionThreads() {
+        return super.getInt(CONVERSION_THREADS);
+    }
 }
\ No newline at end of file
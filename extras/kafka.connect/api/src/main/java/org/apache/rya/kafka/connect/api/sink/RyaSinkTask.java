@@ -20,15 +20,27 @@ package org.apache.rya.kafka.connect.api.sink;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.config.ConfigDef;
 import org.apache.kafka.connect.errors.ConnectException;
 import org.apache.kafka.connect.sink.SinkRecord;
 import org.apache.kafka.connect.sink.SinkTask;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.persist.RyaDAO;
+import org.apache.rya.api.persist.RyaDAOException;
+import org.apache.rya.api.resolver.RdfToRyaConversions;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.repository.sail.SailRepository;
 import org.eclipse.rdf4j.repository.sail.SailRepositoryConnection;
@@ -36,6 +48,7 @@ import org.eclipse.rdf4j.sail.Sail;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.jcabi.manifests.Manifests;
 
 import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
@@ -47,17 +60,35 @@ import edu.umd.cs.findbugs.annotations.Nullable;
  * <p/>
  * Implementations of this class only need to specify functionality that is specific to the
  * Rya implementation.
+ * <p/>
+ * By default the Statements are added to a Sail transaction that is committed when the task is flushed. If
+ * {@link RyaSinkConfig#DIRECT_INGEST} is set, they are instead converted into {@link RyaStatement}s in parallel
+ * batches and written with the Rya DAO's batch add. A flush then flushes the DAO, so the framework only commits
+ * the offsets of records whose Statements have been written.
  */
 @DefaultAnnotation(NonNull.class)
 public abstract class RyaSinkTask extends SinkTask {
     private static final Logger log = LoggerFactory.getLogger(RyaSinkTask.class);
 
+    private static final ConfigDef INGEST_CONFIG_DEF = new ConfigDef();
+    static {
+        RyaSinkConfig.addIngestDefinitions(INGEST_CONFIG_DEF);
+    }
+
     @Nullable
     private SailRepository sailRepo = null;
 
     @Nullable
     private SailRepositoryConnection conn = null;
 
+    @Nullable
+    private RyaDAO<?> dao = null;
+
+    @Nullable
+    private ExecutorService conversionPool = null;
+
+    private int batchSize;
+
     /**
      * Throws an exception if the configured Rya Instance is not already installed
      * within the configured database.
@@ -78,6 +109,18 @@ public abstract class RyaSinkTask extends SinkTask {
      */
     protected abstract Sail makeSail(final Map<String, String> taskConfig) throws ConnectException;
 
+    /**
+     * Creates an initialized {@link RyaDAO} that may be used to write {@link RyaStatement}s directly to the
+     * configured Rya Instance. Implementations that support {@link RyaSinkConfig#DIRECT_INGEST} override this.
+     *
+     * @param taskConfig - Configures how the DAO will be created. (not null)
+     * @return The created DAO.
+     * @throws ConnectException The DAO could not be made.
+     */
+    protected RyaDAO<?> makeRyaDAO(final Map<String, String> taskConfig) throws ConnectException {
+        throw new ConnectException(getClass().getSimpleName() + " does not support writing directly to Rya.");
+    }
+
     @Override
     public String version() {
         return Manifests.exists("Build-Version") ? Manifests.read("Build-Version"): "UNKNOWN";
@@ -90,10 +133,19 @@ public abstract class RyaSinkTask extends SinkTask {
         // Ensure the configured Rya Instance is installed within the configured database.
         checkRyaInstanceExists(props);
 
-        // Create the Sail object that is connected to the Rya Instance.
-        final Sail sail = makeSail(props);
-        sailRepo = new SailRepository( sail );
-        conn = sailRepo.getConnection();
+        final RyaSinkConfig ingestConfig = new RyaSinkConfig(INGEST_CONFIG_DEF, props);
+        if(ingestConfig.isDirectIngest()) {
+            // Create the DAO that is connected to the Rya Instance and the threads that feed it.
+            batchSize = ingestConfig.getBatchSize();
+            dao = makeRyaDAO(props);
+            conversionPool = Executors.newFixedThreadPool(ingestConfig.getConversionThreads(),
+                    new ThreadFactoryBuilder().setDaemon(true).setNameFormat("Rya Sink Conversion - %d").build());
+        } else {
+            // Create the Sail object that is connected to the Rya Instance.
+            final Sail sail = makeSail(props);
+            sailRepo = new SailRepository( sail );
+            conn = sailRepo.getConnection();
+        }
     }
 
     @Override
@@ -105,6 +157,11 @@ public abstract class RyaSinkTask extends SinkTask {
             return;
         }
 
+        if(dao != null) {
+            putDirect(records);
+            return;
+        }
+
         // If a transaction has not been started yet, then start one.
         if(!conn.isActive()) {
             conn.begin();
@@ -117,15 +174,101 @@ public abstract class RyaSinkTask extends SinkTask {
         }
     }
 
+    /**
+     * Converts the records' Statements in batches of about {@link RyaSinkConfig#BATCH_SIZE} on the conversion
+     * threads, and adds each batch to the DAO, in order, as soon as it has been converted.
+     *
+     * @param records - The records whose Statements will be written. (not null)
+     */
+    private void putDirect(final Collection<SinkRecord> records) {
+        final List<Future<List<RyaStatement>>> conversions = new ArrayList<>();
+        List<Set<? extends Statement>> batch = new ArrayList<>();
+        int batchStatements = 0;
+        for(final SinkRecord record : records) {
+            // If everything has been configured correctly, then the record's value will be a Set<Statement>.
+            final Set<? extends Statement> statements = (Set<? extends Statement>) record.value();
+            batch.add(statements);
+            batchStatements += statements.size();
+            if(batchStatements >= batchSize) {
+                conversions.add( conversionPool.submit(new ConvertStatements(batch)) );
+                batch = new ArrayList<>();
+                batchStatements = 0;
+            }
+        }
+        if(!batch.isEmpty()) {
+            conversions.add( conversionPool.submit(new ConvertStatements(batch)) );
+        }
+
+        try {
+            for(final Future<List<RyaStatement>> conversion : conversions) {
+                dao.add( conversion.get().iterator() );
+            }
+        } catch(final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectException("Interrupted while writing Statements to Rya.", e);
+        } catch(final ExecutionException | RyaDAOException e) {
+            throw new ConnectException("Could not write Statements to Rya.", e);
+        } finally {
+            for(final Future<List<RyaStatement>> conversion : conversions) {
+                conversion.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Converts a batch of records' Statements into {@link RyaStatement}s.
+     */
+    private static final class ConvertStatements implements Callable<List<RyaStatement>> {
+        private final List<Set<? extends Statement>> batch;
+
+        ConvertStatements(final List<Set<? extends Statement>> batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public List<RyaStatement> call() {
+            final List<RyaStatement> converted = new ArrayList<>();
+            for(final Set<? extends Statement> statements : batch) {
+                for(final Statement statement : statements) {
+                    converted.add( RdfToRyaConversions.convertStatement(statement) );
+                }
+            }
+            return converted;
+        }
+    }
+
     @Override
     public void flush(final Map<TopicPartition, OffsetAndMetadata> currentOffsets) {
         requireNonNull(currentOffsets);
+
+        if(dao != null) {
+            // Offsets are only committed if every write the DAO has buffered reaches the store.
+            try {
+                dao.flush();
+            } catch(final RyaDAOException e) {
+                throw new ConnectException("Could not flush the Statements that were written to Rya.", e);
+            }
+            return;
+        }
+
         // Flush the current transaction.
         conn.commit();
     }
 
     @Override
     public void stop() {
+        if(conversionPool != null) {
+            conversionPool.shutdownNow();
+        }
+
+        try {
+            if(dao != null) {
+                dao.destroy();
+            }
+        } catch(final Exception e) {
+            log.error("Could not destroy the Rya DAO.", e);
+        }
+
         try {
             if(conn != null) {
                 conn.close();
@@ -0,0 +1,110 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.kafka.connect.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.kafka.common.serialization.Serde;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Unit tests the methods of {@link DictionaryStatementsSerde}.
+ */
+public class DictionaryStatementsSerdeTest {
+
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+    @Test
+    public void serializeAndDeserialize() {
+        // Create the object that will be serialized. It uses every kind of term.
+        final Set<Statement> original = Sets.newHashSet(
+                VF.createStatement(
+                        VF.createIRI("urn:alice"),
+                        VF.createIRI("urn:talksTo"),
+                        VF.createIRI("urn:bob"),
+                        VF.createIRI("urn:testGraph")),
+                VF.createStatement(
+                        VF.createIRI("http://example.com/people#bob"),
+                        VF.createIRI("http://example.com/people#age"),
+                        VF.createLiteral("42", XMLSchema.INT)),
+                VF.createStatement(
+                        VF.createBNode("b1"),
+                        VF.createIRI("http://example.com/people#name"),
+                        VF.createLiteral("Charlie", "en"),
+                        VF.createIRI("urn:graph2")),
+                VF.createStatement(
+                        VF.createIRI("urn:alice"),
+                        VF.createIRI("urn:listensTo"),
+                        VF.createLiteral("a plain string")));
+
+        // Serialize it.
+        try(final Serde<Set<Statement>> serde = new DictionaryStatementsSerde()) {
+            final byte[] bytes = serde.serializer().serialize("topic", original);
+
+            // Deserialize it.
+            final Set<Statement> deserialized = serde.deserializer().deserialize("topic", bytes);
+
+            // Show the deserialized value matches the original, including the contexts.
+            assertEquals(original, deserialized);
+            for(final Statement stmt : deserialized) {
+                assertTrue( original.stream().anyMatch(o -> o.equals(stmt) && Objects.equals(o.getContext(), stmt.getContext())) );
+            }
+        }
+    }
+
+    @Test
+    public void readByStatementsDeserializer() {
+        final Set<Statement> original = new HashSet<>();
+        for(int i = 0; i < 100; i++) {
+            original.add(VF.createStatement(
+                    VF.createIRI("http://example.com/people#person" + i),
+                    VF.createIRI("http://example.com/people#worksAt"),
+                    VF.createIRI("http://example.com/places#shop" + (i % 10)),
+                    VF.createIRI("http://example.com/graphs#g1")));
+        }
+
+        final byte[] dictionaryBytes = new DictionaryStatementsSerializer().serialize("topic", original);
+        final byte[] binaryBytes = new StatementsSerializer().serialize("topic", original);
+
+        // The default deserializer recognizes the dictionary format.
+        assertEquals(original, new StatementsDeserializer().deserialize("topic", dictionaryBytes));
+
+        // Repeated namespaces and terms make the dictionary format smaller.
+        assertTrue(dictionaryBytes.length < binaryBytes.length);
+    }
+
+    @Test
+    public void deserializeEmptyData() {
+        try(final Serde<Set<Statement>> serde = new DictionaryStatementsSerde()) {
+            assertNull( serde.deserializer().deserialize("topic", new byte[0]) );
+        }
+    }
+}
@@ -19,15 +19,26 @@
 package org.apache.rya.kafka.connect.api.sink;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.apache.kafka.connect.sink.SinkRecord;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.persist.RyaDAO;
+import org.apache.rya.api.resolver.RyaToRdfConversions;
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.ValueFactory;
@@ -261,4 +272,88 @@ public class RyaSinkTaskTest {
             task.stop();
         }
     }
+
+    @Test
+    public void directIngest() throws Exception {
+        // Create the Statements that will be put by the task.
+        final ValueFactory vf = SimpleValueFactory.getInstance();
+        final Set<Statement> batch1 = Sets.newHashSet(
+                vf.createStatement(
+                        vf.createIRI("urn:Alice"),
+                        vf.createIRI("urn:WorksAt"),
+                        vf.createIRI("urn:Taco Shop"),
+                        vf.createIRI("urn:graph1")),
+                vf.createStatement(
+                        vf.createIRI("urn:Bob"),
+                        vf.createIRI("urn:TalksTo"),
+                        vf.createIRI("urn:Charlie"),
+                        vf.createIRI("urn:graph2")));
+
+        final Set<Statement> batch2 = Sets.newHashSet(
+                vf.createStatement(
+                        vf.createIRI("urn:Eve"),
+                        vf.createIRI("urn:ListensTo"),
+                        vf.createIRI("urn:Alice"),
+                        vf.createIRI("urn:graph1")));
+
+        // A DAO that remembers everything that is added to it.
+        final List<RyaStatement> added = new ArrayList<>();
+        final RyaDAO<?> dao = mock(RyaDAO.class);
+        doAnswer(invocation -> {
+            final Iterator<RyaStatement> it = (Iterator<RyaStatement>) invocation.getArguments()[0];
+            it.forEachRemaining(added::add);
+            return null;
+        }).when(dao).add(any(Iterator.class));
+
+        // Create the task that will be tested.
+        final RyaSinkTask task = new RyaSinkTask() {
+            @Override
+            protected void checkRyaInstanceExists(final Map<String, String> taskConfig) throws IllegalStateException {
+                // Do nothing. Always assume the Rya Instance exists.
+            }
+
+            @Override
+            protected Sail makeSail(final Map<String, String> taskConfig) {
+                throw new IllegalStateException("The Sail must not be used when writing directly.");
+            }
+
+            @Override
+            protected RyaDAO<?> makeRyaDAO(final Map<String, String> taskConfig) {
+                return dao;
+            }
+        };
+
+        // Write directly, one Statement per batch so that the conversions run in parallel.
+        final Map<String, String> props = new HashMap<>();
+        props.put(RyaSinkConfig.DIRECT_INGEST, "true");
+        props.put(RyaSinkConfig.BATCH_SIZE, "1");
+        props.put(RyaSinkConfig.CONVERSION_THREADS, "2");
+
+        try {
+            // Start the task.
+            task.start(props);
+
+            // Put the statements as SinkRecords.
+            final Collection<SinkRecord> records = Arrays.asList(
+                    new SinkRecord("topic", 1, null, "key", null, batch1, 0),
+                    new SinkRecord("topic", 1, null, "key", null, batch2, 1));
+            task.put( records );
+
+            // Flush the statements.
+            task.flush(new HashMap<>());
+            verify(dao).flush();
+
+            // Show the DAO was given every Statement exactly once.
+            final Set<Statement> fetched = new HashSet<>();
+            for(final RyaStatement statement : added) {
+                fetched.add( RyaToRdfConversions.convertStatement(statement) );
+            }
+            assertEquals(3, added.size());
+            assertEquals(Sets.union(batch1, batch2), fetched);
+        } finally {
+            // Stop the task.
+            task.stop();
+        }
+        verify(dao).destroy();
+    }
 }
\ No newline at end of file
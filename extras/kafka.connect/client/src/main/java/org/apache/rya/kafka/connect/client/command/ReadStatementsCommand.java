@@ -34,6 +34,7 @@ import org.apache.rya.kafka.connect.client.RyaKafkaClientCommand;
 import org.eclipse.rdf4j.model.Statement;
 
 import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParameterException;
 
 import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
@@ -45,6 +46,15 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 @DefaultAnnotation(NonNull.class)
 public class ReadStatementsCommand implements RyaKafkaClientCommand {
 
+    /**
+     * Command line parameters that are used by this command to configure itself.
+     */
+    public static class ReadParameters extends KafkaParameters {
+        @Parameter(names = {"--groupId", "-g"}, description = "The consumer group to read as. Readers that share a " +
+                "group split the topic's partitions between them. By default each reader uses its own group.")
+        public String groupId;
+    }
+
     @Override
     public String getCommand() {
         return "read";
@@ -59,7 +69,7 @@ public class ReadStatementsCommand implements RyaKafkaClientCommand {
     public boolean validArguments(final String[] args) {
         boolean valid = true;
         try {
-            new JCommander(new KafkaParameters(), args);
+            new JCommander(new ReadParameters(), args);
         } catch(final ParameterException e) {
             valid = false;
         }
@@ -71,7 +81,7 @@ public class ReadStatementsCommand implements RyaKafkaClientCommand {
         requireNonNull(args);
 
         // Parse the command line arguments.
-        final KafkaParameters params = new KafkaParameters();
+        final ReadParameters params = new ReadParameters();
         try {
             new JCommander(params, args);
         } catch(final ParameterException e) {
@@ -92,19 +102,21 @@ public class ReadStatementsCommand implements RyaKafkaClientCommand {
         }
     }
 
-    private KafkaConsumer<String, Set<Statement>> makeConsumer(final KafkaParameters params) {
+    private KafkaConsumer<String, Set<Statement>> makeConsumer(final ReadParameters params) {
         requireNonNull(params);
 
         // Configure which instance of Kafka to connect to.
         final Properties props = new Properties();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, params.bootstrapServers);
 
-        // Nothing meaningful is in the key and the values is a Set<BindingSet> object.
+        // Nothing meaningful is in the key and the values is a Set<BindingSet> object. The deserializer reads
+        // both the binary and the dictionary formats.
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StatementsDeserializer.class);
 
-        // Use a UUID for the Group Id so that we never register as part of the same group as another consumer.
-        final String groupId = UUID.randomUUID().toString();
+        // Unless a group is given, use a UUID for the Group Id so that we never register as part of the same
+        // group as another consumer.
+        final String groupId = params.groupId != null ? params.groupId : UUID.randomUUID().toString();
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
 
         // Set a client id so that server side logging can be traced.
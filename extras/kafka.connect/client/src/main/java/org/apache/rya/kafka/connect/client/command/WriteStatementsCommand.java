@@ -33,6 +33,8 @@ import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.rya.kafka.connect.api.DictionaryStatementsSerializer;
+import org.apache.rya.kafka.connect.api.StatementsConverter;
 import org.apache.rya.kafka.connect.api.StatementsSerializer;
 import org.apache.rya.kafka.connect.client.RyaKafkaClientCommand;
 import org.apache.rya.rdftriplestore.utils.RdfFormatUtils;
@@ -67,6 +69,14 @@ public class WriteStatementsCommand implements RyaKafkaClientCommand {
     public static class WriteParameters extends KafkaParameters {
         @Parameter(names = {"--statementsFile", "-f"}, required = true, description = "The file of RDF statements to load into Rya Streams.")
         public String statementsFile;
+
+        @Parameter(names = {"--format"}, description = "The format the Statements are written in. Either " +
+                StatementsConverter.BINARY_FORMAT + " or " + StatementsConverter.DICTIONARY_FORMAT + ". The " +
+                StatementsConverter.DICTIONARY_FORMAT + " format is much smaller for large batches.")
+        public String format = StatementsConverter.BINARY_FORMAT;
+
+        @Parameter(names = {"--batchSize"}, description = "The number of Statements that are written to each Kafka record.")
+        public int batchSize = 5;
     }
 
     @Override
@@ -114,6 +124,14 @@ public class WriteStatementsCommand implements RyaKafkaClientCommand {
             throw new ArgumentsException("Could not stream the query's results because of invalid command line parameters.", e);
         }
 
+        if(!StatementsConverter.BINARY_FORMAT.equals(params.format) && !StatementsConverter.DICTIONARY_FORMAT.equals(params.format)) {
+            throw new ArgumentsException("Unknown Statements format '" + params.format + "'. It must be either " +
+                    StatementsConverter.BINARY_FORMAT + " or " + StatementsConverter.DICTIONARY_FORMAT + ".");
+        }
+        if(params.batchSize < 1) {
+            throw new ArgumentsException("The batch size must be at least 1.");
+        }
+
         // Verify the configured statements file path.
         final Path statementsPath = Paths.get(params.statementsFile);
         if(!statementsPath.toFile().exists()) {
@@ -131,10 +149,10 @@ public class WriteStatementsCommand implements RyaKafkaClientCommand {
 
         // Set up the producer.
         try(Producer<String, Set<Statement>> producer = makeProducer(params)) {
-            // Set a handler that writes the statements to the specified kafka topic. It writes batches of 5 Statements.
+            // Set a handler that writes the statements to the specified kafka topic in batches.
             parser.setRDFHandler(new AbstractRDFHandler() {
 
-                private Set<Statement> batch = new HashSet<>(5);
+                private Set<Statement> batch = new HashSet<>(params.batchSize);
 
                 @Override
                 public void startRDF() throws RDFHandlerException {
@@ -146,7 +164,7 @@ public class WriteStatementsCommand implements RyaKafkaClientCommand {
                     log.trace("Adding statement.");
                     batch.add(stmnt);
 
-                    if(batch.size() == 5) {
+                    if(batch.size() == params.batchSize) {
                         flushBatch();
                     }
                 }
@@ -162,7 +180,7 @@ public class WriteStatementsCommand implements RyaKafkaClientCommand {
                 private void flushBatch() {
                     log.trace("Flushing batch of size " + batch.size());
                     producer.send(new ProducerRecord<>(params.topic, null, batch));
-                    batch = new HashSet<>(5);
+                    batch = new HashSet<>(params.batchSize);
                     producer.flush();
                 }
             });
@@ -176,12 +194,14 @@ public class WriteStatementsCommand implements RyaKafkaClientCommand {
         }
     }
 
-    private static Producer<String, Set<Statement>> makeProducer(final KafkaParameters params) {
+    private static Producer<String, Set<Statement>> makeProducer(final WriteParameters params) {
         requireNonNull(params);
+        final Class<?> valueSerializer = StatementsConverter.DICTIONARY_FORMAT.equals(params.format) ?
+                DictionaryStatementsSerializer.class : StatementsSerializer.class;
         final Properties props = new Properties();
         props.setProperty(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, params.bootstrapServers);
         props.setProperty(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
-        props.setProperty(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StatementsSerializer.class.getName());
+        props.setProperty(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, valueSerializer.getName());
         return new KafkaProducer<>(props);
     }
 }
\ No newline at end of file
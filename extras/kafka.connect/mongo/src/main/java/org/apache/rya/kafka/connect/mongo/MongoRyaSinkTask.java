@@ -32,6 +32,7 @@ import org.apache.rya.api.client.RyaClientException;
 import org.apache.rya.api.client.mongo.MongoConnectionDetails;
 import org.apache.rya.api.client.mongo.MongoRyaClientFactory;
 import org.apache.rya.api.log.LogUtils;
+import org.apache.rya.api.persist.RyaDAO;
 import org.apache.rya.api.persist.RyaDAOException;
 import org.apache.rya.indexing.accumulo.ConfigUtils;
 import org.apache.rya.kafka.connect.api.sink.RyaSinkTask;
@@ -100,7 +101,33 @@ public class MongoRyaSinkTask extends RyaSinkTask {
         // Parse the configuration object.
         final MongoRyaSinkConfig config = new MongoRyaSinkConfig(taskConfig);
 
-        // Move the configuration into a Rya Configuration object.
+        // Create the Sail object.
+        try {
+            return RyaSailFactory.getInstance( makeRyaConfig(config) );
+        } catch (SailException | AccumuloException | AccumuloSecurityException | RyaDAOException | InferenceEngineException e) {
+            throw new ConnectException("Could not connect to the Rya Instance named " + config.getRyaInstanceName(), e);
+        }
+    }
+
+    @Override
+    protected RyaDAO<?> makeRyaDAO(final Map<String, String> taskConfig) {
+        requireNonNull(taskConfig);
+
+        // Parse the configuration object.
+        final MongoRyaSinkConfig config = new MongoRyaSinkConfig(taskConfig);
+
+        // Create the DAO.
+        try {
+            return RyaSailFactory.getMongoDAO( makeRyaConfig(config) );
+        } catch (final RyaDAOException e) {
+            throw new ConnectException("Could not connect to the Rya Instance named " + config.getRyaInstanceName(), e);
+        }
+    }
+
+    /**
+     * Moves the sink's configuration into a Rya Configuration object.
+     */
+    private static MongoDBRdfConfiguration makeRyaConfig(final MongoRyaSinkConfig config) {
         final MongoDBRdfConfiguration ryaConfig = new MongoDBRdfConfiguration();
         ConfigUtils.setUseMongo(ryaConfig, true);
         ryaConfig.setMongoDBName( config.getRyaInstanceName() );
@@ -112,12 +139,6 @@ public class MongoRyaSinkTask extends RyaSinkTask {
             ryaConfig.setMongoUser( config.getUsername() );
             ryaConfig.setMongoPassword( config.getPassword() );
         }
-
-        // Create the Sail object.
-        try {
-            return RyaSailFactory.getInstance(ryaConfig);
-        } catch (SailException | AccumuloException | AccumuloSecurityException | RyaDAOException | InferenceEngineException e) {
-            throw new ConnectException("Could not connect to the Rya Instance named " + config.getRyaInstanceName(), e);
-        }
+        return ryaConfig;
     }
 }
\ No newline at end of file
@@ -19,6 +19,7 @@
 package org.apache.rya.periodic.notification.notification;
 
 import java.util.Date;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -54,6 +55,17 @@ public class TimestampedNotification extends PeriodicNotification {
         date = new Date();
     }
 
+    /**
+     * Creates a TimestampedNotification with the given time stamp.  This allows all of the
+     * notifications that are generated at the same time to share a single time stamp.
+     * @param notification - PeriodicNotification used to create this TimestampedNotification.
+     * @param date - time stamp for the TimestampedNotification
+     */
+    public TimestampedNotification(PeriodicNotification notification, Date date) {
+        super(notification);
+        this.date = Objects.requireNonNull(date);
+    }
+
     /**
      * @return timestamp at which this notification was generated
      */
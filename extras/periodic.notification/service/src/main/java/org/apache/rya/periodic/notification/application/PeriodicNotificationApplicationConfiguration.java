@@ -19,6 +19,7 @@
 package org.apache.rya.periodic.notification.application;
 
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Properties;
 
 import org.apache.rya.accumulo.AccumuloRdfConfiguration;
@@ -42,6 +43,13 @@ public class PeriodicNotificationApplicationConfiguration extends AccumuloRdfCon
     public static final String EXPORTER_THREADS = RYA_PERIODIC_PREFIX + "exporter.threads";
     public static final String PROCESSOR_THREADS = RYA_PERIODIC_PREFIX + "processor.threads";
     public static final String PRUNER_THREADS = RYA_PERIODIC_PREFIX + "pruner.threads";
+    public static final String PRUNER_BATCH_SIZE = RYA_PERIODIC_PREFIX + "pruner.batch.size";
+    public static final String BIN_AGE_OFF_MS = RYA_PERIODIC_PREFIX + "bin.age.off.ms";
+    public static final String EXPORTER_STREAMING = RYA_PERIODIC_PREFIX + "exporter.streaming";
+    public static final String KAFKA_COMPRESSION_TYPE = RYA_PERIODIC_PREFIX + "kafka.compression.type";
+    public static final String KAFKA_BATCH_SIZE = RYA_PERIODIC_PREFIX + "kafka.batch.size";
+    public static final String KAFKA_LINGER_MS = RYA_PERIODIC_PREFIX + "kafka.linger.ms";
+    public static final String EXPORTER_METRICS_LOG_INTERVAL_MS = RYA_PERIODIC_PREFIX + "exporter.metrics.log.interval.ms";
 
     public PeriodicNotificationApplicationConfiguration() {}
 
@@ -62,12 +70,21 @@ public class PeriodicNotificationApplicationConfiguration extends AccumuloRdfCon
      * <li>"rya.periodic.notification.kafka.topic" - Topic to which new Periodic Notifications are published. Default is "notifications".
      * <li>"rya.periodic.notification.kafka.client.id" - Client Id for notification topic.  Default is "consumer0"
      * <li>"rya.periodic.notification.kafka.group.id" - Group Id for notification topic.  Default is "group0"
-     * <li>"rya.periodic.notification.coordinator.threads" - Number of threads used by coordinator. Default is 1.
+     * <li>"rya.periodic.notification.coordinator.threads" - Deprecated and ignored.  The coordinator generates notifications from a single ticker thread.
      * <li>"rya.periodic.notification.producer.threads" - Number of threads used by producer.  Default is 1.
      * <li>"rya.periodic.notification.exporter.threads" - Number of threads used by exporter.  Default is 1.
      * <li>"rya.periodic.notification.processor.threads" - Number of threads used by processor.  Default is 1.
      * <li>"rya.periodic.notification.pruner.threads" - Number of threads used by pruner.  Default is 1.
+     * <li>"rya.periodic.notification.pruner.batch.size" - Maximum number of bins coalesced into one prune pass.  Default is 1000.
+     * <li>"rya.periodic.notification.bin.age.off.ms" - Maximum age of the bins kept in the periodic tables.  Default is 0, which keeps bins until they are pruned.
+     * <li>"rya.periodic.notification.exporter.streaming" - Stream results from each processor directly to Kafka.  Default is false.
+     * <li>"rya.periodic.notification.exporter.metrics.log.interval.ms" - How often the streaming export metrics are logged.  Default is 60000, 0 disables.
+     * <li>"rya.periodic.notification.kafka.compression.type" - Compression used by the result producers.  Default is "lz4".
+     * <li>"rya.periodic.notification.kafka.batch.size" - Batch size in bytes used by the result producers.  Default is 65536.
+     * <li>"rya.periodic.notification.kafka.linger.ms" - Time the result producers wait to fill a batch.  Default is 10.
      * </ul>
+     * Any Kafka producer setting, such as "compression.type" or "linger.ms", is passed through to the result producers.
+     * The three defaults above only apply when neither the Rya key nor the Kafka producer key is set.
      * <br>
      * @param props - Properties file containing Accumulo specific configuration parameters
      */
@@ -83,6 +100,10 @@ public class PeriodicNotificationApplicationConfiguration extends AccumuloRdfCon
        setProcessorThreads(Integer.parseInt(props.getProperty(PROCESSOR_THREADS, "1")));
        setExporterThreads(Integer.parseInt(props.getProperty(EXPORTER_THREADS, "1")));
        setPrunerThreads(Integer.parseInt(props.getProperty(PRUNER_THREADS, "1")));
+       setPrunerBatchSize(Integer.parseInt(props.getProperty(PRUNER_BATCH_SIZE, "1000")));
+       setBinAgeOff(Long.parseLong(props.getProperty(BIN_AGE_OFF_MS, "0")));
+       setStreamingExport(Boolean.parseBoolean(props.getProperty(EXPORTER_STREAMING, "false")));
+       setExportMetricsLogInterval(Long.parseLong(props.getProperty(EXPORTER_METRICS_LOG_INTERVAL_MS, "60000")));
        setCoordinatorThreads(Integer.parseInt(props.getProperty(COORDINATOR_THREADS, "1")));
     }
 
@@ -137,7 +158,9 @@ public class PeriodicNotificationApplicationConfiguration extends AccumuloRdfCon
     /**
      * Sets the number of threads for the coordinator
      * @param threads
+     * @deprecated The coordinator generates notifications from a single ticker thread, so this value is ignored.
      */
+    @Deprecated
     public void setCoordinatorThreads(final int threads) {
         setInt(COORDINATOR_THREADS, threads);
     }
@@ -166,6 +189,62 @@ public class PeriodicNotificationApplicationConfiguration extends AccumuloRdfCon
         setInt(PRUNER_THREADS, threads);
     }
 
+    /**
+     * Sets the maximum number of bins the bin pruner coalesces into one prune pass
+     * @param batchSize
+     */
+    public void setPrunerBatchSize(final int batchSize) {
+        setInt(PRUNER_BATCH_SIZE, batchSize);
+    }
+
+    /**
+     * Sets the maximum age of the bins kept in the periodic tables, or 0 to keep bins until they are pruned
+     * @param maxBinAgeMs
+     */
+    public void setBinAgeOff(final long maxBinAgeMs) {
+        setLong(BIN_AGE_OFF_MS, maxBinAgeMs);
+    }
+
+    /**
+     * Sets whether the Notification processors stream results directly to Kafka
+     * @param streaming
+     */
+    public void setStreamingExport(final boolean streaming) {
+        setBoolean(EXPORTER_STREAMING, streaming);
+    }
+
+    /**
+     * Sets how often in milliseconds the streaming export metrics are logged, or 0 to never log them
+     * @param intervalMs
+     */
+    public void setExportMetricsLogInterval(final long intervalMs) {
+        setLong(EXPORTER_METRICS_LOG_INTERVAL_MS, intervalMs);
+    }
+
+    /**
+     * Sets the compression type used by the Kafka result producers
+     * @param compressionType
+     */
+    public void setKafkaCompressionType(final String compressionType) {
+        set(KAFKA_COMPRESSION_TYPE, Objects.requireNonNull(compressionType));
+    }
+
+    /**
+     * Sets the batch size in bytes used by the Kafka result producers
+     * @param batchSize
+     */
+    public void setKafkaBatchSize(final int batchSize) {
+        setInt(KAFKA_BATCH_SIZE, batchSize);
+    }
+
+    /**
+     * Sets the time in milliseconds the Kafka result producers wait to fill a batch
+     * @param lingerMs
+     */
+    public void setKafkaLingerMs(final int lingerMs) {
+        setInt(KAFKA_LINGER_MS, lingerMs);
+    }
+
     /**
      * Sets the number of threads for the Notification processor
      * @param threads
@@ -244,6 +323,56 @@ public class PeriodicNotificationApplicationConfiguration extends AccumuloRdfCon
         return getInt(PRUNER_THREADS, 1);
     }
 
+    /**
+     * @return the maximum number of bins the bin pruner coalesces into one prune pass
+     */
+    public int getPrunerBatchSize() {
+        return getInt(PRUNER_BATCH_SIZE, 1000);
+    }
+
+    /**
+     * @return maximum age in milliseconds of the bins kept in the periodic tables, if bins age off
+     */
+    public Optional<Long> getBinAgeOff() {
+        final long maxBinAge = getLong(BIN_AGE_OFF_MS, 0);
+        return maxBinAge > 0 ? Optional.of(maxBinAge) : Optional.empty();
+    }
+
+    /**
+     * @return true if the Notification processors stream results directly to Kafka
+     */
+    public boolean isStreamingExport() {
+        return getBoolean(EXPORTER_STREAMING, false);
+    }
+
+    /**
+     * @return how often in milliseconds the streaming export metrics are logged, 0 if they are never logged
+     */
+    public long getExportMetricsLogInterval() {
+        return getLong(EXPORTER_METRICS_LOG_INTERVAL_MS, 60000);
+    }
+
+    /**
+     * @return compression type used by the Kafka result producers, if one has been set
+     */
+    public Optional<String> getKafkaCompressionType() {
+        return Optional.ofNullable(get(KAFKA_COMPRESSION_TYPE));
+    }
+
+    /**
+     * @return batch size in bytes used by the Kafka result producers, if one has been set
+     */
+    public Optional<Integer> getKafkaBatchSize() {
+        return get(KAFKA_BATCH_SIZE) == null ? Optional.empty() : Optional.of(getInt(KAFKA_BATCH_SIZE, 0));
+    }
+
+    /**
+     * @return time in milliseconds the Kafka result producers wait to fill a batch, if one has been set
+     */
+    public Optional<Integer> getKafkaLingerMs() {
+        return get(KAFKA_LINGER_MS) == null ? Optional.empty() : Optional.of(getInt(KAFKA_LINGER_MS, 0));
+    }
+
     /**
      * @return number of threads for the processor
      */
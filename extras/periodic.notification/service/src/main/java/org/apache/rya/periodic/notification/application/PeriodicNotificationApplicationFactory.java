@@ -38,11 +38,13 @@ import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.apache.rya.indexing.pcj.fluo.app.util.FluoClientFactory;
 import org.apache.rya.indexing.pcj.storage.PeriodicQueryResultStorage;
+import org.apache.rya.indexing.pcj.storage.PeriodicQueryStorageException;
 import org.apache.rya.indexing.pcj.storage.accumulo.AccumuloPeriodicQueryResultStorage;
 import org.apache.rya.periodic.notification.api.BindingSetRecord;
 import org.apache.rya.periodic.notification.api.NodeBin;
 import org.apache.rya.periodic.notification.api.NotificationCoordinatorExecutor;
 import org.apache.rya.periodic.notification.coordinator.PeriodicNotificationCoordinatorExecutor;
+import org.apache.rya.periodic.notification.exporter.KafkaBinExporter;
 import org.apache.rya.periodic.notification.exporter.KafkaExporterExecutor;
 import org.apache.rya.periodic.notification.notification.TimestampedNotification;
 import org.apache.rya.periodic.notification.processor.NotificationProcessorExecutor;
@@ -52,13 +54,18 @@ import org.apache.rya.periodic.notification.registration.kafka.KafkaNotification
 import org.apache.rya.periodic.notification.serialization.BindingSetSerDe;
 import org.apache.rya.periodic.notification.serialization.CommandNotificationSerializer;
 import org.eclipse.rdf4j.query.BindingSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import com.google.common.annotations.VisibleForTesting;
 
 /**
  * Factory for creating a {@link PeriodicNotificationApplication}.
  */
 public class PeriodicNotificationApplicationFactory {
 
+    private static final Logger LOG = LoggerFactory.getLogger(PeriodicNotificationApplicationFactory.class);
+
     /**
      * Create a PeriodicNotificationApplication.
      * @param conf - Configuration object that specifies the parameters needed to create the application
@@ -75,17 +82,22 @@ public class PeriodicNotificationApplicationFactory {
 
         FluoClient fluo = null;
         try {
-            final PeriodicQueryResultStorage storage = getPeriodicQueryResultStorage(conf);
+            final AccumuloPeriodicQueryResultStorage storage = getPeriodicQueryResultStorage(conf);
+            // Tables created before the age off was configured pick it up when the service starts.
+            storage.applyBinAgeOff();
             fluo = FluoClientFactory.getFluoClient(conf.getFluoAppName(), Optional.of(conf.getFluoTableName()), conf);
             final NotificationCoordinatorExecutor coordinator = getCoordinator(conf.getCoordinatorThreads(), notifications);
             addRegisteredNotices(coordinator, fluo.newSnapshot());
-            final KafkaExporterExecutor exporter = getExporter(conf.getExporterThreads(), kafkaProducerProps, bindingSets);
-            final PeriodicQueryPrunerExecutor pruner = getPruner(storage, fluo, conf.getPrunerThreads(), bins);
-            final NotificationProcessorExecutor processor = getProcessor(storage, notifications, bins, bindingSets, conf.getProcessorThreads());
+            // When streaming, each processor owns a producer and the exporter queue is not used.
+            final boolean streaming = conf.isStreamingExport();
+            final KafkaExporterExecutor exporter = getExporter(streaming ? 0 : conf.getExporterThreads(), kafkaProducerProps, bindingSets);
+            final PeriodicQueryPrunerExecutor pruner = getPruner(storage, fluo, conf.getPrunerThreads(), conf.getPrunerBatchSize(), bins);
+            final NotificationProcessorExecutor processor = getProcessor(storage, notifications, bins, bindingSets, conf.getProcessorThreads(),
+                    streaming ? Optional.of(kafkaProducerProps) : Optional.empty(), conf.getExportMetricsLogInterval());
             final KafkaNotificationProvider provider = getProvider(conf.getProducerThreads(), conf.getNotificationTopic(), coordinator, kafkaConsumerProps);
             return PeriodicNotificationApplication.builder().setCoordinator(coordinator).setProvider(provider).setExporter(exporter)
                     .setProcessor(processor).setPruner(pruner).build();
-        } catch (AccumuloException | AccumuloSecurityException e) {
+        } catch (AccumuloException | AccumuloSecurityException | PeriodicQueryStorageException e) {
             throw new PeriodicApplicationException(e.getMessage());
         }
     }
@@ -97,7 +109,11 @@ public class PeriodicNotificationApplicationFactory {
     }
 
     private static NotificationCoordinatorExecutor getCoordinator(final int numThreads, final BlockingQueue<TimestampedNotification> notifications) {
-        return new PeriodicNotificationCoordinatorExecutor(numThreads, notifications);
+        if (numThreads != 1) {
+            LOG.warn("Ignoring {}={}. The coordinator generates notifications from a single ticker thread.",
+                    PeriodicNotificationApplicationConfiguration.COORDINATOR_THREADS, numThreads);
+        }
+        return new PeriodicNotificationCoordinatorExecutor(notifications);
     }
 
     private static KafkaExporterExecutor getExporter(final int numThreads, final Properties props, final BlockingQueue<BindingSetRecord> bindingSets) {
@@ -106,14 +122,15 @@ public class PeriodicNotificationApplicationFactory {
     }
 
     private static PeriodicQueryPrunerExecutor getPruner(final PeriodicQueryResultStorage storage, final FluoClient fluo, final int numThreads,
-            final BlockingQueue<NodeBin> bins) {
-        return new PeriodicQueryPrunerExecutor(storage, fluo, numThreads, bins);
+            final int batchSize, final BlockingQueue<NodeBin> bins) {
+        return new PeriodicQueryPrunerExecutor(storage, fluo, numThreads, batchSize, bins);
     }
 
     private static NotificationProcessorExecutor getProcessor(final PeriodicQueryResultStorage periodicStorage,
             final BlockingQueue<TimestampedNotification> notifications, final BlockingQueue<NodeBin> bins, final BlockingQueue<BindingSetRecord> bindingSets,
-            final int numThreads) {
-        return new NotificationProcessorExecutor(periodicStorage, notifications, bins, bindingSets, numThreads);
+            final int numThreads, final Optional<Properties> streamingProducerProps, final long metricsLogIntervalMs) {
+        return new NotificationProcessorExecutor(periodicStorage, notifications, bins, bindingSets, numThreads, streamingProducerProps,
+                metricsLogIntervalMs);
     }
 
     private static KafkaNotificationProvider getProvider(final int numThreads, final String topic, final NotificationCoordinatorExecutor coord,
@@ -122,12 +139,12 @@ public class PeriodicNotificationApplicationFactory {
                 numThreads);
     }
 
-    private static PeriodicQueryResultStorage getPeriodicQueryResultStorage(final PeriodicNotificationApplicationConfiguration conf)
+    private static AccumuloPeriodicQueryResultStorage getPeriodicQueryResultStorage(final PeriodicNotificationApplicationConfiguration conf)
             throws AccumuloException, AccumuloSecurityException {
         final Instance instance = new ZooKeeperInstance(conf.getAccumuloInstance(), conf.getAccumuloZookeepers());
         final Connector conn = instance.getConnector(conf.getAccumuloUser(), new PasswordToken(conf.getAccumuloPassword()));
         final String ryaInstance = conf.getTablePrefix();
-        return new AccumuloPeriodicQueryResultStorage(conn, ryaInstance);
+        return new AccumuloPeriodicQueryResultStorage(conn, ryaInstance, conf.getBinAgeOff());
     }
 
     private static Properties getKafkaConsumerProperties(final PeriodicNotificationApplicationConfiguration conf) {
@@ -140,9 +157,20 @@ public class PeriodicNotificationApplicationFactory {
         return kafkaProps;
     }
 
-    private static Properties getKafkaProducerProperties(final PeriodicNotificationApplicationConfiguration conf) {
+    @VisibleForTesting
+    static Properties getKafkaProducerProperties(final PeriodicNotificationApplicationConfiguration conf) {
         final Properties kafkaProps = new Properties();
+        // pass through any producer settings the user supplied
+        for (final String name : ProducerConfig.configNames()) {
+            final String value = conf.get(name);
+            if (value != null) {
+                kafkaProps.setProperty(name, value);
+            }
+        }
         kafkaProps.setProperty(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, conf.getBootStrapServers());
-        return kafkaProps;
+        conf.getKafkaCompressionType().ifPresent(type -> kafkaProps.setProperty(ProducerConfig.COMPRESSION_TYPE_CONFIG, type));
+        conf.getKafkaBatchSize().ifPresent(size -> kafkaProps.setProperty(ProducerConfig.BATCH_SIZE_CONFIG, Integer.toString(size)));
+        conf.getKafkaLingerMs().ifPresent(linger -> kafkaProps.setProperty(ProducerConfig.LINGER_MS_CONFIG, Integer.toString(linger)));
+        return KafkaBinExporter.applyProducerDefaults(kafkaProps);
     }
 }
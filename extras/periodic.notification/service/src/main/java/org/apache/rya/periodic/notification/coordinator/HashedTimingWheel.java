@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.periodic.notification.coordinator;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A hashed timing wheel that groups scheduled entries into buckets of a fixed tick
+ * duration. Scheduling and cancelling an entry is O(1), and advancing the wheel only
+ * visits the buckets that were passed over, so the cost of a tick does not depend on the
+ * total number of scheduled entries. Entries whose deadline lies more than one revolution
+ * in the future stay in their bucket until the wheel comes around to their deadline tick.
+ * <p>
+ * All entries that fall due within the same tick are returned together by
+ * {@link #advance(long)}, which lets callers coalesce them into a single batch.
+ * <p>
+ * This class is not thread safe. Callers must synchronize access to it.
+ *
+ * @param <T> - the type of value that is scheduled on the wheel
+ */
+public class HashedTimingWheel<T> {
+
+    private final long tickDuration;
+    private final List<LinkedList<Timeout<T>>> buckets;
+    private long currentTick;
+    private int size = 0;
+
+    /**
+     * Creates a HashedTimingWheel.
+     * @param tickDuration - duration of a single tick in milliseconds
+     * @param wheelSize - number of buckets in one revolution of the wheel
+     * @param startTime - time in milliseconds that the wheel starts turning at
+     */
+    public HashedTimingWheel(final long tickDuration, final int wheelSize, final long startTime) {
+        Preconditions.checkArgument(tickDuration > 0, "tickDuration must be positive.");
+        Preconditions.checkArgument(wheelSize > 0, "wheelSize must be positive.");
+        this.tickDuration = tickDuration;
+        this.buckets = new ArrayList<>(wheelSize);
+        for(int i = 0; i < wheelSize; i++) {
+            buckets.add(new LinkedList<>());
+        }
+        this.currentTick = startTime / tickDuration;
+    }
+
+    /**
+     * Schedules a value to fire at the given deadline. Deadlines that have already passed
+     * fire on the next tick.
+     * @param value - value to schedule
+     * @param deadline - time in milliseconds at which the value falls due
+     * @return a handle that can be used to cancel the scheduled value
+     */
+    public Timeout<T> schedule(final T value, final long deadline) {
+        Preconditions.checkNotNull(value);
+        final long deadlineTick = Math.max(ceilDiv(deadline, tickDuration), currentTick + 1);
+        final Timeout<T> timeout = new Timeout<>(value, deadline, deadlineTick);
+        buckets.get(bucketIndex(deadlineTick)).add(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Advances the wheel to the given time and removes every value whose deadline tick
+     * has been reached.
+     * @param now - current time in milliseconds
+     * @return the values that fell due, or an empty list if none did
+     */
+    public List<Timeout<T>> advance(final long now) {
+        final long targetTick = now / tickDuration;
+        final List<Timeout<T>> expired = new ArrayList<>();
+        // No need to visit a bucket more than once per advance.
+        final long firstTick = Math.max(currentTick + 1, targetTick - buckets.size() + 1);
+        for(long tick = firstTick; tick <= targetTick; tick++) {
+            final Iterator<Timeout<T>> it = buckets.get(bucketIndex(tick)).iterator();
+            while(it.hasNext()) {
+                final Timeout<T> timeout = it.next();
+                if(timeout.isCancelled()) {
+                    it.remove();
+                    size--;
+                } else if(timeout.deadlineTick <= targetTick) {
+                    it.remove();
+                    size--;
+                    expired.add(timeout);
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, targetTick);
+        return expired;
+    }
+
+    /**
+     * @return the number of entries on the wheel, including cancelled entries that have
+     * not been swept yet
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return duration of a single tick in milliseconds
+     */
+    public long getTickDuration() {
+        return tickDuration;
+    }
+
+    private int bucketIndex(final long tick) {
+        return (int) Math.floorMod(tick, (long) buckets.size());
+    }
+
+    private static long ceilDiv(final long x, final long y) {
+        return -Math.floorDiv(-x, y);
+    }
+
+    /**
+     * Handle for a value that has been scheduled on a {@link HashedTimingWheel}.
+     *
+     * @param <T> - the type of value that is scheduled
+     */
+    public static class Timeout<T> {
+
+        private final T value;
+        private final long deadline;
+        private final long deadlineTick;
+        private boolean cancelled = false;
+
+        private Timeout(final T value, final long deadline, final long deadlineTick) {
+            this.value = value;
+            this.deadline = deadline;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * @return the scheduled value
+         */
+        public T getValue() {
+            return value;
+        }
+
+        /**
+         * @return time in milliseconds at which the value was scheduled to fall due
+         */
+        public long getDeadline() {
+            return deadline;
+        }
+
+        /**
+         * Cancels the scheduled value. It is lazily removed from the wheel the next time
+         * its bucket is visited.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * @return true if this value has been cancelled
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
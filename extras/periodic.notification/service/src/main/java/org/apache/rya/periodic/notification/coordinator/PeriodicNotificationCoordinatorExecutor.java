@@ -18,18 +18,21 @@
  */
 package org.apache.rya.periodic.notification.coordinator;
 
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.rya.periodic.notification.api.Notification;
 import org.apache.rya.periodic.notification.api.NotificationCoordinatorExecutor;
 import org.apache.rya.periodic.notification.api.NotificationProcessor;
+import org.apache.rya.periodic.notification.coordinator.HashedTimingWheel.Timeout;
 import org.apache.rya.periodic.notification.notification.CommandNotification;
 import org.apache.rya.periodic.notification.notification.PeriodicNotification;
 import org.apache.rya.periodic.notification.notification.TimestampedNotification;
@@ -43,25 +46,72 @@ import com.google.common.base.Preconditions;
  * Implementation of {@link NotificationCoordinatorExecutor} that generates regular notifications
  * as indicated by {@link PeriodicNotification}s that are registered with this Object. When notifications
  * are generated they are placed on a work queue to be processed by the {@link NotificationProcessor}.
+ * <p>
+ * Registered notifications are scheduled on a {@link HashedTimingWheel} that is driven by a single
+ * ticker thread, rather than each being given its own fixed rate task. Every notification that falls
+ * due within the same tick is stamped with the same time and added to the work queue as one batch,
+ * so notifications for the same bin are coalesced and the scheduling cost per tick does not grow with
+ * the number of registered queries. If the ticker falls behind, every period it skipped is still
+ * emitted, stamped with the time it fell due, so no bin is lost.
  *
  */
 public class PeriodicNotificationCoordinatorExecutor implements NotificationCoordinatorExecutor {
 
     private static final Logger LOG = LoggerFactory.getLogger(PeriodicNotificationCoordinatorExecutor.class);
-    private int numThreads;
-    private ScheduledExecutorService producerThreadPool;
-    private Map<String, ScheduledFuture<?>> serviceMap = new HashMap<>();
-    private BlockingQueue<TimestampedNotification> notifications;
+    public static final long DEFAULT_TICK_DURATION = 100;
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final long tickDuration;
+    private final int wheelSize;
+    private ScheduledExecutorService tickerThread;
+    private HashedTimingWheel<PeriodicNotification> wheel;
+    private final Map<String, Timeout<PeriodicNotification>> serviceMap = new HashMap<>();
+    private final BlockingQueue<TimestampedNotification> notifications;
     private final ReentrantLock lock = new ReentrantLock(true);
     private boolean running = false;
 
-    public PeriodicNotificationCoordinatorExecutor(int numThreads, BlockingQueue<TimestampedNotification> notifications) {
-        this.numThreads = numThreads;
-        this.notifications = notifications;
+    /**
+     * Creates a PeriodicNotificationCoordinatorExecutor that ticks every {@link #DEFAULT_TICK_DURATION}
+     * milliseconds.
+     * @param numThreads - ignored. All notifications are generated by a single ticker thread.
+     * @param notifications - work queue that generated notifications are added to
+     * @deprecated The coordinator no longer uses a thread pool. Use
+     *   {@link #PeriodicNotificationCoordinatorExecutor(BlockingQueue)} instead.
+     */
+    @Deprecated
+    public PeriodicNotificationCoordinatorExecutor(final int numThreads, final BlockingQueue<TimestampedNotification> notifications) {
+        this(notifications);
+        if (numThreads != 1) {
+            LOG.warn("Ignoring a coordinator thread count of {}. Notifications are generated by a single ticker thread.", numThreads);
+        }
+    }
+
+    /**
+     * Creates a PeriodicNotificationCoordinatorExecutor that ticks every {@link #DEFAULT_TICK_DURATION}
+     * milliseconds.
+     * @param notifications - work queue that generated notifications are added to
+     */
+    public PeriodicNotificationCoordinatorExecutor(final BlockingQueue<TimestampedNotification> notifications) {
+        this(notifications, DEFAULT_TICK_DURATION, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * Creates a PeriodicNotificationCoordinatorExecutor.
+     * @param notifications - work queue that generated notifications are added to
+     * @param tickDuration - resolution of the timing wheel in milliseconds
+     * @param wheelSize - number of buckets in the timing wheel
+     */
+    public PeriodicNotificationCoordinatorExecutor(final BlockingQueue<TimestampedNotification> notifications, final long tickDuration,
+            final int wheelSize) {
+        Preconditions.checkArgument(tickDuration > 0);
+        Preconditions.checkArgument(wheelSize > 0);
+        this.notifications = Preconditions.checkNotNull(notifications);
+        this.tickDuration = tickDuration;
+        this.wheelSize = wheelSize;
     }
 
     @Override
-    public void processNextCommandNotification(CommandNotification notification) {
+    public void processNextCommandNotification(final CommandNotification notification) {
         lock.lock();
         try {
             processNotification(notification);
@@ -72,33 +122,48 @@ public class PeriodicNotificationCoordinatorExecutor implements NotificationCoor
 
     @Override
     public void start() {
-        if (!running) {
-            producerThreadPool = Executors.newScheduledThreadPool(numThreads);
-            running = true;
+        lock.lock();
+        try {
+            if (!running) {
+                startWheel(System.currentTimeMillis());
+                tickerThread = Executors.newSingleThreadScheduledExecutor();
+                tickerThread.scheduleAtFixedRate(new NotificationProducer(), tickDuration, tickDuration, TimeUnit.MILLISECONDS);
+                running = true;
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
+    /**
+     * Creates the timing wheel without starting the ticker thread that advances it.
+     * @param startTime - the time in milliseconds that the wheel's first tick starts at
+     */
+    void startWheel(final long startTime) {
+        wheel = new HashedTimingWheel<>(tickDuration, wheelSize, startTime);
+    }
+
     @Override
     public void stop() {
 
-        if (producerThreadPool != null) {
-            producerThreadPool.shutdown();
+        if (tickerThread != null) {
+            tickerThread.shutdown();
         }
 
         running = false;
 
         try {
-            if (!producerThreadPool.awaitTermination(5000, TimeUnit.MILLISECONDS)) {
-                producerThreadPool.shutdownNow();
+            if (!tickerThread.awaitTermination(5000, TimeUnit.MILLISECONDS)) {
+                tickerThread.shutdownNow();
             }
-        } catch (Exception e) {
+        } catch (final Exception e) {
             LOG.info("Service Executor Shutdown has been called.  Terminating NotificationRunnable");
         }
     }
 
-    private void processNotification(CommandNotification notification) {
-        Command command = notification.getCommand();
-        Notification periodic = notification.getNotification();
+    private void processNotification(final CommandNotification notification) {
+        final Command command = notification.getCommand();
+        final Notification periodic = notification.getNotification();
         switch (command) {
         case ADD:
             addNotification(periodic);
@@ -109,44 +174,79 @@ public class PeriodicNotificationCoordinatorExecutor implements NotificationCoor
         }
     }
 
-    private void addNotification(Notification notification) {
+    private void addNotification(final Notification notification) {
         Preconditions.checkArgument(notification instanceof PeriodicNotification);
-        PeriodicNotification notify = (PeriodicNotification) notification;
+        Preconditions.checkState(wheel != null, "The coordinator must be started before notifications are added.");
+        final PeriodicNotification notify = (PeriodicNotification) notification;
         if (!serviceMap.containsKey(notification.getId())) {
-            ScheduledFuture<?> future = producerThreadPool.scheduleAtFixedRate(new NotificationProducer(notify), notify.getInitialDelay(),
-                    notify.getPeriod(), notify.getTimeUnit());
-            serviceMap.put(notify.getId(), future);
+            final long deadline = System.currentTimeMillis() + notify.getTimeUnit().toMillis(notify.getInitialDelay());
+            serviceMap.put(notify.getId(), wheel.schedule(notify, deadline));
         }
     }
 
-    private boolean deleteNotification(Notification notification) {
+    private boolean deleteNotification(final Notification notification) {
         if (serviceMap.containsKey(notification.getId())) {
-            ScheduledFuture<?> future = serviceMap.remove(notification.getId());
-            future.cancel(true);
+            final Timeout<PeriodicNotification> timeout = serviceMap.remove(notification.getId());
+            timeout.cancel();
             return true;
         }
         return false;
     }
 
     /**
-     * Scheduled Task that places a {@link PeriodicNotification}
-     * in the work queue at regular intervals. 
+     * Advances the timing wheel to the given time and returns a {@link TimestampedNotification}
+     * for every period of every {@link PeriodicNotification} that fell due since the last advance.
+     * Each notification is then rescheduled for its next period. When the wheel fell behind by more
+     * than one period, the missed periods are stamped with their own deadlines so that each of
+     * their bins is still processed; the latest period is stamped with the current time.
      *
+     * @param now - the time in milliseconds to advance the wheel to
+     * @return the notifications that fell due, in the order their periods fell due for each query
      */
-    class NotificationProducer implements Runnable {
-
-        private PeriodicNotification notification;
-
-        public NotificationProducer(PeriodicNotification notification) {
-            this.notification = notification;
+    List<TimestampedNotification> advance(final long now) {
+        final List<TimestampedNotification> batch = new ArrayList<>();
+        lock.lock();
+        try {
+            for (final Timeout<PeriodicNotification> timeout : wheel.advance(now)) {
+                final PeriodicNotification notify = timeout.getValue();
+                final long period = notify.getTimeUnit().toMillis(notify.getPeriod());
+                long deadline = timeout.getDeadline();
+                int missed = 0;
+                while (deadline + period <= now) {
+                    batch.add(new TimestampedNotification(notify, new Date(deadline)));
+                    deadline += period;
+                    missed++;
+                }
+                batch.add(new TimestampedNotification(notify, new Date(now)));
+                if (missed > 0) {
+                    LOG.warn("The notification ticker fell behind. Emitting {} missed periods for query {}.", missed, notify.getId());
+                }
+                serviceMap.put(notify.getId(), wheel.schedule(notify, deadline + period));
+            }
+        } catch (final Exception e) {
+            LOG.warn("Unable to advance the notification timing wheel.", e);
+        } finally {
+            lock.unlock();
         }
+        return batch;
+    }
+
+    /**
+     * Places the notifications that fell due during each tick in the work queue.
+     */
+    class NotificationProducer implements Runnable {
 
+        @Override
         public void run() {
-            try {
-                notifications.put(new TimestampedNotification(notification));
-            } catch (InterruptedException e) {
-                LOG.info("Unable to add notification.  Process interrupted. ");
-                throw new RuntimeException(e);
+            final List<TimestampedNotification> batch = advance(System.currentTimeMillis());
+            for (final TimestampedNotification notification : batch) {
+                try {
+                    notifications.put(notification);
+                } catch (final InterruptedException e) {
+                    LOG.info("Unable to add notification.  Process interrupted. ");
+                    Thread.currentThread().interrupt();
+                    return;
+                }
             }
         }
 
@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.periodic.notification.exporter;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.rya.indexing.pcj.fluo.app.IncrementalUpdateConstants;
+import org.apache.rya.periodic.notification.api.BindingSetRecordExportException;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streams every result of a periodic bin straight from the storage layer to Kafka.
+ * Results are handed to the producer without waiting on each send, so the producer is
+ * free to batch and compress them. The producer is flushed once the whole bin has been
+ * sent, which makes the export of a bin succeed or fail as a unit.
+ * <p>
+ * Delivery is at least once. A bin that fails partway through leaves the results that were
+ * already sent in the topic and is not pruned, so exporting it again publishes them a second
+ * time. Once all of a bin's results have been sent, a completion marker is sent after them (see
+ * {@link #isBinCompleteMarker(BindingSet)}). Every record of a bin has the bin id as its key,
+ * so they all land on the same partition in the order they were sent. A consumer that needs
+ * each result exactly once buffers a bin's records until its marker, and keeps only the last
+ * {@link #getBinResultCount(BindingSet)} records before it. This relies on the producer not
+ * reordering records, so a producer that retries sends must set
+ * {@code max.in.flight.requests.per.connection} to 1.
+ * <p>
+ * Each instance owns its producer and is intended to be used by a single notification
+ * processor thread.
+ */
+public class KafkaBinExporter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaBinExporter.class);
+
+    /**
+     * Compression used by the result producers unless the producer configuration sets one.
+     */
+    public static final String DEFAULT_COMPRESSION_TYPE = "lz4";
+
+    /**
+     * Batch size in bytes used by the result producers unless the producer configuration sets one.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 65536;
+
+    /**
+     * Time in milliseconds the result producers wait to fill a batch unless the producer configuration sets one.
+     */
+    public static final int DEFAULT_LINGER_MS = 10;
+
+    /**
+     * Binding of the completion marker that is sent after the results of a bin. Its value is the
+     * number of results in the bin.
+     */
+    public static final String BIN_RESULT_COUNT = "periodicBinResultCount";
+
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+    private final Producer<String, BindingSet> producer;
+    private final PeriodicExportMetrics metrics;
+
+    /**
+     * Creates a KafkaBinExporter.
+     * @param producer - producer owned by this exporter
+     * @param metrics - metrics that are updated after each exported bin
+     */
+    public KafkaBinExporter(final Producer<String, BindingSet> producer, final PeriodicExportMetrics metrics) {
+        this.producer = Objects.requireNonNull(producer);
+        this.metrics = Objects.requireNonNull(metrics);
+    }
+
+    /**
+     * Exports all of the results of a bin to the Kafka topic of the indicated query.
+     * @param queryId - id of the periodic query, which is also the topic the results are written to
+     * @param binId - id of the bin being exported
+     * @param dueTime - time in milliseconds at which the bin became due for export, used to compute the export lag
+     * @param results - results of the bin
+     * @return the number of results that were exported
+     * @throws BindingSetRecordExportException The results could not be exported.
+     */
+    public long exportBin(final String queryId, final long binId, final long dueTime, final Iterator<BindingSet> results)
+            throws BindingSetRecordExportException {
+        Objects.requireNonNull(queryId);
+        Objects.requireNonNull(results);
+
+        final long start = System.currentTimeMillis();
+        final String key = Long.toString(binId);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        long count = 0;
+        try {
+            while (results.hasNext() && failure.get() == null) {
+                producer.send(new ProducerRecord<>(queryId, key, results.next()), (metadata, e) -> {
+                    if (e != null) {
+                        failure.compareAndSet(null, e);
+                    }
+                });
+                count++;
+            }
+            // wait for confirmation that all of the bin's results have been received
+            producer.flush();
+            if (failure.get() == null) {
+                // only mark the bin complete once every one of its results is in the topic
+                producer.send(new ProducerRecord<>(queryId, key, makeBinCompleteMarker(binId, count)), (metadata, e) -> {
+                    if (e != null) {
+                        failure.compareAndSet(null, e);
+                    }
+                });
+                producer.flush();
+            }
+        } catch (final Exception e) {
+            throw new BindingSetRecordExportException(e.getMessage(), e);
+        }
+
+        if (failure.get() != null) {
+            throw new BindingSetRecordExportException("Unable to export bin " + binId + " for query " + queryId, failure.get());
+        }
+
+        final long end = System.currentTimeMillis();
+        metrics.binExported(queryId, count, end - start, Math.max(0, end - dueTime));
+        log.debug("Exported {} results for bin {} of query {}.", count, binId, queryId);
+        return count;
+    }
+
+    /**
+     * Indicates whether a record read from a periodic query's topic is the completion marker of a
+     * bin rather than one of its results.
+     * @param bindingSet - value of the record
+     * @return {@code true} if the record marks the end of a bin
+     */
+    public static boolean isBinCompleteMarker(final BindingSet bindingSet) {
+        Objects.requireNonNull(bindingSet);
+        return bindingSet.hasBinding(BIN_RESULT_COUNT);
+    }
+
+    /**
+     * Reads the number of results of a bin from its completion marker.
+     * @param marker - completion marker of a bin
+     * @return the number of results that were sent right before the marker
+     */
+    public static long getBinResultCount(final BindingSet marker) {
+        Objects.requireNonNull(marker);
+        return ((Literal) marker.getValue(BIN_RESULT_COUNT)).longValue();
+    }
+
+    private static BindingSet makeBinCompleteMarker(final long binId, final long count) {
+        final QueryBindingSet marker = new QueryBindingSet();
+        marker.addBinding(IncrementalUpdateConstants.PERIODIC_BIN_ID, VF.createLiteral(binId));
+        marker.addBinding(BIN_RESULT_COUNT, VF.createLiteral(count));
+        return marker;
+    }
+
+    /**
+     * Fills in the compression, batch size, and linger time that suit bin exports. Settings that
+     * are already present in the producer configuration are left untouched.
+     * @param producerProps - configuration of a result producer
+     * @return the same properties, for chaining
+     */
+    public static Properties applyProducerDefaults(final Properties producerProps) {
+        Objects.requireNonNull(producerProps);
+        setIfUnset(producerProps, ProducerConfig.COMPRESSION_TYPE_CONFIG, DEFAULT_COMPRESSION_TYPE);
+        setIfUnset(producerProps, ProducerConfig.BATCH_SIZE_CONFIG, Integer.toString(DEFAULT_BATCH_SIZE));
+        setIfUnset(producerProps, ProducerConfig.LINGER_MS_CONFIG, Integer.toString(DEFAULT_LINGER_MS));
+        return producerProps;
+    }
+
+    private static void setIfUnset(final Properties props, final String key, final String value) {
+        if (props.getProperty(key) == null) {
+            props.setProperty(key, value);
+        }
+    }
+
+    @Override
+    public void close() {
+        producer.close();
+    }
+}
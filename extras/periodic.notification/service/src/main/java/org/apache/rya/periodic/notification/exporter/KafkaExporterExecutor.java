@@ -33,6 +33,8 @@ import org.eclipse.rdf4j.query.BindingSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Preconditions;
+
 /**
  * Executor service that runs {@link KafkaPeriodicBindingSetExporter}s.
  *
@@ -50,10 +52,12 @@ public class KafkaExporterExecutor implements LifeCycle {
     /**
      * Creates a KafkaExporterExecutor for exporting periodic query results to Kafka.
      * @param producer for publishing results to Kafka
-     * @param numThreads number of threads used to publish results
+     * @param numThreads number of threads used to publish results. May be zero if results are
+     *   streamed to Kafka by the notification processors and this queue is not used.
      * @param bindingSets - work queue containing {@link BindingSet}s to be published
      */
     public KafkaExporterExecutor(final KafkaProducer<String, BindingSet> producer, final int numThreads, final BlockingQueue<BindingSetRecord> bindingSets) {
+        Preconditions.checkArgument(numThreads >= 0);
         this.producer = Objects.requireNonNull(producer);
         this.bindingSets = Objects.requireNonNull(bindingSets);
         this.numThreads = numThreads;
@@ -63,6 +67,11 @@ public class KafkaExporterExecutor implements LifeCycle {
     @Override
     public void start() {
         if (!running) {
+            if (numThreads == 0) {
+                log.info("No exporter threads configured.  Results are expected to be streamed by the notification processors.");
+                running = true;
+                return;
+            }
             executor = Executors.newFixedThreadPool(numThreads);
 
             for (int threadNumber = 0; threadNumber < numThreads; threadNumber++) {
@@ -90,6 +99,9 @@ public class KafkaExporterExecutor implements LifeCycle {
         }
 
         running = false;
+        if (executor == null) {
+            return;
+        }
         try {
             if (!executor.awaitTermination(5000, TimeUnit.MILLISECONDS)) {
                 log.info("Timed out waiting for consumer threads to shut down, exiting uncleanly");
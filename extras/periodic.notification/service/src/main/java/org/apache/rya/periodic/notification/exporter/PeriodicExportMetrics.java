@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.periodic.notification.exporter;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects per query throughput and lag metrics for the periodic bins that are
+ * exported to Kafka. Lag is the amount of time between the moment a bin became due
+ * for export and the moment all of the bin's results were acknowledged by Kafka.
+ */
+public class PeriodicExportMetrics {
+
+    private final Map<String, QueryExportMetrics> queryMetrics = new ConcurrentHashMap<>();
+
+    /**
+     * Records that a bin has been exported.
+     * @param queryId - id of the periodic query whose bin was exported
+     * @param records - number of results in the bin
+     * @param exportMillis - time in milliseconds that it took to export the bin
+     * @param lagMillis - time in milliseconds between the bin becoming due and completion of the export
+     */
+    public void binExported(final String queryId, final long records, final long exportMillis, final long lagMillis) {
+        Objects.requireNonNull(queryId);
+        queryMetrics.computeIfAbsent(queryId, id -> new QueryExportMetrics()).update(records, exportMillis, lagMillis);
+    }
+
+    /**
+     * @param queryId - id of a periodic query
+     * @return the metrics for the query, or null if none of its bins have been exported
+     */
+    public QueryExportMetrics getMetrics(final String queryId) {
+        return queryMetrics.get(queryId);
+    }
+
+    /**
+     * @return an unmodifiable view of the metrics for every query that has exported a bin
+     */
+    public Map<String, QueryExportMetrics> getAllMetrics() {
+        return Collections.unmodifiableMap(queryMetrics);
+    }
+
+    /**
+     * Stops tracking a query, for example once it has been deleted.
+     * @param queryId - id of the periodic query
+     */
+    public void remove(final String queryId) {
+        queryMetrics.remove(queryId);
+    }
+
+    /**
+     * @return true if no bins have been exported since the metrics were created
+     */
+    public boolean isEmpty() {
+        return queryMetrics.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        queryMetrics.forEach((queryId, metrics) -> {
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+            builder.append(queryId).append("[").append(metrics).append("]");
+        });
+        return builder.toString();
+    }
+
+    /**
+     * Export metrics for a single periodic query.
+     */
+    public static class QueryExportMetrics {
+
+        private final AtomicLong bins = new AtomicLong();
+        private final AtomicLong records = new AtomicLong();
+        private final AtomicLong exportMillis = new AtomicLong();
+        private final AtomicLong lastLagMillis = new AtomicLong();
+
+        private void update(final long binRecords, final long binExportMillis, final long lagMillis) {
+            bins.incrementAndGet();
+            records.addAndGet(binRecords);
+            exportMillis.addAndGet(binExportMillis);
+            lastLagMillis.set(lagMillis);
+        }
+
+        /**
+         * @return number of bins that have been exported
+         */
+        public long getBinsExported() {
+            return bins.get();
+        }
+
+        /**
+         * @return number of results that have been exported
+         */
+        public long getRecordsExported() {
+            return records.get();
+        }
+
+        /**
+         * @return total time in milliseconds spent exporting bins
+         */
+        public long getExportMillis() {
+            return exportMillis.get();
+        }
+
+        /**
+         * @return export throughput in results per second
+         */
+        public double getRecordsPerSecond() {
+            final long millis = exportMillis.get();
+            return millis == 0 ? 0 : records.get() * 1000.0 / millis;
+        }
+
+        /**
+         * @return lag in milliseconds of the most recently exported bin
+         */
+        public long getLastLagMillis() {
+            return lastLagMillis.get();
+        }
+
+        @Override
+        public String toString() {
+            return "bins=" + getBinsExported() + ";records=" + getRecordsExported() + ";recordsPerSecond=" + getRecordsPerSecond()
+                    + ";lastLagMillis=" + getLastLagMillis();
+        }
+    }
+}
@@ -21,16 +21,24 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.apache.rya.indexing.pcj.storage.PeriodicQueryResultStorage;
 import org.apache.rya.periodic.notification.api.BindingSetRecord;
 import org.apache.rya.periodic.notification.api.LifeCycle;
 import org.apache.rya.periodic.notification.api.NodeBin;
+import org.apache.rya.periodic.notification.exporter.KafkaBinExporter;
+import org.apache.rya.periodic.notification.exporter.PeriodicExportMetrics;
 import org.apache.rya.periodic.notification.notification.TimestampedNotification;
+import org.apache.rya.periodic.notification.serialization.BindingSetSerDe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -56,8 +64,13 @@ public class NotificationProcessorExecutor implements LifeCycle {
     private final BlockingQueue<BindingSetRecord> bindingSets;
     private final PeriodicQueryResultStorage periodicStorage;
     private final List<TimestampedNotificationProcessor> processors;
+    private final List<KafkaBinExporter> binExporters;
+    private final Optional<Properties> streamingProducerProps;
+    private final PeriodicExportMetrics exportMetrics = new PeriodicExportMetrics();
+    private final long metricsLogIntervalMs;
     private final int numberThreads;
     private ExecutorService executor;
+    private ScheduledExecutorService metricsReporter;
     private boolean running = false;
 
     /**
@@ -70,12 +83,32 @@ public class NotificationProcessorExecutor implements LifeCycle {
      */
     public NotificationProcessorExecutor(final PeriodicQueryResultStorage periodicStorage, final BlockingQueue<TimestampedNotification> notifications,
             final BlockingQueue<NodeBin> bins, final BlockingQueue<BindingSetRecord> bindingSets, final int numberThreads) {
+        this(periodicStorage, notifications, bins, bindingSets, numberThreads, Optional.empty(), 0);
+    }
+
+    /**
+     * Creates NotificationProcessorExecutor.
+     * @param periodicStorage - storage layer that periodic results are read from
+     * @param notifications - notifications are pulled from this queue, and the timestamp indicates which bin of results to query for
+     * @param bins - after notifications are processed, they are added to the bin to be deleted
+     * @param bindingSets - results read from the storage layer to be exported
+     * @param numberThreads - number of threads used for processing
+     * @param streamingProducerProps - if present, each processor thread is given its own {@link KafkaProducer} created
+     *   from these properties and streams results directly to Kafka rather than adding them to the bindingSets queue
+     * @param metricsLogIntervalMs - how often in milliseconds the streaming export metrics are logged, or 0 to never log them
+     */
+    public NotificationProcessorExecutor(final PeriodicQueryResultStorage periodicStorage, final BlockingQueue<TimestampedNotification> notifications,
+            final BlockingQueue<NodeBin> bins, final BlockingQueue<BindingSetRecord> bindingSets, final int numberThreads,
+            final Optional<Properties> streamingProducerProps, final long metricsLogIntervalMs) {
         this.notifications = Objects.requireNonNull(notifications);
         this.bins = Objects.requireNonNull(bins);
         this.bindingSets = Objects.requireNonNull(bindingSets);
+        this.streamingProducerProps = Objects.requireNonNull(streamingProducerProps);
         this.periodicStorage = periodicStorage;
         this.numberThreads = numberThreads;
+        this.metricsLogIntervalMs = metricsLogIntervalMs;
         processors = new ArrayList<>();
+        binExporters = new ArrayList<>();
     }
 
     @Override
@@ -84,12 +117,22 @@ public class NotificationProcessorExecutor implements LifeCycle {
             executor = Executors.newFixedThreadPool(numberThreads);
             for (int threadNumber = 0; threadNumber < numberThreads; threadNumber++) {
                 log.info("Creating processor for thread: {}", threadNumber);
-                final TimestampedNotificationProcessor processor = TimestampedNotificationProcessor.builder().setBindingSets(bindingSets)
-                        .setBins(bins).setPeriodicStorage(periodicStorage).setNotifications(notifications).setThreadNumber(threadNumber)
-                        .build();
+                final TimestampedNotificationProcessor.Builder builder = TimestampedNotificationProcessor.builder().setBindingSets(bindingSets)
+                        .setBins(bins).setPeriodicStorage(periodicStorage).setNotifications(notifications).setThreadNumber(threadNumber);
+                if (streamingProducerProps.isPresent()) {
+                    final KafkaBinExporter binExporter = new KafkaBinExporter(
+                            new KafkaProducer<>(streamingProducerProps.get(), new StringSerializer(), new BindingSetSerDe()), exportMetrics);
+                    binExporters.add(binExporter);
+                    builder.setBinExporter(binExporter);
+                }
+                final TimestampedNotificationProcessor processor = builder.build();
                 processors.add(processor);
                 executor.submit(processor);
             }
+            if (streamingProducerProps.isPresent() && metricsLogIntervalMs > 0) {
+                metricsReporter = Executors.newSingleThreadScheduledExecutor();
+                metricsReporter.scheduleAtFixedRate(this::logExportMetrics, metricsLogIntervalMs, metricsLogIntervalMs, TimeUnit.MILLISECONDS);
+            }
             running = true;
         }
     }
@@ -102,6 +145,10 @@ public class NotificationProcessorExecutor implements LifeCycle {
         if (executor != null) {
             executor.shutdown();
         }
+        if (metricsReporter != null) {
+            metricsReporter.shutdownNow();
+            metricsReporter = null;
+        }
         running = false;
         try {
             if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
@@ -111,6 +158,22 @@ public class NotificationProcessorExecutor implements LifeCycle {
         } catch (final InterruptedException e) {
             log.info("Interrupted during shutdown, exiting uncleanly");
         }
+        binExporters.forEach(x -> x.close());
+        binExporters.clear();
+        logExportMetrics();
+    }
+
+    private void logExportMetrics() {
+        if (!exportMetrics.isEmpty()) {
+            log.info("Periodic export metrics: {}", exportMetrics);
+        }
+    }
+
+    /**
+     * @return per query throughput and lag metrics for results streamed directly to Kafka
+     */
+    public PeriodicExportMetrics getExportMetrics() {
+        return exportMetrics;
     }
 
     @Override
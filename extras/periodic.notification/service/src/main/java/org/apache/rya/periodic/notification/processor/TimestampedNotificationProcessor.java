@@ -18,6 +18,11 @@
  */
 package org.apache.rya.periodic.notification.processor;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -28,6 +33,7 @@ import org.apache.rya.periodic.notification.api.BinPruner;
 import org.apache.rya.periodic.notification.api.BindingSetRecord;
 import org.apache.rya.periodic.notification.api.NodeBin;
 import org.apache.rya.periodic.notification.api.NotificationProcessor;
+import org.apache.rya.periodic.notification.exporter.KafkaBinExporter;
 import org.apache.rya.periodic.notification.exporter.KafkaPeriodicBindingSetExporter;
 import org.apache.rya.periodic.notification.notification.TimestampedNotification;
 import org.eclipse.rdf4j.query.BindingSet;
@@ -48,6 +54,7 @@ import com.google.common.base.Preconditions;
 public class TimestampedNotificationProcessor implements NotificationProcessor, Runnable {
 
     private static final Logger log = LoggerFactory.getLogger(TimestampedNotificationProcessor.class);
+    private static final int MAX_BATCH_SIZE = 1000;
     private final PeriodicQueryResultStorage periodicStorage;
 
     /**
@@ -64,6 +71,11 @@ public class TimestampedNotificationProcessor implements NotificationProcessor,
      * query results to export
      */
     private final BlockingQueue<BindingSetRecord> bindingSets;
+
+    /**
+     * streams query results directly to Kafka when present
+     */
+    private final Optional<KafkaBinExporter> binExporter;
     private final AtomicBoolean closed = new AtomicBoolean(false);
     private final int threadNumber;
 
@@ -71,9 +83,25 @@ public class TimestampedNotificationProcessor implements NotificationProcessor,
     public TimestampedNotificationProcessor(final PeriodicQueryResultStorage periodicStorage,
             final BlockingQueue<TimestampedNotification> notifications, final BlockingQueue<NodeBin> bins, final BlockingQueue<BindingSetRecord> bindingSets,
             final int threadNumber) {
+        this(periodicStorage, notifications, bins, bindingSets, Optional.empty(), threadNumber);
+    }
+
+    /**
+     * Creates a TimestampedNotificationProcessor.
+     * @param periodicStorage - storage layer that periodic results are read from
+     * @param notifications - notifications to process
+     * @param bins - NodeBins are added to this queue once a bin has been exported
+     * @param bindingSets - results are added to this queue for export when no binExporter is given
+     * @param binExporter - if present, results are streamed to Kafka through this exporter instead of the bindingSets queue
+     * @param threadNumber - number of the thread running this processor
+     */
+    public TimestampedNotificationProcessor(final PeriodicQueryResultStorage periodicStorage,
+            final BlockingQueue<TimestampedNotification> notifications, final BlockingQueue<NodeBin> bins, final BlockingQueue<BindingSetRecord> bindingSets,
+            final Optional<KafkaBinExporter> binExporter, final int threadNumber) {
         this.notifications = Preconditions.checkNotNull(notifications);
         this.bins = Preconditions.checkNotNull(bins);
         this.bindingSets = Preconditions.checkNotNull(bindingSets);
+        this.binExporter = Preconditions.checkNotNull(binExporter);
         this.periodicStorage = periodicStorage;
         this.threadNumber = threadNumber;
     }
@@ -82,9 +110,10 @@ public class TimestampedNotificationProcessor implements NotificationProcessor,
      * Processes the TimestampNotifications by scanning the PCJ tables for
      * entries in the bin corresponding to
      * {@link TimestampedNotification#getTimestamp()} and adding them to the
-     * export BlockingQueue. The TimestampNotification is then used to form a
-     * {@link NodeBin} that is passed to the BinPruner BlockingQueue so that the
-     * bins can be deleted from Fluo and Accumulo.
+     * export BlockingQueue. If this processor has a {@link KafkaBinExporter},
+     * the entries are streamed straight to Kafka instead. The TimestampNotification
+     * is then used to form a {@link NodeBin} that is passed to the BinPruner
+     * BlockingQueue so that the bins can be deleted from Fluo and Accumulo.
      */
     @Override
     public void processNotification(final TimestampedNotification notification) {
@@ -97,8 +126,12 @@ public class TimestampedNotificationProcessor implements NotificationProcessor,
 
         try (CloseableIterator<BindingSet> iter = periodicStorage.listResults(id, Optional.of(bin))) {
 
-            while(iter.hasNext()) {
-                bindingSets.add(new BindingSetRecord(iter.next(), id));
+            if(binExporter.isPresent()) {
+                binExporter.get().exportBin(id, bin, ts, iter);
+            } else {
+                while(iter.hasNext()) {
+                    bindingSets.add(new BindingSetRecord(iter.next(), id));
+                }
             }
             // add NodeBin to BinPruner queue so that bin can be deleted from
             // Fluo and Accumulo
@@ -108,6 +141,21 @@ public class TimestampedNotificationProcessor implements NotificationProcessor,
         }
     }
 
+    /**
+     * Processes a batch of TimestampNotifications. Notifications generated in the
+     * same tick of the coordinator that map to the same query and bin are
+     * coalesced so that each bin is only read, exported and pruned once.
+     * @param batch - notifications to process
+     */
+    public void processNotifications(final Collection<TimestampedNotification> batch) {
+        final Map<NodeBin, TimestampedNotification> unique = new LinkedHashMap<>();
+        for(final TimestampedNotification notification: batch) {
+            final long bin = getBinFromTimestamp(notification.getTimestamp().getTime(), notification.getPeriod());
+            unique.putIfAbsent(new NodeBin(notification.getId(), bin), notification);
+        }
+        unique.values().forEach(this::processNotification);
+    }
+
     /**
      * Computes left bin end point containing event time ts
      *
@@ -124,8 +172,12 @@ public class TimestampedNotificationProcessor implements NotificationProcessor,
     @Override
     public void run() {
         try {
+            final List<TimestampedNotification> batch = new ArrayList<>(MAX_BATCH_SIZE);
             while(!closed.get()) {
-                processNotification(notifications.take());
+                batch.add(notifications.take());
+                notifications.drainTo(batch, MAX_BATCH_SIZE - 1);
+                processNotifications(batch);
+                batch.clear();
             }
         } catch (final Exception e) {
             log.warn("Thread {} is unable to process next notification.", threadNumber);
@@ -151,6 +203,8 @@ public class TimestampedNotificationProcessor implements NotificationProcessor,
         private BlockingQueue<NodeBin> bins; // entries to delete from Fluo
         private BlockingQueue<BindingSetRecord> bindingSets; // query results to export
 
+        private Optional<KafkaBinExporter> binExporter = Optional.empty();
+
         private int threadNumber;
 
         /**
@@ -183,6 +237,16 @@ public class TimestampedNotificationProcessor implements NotificationProcessor,
             return this;
         }
 
+        /**
+         * Set the exporter used to stream results directly to Kafka
+         * @param binExporter - exporter owned by the processor being built
+         * @return this Builder for chaining method calls
+         */
+        public Builder setBinExporter(final KafkaBinExporter binExporter) {
+            this.binExporter = Optional.of(binExporter);
+            return this;
+        }
+
         /**
          * Sets the number of threads used by this processor
          * @param threadNumber - number of threads used by this processor
@@ -208,7 +272,7 @@ public class TimestampedNotificationProcessor implements NotificationProcessor,
          * @return - TimestampedNotificationProcessor built from arguments passed to this Builder
          */
         public TimestampedNotificationProcessor build() {
-            return new TimestampedNotificationProcessor(periodicStorage, notifications, bins, bindingSets, threadNumber);
+            return new TimestampedNotificationProcessor(periodicStorage, notifications, bins, bindingSets, binExporter, threadNumber);
         }
 
     }
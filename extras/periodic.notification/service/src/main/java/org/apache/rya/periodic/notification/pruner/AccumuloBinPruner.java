@@ -18,6 +18,7 @@
  */
 package org.apache.rya.periodic.notification.pruner;
 
+import java.util.Collection;
 import java.util.Objects;
 
 import org.apache.rya.indexing.pcj.storage.PeriodicQueryResultStorage;
@@ -63,4 +64,25 @@ public class AccumuloBinPruner implements BinPruner {
         }
     }
 
+    /**
+     * This method deletes all BindingSets in the indicated bins from the PCJ
+     * table indicated by the id. The bins are removed with a single range
+     * delete against the table rather than one delete per bin.
+     *
+     * @param id
+     *            - pcj table id
+     * @param bins
+     *            - temporal bins the BindingSets are contained in
+     */
+    public void pruneBindingSetBins(final String id, final Collection<Long> bins) {
+        Objects.requireNonNull(id);
+        Objects.requireNonNull(bins);
+        try {
+            periodicStorage.deletePeriodicQueryResults(id, bins);
+        } catch (final PeriodicQueryStorageException e) {
+            log.trace("Unable to delete results from Peroidic Table: " + id + " for bins: " + bins);
+            throw new RuntimeException(e);
+        }
+    }
+
 }
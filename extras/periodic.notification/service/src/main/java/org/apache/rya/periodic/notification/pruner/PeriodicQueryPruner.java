@@ -18,7 +18,14 @@
  */
 package org.apache.rya.periodic.notification.pruner;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
@@ -34,6 +41,8 @@ import org.apache.rya.periodic.notification.api.NodeBin;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Preconditions;
+
 /**
  * Implementation of {@link BinPruner} that deletes old, already processed
  * Periodic Query results from Fluo and the PCJ table to which the Fluo results
@@ -43,26 +52,44 @@ import org.slf4j.LoggerFactory;
 public class PeriodicQueryPruner implements BinPruner, Runnable {
 
     private static final Logger log = LoggerFactory.getLogger(PeriodicQueryPruner.class);
+    public static final int DEFAULT_BATCH_SIZE = 1000;
     private final FluoClient client;
     private final AccumuloBinPruner accPruner;
     private final FluoBinPruner fluoPruner;
     private final BlockingQueue<NodeBin> bins;
     private final AtomicBoolean closed = new AtomicBoolean(false);
     private final int threadNumber;
+    private final int batchSize;
 
     public PeriodicQueryPruner(final FluoBinPruner fluoPruner, final AccumuloBinPruner accPruner, final FluoClient client, final BlockingQueue<NodeBin> bins, final int threadNumber) {
+        this(fluoPruner, accPruner, client, bins, threadNumber, DEFAULT_BATCH_SIZE);
+    }
+
+    public PeriodicQueryPruner(final FluoBinPruner fluoPruner, final AccumuloBinPruner accPruner, final FluoClient client, final BlockingQueue<NodeBin> bins, final int threadNumber,
+            final int batchSize) {
+        Preconditions.checkArgument(batchSize > 0);
         this.fluoPruner = Objects.requireNonNull(fluoPruner);
         this.accPruner = Objects.requireNonNull(accPruner);
         this.client = Objects.requireNonNull(client);
         this.bins = Objects.requireNonNull(bins);
         this.threadNumber = threadNumber;
+        this.batchSize = batchSize;
     }
 
+    /**
+     * Blocks until a {@link NodeBin} is available, then drains up to the batch size of
+     * additional NodeBins from the queue so that all of the expired bins for a query
+     * can be pruned together.
+     */
     @Override
     public void run() {
         try {
+            final List<NodeBin> batch = new ArrayList<>(batchSize);
             while (!closed.get()) {
-                pruneBindingSetBin(bins.take());
+                batch.add(bins.take());
+                bins.drainTo(batch, batchSize - 1);
+                pruneBindingSetBins(batch);
+                batch.clear();
             }
         } catch (final InterruptedException e) {
             log.warn("Thread {} is unable to prune the next message.", threadNumber);
@@ -78,17 +105,36 @@ public class PeriodicQueryPruner implements BinPruner, Runnable {
      */
     @Override
     public void pruneBindingSetBin(final NodeBin nodeBin) {
-        final String pcjId = nodeBin.getNodeId();
-        final long bin = nodeBin.getBin();
-        try(Snapshot sx = client.newSnapshot()) {
-            final String queryId = NodeType.generateNewIdForType(NodeType.QUERY, pcjId);
-            final Set<String> fluoIds = getNodeIdsFromResultId(sx, queryId);
-            accPruner.pruneBindingSetBin(nodeBin);
-            for(final String fluoId: fluoIds) {
-                fluoPruner.pruneBindingSetBin(new NodeBin(fluoId, bin));
+        pruneBindingSetBins(Collections.singleton(nodeBin));
+    }
+
+    /**
+     * Prunes a batch of BindingSet bins. The bins are grouped by query id so that the
+     * PCJ table of each query is pruned with a single delete and the Fluo ancestor
+     * nodes of each query are only looked up once per batch.
+     * @param nodeBins - NodeBins indicating the bins to be deleted
+     */
+    public void pruneBindingSetBins(final Collection<NodeBin> nodeBins) {
+        final Map<String, Set<Long>> binsByQuery = new HashMap<>();
+        for(final NodeBin nodeBin: nodeBins) {
+            binsByQuery.computeIfAbsent(nodeBin.getNodeId(), id -> new HashSet<>()).add(nodeBin.getBin());
+        }
+
+        for(final Entry<String, Set<Long>> entry: binsByQuery.entrySet()) {
+            final String pcjId = entry.getKey();
+            final Set<Long> queryBins = entry.getValue();
+            try(Snapshot sx = client.newSnapshot()) {
+                final String queryId = NodeType.generateNewIdForType(NodeType.QUERY, pcjId);
+                final Set<String> fluoIds = getNodeIdsFromResultId(sx, queryId);
+                accPruner.pruneBindingSetBins(pcjId, queryBins);
+                for(final String fluoId: fluoIds) {
+                    for(final Long bin: queryBins) {
+                        fluoPruner.pruneBindingSetBin(new NodeBin(fluoId, bin));
+                    }
+                }
+            } catch (final Exception e) {
+                log.warn("Could not successfully initialize PeriodicQueryBinPruner.", e);
             }
-        } catch (final Exception e) {
-            log.warn("Could not successfully initialize PeriodicQueryBinPruner.", e);
         }
     }
 
@@ -43,6 +43,7 @@ public class PeriodicQueryPrunerExecutor implements LifeCycle {
     private static final Logger log = LoggerFactory.getLogger(PeriodicQueryPrunerExecutor.class);
     private final FluoClient client;
     private final int numThreads;
+    private final int batchSize;
     private final ExecutorService executor;
     private final BlockingQueue<NodeBin> bins;
     private final PeriodicQueryResultStorage periodicStorage;
@@ -51,9 +52,24 @@ public class PeriodicQueryPrunerExecutor implements LifeCycle {
 
     public PeriodicQueryPrunerExecutor(final PeriodicQueryResultStorage periodicStorage, final FluoClient client, final int numThreads,
             final BlockingQueue<NodeBin> bins) {
+        this(periodicStorage, client, numThreads, PeriodicQueryPruner.DEFAULT_BATCH_SIZE, bins);
+    }
+
+    /**
+     * Creates a PeriodicQueryPrunerExecutor.
+     * @param periodicStorage - storage layer containing the periodic query results
+     * @param client - FluoClient for the Rya Fluo application
+     * @param numThreads - number of pruner threads
+     * @param batchSize - maximum number of {@link NodeBin}s each pruner coalesces into one prune pass
+     * @param bins - queue of NodeBins to be pruned
+     */
+    public PeriodicQueryPrunerExecutor(final PeriodicQueryResultStorage periodicStorage, final FluoClient client, final int numThreads,
+            final int batchSize, final BlockingQueue<NodeBin> bins) {
         Preconditions.checkArgument(numThreads > 0);
+        Preconditions.checkArgument(batchSize > 0);
         this.periodicStorage = periodicStorage;
         this.numThreads = numThreads;
+        this.batchSize = batchSize;
         executor = Executors.newFixedThreadPool(numThreads);
         this.bins = bins;
         this.client = client;
@@ -67,7 +83,7 @@ public class PeriodicQueryPrunerExecutor implements LifeCycle {
             final FluoBinPruner fluoPruner = new FluoBinPruner(client);
 
             for (int threadNumber = 0; threadNumber < numThreads; threadNumber++) {
-                final PeriodicQueryPruner pruner = new PeriodicQueryPruner(fluoPruner, accPruner, client, bins, threadNumber);
+                final PeriodicQueryPruner pruner = new PeriodicQueryPruner(fluoPruner, accPruner, client, bins, threadNumber, batchSize);
                 pruners.add(pruner);
                 executor.submit(pruner);
             }
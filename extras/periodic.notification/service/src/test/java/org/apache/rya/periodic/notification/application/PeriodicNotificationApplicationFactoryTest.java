@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.periodic.notification.application;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Properties;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.rya.periodic.notification.exporter.KafkaBinExporter;
+import org.junit.Test;
+
+public class PeriodicNotificationApplicationFactoryTest {
+
+    @Test
+    public void producerProperties_defaults() {
+        final PeriodicNotificationApplicationConfiguration conf = new PeriodicNotificationApplicationConfiguration();
+        conf.setBootStrapServers("localhost:9092");
+
+        final Properties props = PeriodicNotificationApplicationFactory.getKafkaProducerProperties(conf);
+
+        assertEquals("localhost:9092", props.getProperty(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG));
+        assertEquals(KafkaBinExporter.DEFAULT_COMPRESSION_TYPE, props.getProperty(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+        assertEquals(Integer.toString(KafkaBinExporter.DEFAULT_BATCH_SIZE), props.getProperty(ProducerConfig.BATCH_SIZE_CONFIG));
+        assertEquals(Integer.toString(KafkaBinExporter.DEFAULT_LINGER_MS), props.getProperty(ProducerConfig.LINGER_MS_CONFIG));
+    }
+
+    @Test
+    public void producerProperties_userSettingsWin() {
+        final PeriodicNotificationApplicationConfiguration conf = new PeriodicNotificationApplicationConfiguration();
+        conf.setBootStrapServers("localhost:9092");
+        // a raw Kafka producer setting and a Rya setting
+        conf.set(ProducerConfig.COMPRESSION_TYPE_CONFIG, "gzip");
+        conf.set(ProducerConfig.ACKS_CONFIG, "all");
+        conf.setKafkaLingerMs(0);
+
+        final Properties props = PeriodicNotificationApplicationFactory.getKafkaProducerProperties(conf);
+
+        assertEquals("gzip", props.getProperty(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+        assertEquals("all", props.getProperty(ProducerConfig.ACKS_CONFIG));
+        assertEquals("0", props.getProperty(ProducerConfig.LINGER_MS_CONFIG));
+        assertEquals(Integer.toString(KafkaBinExporter.DEFAULT_BATCH_SIZE), props.getProperty(ProducerConfig.BATCH_SIZE_CONFIG));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.periodic.notification.coordinator;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.rya.periodic.notification.coordinator.HashedTimingWheel.Timeout;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+public class HashedTimingWheelTest {
+
+    @Test
+    public void sameTickFiresTogether() {
+        final HashedTimingWheel<String> wheel = new HashedTimingWheel<>(100, 8, 0);
+        wheel.schedule("a", 250);
+        wheel.schedule("b", 290);
+        wheel.schedule("c", 450);
+
+        Assert.assertTrue(wheel.advance(200).isEmpty());
+        Assert.assertEquals(Sets.newHashSet("a", "b"), Sets.newHashSet(values(wheel.advance(300))));
+        Assert.assertEquals(1, wheel.size());
+        Assert.assertEquals(Lists.newArrayList("c"), values(wheel.advance(500)));
+        Assert.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void deadlineBeyondOneRevolution() {
+        final HashedTimingWheel<String> wheel = new HashedTimingWheel<>(10, 4, 0);
+        wheel.schedule("late", 125);
+
+        // The entry shares a bucket with ticks 1, 5 and 9, but must not fire until tick 13.
+        Assert.assertTrue(wheel.advance(10).isEmpty());
+        Assert.assertTrue(wheel.advance(50).isEmpty());
+        Assert.assertTrue(wheel.advance(120).isEmpty());
+        Assert.assertEquals(Lists.newArrayList("late"), values(wheel.advance(130)));
+    }
+
+    @Test
+    public void advancePastManyRevolutions() {
+        final HashedTimingWheel<String> wheel = new HashedTimingWheel<>(10, 4, 0);
+        wheel.schedule("a", 15);
+        wheel.schedule("b", 75);
+        wheel.schedule("c", 1000);
+
+        Assert.assertEquals(Sets.newHashSet("a", "b"), Sets.newHashSet(values(wheel.advance(500))));
+        Assert.assertEquals(Lists.newArrayList("c"), values(wheel.advance(1000)));
+    }
+
+    @Test
+    public void pastDeadlineFiresOnNextTick() {
+        final HashedTimingWheel<String> wheel = new HashedTimingWheel<>(10, 4, 100);
+        wheel.schedule("past", 50);
+        Assert.assertEquals(Lists.newArrayList("past"), values(wheel.advance(110)));
+    }
+
+    @Test
+    public void cancelledEntriesDoNotFire() {
+        final HashedTimingWheel<String> wheel = new HashedTimingWheel<>(10, 4, 0);
+        final Timeout<String> timeout = wheel.schedule("cancelled", 20);
+        wheel.schedule("kept", 20);
+        timeout.cancel();
+
+        Assert.assertEquals(Lists.newArrayList("kept"), values(wheel.advance(20)));
+        Assert.assertEquals(0, wheel.size());
+    }
+
+    private static List<String> values(final List<Timeout<String>> timeouts) {
+        return timeouts.stream().map(Timeout::getValue).collect(Collectors.toList());
+    }
+}
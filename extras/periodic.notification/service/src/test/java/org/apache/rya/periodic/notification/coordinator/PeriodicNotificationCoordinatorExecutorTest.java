@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.periodic.notification.coordinator;
+
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.rya.periodic.notification.notification.CommandNotification;
+import org.apache.rya.periodic.notification.notification.CommandNotification.Command;
+import org.apache.rya.periodic.notification.notification.PeriodicNotification;
+import org.apache.rya.periodic.notification.notification.TimestampedNotification;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PeriodicNotificationCoordinatorExecutorTest {
+
+    @Test
+    public void missedPeriodsAreEmitted() {
+        final PeriodicNotificationCoordinatorExecutor coord = new PeriodicNotificationCoordinatorExecutor(new LinkedBlockingQueue<>(), 10, 8);
+        final long start = System.currentTimeMillis();
+        coord.startWheel(start);
+        final PeriodicNotification notification = PeriodicNotification.builder().id("query").period(1).timeUnit(TimeUnit.SECONDS).build();
+        coord.processNextCommandNotification(new CommandNotification(Command.ADD, notification));
+
+        // The ticker fell three periods behind. Each skipped period is emitted at its deadline.
+        final long now = start + 3_550;
+        final List<TimestampedNotification> batch = coord.advance(now);
+        Assert.assertEquals(4, batch.size());
+        final long firstDeadline = batch.get(0).getTimestamp().getTime();
+        Assert.assertTrue(firstDeadline >= start && firstDeadline <= start + 500);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals("query", batch.get(i).getId());
+            Assert.assertEquals(firstDeadline + i * 1_000, batch.get(i).getTimestamp().getTime());
+        }
+        Assert.assertEquals(now, batch.get(3).getTimestamp().getTime());
+
+        // The notification is rescheduled for the period after the last one that fell due.
+        Assert.assertTrue(coord.advance(firstDeadline + 3_990).isEmpty());
+        Assert.assertEquals(1, coord.advance(firstDeadline + 4_010).size());
+    }
+
+    @Test
+    public void onTimeTickEmitsOnce() {
+        final PeriodicNotificationCoordinatorExecutor coord = new PeriodicNotificationCoordinatorExecutor(new LinkedBlockingQueue<>(), 10, 8);
+        final long start = System.currentTimeMillis();
+        coord.startWheel(start);
+        final PeriodicNotification notification = PeriodicNotification.builder().id("query").period(1).timeUnit(TimeUnit.SECONDS).build();
+        coord.processNextCommandNotification(new CommandNotification(Command.ADD, notification));
+
+        Assert.assertEquals(1, coord.advance(start + 600).size());
+        Assert.assertTrue(coord.advance(start + 900).isEmpty());
+    }
+}
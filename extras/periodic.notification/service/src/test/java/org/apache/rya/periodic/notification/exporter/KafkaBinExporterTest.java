@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.periodic.notification.exporter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.rya.periodic.notification.api.BindingSetRecordExportException;
+import org.apache.rya.periodic.notification.serialization.BindingSetSerDe;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
+import org.junit.Test;
+
+public class KafkaBinExporterTest {
+
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+    @Test
+    public void exportBin_sendsWholeBinBeforeFlushing() throws Exception {
+        // Sends are not acknowledged until the producer is flushed, so the exporter
+        // must hand over every result of the bin without waiting on any single send.
+        final MockProducer<String, BindingSet> producer = new MockProducer<>(false, new StringSerializer(), new BindingSetSerDe());
+        final PeriodicExportMetrics metrics = new PeriodicExportMetrics();
+        final List<BindingSet> results = makeResults(5);
+
+        try(final KafkaBinExporter exporter = new KafkaBinExporter(producer, metrics)) {
+            assertEquals(5, exporter.exportBin("query1", 42L, System.currentTimeMillis(), results.iterator()));
+        }
+
+        // the results are followed by the bin's completion marker
+        final List<ProducerRecord<String, BindingSet>> sent = producer.history();
+        assertEquals(6, sent.size());
+        for(int i = 0; i < sent.size(); i++) {
+            assertEquals("query1", sent.get(i).topic());
+            assertEquals("42", sent.get(i).key());
+        }
+        for(int i = 0; i < results.size(); i++) {
+            assertEquals(results.get(i), sent.get(i).value());
+            assertFalse(KafkaBinExporter.isBinCompleteMarker(sent.get(i).value()));
+        }
+        assertTrue(KafkaBinExporter.isBinCompleteMarker(sent.get(5).value()));
+        assertEquals(5, KafkaBinExporter.getBinResultCount(sent.get(5).value()));
+    }
+
+    @Test
+    public void exportBin_failedBinHasNoMarker() throws Exception {
+        final MockProducer<String, BindingSet> producer = new MockProducer<String, BindingSet>(false, new StringSerializer(), new BindingSetSerDe()) {
+            @Override
+            public void flush() {
+                errorNext(new RuntimeException("Broker unavailable."));
+                super.flush();
+            }
+        };
+
+        try(final KafkaBinExporter exporter = new KafkaBinExporter(producer, new PeriodicExportMetrics())) {
+            exporter.exportBin("query1", 1L, System.currentTimeMillis(), makeResults(3).iterator());
+            fail("The bin should not have been exported.");
+        } catch (final BindingSetRecordExportException e) {
+            // expected
+        }
+
+        // consumers never see the bin as complete, so they drop what was sent when it is exported again
+        assertEquals(3, producer.history().size());
+        for(final ProducerRecord<String, BindingSet> record : producer.history()) {
+            assertFalse(KafkaBinExporter.isBinCompleteMarker(record.value()));
+        }
+    }
+
+    @Test
+    public void exportBin_updatesMetrics() throws Exception {
+        final MockProducer<String, BindingSet> producer = new MockProducer<>(true, new StringSerializer(), new BindingSetSerDe());
+        final PeriodicExportMetrics metrics = new PeriodicExportMetrics();
+
+        try(final KafkaBinExporter exporter = new KafkaBinExporter(producer, metrics)) {
+            exporter.exportBin("query1", 1L, System.currentTimeMillis(), makeResults(3).iterator());
+            exporter.exportBin("query1", 2L, System.currentTimeMillis(), makeResults(4).iterator());
+            exporter.exportBin("query2", 1L, System.currentTimeMillis(), makeResults(0).iterator());
+        }
+
+        assertEquals(2, metrics.getMetrics("query1").getBinsExported());
+        assertEquals(7, metrics.getMetrics("query1").getRecordsExported());
+        assertEquals(1, metrics.getMetrics("query2").getBinsExported());
+        assertEquals(0, metrics.getMetrics("query2").getRecordsExported());
+    }
+
+    @Test(expected = BindingSetRecordExportException.class)
+    public void exportBin_failedSendFailsBin() throws Exception {
+        final MockProducer<String, BindingSet> producer = new MockProducer<String, BindingSet>(false, new StringSerializer(), new BindingSetSerDe()) {
+            @Override
+            public void flush() {
+                errorNext(new RuntimeException("Broker unavailable."));
+                super.flush();
+            }
+        };
+        final PeriodicExportMetrics metrics = new PeriodicExportMetrics();
+
+        try(final KafkaBinExporter exporter = new KafkaBinExporter(producer, metrics)) {
+            exporter.exportBin("query1", 1L, System.currentTimeMillis(), makeResults(3).iterator());
+        } finally {
+            // a failed bin is not counted as exported
+            assertTrue(metrics.isEmpty());
+        }
+    }
+
+    @Test
+    public void applyProducerDefaults_unset() {
+        final Properties props = KafkaBinExporter.applyProducerDefaults(new Properties());
+        assertEquals(KafkaBinExporter.DEFAULT_COMPRESSION_TYPE, props.getProperty(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+        assertEquals(Integer.toString(KafkaBinExporter.DEFAULT_BATCH_SIZE), props.getProperty(ProducerConfig.BATCH_SIZE_CONFIG));
+        assertEquals(Integer.toString(KafkaBinExporter.DEFAULT_LINGER_MS), props.getProperty(ProducerConfig.LINGER_MS_CONFIG));
+    }
+
+    @Test
+    public void applyProducerDefaults_keepsUserSettings() {
+        final Properties props = new Properties();
+        props.setProperty(ProducerConfig.COMPRESSION_TYPE_CONFIG, "none");
+        props.setProperty(ProducerConfig.LINGER_MS_CONFIG, "0");
+
+        KafkaBinExporter.applyProducerDefaults(props);
+
+        assertEquals("none", props.getProperty(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+        assertEquals("0", props.getProperty(ProducerConfig.LINGER_MS_CONFIG));
+        assertEquals(Integer.toString(KafkaBinExporter.DEFAULT_BATCH_SIZE), props.getProperty(ProducerConfig.BATCH_SIZE_CONFIG));
+    }
+
+    private static List<BindingSet> makeResults(final int count) {
+        final List<BindingSet> results = new ArrayList<>();
+        for(int i = 0; i < count; i++) {
+            final QueryBindingSet bs = new QueryBindingSet();
+            bs.addBinding("x", VF.createLiteral(i));
+            results.add(bs);
+        }
+        return results;
+    }
+}
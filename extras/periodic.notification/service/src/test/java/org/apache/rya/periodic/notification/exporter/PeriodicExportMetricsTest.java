@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.periodic.notification.exporter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.rya.periodic.notification.exporter.PeriodicExportMetrics.QueryExportMetrics;
+import org.junit.Test;
+
+public class PeriodicExportMetricsTest {
+
+    @Test
+    public void binExported_accumulatesPerQuery() {
+        final PeriodicExportMetrics metrics = new PeriodicExportMetrics();
+        assertTrue(metrics.isEmpty());
+
+        metrics.binExported("query1", 100, 200, 50);
+        metrics.binExported("query1", 300, 200, 20);
+        metrics.binExported("query2", 10, 0, 5);
+
+        final QueryExportMetrics query1 = metrics.getMetrics("query1");
+        assertEquals(2, query1.getBinsExported());
+        assertEquals(400, query1.getRecordsExported());
+        assertEquals(400, query1.getExportMillis());
+        assertEquals(1000.0, query1.getRecordsPerSecond(), 0.001);
+        assertEquals(20, query1.getLastLagMillis());
+
+        final QueryExportMetrics query2 = metrics.getMetrics("query2");
+        assertEquals(1, query2.getBinsExported());
+        assertEquals(10, query2.getRecordsExported());
+        assertEquals(0.0, query2.getRecordsPerSecond(), 0.001);
+
+        assertEquals(2, metrics.getAllMetrics().size());
+        assertTrue(metrics.toString().contains("query1[bins=2;records=400;"));
+    }
+
+    @Test
+    public void remove() {
+        final PeriodicExportMetrics metrics = new PeriodicExportMetrics();
+        metrics.binExported("query1", 1, 1, 1);
+        metrics.remove("query1");
+
+        assertNull(metrics.getMetrics("query1"));
+        assertTrue(metrics.isEmpty());
+    }
+}
@@ -50,7 +50,7 @@ public class PeriodicNotificationProviderIT extends AccumuloExportITBase {
                 + "?obs <uri:hasId> ?id } group by ?id"; // n
         
         BlockingQueue<TimestampedNotification> notifications = new LinkedBlockingQueue<>();
-        PeriodicNotificationCoordinatorExecutor coord = new PeriodicNotificationCoordinatorExecutor(2, notifications);
+        PeriodicNotificationCoordinatorExecutor coord = new PeriodicNotificationCoordinatorExecutor(notifications);
         PeriodicNotificationProvider provider = new PeriodicNotificationProvider();
         CreateFluoPcj pcj = new CreateFluoPcj();
         
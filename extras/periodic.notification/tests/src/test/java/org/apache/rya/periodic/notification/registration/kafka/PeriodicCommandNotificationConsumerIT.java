@@ -69,7 +69,7 @@ public class PeriodicCommandNotificationConsumerIT extends KafkaITBase {
         rule.createTopic(topic);
 
         registration = new KafkaNotificationRegistrationClient(topic, producer);
-        coord = new PeriodicNotificationCoordinatorExecutor(1, notifications);
+        coord = new PeriodicNotificationCoordinatorExecutor(notifications);
         provider = new KafkaNotificationProvider(topic, new StringDeserializer(), new CommandNotificationSerializer(), props, coord, 1);
         provider.start();
 
@@ -100,7 +100,7 @@ public class PeriodicCommandNotificationConsumerIT extends KafkaITBase {
         rule.createTopic(topic);
 
         registration = new KafkaNotificationRegistrationClient(topic, producer);
-        coord = new PeriodicNotificationCoordinatorExecutor(1, notifications);
+        coord = new PeriodicNotificationCoordinatorExecutor(notifications);
         provider = new KafkaNotificationProvider(topic, new StringDeserializer(), new CommandNotificationSerializer(), props, coord, 1);
         provider.start();
 
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.benchmark.query;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.rya.accumulo.query.RangeBindingSetEntries;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.impl.MapBindingSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+
+/**
+ * A benchmark that may be used to evaluate the cost of joining scanned Keys back
+ * to the BindingSets of a batched query with {@link RangeBindingSetEntries}. It
+ * pivots over how many Ranges the batch has, and compares the lookup against a
+ * linear check of every Range.
+ * <p>
+ * To execute this benchmark, build the project by executing:
+ * <pre>
+ * mvn clean install
+ * </pre>
+ * Transport the "target/benchmarking.jar" file to the system that will execute
+ * the benchmark and then execute:
+ * <pre>
+ * java -cp benchmarks.jar org.apache.rya.benchmark.query.RangeBindingSetEntriesBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+public class RangeBindingSetEntriesBenchmark {
+
+    private static final int NUM_KEYS = 10_000;
+
+    @Param({"10", "100", "1000"})
+    public int numRanges;
+
+    private RangeBindingSetEntries entries;
+    private Multimap<Range, BindingSet> linearEntries;
+    private Key[] keys;
+
+    @Setup
+    public void buildBenchmarkValues() {
+        entries = new RangeBindingSetEntries();
+        linearEntries = HashMultimap.create();
+        for(int i = 0; i < numRanges; i++) {
+            final Range range = Range.prefix(String.format("urn:subject%06d", i));
+            final MapBindingSet bs = new MapBindingSet();
+            bs.addBinding("s", SimpleValueFactory.getInstance().createIRI(String.format("urn:subject%06d", i)));
+            entries.put(range, bs);
+            linearEntries.put(range, bs);
+        }
+
+        // Every scanned Key falls in one of the Ranges, like the results of a bind-join scan.
+        final Random random = new Random(42);
+        keys = new Key[NUM_KEYS];
+        for(int i = 0; i < NUM_KEYS; i++) {
+            keys[i] = new Key(String.format("urn:subject%06d\u0000urn:predicate\u0000urn:object%d", random.nextInt(numRanges), i));
+        }
+        entries.containsKey(keys[0]);
+    }
+
+    @Benchmark
+    public void indexedLookup(final Blackhole blackhole) {
+        for(final Key key : keys) {
+            blackhole.consume(entries.containsKey(key));
+        }
+    }
+
+    @Benchmark
+    public void linearLookup(final Blackhole blackhole) {
+        for(final Key key : keys) {
+            final Set<BindingSet> bsSet = new HashSet<>();
+            for(final Range range : linearEntries.keySet()) {
+                if(range.contains(key)) {
+                    bsSet.addAll(linearEntries.get(range));
+                }
+            }
+            blackhole.consume(bsSet);
+        }
+    }
+
+    public static void main(final String[] args) throws RunnerException, CommandLineOptionException {
+        final OptionsBuilder opts = new OptionsBuilder();
+        opts.parent( new CommandLineOptions(args) );
+        opts.include(RangeBindingSetEntriesBenchmark.class.getSimpleName());
+
+        new Runner(opts.build()).run();
+    }
+}
@@ -317,9 +317,8 @@ public class GeoEnabledFilterFunctionOptimizer implements QueryOptimizer, Config
                 }
                 break;
             case TEMPORAL:
-                for (final IndexingExpr indx : indxExpr) {
-                    indexTuples.add(new TemporalTupleSet(indx, temporalIndexer));
-                }
+                // The temporal filters on a variable are intersected and answered by one scan.
+                indexTuples.add(new TemporalTupleSet(indxExpr, temporalIndexer));
                 break;
             default:
                 throw new IllegalArgumentException("Incorrect type!");
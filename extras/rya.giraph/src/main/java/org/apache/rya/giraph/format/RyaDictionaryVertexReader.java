@@ -0,0 +1,135 @@
+package org.apache.rya.giraph.format;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.giraph.conf.ImmutableClassesGiraphConfiguration;
+import org.apache.giraph.edge.Edge;
+import org.apache.giraph.edge.EdgeFactory;
+import org.apache.giraph.graph.Vertex;
+import org.apache.giraph.io.VertexReader;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.rya.accumulo.mr.RyaInputFormat.RyaStatementRecordReader;
+import org.apache.rya.accumulo.mr.RyaStatementWritable;
+import org.apache.rya.accumulo.mr.RyaTypeWritable;
+import org.apache.rya.accumulo.mr.VertexDictionary;
+import org.apache.rya.api.RdfCloudTripleStoreConstants.TABLE_LAYOUT;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.domain.RyaType;
+import org.apache.rya.api.resolver.RyaTripleContext;
+
+/**
+ * Reads a vertex for each statement, identified by the subject's ID in the
+ * {@link VertexDictionary}, with an edge to the object's ID. Statements are
+ * read ahead in batches so their IDs can be looked up together.
+ */
+public class RyaDictionaryVertexReader extends VertexReader<LongWritable, RyaTypeWritable, RyaStatementWritable> {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private RyaStatementRecordReader reader;
+    private RyaTripleContext tripleContext;
+    private TABLE_LAYOUT tableLayout;
+    private VertexDictionary dictionary;
+    private ImmutableClassesGiraphConfiguration<LongWritable, RyaTypeWritable, RyaStatementWritable> classesConfiguration;
+
+    private final Deque<RyaStatementWritable> pending = new ArrayDeque<>();
+    private Map<String, Long> pendingIds = null;
+    private RyaStatementWritable currentStatement = null;
+
+    public RyaDictionaryVertexReader(RyaStatementRecordReader recordReader,
+            TABLE_LAYOUT rdfTableLayout, RyaTripleContext tripleContext, Configuration conf) {
+        this.reader = recordReader;
+        this.tableLayout = rdfTableLayout;
+        this.tripleContext = tripleContext;
+        this.classesConfiguration =
+                new ImmutableClassesGiraphConfiguration<LongWritable, RyaTypeWritable, RyaStatementWritable>(conf);
+    }
+
+    @Override
+    public void initialize(InputSplit inputSplit, TaskAttemptContext context) throws IOException, InterruptedException {
+        reader.initialize(inputSplit, context, tripleContext, tableLayout);
+        dictionary = VertexDictionary.fromConfiguration(context.getConfiguration());
+    }
+
+    @Override
+    public boolean nextVertex() throws IOException, InterruptedException {
+        if (pending.isEmpty()) {
+            List<String> vertices = new ArrayList<>();
+            while (pending.size() < BATCH_SIZE && reader.nextKeyValue()) {
+                RyaStatementWritable statement = reader.getCurrentValue();
+                pending.add(statement);
+                vertices.add(VertexDictionary.getVertexKey(statement.getRyaStatement().getSubject()));
+                vertices.add(VertexDictionary.getVertexKey(statement.getRyaStatement().getObject()));
+            }
+            if (pending.isEmpty()) {
+                return false;
+            }
+            pendingIds = dictionary.getIds(vertices);
+        }
+        currentStatement = pending.poll();
+        return true;
+    }
+
+    @Override
+    public Vertex<LongWritable, RyaTypeWritable, RyaStatementWritable> getCurrentVertex() throws IOException, InterruptedException {
+        RyaStatement ryaStatement = currentStatement.getRyaStatement();
+        RyaTypeWritable vertexWritable = new RyaTypeWritable();
+        vertexWritable.setRyaType(ryaStatement.getSubject());
+        LongWritable vertexId = new LongWritable(getId(ryaStatement.getSubject()));
+        Vertex<LongWritable, RyaTypeWritable, RyaStatementWritable> vertex = classesConfiguration.createVertex();
+        Edge<LongWritable, RyaStatementWritable> edge = EdgeFactory.create(new LongWritable(getId(ryaStatement.getObject())),
+                currentStatement);
+        List<Edge<LongWritable, RyaStatementWritable>> edges = new ArrayList<Edge<LongWritable, RyaStatementWritable>>();
+        edges.add(edge);
+        vertex.initialize(vertexId, vertexWritable, edges);
+        return vertex;
+    }
+
+    private long getId(RyaType vertex) throws IOException {
+        String vertexKey = VertexDictionary.getVertexKey(vertex);
+        Long id = pendingIds.get(vertexKey);
+        if (id == null) {
+            throw new IOException("The vertex " + vertexKey + " is not in the vertex dictionary. "
+                    + "Rebuild the dictionary after loading new statements.");
+        }
+        return id;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    @Override
+    public float getProgress() throws IOException, InterruptedException {
+        return reader.getProgress();
+    }
+
+}
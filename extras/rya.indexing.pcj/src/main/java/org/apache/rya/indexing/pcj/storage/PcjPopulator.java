@@ -0,0 +1,608 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.pcj.storage;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.rya.api.model.VisibilityBindingSet;
+import org.apache.rya.indexing.pcj.storage.PrecomputedJoinStorage.PCJStorageException;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.MalformedQueryException;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.QueryLanguage;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.query.algebra.BindingSetAssignment;
+import org.eclipse.rdf4j.query.algebra.Extension;
+import org.eclipse.rdf4j.query.algebra.Filter;
+import org.eclipse.rdf4j.query.algebra.Join;
+import org.eclipse.rdf4j.query.algebra.LeftJoin;
+import org.eclipse.rdf4j.query.algebra.Projection;
+import org.eclipse.rdf4j.query.algebra.QueryRoot;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.TupleExpr;
+import org.eclipse.rdf4j.query.algebra.Var;
+import org.eclipse.rdf4j.query.impl.AbstractParserQuery;
+import org.eclipse.rdf4j.query.impl.MapBindingSet;
+import org.eclipse.rdf4j.query.parser.ParsedQuery;
+import org.eclipse.rdf4j.query.parser.ParsedTupleQuery;
+import org.eclipse.rdf4j.query.parser.sparql.SPARQLParser;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.eclipse.rdf4j.repository.RepositoryResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import edu.umd.cs.findbugs.annotations.DefaultAnnotation;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Populates a PCJ with the historic results of its SPARQL query.
+ * <p>
+ * When the query's first statement pattern is a required part of the query, the
+ * statements that match that pattern are streamed from Rya in index order and cut
+ * into partitions. Each partition is evaluated on its own thread by joining the
+ * query's algebra with a {@link BindingSetAssignment} of the values the partition's
+ * statements bind to the pattern's variables, and its results are handed to the {@link ResultWriter} in bounded batches. Only a
+ * fixed number of partitions may be pending at once, so scanning blocks while the
+ * evaluation and storage of earlier partitions catches up.
+ * <p>
+ * Queries that aggregate, sort, slice, or remove duplicates cannot be split without
+ * changing their results, so they are evaluated as a single partition.
+ * <p>
+ * Progress is reported as the number of first pattern statements whose partitions,
+ * and all of the partitions before them, have been written. Passing that number back
+ * in through {@link Builder#setResumeFrom(long)} skips the finished statements. Any
+ * partition that was written out of order before a failure is evaluated again, so
+ * resuming may write some results twice.
+ * <p>
+ * The number of threads, partition size, and batch size may be read from a {@link Configuration}
+ * with {@link Builder#fromConfiguration(Configuration)}. Each thread opens its own connection
+ * to Rya, so the default number of threads is kept small.
+ */
+@DefaultAnnotation(NonNull.class)
+public class PcjPopulator {
+    private static final Logger log = LoggerFactory.getLogger(PcjPopulator.class);
+
+    /**
+     * The number of partitions that are evaluated at the same time.
+     */
+    public static final String CONF_NUM_THREADS = "rya.pcj.populate.threads";
+
+    /**
+     * The number of first pattern statements in each partition.
+     */
+    public static final String CONF_PARTITION_SIZE = "rya.pcj.populate.partitionSize";
+
+    /**
+     * The number of results handed to the {@link ResultWriter} at a time.
+     */
+    public static final String CONF_BATCH_SIZE = "rya.pcj.populate.batchSize";
+
+    /**
+     * The number of threads used when none is configured.
+     */
+    public static final int DEFAULT_NUM_THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Writes a batch of results to the storage of a PCJ. Implementations must be
+     * thread safe because batches are written from several threads at once.
+     */
+    @FunctionalInterface
+    public static interface ResultWriter {
+        public void addResults(Collection<VisibilityBindingSet> results) throws PCJStorageException;
+    }
+
+    /**
+     * Notified each time the contiguous prefix of finished partitions grows.
+     */
+    @FunctionalInterface
+    public static interface ProgressListener {
+        /**
+         * @param completedStatements - The number of first pattern statements whose results have all been written.
+         * @param resultsWritten - The total number of results written so far.
+         */
+        public void progress(long completedStatements, long resultsWritten);
+    }
+
+    private final int numThreads;
+    private final int partitionSize;
+    private final int batchSize;
+    private final int maxPendingPartitions;
+    private final long resumeFrom;
+    private final Optional<ProgressListener> listener;
+
+    /**
+     * Constructs an instance of {@link PcjPopulator} that uses {@link #DEFAULT_NUM_THREADS}
+     * threads and the default partition and batch sizes.
+     */
+    public PcjPopulator() {
+        this(builder());
+    }
+
+    private PcjPopulator(final Builder builder) {
+        this.numThreads = builder.numThreads;
+        this.partitionSize = builder.partitionSize;
+        this.batchSize = builder.batchSize;
+        this.maxPendingPartitions = builder.maxPendingPartitions != null ? builder.maxPendingPartitions : 2 * builder.numThreads;
+        this.resumeFrom = builder.resumeFrom;
+        this.listener = Optional.ofNullable(builder.listener);
+    }
+
+    /**
+     * Evaluates a SPARQL query against Rya and writes all of its results.
+     *
+     * @param ryaConn - A connection to the Rya store that will be queried to find results. Each worker
+     *   thread opens its own connection to the same repository. (not null)
+     * @param sparql - The PCJ's SPARQL query. (not null)
+     * @param writer - Writes the results to the PCJ's storage. (not null)
+     * @return The number of results that were written.
+     * @throws PCJStorageException The query could not be evaluated or its results could not be written.
+     */
+    public long populate(final RepositoryConnection ryaConn, final String sparql, final ResultWriter writer) throws PCJStorageException {
+        requireNonNull(ryaConn);
+        requireNonNull(sparql);
+        requireNonNull(writer);
+
+        final Optional<StatementPattern> partitionPattern;
+        try {
+            partitionPattern = findPartitionPattern(new SPARQLParser().parseQuery(sparql, null));
+        } catch (final MalformedQueryException e) {
+            throw new PCJStorageException("Could not parse the PCJ's SPARQL query.", e);
+        }
+
+        if(!partitionPattern.isPresent()) {
+            log.info("The PCJ query can not be partitioned, so it will be evaluated as a single partition.");
+            final long written = evaluate(ryaConn, sparql, new HashMap<>(), writer);
+            listener.ifPresent(l -> l.progress(0, written));
+            return written;
+        }
+        return populatePartitions(ryaConn, sparql, partitionPattern.get(), writer);
+    }
+
+    private long populatePartitions(final RepositoryConnection ryaConn, final String sparql, final StatementPattern pattern,
+            final ResultWriter writer) throws PCJStorageException {
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads,
+                new ThreadFactoryBuilder().setNameFormat("pcj-populator-%d").setDaemon(true).build());
+        final Semaphore pending = new Semaphore(maxPendingPartitions);
+        final List<Future<?>> futures = new ArrayList<>();
+        final PartitionTracker tracker = new PartitionTracker(resumeFrom);
+        final AtomicLong written = new AtomicLong();
+
+        final Resource subj = (Resource) pattern.getSubjectVar().getValue();
+        final IRI pred = (IRI) pattern.getPredicateVar().getValue();
+        final Value obj = pattern.getObjectVar().getValue();
+
+        try(RepositoryResult<Statement> statements = ryaConn.getStatements(subj, pred, obj, false)) {
+            long position = 0;
+            long partitionStart = resumeFrom;
+            int partitionIndex = 0;
+            List<Map<String, Value>> rows = new ArrayList<>(partitionSize);
+            Map<String, Value> previous = null;
+
+            while(statements.hasNext()) {
+                final Statement statement = statements.next();
+                position++;
+                if(position <= resumeFrom) {
+                    continue;
+                }
+
+                // Statements that only differ by their visibility or context are adjacent and bind the same values.
+                final Map<String, Value> row = bindPattern(pattern, statement);
+                if(row != null && !row.equals(previous)) {
+                    rows.add(row);
+                    previous = row;
+                }
+
+                if(rows.size() == partitionSize) {
+                    futures.add(submit(executor, pending, ryaConn, sparql, rows, writer, tracker, written, partitionIndex++, position - partitionStart));
+                    partitionStart = position;
+                    rows = new ArrayList<>(partitionSize);
+                }
+                throwIfFailed(futures);
+            }
+
+            if(!rows.isEmpty() || position > partitionStart) {
+                futures.add(submit(executor, pending, ryaConn, sparql, rows, writer, tracker, written, partitionIndex++, position - partitionStart));
+            }
+            tracker.setPartitionCount(partitionIndex);
+
+            for(final Future<?> future : futures) {
+                future.get();
+            }
+        } catch (final ExecutionException e) {
+            throw new PCJStorageException("Could not populate the PCJ.", e.getCause());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PCJStorageException("Interrupted while populating the PCJ.", e);
+        } catch (final RepositoryException e) {
+            throw new PCJStorageException("Could not scan the statements that match the PCJ's first statement pattern.", e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return written.get();
+    }
+
+    private Future<?> submit(final ExecutorService executor, final Semaphore pending, final RepositoryConnection ryaConn, final String sparql,
+            final List<Map<String, Value>> rows, final ResultWriter writer, final PartitionTracker tracker, final AtomicLong written,
+            final int partitionIndex, final long statementCount) throws InterruptedException {
+        // Blocks the scan when too many partitions are waiting to be evaluated.
+        pending.acquire();
+        return executor.submit(() -> {
+            try {
+                long partitionResults = 0;
+                if(!rows.isEmpty()) {
+                    try(RepositoryConnection conn = ryaConn.getRepository().getConnection()) {
+                        partitionResults = evaluatePartition(conn, sparql, rows, writer);
+                    }
+                }
+                final long total = written.addAndGet(partitionResults);
+                tracker.completed(partitionIndex, statementCount, total);
+                return null;
+            } finally {
+                pending.release();
+            }
+        });
+    }
+
+    /**
+     * Evaluates the query for the values a partition's statements bind to the first pattern
+     * and writes its results in batches.
+     */
+    private long evaluatePartition(final RepositoryConnection conn, final String sparql, final List<Map<String, Value>> rows,
+            final ResultWriter writer) throws PCJStorageException {
+        final TupleQuery query;
+        try {
+            query = conn.prepareTupleQuery(QueryLanguage.SPARQL, sparql);
+        } catch (RepositoryException | MalformedQueryException e) {
+            throw new PCJStorageException("Could not evaluate the PCJ's SPARQL query.", e);
+        }
+
+        if(query instanceof AbstractParserQuery) {
+            bindRows(((AbstractParserQuery) query).getParsedQuery(), rows);
+            return evaluate(query, writer);
+        }
+
+        // The query's algebra is not available, so each row is bound on its own.
+        long count = 0;
+        for(final Map<String, Value> row : rows) {
+            count += evaluate(conn, sparql, row, writer);
+        }
+        return count;
+    }
+
+    /**
+     * Evaluates a query with a set of initial bindings and writes its results in batches.
+     */
+    private long evaluate(final RepositoryConnection conn, final String sparql, final Map<String, Value> bindings,
+            final ResultWriter writer) throws PCJStorageException {
+        final TupleQuery query;
+        try {
+            query = conn.prepareTupleQuery(QueryLanguage.SPARQL, sparql);
+        } catch (RepositoryException | MalformedQueryException e) {
+            throw new PCJStorageException("Could not evaluate the PCJ's SPARQL query.", e);
+        }
+        bindings.forEach(query::setBinding);
+        return evaluate(query, writer);
+    }
+
+    /**
+     * Evaluates a prepared query and writes its results in batches.
+     */
+    private long evaluate(final TupleQuery query, final ResultWriter writer) throws PCJStorageException {
+        long count = 0;
+        try {
+            try(TupleQueryResult results = query.evaluate()) {
+                final Set<VisibilityBindingSet> batch = new HashSet<>(batchSize);
+                while(results.hasNext()) {
+                    batch.add( new VisibilityBindingSet(results.next()) );
+                    if(batch.size() == batchSize) {
+                        writer.addResults(batch);
+                        count += batch.size();
+                        batch.clear();
+                    }
+                }
+                if(!batch.isEmpty()) {
+                    writer.addResults(batch);
+                    count += batch.size();
+                }
+            }
+        } catch (final QueryEvaluationException e) {
+            throw new PCJStorageException("Could not evaluate the PCJ's SPARQL query.", e);
+        }
+        return count;
+    }
+
+    private static void throwIfFailed(final List<Future<?>> futures) throws ExecutionException, InterruptedException {
+        for(final Future<?> future : futures) {
+            if(future.isDone()) {
+                future.get();
+            }
+        }
+        futures.removeIf(Future::isDone);
+    }
+
+    /**
+     * Binds the unbound variables of a statement pattern to the values of a matching statement.
+     *
+     * @return The variable bindings, or null if the statement binds a repeated variable to different values.
+     */
+    private static Map<String, Value> bindPattern(final StatementPattern pattern, final Statement statement) {
+        final Map<String, Value> row = new LinkedHashMap<>();
+        if(!bind(row, pattern.getSubjectVar(), statement.getSubject()) ||
+                !bind(row, pattern.getPredicateVar(), statement.getPredicate()) ||
+                !bind(row, pattern.getObjectVar(), statement.getObject())) {
+            return null;
+        }
+        return row;
+    }
+
+    private static boolean bind(final Map<String, Value> row, final Var var, final Value value) {
+        // Anonymous variables are renamed each time the query is parsed, so they can not be bound.
+        if(var.hasValue() || var.isAnonymous()) {
+            return true;
+        }
+        final Value existing = row.putIfAbsent(var.getName(), value);
+        return existing == null || existing.equals(value);
+    }
+
+    /**
+     * Restricts a query to a partition by joining the argument of its projection with a
+     * {@link BindingSetAssignment} that holds one binding set for each row.
+     *
+     * @param parsed - The parsed query. Its root must be a projection, which is true of every
+     *   query that {@link #findPartitionPattern(ParsedQuery)} finds a pattern for. (not null)
+     * @param rows - The values the partition's statements bind to the first pattern's variables. (not null)
+     */
+    static void bindRows(final ParsedQuery parsed, final List<Map<String, Value>> rows) {
+        TupleExpr node = parsed.getTupleExpr();
+        if(node instanceof QueryRoot) {
+            node = ((QueryRoot) node).getArg();
+        }
+        final Projection projection = (Projection) node;
+
+        final List<BindingSet> bindingSets = new ArrayList<>(rows.size());
+        for(final Map<String, Value> row : rows) {
+            final MapBindingSet bindingSet = new MapBindingSet();
+            row.forEach(bindingSet::addBinding);
+            bindingSets.add(bindingSet);
+        }
+
+        final BindingSetAssignment assignment = new BindingSetAssignment();
+        assignment.setBindingNames(new HashSet<>(rows.get(0).keySet()));
+        assignment.setBindingSets(bindingSets);
+        projection.setArg(new Join(assignment, projection.getArg()));
+    }
+
+    /**
+     * Finds the first statement pattern of a query if every result of the query must
+     * match it. The pattern may be nested within filters, extensions, joins, and the
+     * required side of optionals.
+     * <p>
+     * Every unbound variable of the pattern must be named. The values of an anonymous
+     * variable can not be bound, and skipping them could put equal rows into different
+     * partitions, which would evaluate them twice.
+     */
+    static Optional<StatementPattern> findPartitionPattern(final ParsedQuery parsed) {
+        if(!(parsed instanceof ParsedTupleQuery)) {
+            return Optional.empty();
+        }
+
+        TupleExpr node = parsed.getTupleExpr();
+        if(node instanceof QueryRoot) {
+            node = ((QueryRoot) node).getArg();
+        }
+        if(!(node instanceof Projection)) {
+            return Optional.empty();
+        }
+        node = ((Projection) node).getArg();
+
+        while(true) {
+            if(node instanceof Extension) {
+                node = ((Extension) node).getArg();
+            } else if(node instanceof Filter) {
+                node = ((Filter) node).getArg();
+            } else if(node instanceof LeftJoin) {
+                node = ((LeftJoin) node).getLeftArg();
+            } else if(node instanceof Join) {
+                node = ((Join) node).getLeftArg();
+            } else if(node instanceof StatementPattern) {
+                final StatementPattern pattern = (StatementPattern) node;
+                final boolean partitionable = pattern.getContextVar() == null &&
+                        !(pattern.getSubjectVar().hasValue() && !(pattern.getSubjectVar().getValue() instanceof Resource)) &&
+                        !(pattern.getPredicateVar().hasValue() && !(pattern.getPredicateVar().getValue() instanceof IRI)) &&
+                        !(pattern.getSubjectVar().hasValue() && pattern.getPredicateVar().hasValue() && pattern.getObjectVar().hasValue()) &&
+                        !isUnboundAnonymous(pattern.getSubjectVar()) &&
+                        !isUnboundAnonymous(pattern.getPredicateVar()) &&
+                        !isUnboundAnonymous(pattern.getObjectVar());
+                return partitionable ? Optional.of(pattern) : Optional.empty();
+            } else {
+                return Optional.empty();
+            }
+        }
+    }
+
+    private static boolean isUnboundAnonymous(final Var var) {
+        return !var.hasValue() && var.isAnonymous();
+    }
+
+    /**
+     * Tracks the partitions that have finished so that progress is only reported for
+     * the contiguous prefix of finished partitions.
+     */
+    private class PartitionTracker {
+        private final TreeMap<Integer, Long> finished = new TreeMap<>();
+        private int nextPartition = 0;
+        private long completedStatements;
+        private int partitionCount = -1;
+
+        public PartitionTracker(final long startStatement) {
+            completedStatements = startStatement;
+        }
+
+        public synchronized void setPartitionCount(final int partitionCount) {
+            this.partitionCount = partitionCount;
+        }
+
+        public synchronized void completed(final int partition, final long statementCount, final long resultsWritten) {
+            finished.put(partition, statementCount);
+            boolean advanced = false;
+            while(!finished.isEmpty() && finished.firstKey() == nextPartition) {
+                final Entry<Integer, Long> entry = finished.pollFirstEntry();
+                completedStatements += entry.getValue();
+                nextPartition++;
+                advanced = true;
+            }
+            if(advanced) {
+                log.info("PCJ population has finished {} partitions covering {} statements and written {} results.",
+                        nextPartition, completedStatements, resultsWritten);
+                listener.ifPresent(l -> l.progress(completedStatements, resultsWritten));
+            }
+        }
+    }
+
+    /**
+     * @return A {@link Builder} for a {@link PcjPopulator}.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builds instances of {@link PcjPopulator}.
+     */
+    public static class Builder {
+        private int numThreads = DEFAULT_NUM_THREADS;
+        private int partitionSize = 1000;
+        private int batchSize = 1000;
+        private Integer maxPendingPartitions = null;
+        private long resumeFrom = 0;
+        private ProgressListener listener = null;
+
+        /**
+         * Reads the number of threads, partition size, and batch size from a configuration.
+         * The values that are not set keep their current value.
+         *
+         * @param conf - The configuration to read. (not null)
+         * @return This builder so that method invocations may be chained.
+         */
+        public Builder fromConfiguration(final Configuration conf) {
+            requireNonNull(conf);
+            numThreads = conf.getInt(CONF_NUM_THREADS, numThreads);
+            partitionSize = conf.getInt(CONF_PARTITION_SIZE, partitionSize);
+            batchSize = conf.getInt(CONF_BATCH_SIZE, batchSize);
+            return this;
+        }
+
+        /**
+         * @param numThreads - The number of partitions that are evaluated at the same time.
+         * @return This builder so that method invocations may be chained.
+         */
+        public Builder setNumThreads(final int numThreads) {
+            this.numThreads = numThreads;
+            return this;
+        }
+
+        /**
+         * @param partitionSize - The number of first pattern statements in each partition.
+         * @return This builder so that method invocations may be chained.
+         */
+        public Builder setPartitionSize(final int partitionSize) {
+            this.partitionSize = partitionSize;
+            return this;
+        }
+
+        /**
+         * @param batchSize - The number of results handed to the {@link ResultWriter} at a time.
+         * @return This builder so that method invocations may be chained.
+         */
+        public Builder setBatchSize(final int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * @param maxPendingPartitions - The number of partitions that may be waiting to be evaluated
+         *   before the scan of the first statement pattern blocks. Twice the number of threads if not set.
+         * @return This builder so that method invocations may be chained.
+         */
+        public Builder setMaxPendingPartitions(final int maxPendingPartitions) {
+            this.maxPendingPartitions = maxPendingPartitions;
+            return this;
+        }
+
+        /**
+         * @param completedStatements - The number of first pattern statements that were reported as
+         *   completed by a previous population of the same PCJ.
+         * @return This builder so that method invocations may be chained.
+         */
+        public Builder setResumeFrom(final long completedStatements) {
+            this.resumeFrom = completedStatements;
+            return this;
+        }
+
+        /**
+         * @param listener - Notified as the population makes progress.
+         * @return This builder so that method invocations may be chained.
+         */
+        public Builder setProgressListener(final ProgressListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * @return An instance of {@link PcjPopulator} built using this builder's values.
+         */
+        public PcjPopulator build() {
+            Preconditions.checkArgument(numThreads > 0, "numThreads must be positive.");
+            Preconditions.checkArgument(partitionSize > 0, "partitionSize must be positive.");
+            Preconditions.checkArgument(batchSize > 0, "batchSize must be positive.");
+            Preconditions.checkArgument(maxPendingPartitions == null || maxPendingPartitions > 0, "maxPendingPartitions must be positive.");
+            Preconditions.checkArgument(resumeFrom >= 0, "resumeFrom may not be negative.");
+            return new PcjPopulator(this);
+        }
+    }
+}
@@ -90,6 +90,20 @@ public interface PeriodicQueryResultStorage {
      */
     public void deletePeriodicQueryResults(String queryId, long binID) throws PeriodicQueryStorageException;
 
+    /**
+     * Deletes the periodic query results for all of the indicated bins from the storage layer.
+     * Implementations may coalesce the bins so that they are removed with a single delete
+     * operation.  The default implementation deletes each bin individually.
+     * @param queryId - id indicating the storage layer that results will be deleted from
+     * @param binIds - bin ids indicating the periodic ids of results to be deleted
+     * @throws PeriodicQueryStorageException
+     */
+    public default void deletePeriodicQueryResults(final String queryId, final Collection<Long> binIds) throws PeriodicQueryStorageException {
+        for(final Long binId: binIds) {
+            deletePeriodicQueryResults(queryId, binId);
+        }
+    }
+
     /**
      * Deletes all results for the storage layer indicated by the given query id
      * @param queryID - id indicating the storage layer whose results will be deleted
@@ -23,6 +23,7 @@ import static java.util.Objects.requireNonNull;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
@@ -33,8 +34,11 @@ import org.apache.accumulo.core.client.AccumuloSecurityException;
 import org.apache.accumulo.core.client.BatchDeleter;
 import org.apache.accumulo.core.client.BatchWriterConfig;
 import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.admin.TableOperations;
 import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.hadoop.io.Text;
 import org.apache.rya.api.model.VisibilityBindingSet;
@@ -71,6 +75,9 @@ public class AccumuloPeriodicQueryResultStorage implements PeriodicQueryResultSt
     private final AccumuloPcjSerializer converter = new AccumuloPcjSerializer();
     private static final PcjTables pcjTables = new PcjTables();
     private static final PeriodicQueryTableNameFactory tableNameFactory = new PeriodicQueryTableNameFactory();
+    private static final int DELETE_QUERY_THREADS = 4;
+    private static final int AGE_OFF_PRIORITY = 15;
+    private final Optional<Long> maxBinAge;
 
     /**
      * Creates a AccumuloPeriodicQueryResultStorage Object.
@@ -78,8 +85,22 @@ public class AccumuloPeriodicQueryResultStorage implements PeriodicQueryResultSt
      * @param ryaInstance - Rya Instance name for connecting to Rya
      */
     public AccumuloPeriodicQueryResultStorage(final Connector accumuloConn, final String ryaInstance) {
+        this(accumuloConn, ryaInstance, Optional.empty());
+    }
+
+    /**
+     * Creates a AccumuloPeriodicQueryResultStorage Object that attaches a {@link PeriodicBinAgeOffFilter}
+     * to every periodic table it creates.
+     * @param accumuloConn - Accumulo Connector for connecting to an Accumulo instance
+     * @param ryaInstance - Rya Instance name for connecting to Rya
+     * @param maxBinAge - if present, the maximum age in milliseconds of the bins retained by the tables this
+     *   storage creates. It should exceed the longest window of the periodic queries plus their period.
+     */
+    public AccumuloPeriodicQueryResultStorage(final Connector accumuloConn, final String ryaInstance, final Optional<Long> maxBinAge) {
         this.accumuloConn = Preconditions.checkNotNull(accumuloConn);
         this.ryaInstance = Preconditions.checkNotNull(ryaInstance);
+        this.maxBinAge = Preconditions.checkNotNull(maxBinAge);
+        maxBinAge.ifPresent(age -> Preconditions.checkArgument(age > 0, "maxBinAge must be positive."));
         final String user = accumuloConn.whoami();
         try {
             this.auths = accumuloConn.securityOperations().getUserAuthorizations(user);
@@ -125,6 +146,9 @@ public class AccumuloPeriodicQueryResultStorage implements PeriodicQueryResultSt
         } catch (final Exception e) {
             throw new PeriodicQueryStorageException(e.getMessage());
         }
+        if(maxBinAge.isPresent()) {
+            setBinAgeOff(queryId, maxBinAge.get());
+        }
     }
 
     @Override
@@ -150,12 +174,33 @@ public class AccumuloPeriodicQueryResultStorage implements PeriodicQueryResultSt
 
     @Override
     public void deletePeriodicQueryResults(final String queryId, final long binId) throws PeriodicQueryStorageException {
+        deletePeriodicQueryResults(queryId, Collections.singleton(binId));
+    }
+
+    /**
+     * Deletes the results for all of the indicated bins using a single {@link BatchDeleter}.
+     * Each bin is converted into a row prefix {@link Range}. Those ranges never overlap, so they
+     * are handed to the deleter as they are, and the table only sees one delete operation per call
+     * regardless of how many bins have expired.
+     */
+    @Override
+    public void deletePeriodicQueryResults(final String queryId, final Collection<Long> binIds) throws PeriodicQueryStorageException {
+        Preconditions.checkNotNull(queryId);
+        Preconditions.checkNotNull(binIds);
+        if(binIds.isEmpty()) {
+            return;
+        }
+
         final String tableName = tableNameFactory.makeTableName(ryaInstance, queryId);
         BatchDeleter deleter = null;
         try {
-            final Text prefix = getRowPrefix(binId);
-            deleter = accumuloConn.createBatchDeleter(tableName, auths, 1, new BatchWriterConfig());
-            deleter.setRanges(Collections.singleton(Range.prefix(prefix)));
+            final List<Range> ranges = new ArrayList<>(binIds.size());
+            for(final Long binId: binIds) {
+                ranges.add(Range.prefix(getRowPrefix(binId)));
+            }
+            final int numThreads = Math.min(binIds.size(), DELETE_QUERY_THREADS);
+            deleter = accumuloConn.createBatchDeleter(tableName, auths, numThreads, new BatchWriterConfig());
+            deleter.setRanges(ranges);
             deleter.delete();
         } catch (final Exception e) {
             throw new PeriodicQueryStorageException(e.getMessage());
@@ -170,6 +215,47 @@ public class AccumuloPeriodicQueryResultStorage implements PeriodicQueryResultSt
         }
     }
 
+    /**
+     * Attaches a {@link PeriodicBinAgeOffFilter} to the table holding the results of the indicated
+     * periodic query.  Once attached, any bin whose id is more than maxBinAge milliseconds older than
+     * the current time is dropped at scan and compaction time, even if the pruner never processes it.
+     * The filter class must be available on the tablet servers' classpath.
+     * @param queryId - id of the periodic query whose table will be configured
+     * @param maxBinAge - maximum age in milliseconds of the bins that are retained
+     * @throws PeriodicQueryStorageException The iterator could not be attached to the table.
+     */
+    public void setBinAgeOff(final String queryId, final long maxBinAge) throws PeriodicQueryStorageException {
+        Preconditions.checkNotNull(queryId);
+        Preconditions.checkArgument(maxBinAge > 0, "maxBinAge must be positive.");
+        final String tableName = tableNameFactory.makeTableName(ryaInstance, queryId);
+        final IteratorSetting setting = new IteratorSetting(AGE_OFF_PRIORITY, PeriodicBinAgeOffFilter.class.getSimpleName(),
+                PeriodicBinAgeOffFilter.class);
+        PeriodicBinAgeOffFilter.setMaxBinAge(setting, maxBinAge);
+        try {
+            final TableOperations tableOps = accumuloConn.tableOperations();
+            if(tableOps.listIterators(tableName).containsKey(setting.getName())) {
+                tableOps.removeIterator(tableName, setting.getName(), EnumSet.allOf(IteratorScope.class));
+            }
+            tableOps.attachIterator(tableName, setting);
+        } catch (final Exception e) {
+            throw new PeriodicQueryStorageException(String.format("Unable to configure bin age off for table '%s'.", tableName), e);
+        }
+    }
+
+    /**
+     * Attaches this storage's {@link PeriodicBinAgeOffFilter} to every periodic table of the Rya instance,
+     * including the tables that were created before a maximum bin age was configured. Does nothing if this
+     * storage was not created with a maximum bin age.
+     * @throws PeriodicQueryStorageException The iterator could not be attached to one of the tables.
+     */
+    public void applyBinAgeOff() throws PeriodicQueryStorageException {
+        if(maxBinAge.isPresent()) {
+            for(final String tableName : listPeriodicTables()) {
+                setBinAgeOff(tableNameFactory.getPeriodicQueryId(tableName), maxBinAge.get());
+            }
+        }
+    }
+
     public void deletePeriodicQueryResults(final String queryId) throws PeriodicQueryStorageException {
         try {
             pcjTables.purgePcjTable(accumuloConn, tableNameFactory.makeTableName(ryaInstance, queryId));
@@ -23,20 +23,21 @@ import static java.util.Objects.requireNonNull;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
 import org.apache.accumulo.core.client.BatchWriter;
 import org.apache.accumulo.core.client.BatchWriterConfig;
-import org.apache.accumulo.core.client.ConditionalWriter;
-import org.apache.accumulo.core.client.ConditionalWriterConfig;
 import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.client.MutationsRejectedException;
 import org.apache.accumulo.core.client.Scanner;
 import org.apache.accumulo.core.client.TableExistsException;
@@ -45,28 +46,24 @@ import org.apache.accumulo.core.client.admin.TableOperations;
 import org.apache.accumulo.core.client.lexicoder.ListLexicoder;
 import org.apache.accumulo.core.client.lexicoder.LongLexicoder;
 import org.apache.accumulo.core.client.lexicoder.StringLexicoder;
-import org.apache.accumulo.core.client.mock.MockInstance;
-import org.apache.accumulo.core.data.Condition;
-import org.apache.accumulo.core.data.ConditionalMutation;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.LongCombiner;
+import org.apache.accumulo.core.iterators.SummingCombiner;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.accumulo.core.security.ColumnVisibility;
 import org.apache.hadoop.io.Text;
 import org.apache.log4j.Logger;
 import org.apache.rya.api.model.VisibilityBindingSet;
+import org.apache.rya.api.persist.query.QueryPlanVersion;
 import org.apache.rya.api.utils.CloseableIterator;
 import org.apache.rya.indexing.pcj.storage.PcjMetadata;
+import org.apache.rya.indexing.pcj.storage.PcjPopulator;
 import org.apache.rya.indexing.pcj.storage.PrecomputedJoinStorage.PCJStorageException;
 import org.eclipse.rdf4j.query.BindingSet;
-import org.eclipse.rdf4j.query.MalformedQueryException;
-import org.eclipse.rdf4j.query.QueryEvaluationException;
-import org.eclipse.rdf4j.query.QueryLanguage;
-import org.eclipse.rdf4j.query.TupleQuery;
-import org.eclipse.rdf4j.query.TupleQueryResult;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
-import org.eclipse.rdf4j.repository.RepositoryException;
 
 import com.google.common.base.Optional;
 
@@ -80,6 +77,24 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 public class PcjTables {
     private static final Logger log = Logger.getLogger(PcjTables.class);
 
+    private final PcjPopulator populator;
+
+    /**
+     * Constructs an instance of {@link PcjTables} that populates PCJs with a default {@link PcjPopulator}.
+     */
+    public PcjTables() {
+        this(new PcjPopulator());
+    }
+
+    /**
+     * Constructs an instance of {@link PcjTables}.
+     *
+     * @param populator - Populates PCJ tables with the historic results of their queries. (not null)
+     */
+    public PcjTables(final PcjPopulator populator) {
+        this.populator = checkNotNull(populator);
+    }
+
     /**
      * The Row ID of all {@link PcjMetadata} entries that are stored in Accumulo.
      */
@@ -96,15 +111,39 @@ public class PcjTables {
     private static final Text PCJ_METADATA_SPARQL_QUERY = new Text("sparql");
 
     /**
-     * The Column Qualifier for the cardinality of a PCJ.
+     * The Column Qualifier for the base cardinality of a PCJ. It is written as an
+     * absolute value when the PCJ is created or purged.
      */
     private static final Text PCJ_METADATA_CARDINALITY = new Text("cardinality");
 
+    /**
+     * The Column Qualifier for the changes in cardinality of a PCJ since its base cardinality
+     * was written. The PCJ's cardinality is the base cardinality plus the sum of these deltas.
+     */
+    private static final Text PCJ_METADATA_CARDINALITY_DELTA = new Text("cardinalityDelta");
+
     /**
      * The Column Qualifier for the various variable orders a PCJ's results are written to.
      */
     private static final Text PCJ_METADATA_VARIABLE_ORDERS = new Text("variableOrders");
 
+    /**
+     * The name of the {@link SummingCombiner} that aggregates the cardinality deltas of a PCJ.
+     */
+    private static final String CARDINALITY_COMBINER_NAME = "pcjCardinalityCombiner";
+
+    /**
+     * The priority of the cardinality combiner. It must run before the table's versioning iterator.
+     * The combiner only covers the delta column, which has never held absolute values, so every
+     * version it sums is a delta.
+     */
+    private static final int CARDINALITY_COMBINER_PRIORITY = 10;
+
+    /**
+     * The names of the PCJ tables that this process has already verified have a cardinality combiner.
+     */
+    private static final Set<String> TABLES_WITH_COMBINER = ConcurrentHashMap.newKeySet();
+
     // Lexicoders used to read/write PcjMetadata to/from Accumulo.
     private static final LongLexicoder longLexicoder = new LongLexicoder();
     private static final StringLexicoder stringLexicoder = new StringLexicoder();
@@ -135,9 +174,13 @@ public class PcjTables {
      * <table border="1" style="width:100%">
      *   <tr> <th>Row ID</td>  <th>Column</td>  <th>Value</td> </tr>
      *   <tr> <td>pcjMetadata</td> <td>metadata:sparql</td> <td> ... UTF-8 bytes encoding the query string ... </td> </tr>
-     *   <tr> <td>pcjMetadata</td> <td>metadata:cardinality</td> <td> The query's cardinality </td> </tr>
+     *   <tr> <td>pcjMetadata</td> <td>metadata:cardinality</td> <td> The query's base cardinality </td> </tr>
+     *   <tr> <td>pcjMetadata</td> <td>metadata:cardinalityDelta</td> <td> Changes in cardinality since the base was written </td> </tr>
      *   <tr> <td>pcjMetadata</td> <td>metadata:variableOrders</td> <td> The variable orders the results are written to </td> </tr>
      * </table>
+     * </p>
+     * The cardinalityDelta column is aggregated by a {@link SummingCombiner}, so new results
+     * only need to write the change in cardinality rather than read and rewrite it.
      *
      * @param accumuloConn - A connection to the Accumulo that hosts the PCJ table. (not null)
      * @param pcjTableName - The name of the table that will be created. (not null)
@@ -162,6 +205,8 @@ public class PcjTables {
             try {
                 // Create the new table in Accumulo.
                 tableOps.create(pcjTableName);
+                tableOps.attachIterator(pcjTableName, makeCardinalityCombinerSetting());
+                TABLES_WITH_COMBINER.add(pcjTableName);
 
                 // Write the PCJ Metadata to the newly created table.
                 final PcjMetadata pcjMetadata = new PcjMetadata(sparql, 0L, varOrders);
@@ -183,6 +228,8 @@ public class PcjTables {
                     }
                 }
             }
+            // Cached query plans may now be answered by the new PCJ.
+            QueryPlanVersion.increment();
         }
     }
 
@@ -244,6 +291,7 @@ public class PcjTables {
         try {
             // Create an Accumulo scanner that iterates through the metadata entries.
             scanner = accumuloConn.createScanner(pcjTableName, new Authorizations());
+            scanner.setRange(new Range(PCJ_METADATA_ROW_ID));
             final Iterator<Entry<Key, Value>> entries = scanner.iterator();
 
             // No metadata has been stored in the table yet.
@@ -254,6 +302,7 @@ public class PcjTables {
             // Fetch the metadata from the entries. Assuming they all have the same cardinality and sparql query.
             String sparql = null;
             Long cardinality = null;
+            long cardinalityDelta = 0;
             final Set<VariableOrder> varOrders = new HashSet<>();
 
             while(entries.hasNext()) {
@@ -265,6 +314,8 @@ public class PcjTables {
                     sparql = stringLexicoder.decode(value);
                 } else if(columnQualifier.equals(PCJ_METADATA_CARDINALITY)) {
                     cardinality = longLexicoder.decode(value);
+                } else if(columnQualifier.equals(PCJ_METADATA_CARDINALITY_DELTA)) {
+                    cardinalityDelta = longLexicoder.decode(value);
                 } else if(columnQualifier.equals(PCJ_METADATA_VARIABLE_ORDERS)) {
                     for(final String varOrderStr : listLexicoder.decode(value)) {
                         varOrders.add( new VariableOrder(varOrderStr) );
@@ -272,6 +323,9 @@ public class PcjTables {
                 }
             }
 
+            if(cardinality != null) {
+                cardinality += cardinalityDelta;
+            }
             return new PcjMetadata(sparql, cardinality, varOrders);
 
         } catch (final TableNotFoundException e) {
@@ -303,15 +357,13 @@ public class PcjTables {
         checkNotNull(pcjTableName);
         checkNotNull(results);
 
-        // Write a result to each of the variable orders that are in the table.
-        writeResults(accumuloConn, pcjTableName, results);
+        // Tables created before the cardinality combiner existed need it attached
+        // before any cardinality deltas may be written to them.
+        ensureCardinalityCombiner(accumuloConn, pcjTableName);
 
-        // Increment the cardinality of the query by the number of new results.
-        if(accumuloConn.getInstance().getClass().equals(MockInstance.class)) {
-        	updateMockCardinality(accumuloConn, pcjTableName, results.size());
-        } else {
-        	updateCardinality(accumuloConn, pcjTableName, results.size());
-        }
+        // Write a result to each of the variable orders that are in the table
+        // and increment the cardinality of the query by the number of new results.
+        writeResults(accumuloConn, pcjTableName, results);
     }
 
     /**
@@ -346,7 +398,8 @@ public class PcjTables {
     }
 
     /**
-     * Add a collection of results to a specific PCJ table.
+     * Add a collection of results to a specific PCJ table along with a mutation
+     * that increments the table's cardinality by the number of results.
      *
      * @param accumuloConn - A connection to the Accumulo that hosts the PCJ table. (not null)
      * @param pcjTableName - The name of the PCJ table that will receive the results. (not null)
@@ -373,6 +426,9 @@ public class PcjTables {
                 final Set<Mutation> addResultMutations = makeWriteResultMutations(metadata.getVarOrders(), result);
                 writer.addMutations( addResultMutations );
             }
+            if(!results.isEmpty()) {
+                writer.addMutation( makeCardinalityDeltaMutation(results.size()) );
+            }
         } catch (TableNotFoundException | MutationsRejectedException e) {
             throw new PCJStorageException("Could not add results to the PCJ table named: " + pcjTableName, e);
         } finally {
@@ -424,126 +480,65 @@ public class PcjTables {
     }
 
     /**
-     * Update the cardinality of a PCJ by a {@code delta}.
+     * Creates a {@link Mutation} that changes the cardinality of a PCJ by a {@code delta}.
+     * The PCJ table's cardinality combiner adds the delta to the deltas that have
+     * already been written, so the current value never has to be read.
      *
-     * @param accumuloConn - A connection to the Accumulo that hosts the PCJ table. (not null)
-     * @param pcjTableName - The name of the PCJ table that will have its cardinality updated. (not null)
      * @param delta - How much the cardinality will change.
-     * @throws PCJStorageException The cardinality could not be updated.
+     * @return The mutation that will update the cardinality.
      */
-    private void updateCardinality(final Connector accumuloConn, final String pcjTableName, final long delta) throws PCJStorageException {
-        checkNotNull(accumuloConn);
-        checkNotNull(pcjTableName);
+    private static Mutation makeCardinalityDeltaMutation(final long delta) {
+        final Mutation mutation = new Mutation(PCJ_METADATA_ROW_ID);
+        mutation.put(PCJ_METADATA_FAMILY, PCJ_METADATA_CARDINALITY_DELTA, new Value( longLexicoder.encode(delta) ));
+        return mutation;
+    }
 
-        ConditionalWriter conditionalWriter = null;
-        try {
-            conditionalWriter = accumuloConn.createConditionalWriter(pcjTableName, new ConditionalWriterConfig());
-
-            boolean updated = false;
-            while (!updated) {
-                // Write the conditional update request to Accumulo.
-                final long cardinality = getPcjMetadata(accumuloConn,pcjTableName).getCardinality();
-                final ConditionalMutation mutation = makeUpdateCardinalityMutation(cardinality, delta);
-                final ConditionalWriter.Result result = conditionalWriter.write(mutation);
-
-                // Interpret the result.
-                switch (result.getStatus()) {
-                case ACCEPTED:
-                    updated = true;
-                    break;
-                case REJECTED:
-                    break;
-                case UNKNOWN:
-                    // We do not know if the mutation succeeded. At best, we
-                    // can hope the metadata hasn't been updated
-                    // since we originally fetched it and try again.
-                    // Otherwise, continue forwards as if it worked. It's
-                    // okay if this number is slightly off.
-                    final long newCardinality = getPcjMetadata(accumuloConn,pcjTableName).getCardinality();
-                    if (newCardinality != cardinality) {
-                        updated = true;
-                    }
-                    break;
-                case VIOLATED:
-                    throw new PCJStorageException("The cardinality could not be updated because the commit violated a table constraint.");
-                case INVISIBLE_VISIBILITY:
-                    throw new PCJStorageException("The condition contains a visibility the updater can not satisfy.");
-                }
-            }
-        } catch (AccumuloException | AccumuloSecurityException | TableNotFoundException e) {
-            throw new PCJStorageException("Could not update the cardinality value of the PCJ Table named: " + pcjTableName, e);
-        } finally {
-            if (conditionalWriter != null) {
-                conditionalWriter.close();
-            }
-        }
+    /**
+     * @return The configuration of the {@link SummingCombiner} that aggregates the
+     *   cardinality delta column of a PCJ table.
+     */
+    private static IteratorSetting makeCardinalityCombinerSetting() {
+        final IteratorSetting setting = new IteratorSetting(CARDINALITY_COMBINER_PRIORITY, CARDINALITY_COMBINER_NAME, SummingCombiner.class);
+        LongCombiner.setEncodingType(setting, LongLexicoder.class);
+        SummingCombiner.setColumns(setting, Collections.singletonList(new IteratorSetting.Column(PCJ_METADATA_FAMILY, PCJ_METADATA_CARDINALITY_DELTA)));
+        return setting;
     }
 
     /**
-     * Update the cardinality of a PCJ by a {@code delta}.
-     *
-     * This method updates the PCJ table cardinality using a BatchWriter in the event that
-     * the Accumulo Connector is for a MockInstance.  In the event that the cardinality is
-     * being updated asynchronously, there are no guarantees that the resulting cardinality
-     * will be correct.
+     * Makes sure the cardinality combiner is attached to a PCJ table. A table
+     * only has to be checked once per process.
+     * <p>
+     * Tables created before the combiner existed keep their absolute cardinality in
+     * the base column, where the versioning iterator still returns only its latest
+     * version. No existing values have to be migrated.
      *
-     * @param accumuloConn - A connection to a Mock Accumulo Instance that hosts the PCJ table. (not null)
-     * @param pcjTableName - The name of the PCJ table that will have its cardinality updated. (not null)
-     * @param delta - How much the cardinality will change.
-     * @throws PCJStorageException The cardinality could not be updated.
+     * @param accumuloConn - A connection to the Accumulo that hosts the PCJ table. (not null)
+     * @param pcjTableName - The name of the PCJ table. (not null)
+     * @throws PCJStorageException The combiner could not be attached to the table.
      */
-    private void updateMockCardinality(final Connector accumuloConn, final String pcjTableName, final long delta) throws PCJStorageException {
-        checkNotNull(accumuloConn);
-        checkNotNull(pcjTableName);
+    private static void ensureCardinalityCombiner(final Connector accumuloConn, final String pcjTableName) throws PCJStorageException {
+        if(TABLES_WITH_COMBINER.contains(pcjTableName)) {
+            return;
+        }
 
-        BatchWriter batchWriter = null;
         try {
-            batchWriter = accumuloConn.createBatchWriter(pcjTableName, new BatchWriterConfig());
-            final long cardinality = getPcjMetadata(accumuloConn, pcjTableName).getCardinality();
-            final Mutation mutation = new Mutation(PCJ_METADATA_ROW_ID);
-            final Value newCardinality = new Value(longLexicoder.encode(cardinality + delta));
-            mutation.put(PCJ_METADATA_FAMILY, PCJ_METADATA_CARDINALITY, newCardinality);
-            batchWriter.addMutation(mutation);
-        } catch (TableNotFoundException | MutationsRejectedException e) {
-            throw new PCJStorageException("Could not update the cardinality value of the PCJ Table named: " + pcjTableName, e);
-        } finally {
-            if (batchWriter != null) {
+            final TableOperations tableOps = accumuloConn.tableOperations();
+            if(!tableOps.listIterators(pcjTableName).containsKey(CARDINALITY_COMBINER_NAME)) {
                 try {
-                    batchWriter.close();
-                } catch (final MutationsRejectedException e) {
-                    throw new PCJStorageException("Could not update the cardinality value of the PCJ Table named: " + pcjTableName, e);
+                    tableOps.attachIterator(pcjTableName, makeCardinalityCombinerSetting());
+                } catch (final AccumuloException e) {
+                    // Attaching fails with a name conflict if another process attached the combiner first.
+                    if(!tableOps.listIterators(pcjTableName).containsKey(CARDINALITY_COMBINER_NAME)) {
+                        throw e;
+                    }
                 }
             }
+            TABLES_WITH_COMBINER.add(pcjTableName);
+        } catch (AccumuloException | AccumuloSecurityException | TableNotFoundException e) {
+            throw new PCJStorageException("Could not attach the cardinality combiner to the PCJ Table named: " + pcjTableName, e);
         }
     }
 
-    /**
-     * Creates a {@link ConditionalMutation} that only updates the cardinality
-     * of the PCJ table if the old value has not changed by the time this mutation
-     * is committed to Accumulo.
-     *
-     * @param current - The current cardinality value.
-     * @param delta - How much the cardinality will change.
-     * @return The mutation that will perform the conditional update.
-     */
-    private static ConditionalMutation makeUpdateCardinalityMutation(final long current, final long delta) {
-        // Try to update the cardinality by the delta.
-        final ConditionalMutation mutation = new ConditionalMutation(PCJ_METADATA_ROW_ID);
-        final Condition lastCardinalityStillCurrent = new Condition(
-                PCJ_METADATA_FAMILY,
-                PCJ_METADATA_CARDINALITY);
-
-        // Require the old cardinality to be the value we just read.
-        final byte[] currentCardinalityBytes = longLexicoder.encode( current );
-        lastCardinalityStillCurrent.setValue( currentCardinalityBytes );
-        mutation.addCondition(lastCardinalityStillCurrent);
-
-        // If that is the case, then update to the new value.
-        final Value newCardinality = new Value( longLexicoder.encode(current + delta) );
-        mutation.put(PCJ_METADATA_FAMILY, PCJ_METADATA_CARDINALITY, newCardinality);
-        return mutation;
-    }
-
     /**
      * Scan Rya for results that solve the PCJ's query and store them in the PCJ table.
      * <p>
@@ -564,31 +559,14 @@ public class PcjTables {
         checkNotNull(pcjTableName);
         checkNotNull(ryaConn);
 
-        try {
-            // Fetch the query that needs to be executed from the PCJ table.
-            final PcjMetadata pcjMetadata = getPcjMetadata(accumuloConn, pcjTableName);
-            final String sparql = pcjMetadata.getSparql();
-
-            // Query Rya for results to the SPARQL query.
-            final TupleQuery query = ryaConn.prepareTupleQuery(QueryLanguage.SPARQL, sparql);
-            final TupleQueryResult results = query.evaluate();
-
-            // Load batches of 1000 of them at a time into the PCJ table
-            final Set<VisibilityBindingSet> batch = new HashSet<>(1000);
-            while(results.hasNext()) {
-                batch.add( new VisibilityBindingSet(results.next()) );
-
-                if(batch.size() == 1000) {
-                    addResults(accumuloConn, pcjTableName, batch);
-                    batch.clear();
-                }
-            }
-
-            if(!batch.isEmpty()) {
-                addResults(accumuloConn, pcjTableName, batch);
-            }
+        // Fetch the query that needs to be executed from the PCJ table.
+        final PcjMetadata pcjMetadata = getPcjMetadata(accumuloConn, pcjTableName);
+        final String sparql = pcjMetadata.getSparql();
 
-        } catch (RepositoryException | MalformedQueryException | QueryEvaluationException e) {
+        // Query Rya for results to the SPARQL query and load them into the PCJ table in batches.
+        try {
+            populator.populate(ryaConn, sparql, results -> addResults(accumuloConn, pcjTableName, results));
+        } catch (final PCJStorageException e) {
             throw new PCJStorageException("Could not populate a PCJ table with Rya results for the table named: " + pcjTableName, e);
         }
     }
@@ -738,6 +716,9 @@ public class PcjTables {
             accumuloConn.tableOperations().delete(pcjTableName);
         } catch (AccumuloException | AccumuloSecurityException | TableNotFoundException e) {
             throw new PCJStorageException("Could not delete PCJ table named: " + pcjTableName, e);
+        } finally {
+            // Cached query plans may read from the dropped PCJ.
+            QueryPlanVersion.increment();
         }
     }
 }
\ No newline at end of file
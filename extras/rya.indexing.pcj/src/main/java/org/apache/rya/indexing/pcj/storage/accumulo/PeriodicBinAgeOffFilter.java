@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.pcj.storage.accumulo;
+
+import static org.apache.rya.api.RdfCloudTripleStoreConstants.DELIM_BYTE;
+import static org.apache.rya.api.RdfCloudTripleStoreConstants.TYPE_DELIM_BYTE;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.Filter;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.rya.api.resolver.impl.LongRyaTypeResolver;
+import org.calrissian.mango.types.exception.TypeDecodingException;
+
+/**
+ * Drops the entries of a periodic query result table whose bin id is older than a
+ * configured maximum age. The periodic bin id is always the first value of the row,
+ * so the filter only needs to decode the leading value of each row. Rows that do not
+ * start with a periodic bin id, such as the PCJ metadata row, are always kept.
+ * <p>
+ * Attaching this filter to a periodic table lets expired bins disappear at compaction
+ * time even when the periodic notification pruner falls behind.
+ */
+public class PeriodicBinAgeOffFilter extends Filter {
+
+    public static final String MAX_BIN_AGE_PROP = "maxBinAge";
+    public static final String CURRENT_TIME_PROP = "currentTime";
+
+    private long maxBinAge;
+    private long currentTime;
+
+    /**
+     * Sets the maximum age of the bins that will be retained.
+     * @param setting - configuration for this filter
+     * @param maxBinAge - maximum bin age in milliseconds
+     */
+    public static void setMaxBinAge(final IteratorSetting setting, final long maxBinAge) {
+        setting.addOption(MAX_BIN_AGE_PROP, Long.toString(maxBinAge));
+    }
+
+    @Override
+    public void init(final SortedKeyValueIterator<Key, Value> source, final Map<String, String> options, final IteratorEnvironment env) throws IOException {
+        super.init(source, options, env);
+        final String maxBinAgeValue = options.get(MAX_BIN_AGE_PROP);
+        if(maxBinAgeValue == null) {
+            throw new IllegalArgumentException(MAX_BIN_AGE_PROP + " must be set for PeriodicBinAgeOffFilter");
+        }
+        maxBinAge = Long.parseLong(maxBinAgeValue);
+
+        final String time = options.get(CURRENT_TIME_PROP);
+        currentTime = time != null ? Long.parseLong(time) : System.currentTimeMillis();
+    }
+
+    @Override
+    public boolean accept(final Key k, final Value v) {
+        final ByteSequence row = k.getRowData();
+        final int length = row.length();
+
+        // The bin id is serialized as: lexicoded long, TYPE_DELIM_BYTE, long marker, DELIM_BYTE.
+        int typeDelim = -1;
+        for(int i = 0; i < length; i++) {
+            final byte b = row.byteAt(i);
+            if(b == TYPE_DELIM_BYTE) {
+                typeDelim = i;
+                break;
+            }
+            if(b == DELIM_BYTE) {
+                return true;
+            }
+        }
+        if(typeDelim < 0 || typeDelim + 1 >= length || row.byteAt(typeDelim + 1) != LongRyaTypeResolver.LONG_LITERAL_MARKER) {
+            return true;
+        }
+
+        try {
+            final String encodedBin = new String(row.subSequence(0, typeDelim).toArray(), StandardCharsets.UTF_8);
+            final long binId = LongRyaTypeResolver.LONG_STRING_TYPE_ENCODER.decode(encodedBin);
+            return currentTime - binId <= maxBinAge;
+        } catch (final TypeDecodingException e) {
+            return true;
+        }
+    }
+
+    @Override
+    public IteratorOptions describeOptions() {
+        final Map<String, String> options = new HashMap<>();
+        options.put(MAX_BIN_AGE_PROP, "maximum age in milliseconds of the periodic bins that are kept");
+        options.put(CURRENT_TIME_PROP, "if set, the time in milliseconds that bin ages are computed from. Defaults to the system time.");
+        return new IteratorOptions("periodicBinAgeOff", "PeriodicBinAgeOffFilter removes periodic query results whose bin is older than the maximum bin age",
+                options, null);
+    }
+
+    @Override
+    public boolean validateOptions(final Map<String, String> options) {
+        Long.parseLong(options.get(MAX_BIN_AGE_PROP));
+        return true;
+    }
+}
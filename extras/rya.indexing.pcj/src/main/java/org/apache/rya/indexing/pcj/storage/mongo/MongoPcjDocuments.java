@@ -30,10 +30,12 @@ import java.util.Set;
 
 import org.apache.rya.api.domain.RyaType;
 import org.apache.rya.api.model.VisibilityBindingSet;
+import org.apache.rya.api.persist.query.QueryPlanVersion;
 import org.apache.rya.api.resolver.RdfToRyaConversions;
 import org.apache.rya.api.resolver.RyaToRdfConversions;
 import org.apache.rya.api.utils.CloseableIterator;
 import org.apache.rya.indexing.pcj.storage.PcjMetadata;
+import org.apache.rya.indexing.pcj.storage.PcjPopulator;
 import org.apache.rya.indexing.pcj.storage.PrecomputedJoinStorage.PCJStorageException;
 import org.apache.rya.indexing.pcj.storage.accumulo.PcjVarOrderFactory;
 import org.apache.rya.indexing.pcj.storage.accumulo.ShiftVarOrderFactory;
@@ -46,13 +48,8 @@ import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.MalformedQueryException;
-import org.eclipse.rdf4j.query.QueryEvaluationException;
-import org.eclipse.rdf4j.query.QueryLanguage;
-import org.eclipse.rdf4j.query.TupleQuery;
-import org.eclipse.rdf4j.query.TupleQueryResult;
 import org.eclipse.rdf4j.query.impl.MapBindingSet;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
-import org.eclipse.rdf4j.repository.RepositoryException;
 
 import com.mongodb.MongoClient;
 import com.mongodb.client.FindIterable;
@@ -107,6 +104,7 @@ public class MongoPcjDocuments {
     private static final String PCJ_ID = "pcjId";
 
     private final MongoCollection<Document> pcjCollection;
+    private final PcjPopulator populator;
     private static final PcjVarOrderFactory pcjVarOrderFactory = new ShiftVarOrderFactory();
     private static final ValueFactory VF = SimpleValueFactory.getInstance();
 
@@ -116,8 +114,19 @@ public class MongoPcjDocuments {
      * @param ryaInstanceName - The rya instance to connect to.
      */
     public MongoPcjDocuments(final MongoClient client, final String ryaInstanceName) {
+        this(client, ryaInstanceName, new PcjPopulator());
+    }
+
+    /**
+     * Creates a new {@link MongoPcjDocuments}.
+     * @param client - The {@link MongoClient} to use to connect to mongo.
+     * @param ryaInstanceName - The rya instance to connect to.
+     * @param populator - Populates PCJs with the historic results of their queries.
+     */
+    public MongoPcjDocuments(final MongoClient client, final String ryaInstanceName, final PcjPopulator populator) {
         requireNonNull(client);
         requireNonNull(ryaInstanceName);
+        this.populator = requireNonNull(populator);
         pcjCollection = client.getDatabase(ryaInstanceName).getCollection(PCJ_COLLECTION_NAME);
     }
 
@@ -162,6 +171,7 @@ public class MongoPcjDocuments {
      */
     public void createPcj(final String pcjId, final String sparql) throws PCJStorageException {
         pcjCollection.insertOne(makeMetadataDocument(pcjId, sparql));
+        QueryPlanVersion.increment();
     }
 
     /**
@@ -287,31 +297,14 @@ public class MongoPcjDocuments {
         checkNotNull(pcjId);
         checkNotNull(ryaConn);
 
-        try {
-            // Fetch the query that needs to be executed from the PCJ metadata document.
-            final PcjMetadata pcjMetadata = getPcjMetadata(pcjId);
-            final String sparql = pcjMetadata.getSparql();
-
-            // Query Rya for results to the SPARQL query.
-            final TupleQuery query = ryaConn.prepareTupleQuery(QueryLanguage.SPARQL, sparql);
-            final TupleQueryResult results = query.evaluate();
-
-            // Load batches of 1000 of them at a time into the PCJ results document.
-            final Set<VisibilityBindingSet> batch = new HashSet<>(1000);
-            while(results.hasNext()) {
-                final VisibilityBindingSet bs = new VisibilityBindingSet(results.next());
-                batch.add( bs );
-                if(batch.size() == 1000) {
-                    addResults(pcjId, batch);
-                    batch.clear();
-                }
-            }
+        // Fetch the query that needs to be executed from the PCJ metadata document.
+        final PcjMetadata pcjMetadata = getPcjMetadata(pcjId);
+        final String sparql = pcjMetadata.getSparql();
 
-            if(!batch.isEmpty()) {
-                addResults(pcjId, batch);
-            }
-
-        } catch (RepositoryException | MalformedQueryException | QueryEvaluationException e) {
+        // Query Rya for results to the SPARQL query and load them into the PCJ results document in batches.
+        try {
+            populator.populate(ryaConn, sparql, results -> addResults(pcjId, results));
+        } catch (final PCJStorageException e) {
             throw new PCJStorageException(
                     "Could not populate a PCJ document with Rya results for the pcj with Id: " + pcjId, e);
         }
@@ -443,5 +436,6 @@ public class MongoPcjDocuments {
     public void dropPcj(final String pcjId) {
         purgePcjs(pcjId);
         pcjCollection.deleteOne(new Document(PCJ_METADATA_ID, makeMetadataID(pcjId)));
+        QueryPlanVersion.increment();
     }
 }
\ No newline at end of file
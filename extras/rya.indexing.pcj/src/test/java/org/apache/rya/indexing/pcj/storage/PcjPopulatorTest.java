@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.pcj.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.algebra.BindingSetAssignment;
+import org.eclipse.rdf4j.query.algebra.Join;
+import org.eclipse.rdf4j.query.algebra.Projection;
+import org.eclipse.rdf4j.query.algebra.QueryRoot;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.TupleExpr;
+import org.eclipse.rdf4j.query.impl.MapBindingSet;
+import org.eclipse.rdf4j.query.parser.ParsedQuery;
+import org.eclipse.rdf4j.query.parser.sparql.SPARQLParser;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * Tests the methods of {@link PcjPopulator} that decide how a query is partitioned.
+ */
+public class PcjPopulatorTest {
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+    @Test
+    public void findPartitionPattern_join() throws Exception {
+        final String sparql =
+                "SELECT ?name ?worker " +
+                "WHERE { " +
+                    "?worker <http://talksTo> ?name . " +
+                    "?worker <http://worksAt> <http://Chipotle> . " +
+                "}";
+
+        final Optional<StatementPattern> pattern = PcjPopulator.findPartitionPattern(parse(sparql));
+        assertTrue(pattern.isPresent());
+        assertEquals("http://talksTo", pattern.get().getPredicateVar().getValue().stringValue());
+    }
+
+    @Test
+    public void findPartitionPattern_optionalAndFilter() throws Exception {
+        final String sparql =
+                "SELECT ?name ?age " +
+                "WHERE { " +
+                    "?name <http://hasAge> ?age . " +
+                    "OPTIONAL { ?name <http://playsSport> ?sport } " +
+                    "FILTER(?age > 10) " +
+                "}";
+
+        final Optional<StatementPattern> pattern = PcjPopulator.findPartitionPattern(parse(sparql));
+        assertTrue(pattern.isPresent());
+        assertEquals("http://hasAge", pattern.get().getPredicateVar().getValue().stringValue());
+    }
+
+    @Test
+    public void findPartitionPattern_aggregation() throws Exception {
+        final String sparql =
+                "SELECT (count(?worker) as ?count) " +
+                "WHERE { " +
+                    "?worker <http://worksAt> <http://Chipotle> . " +
+                "}";
+
+        assertFalse(PcjPopulator.findPartitionPattern(parse(sparql)).isPresent());
+    }
+
+    @Test
+    public void findPartitionPattern_distinct() throws Exception {
+        final String sparql =
+                "SELECT DISTINCT ?worker " +
+                "WHERE { " +
+                    "?worker <http://worksAt> ?place . " +
+                "}";
+
+        assertFalse(PcjPopulator.findPartitionPattern(parse(sparql)).isPresent());
+    }
+
+    @Test
+    public void findPartitionPattern_anonymousVariable() throws Exception {
+        final String sparql =
+                "SELECT ?name " +
+                "WHERE { " +
+                    "?name <http://talksTo> [] . " +
+                    "?name <http://worksAt> <http://Chipotle> . " +
+                "}";
+
+        final Optional<StatementPattern> pattern = PcjPopulator.findPartitionPattern(parse(sparql));
+        assertFalse(pattern.isPresent());
+    }
+
+    @Test
+    public void bindRows() throws Exception {
+        final ParsedQuery parsed = parse("SELECT ?name ?age WHERE { ?name <http://hasAge> ?age . }");
+
+        final List<Map<String, Value>> rows = new ArrayList<>();
+        final Map<String, Value> alice = new LinkedHashMap<>();
+        alice.put("name", VF.createIRI("http://Alice"));
+        alice.put("age", VF.createLiteral(14));
+        rows.add(alice);
+        final Map<String, Value> bob = new LinkedHashMap<>();
+        bob.put("name", VF.createBNode("bob"));
+        bob.put("age", VF.createLiteral("about \"ten\"", "en"));
+        rows.add(bob);
+
+        PcjPopulator.bindRows(parsed, rows);
+
+        // The projection's argument is now joined with an assignment of the rows.
+        TupleExpr root = parsed.getTupleExpr();
+        if(root instanceof QueryRoot) {
+            root = ((QueryRoot) root).getArg();
+        }
+        final TupleExpr arg = ((Projection) root).getArg();
+        assertTrue(arg instanceof Join);
+        final BindingSetAssignment assignment = (BindingSetAssignment) ((Join) arg).getLeftArg();
+        assertEquals(Sets.newHashSet("name", "age"), assignment.getBindingNames());
+
+        final List<BindingSet> expected = new ArrayList<>();
+        final MapBindingSet aliceBs = new MapBindingSet();
+        aliceBs.addBinding("name", VF.createIRI("http://Alice"));
+        aliceBs.addBinding("age", VF.createLiteral(14));
+        expected.add(aliceBs);
+        final MapBindingSet bobBs = new MapBindingSet();
+        bobBs.addBinding("name", VF.createBNode("bob"));
+        bobBs.addBinding("age", VF.createLiteral("about \"ten\"", "en"));
+        expected.add(bobBs);
+        assertEquals(expected, Lists.newArrayList(assignment.getBindingSets()));
+        assertTrue(((Join) arg).getRightArg() instanceof StatementPattern);
+    }
+
+    private static ParsedQuery parse(final String sparql) throws Exception {
+        return new SPARQLParser().parseQuery(sparql, null);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.pcj.storage;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.mock.MockInstance;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.rya.accumulo.AccumuloRdfConfiguration;
+import org.apache.rya.accumulo.AccumuloRyaDAO;
+import org.apache.rya.rdftriplestore.RdfCloudTripleStore;
+import org.apache.rya.rdftriplestore.RyaSailRepository;
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryLanguage;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.repository.sail.SailRepositoryConnection;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Ensures {@link PcjPopulator} finds the same results as evaluating the PCJ's query directly.
+ */
+public class PcjPopulatorWithMockTest {
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+    private RyaSailRepository ryaRepo;
+    private SailRepositoryConnection ryaConn;
+
+    @Before
+    public void init() throws Exception {
+        final Connector accumuloConn = new MockInstance("instance").getConnector("root", new PasswordToken(""));
+
+        final AccumuloRdfConfiguration conf = new AccumuloRdfConfiguration();
+        conf.setTablePrefix("demo_");
+        conf.setDisplayQueryPlan(false);
+
+        final AccumuloRyaDAO dao = new AccumuloRyaDAO();
+        dao.setConnector(accumuloConn);
+        dao.setConf(conf);
+
+        final RdfCloudTripleStore ryaStore = new RdfCloudTripleStore();
+        ryaStore.setRyaDAO(dao);
+        ryaRepo = new RyaSailRepository(ryaStore);
+        ryaRepo.initialize();
+        ryaConn = ryaRepo.getConnection();
+
+        final BNode eve = VF.createBNode("eve");
+        for(final String name : new String[] {"Alice", "Bob", "Charlie", "David", "Frank"}) {
+            ryaConn.add(VF.createIRI("http://" + name), VF.createIRI("http://worksAt"), VF.createIRI("http://Chipotle"));
+            ryaConn.add(VF.createIRI("http://" + name), VF.createIRI("http://talksTo"), eve);
+        }
+        ryaConn.add(eve, VF.createIRI("http://worksAt"), VF.createIRI("http://Chipotle"));
+        ryaConn.add(VF.createIRI("http://Alice"), VF.createIRI("http://hasAge"), VF.createLiteral(14));
+        ryaConn.add(VF.createIRI("http://Bob"), VF.createIRI("http://hasAge"), VF.createLiteral(31));
+        ryaConn.add(VF.createIRI("http://Charlie"), VF.createIRI("http://hasAge"), VF.createLiteral("twelve"));
+    }
+
+    @After
+    public void shutdown() throws Exception {
+        if(ryaConn != null) {
+            ryaConn.close();
+        }
+        if(ryaRepo != null) {
+            ryaRepo.shutDown();
+        }
+    }
+
+    @Test
+    public void populate_join() throws Exception {
+        assertPopulateMatchesQuery(
+                "SELECT ?worker ?friend " +
+                "WHERE { " +
+                    "?worker <http://worksAt> <http://Chipotle> . " +
+                    "?worker <http://talksTo> ?friend . " +
+                "}");
+    }
+
+    @Test
+    public void populate_blankNodeValues() throws Exception {
+        assertPopulateMatchesQuery(
+                "SELECT ?friend ?worker " +
+                "WHERE { " +
+                    "?worker <http://talksTo> ?friend . " +
+                    "?friend <http://worksAt> <http://Chipotle> . " +
+                "}");
+    }
+
+    @Test
+    public void populate_optionalAndFilter() throws Exception {
+        assertPopulateMatchesQuery(
+                "SELECT ?worker ?age " +
+                "WHERE { " +
+                    "?worker <http://worksAt> <http://Chipotle> . " +
+                    "OPTIONAL { ?worker <http://hasAge> ?age } " +
+                    "FILTER(!bound(?age) || isLiteral(?age)) " +
+                "}");
+    }
+
+    @Test
+    public void populate_anonymousVariable() throws Exception {
+        assertPopulateMatchesQuery(
+                "SELECT ?worker " +
+                "WHERE { " +
+                    "?worker <http://talksTo> [] . " +
+                    "?worker <http://hasAge> ?age . " +
+                "}");
+    }
+
+    private void assertPopulateMatchesQuery(final String sparql) throws Exception {
+        final Set<BindingSet> expected = new HashSet<>();
+        try(TupleQueryResult results = ryaConn.prepareTupleQuery(QueryLanguage.SPARQL, sparql).evaluate()) {
+            while(results.hasNext()) {
+                expected.add(results.next());
+            }
+        }
+
+        // Small partitions so that the statements are split over several of them.
+        final Set<BindingSet> populated = Collections.synchronizedSet(new HashSet<>());
+        final long written = PcjPopulator.builder()
+                .setNumThreads(2)
+                .setPartitionSize(2)
+                .setBatchSize(1)
+                .build()
+                .populate(ryaConn, sparql, results -> results.forEach(result -> populated.add(result.getBindingSet())));
+
+        assertEquals(expected, populated);
+        assertEquals(expected.size(), written);
+    }
+}
@@ -21,20 +21,29 @@ package org.apache.rya.indexing.pcj.storage.accumulo;
 import static org.junit.Assert.assertEquals;
 
 import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.BatchWriterConfig;
 import org.apache.accumulo.core.client.Connector;
 import org.apache.accumulo.core.client.Instance;
 import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.client.lexicoder.ListLexicoder;
+import org.apache.accumulo.core.client.lexicoder.LongLexicoder;
+import org.apache.accumulo.core.client.lexicoder.StringLexicoder;
 import org.apache.accumulo.core.client.mock.MockInstance;
 import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
 import org.apache.log4j.Logger;
 import org.apache.rya.accumulo.AccumuloRdfConfiguration;
 import org.apache.rya.accumulo.AccumuloRyaDAO;
 import org.apache.rya.api.RdfCloudTripleStoreConfiguration;
+import org.apache.rya.api.model.VisibilityBindingSet;
 import org.apache.rya.indexing.pcj.storage.PcjException;
 import org.apache.rya.indexing.pcj.storage.PcjMetadata;
 import org.apache.rya.indexing.pcj.storage.accumulo.BindingSetConverter.BindingSetConversionException;
@@ -43,6 +52,7 @@ import org.apache.rya.rdftriplestore.RyaSailRepository;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.impl.MapBindingSet;
 import org.eclipse.rdf4j.repository.RepositoryException;
 import org.eclipse.rdf4j.repository.sail.SailRepositoryConnection;
 import org.junit.After;
@@ -50,6 +60,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.Sets;
 
 public class PcjTablesWithMockTest {
 
@@ -109,6 +120,45 @@ public class PcjTablesWithMockTest {
         assertEquals(4, metadata.getCardinality());
     }
 
+    @Test
+    public void addResults_upgradesTableWithExistingCardinality() throws Exception {
+        // Write a PCJ table the way it was written before the cardinality combiner existed.
+        // Each write of the cardinality left an older absolute version behind.
+        final String pcjTableName = new PcjTableNameFactory().makeTableName(RYA_TABLE_PREFIX, "legacyPcj");
+        accumuloConn.tableOperations().create(pcjTableName);
+
+        final Mutation metadata = new Mutation("pcjMetadata");
+        metadata.put("metadata", "sparql", new Value(new StringLexicoder().encode("SELECT ?name ?age { ?name <http://hasAge> ?age }")));
+        metadata.put("metadata", "variableOrders", new Value(new ListLexicoder<>(new StringLexicoder()).encode(Arrays.asList("name;age", "age;name"))));
+        metadata.put("metadata", "cardinality", 1L, new Value(new LongLexicoder().encode(5L)));
+        metadata.put("metadata", "cardinality", 2L, new Value(new LongLexicoder().encode(7L)));
+        final BatchWriter writer = accumuloConn.createBatchWriter(pcjTableName, new BatchWriterConfig());
+        writer.addMutation(metadata);
+        writer.close();
+
+        final PcjTables pcjs = new PcjTables();
+        assertEquals(7, pcjs.getPcjMetadata(accumuloConn, pcjTableName).getCardinality());
+
+        // Adding results attaches the combiner. The old versions must not be summed.
+        final MapBindingSet alice = new MapBindingSet();
+        alice.addBinding("name", VF.createIRI("http://Alice"));
+        alice.addBinding("age", VF.createLiteral(BigInteger.valueOf(14)));
+        final MapBindingSet bob = new MapBindingSet();
+        bob.addBinding("name", VF.createIRI("http://Bob"));
+        bob.addBinding("age", VF.createLiteral(BigInteger.valueOf(16)));
+        pcjs.addResults(accumuloConn, pcjTableName, Sets.newHashSet(new VisibilityBindingSet(alice), new VisibilityBindingSet(bob)));
+        assertEquals(9, pcjs.getPcjMetadata(accumuloConn, pcjTableName).getCardinality());
+
+        final MapBindingSet charlie = new MapBindingSet();
+        charlie.addBinding("name", VF.createIRI("http://Charlie"));
+        charlie.addBinding("age", VF.createLiteral(BigInteger.valueOf(12)));
+        pcjs.addResults(accumuloConn, pcjTableName, Sets.newHashSet(new VisibilityBindingSet(charlie)));
+        assertEquals(10, pcjs.getPcjMetadata(accumuloConn, pcjTableName).getCardinality());
+
+        // Purging resets the cardinality, including the deltas.
+        pcjs.purgePcjTable(accumuloConn, pcjTableName);
+        assertEquals(0, pcjs.getPcjMetadata(accumuloConn, pcjTableName).getCardinality());
+    }
 
 	@After
 	public void shutdown() {
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.indexing.pcj.storage.accumulo;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.apache.hadoop.io.Text;
+import org.apache.rya.indexing.pcj.storage.PeriodicQueryResultStorage;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
+import org.junit.Test;
+
+/**
+ * Tests the methods of {@link PeriodicBinAgeOffFilter}.
+ */
+public class PeriodicBinAgeOffFilterTest {
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+    private static final VariableOrder VAR_ORDER = new VariableOrder(PeriodicQueryResultStorage.PeriodicBinId, "x");
+
+    @Test
+    public void dropsExpiredBins() throws Exception {
+        final TreeMap<Key, Value> data = new TreeMap<>();
+        data.put(new Key(new Text("metadata"), new Text("cf"), new Text("cq")), new Value(new byte[0]));
+        final List<Text> rows = new ArrayList<>();
+        for(final long binId : new long[] {1_000L, 5_000L, 9_000L, 10_000L}) {
+            final Text row = makeRow(binId);
+            rows.add(row);
+            data.put(new Key(row, new Text(VAR_ORDER.toString()), new Text("")), new Value(new byte[0]));
+        }
+
+        final IteratorSetting setting = new IteratorSetting(15, PeriodicBinAgeOffFilter.class);
+        PeriodicBinAgeOffFilter.setMaxBinAge(setting, 5_000L);
+        final Map<String, String> options = new HashMap<>(setting.getOptions());
+        options.put(PeriodicBinAgeOffFilter.CURRENT_TIME_PROP, "10000");
+
+        final PeriodicBinAgeOffFilter filter = new PeriodicBinAgeOffFilter();
+        filter.init(new SortedMapIterator(data), options, null);
+        filter.seek(new Range(), new ArrayList<>(), false);
+
+        final Set<Text> kept = new HashSet<>();
+        while(filter.hasTop()) {
+            kept.add(filter.getTopKey().getRow());
+            filter.next();
+        }
+
+        // The 1 second bin is older than 5 seconds, the metadata row does not hold a bin.
+        final Set<Text> expected = new HashSet<>(rows.subList(1, rows.size()));
+        expected.add(new Text("metadata"));
+        assertEquals(expected, kept);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxBinAgeRequired() throws Exception {
+        new PeriodicBinAgeOffFilter().init(new SortedMapIterator(new TreeMap<>()), new HashMap<>(), null);
+    }
+
+    private static Text makeRow(final long binId) throws Exception {
+        final QueryBindingSet bs = new QueryBindingSet();
+        bs.addBinding(PeriodicQueryResultStorage.PeriodicBinId, VF.createLiteral(binId));
+        bs.addBinding("x", VF.createIRI("urn:x" + binId));
+        return new Text(new AccumuloPcjSerializer().convert(bs, VAR_ORDER));
+    }
+}
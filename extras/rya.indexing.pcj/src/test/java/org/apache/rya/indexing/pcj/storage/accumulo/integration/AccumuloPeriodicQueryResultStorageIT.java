@@ -267,4 +267,87 @@ public class AccumuloPeriodicQueryResultStorageIT extends AccumuloITBase {
         }
         periodicStorage.deletePeriodicQuery(id);
     }
+
+    @Test
+    public void deleteMultipleBins() throws Exception {
+        final String sparql = "select ?x where { ?x <urn:pred> ?y.}";
+        final String id = periodicStorage.createPeriodicQuery(sparql);
+
+        final long period = 1000L;
+        final Set<VisibilityBindingSet> storageSet = new HashSet<>();
+        for(int i = 1; i <= 4; i++) {
+            final QueryBindingSet bs = new QueryBindingSet();
+            bs.addBinding("periodicBinId", VF.createLiteral(i * period));
+            bs.addBinding("x", VF.createIRI("uri:uri" + i));
+            storageSet.add(new VisibilityBindingSet(bs, "U"));
+        }
+        periodicStorage.addPeriodicQueryResults(id, storageSet);
+
+        // Delete the first, second, and fourth bins in one call.
+        periodicStorage.deletePeriodicQueryResults(id, Arrays.asList(period, 2 * period, 4 * period));
+
+        final Set<BindingSet> expected = new HashSet<>();
+        final QueryBindingSet remaining = new QueryBindingSet();
+        remaining.addBinding("periodicBinId", VF.createLiteral(3 * period));
+        remaining.addBinding("x", VF.createIRI("uri:uri3"));
+        expected.add(remaining);
+
+        final Set<BindingSet> actual = new HashSet<>();
+        try(CloseableIterator<BindingSet> iter = periodicStorage.listResults(id, Optional.empty())) {
+            iter.forEachRemaining(x -> actual.add(x));
+        }
+
+        Assert.assertEquals(expected, actual);
+        periodicStorage.deletePeriodicQuery(id);
+    }
+
+    @Test
+    public void binAgeOffOnCreate() throws Exception {
+        final long maxBinAge = 60_000L;
+        final AccumuloPeriodicQueryResultStorage ageOffStorage = new AccumuloPeriodicQueryResultStorage(super.getConnector(), RYA,
+                Optional.of(maxBinAge));
+        final String id = ageOffStorage.createPeriodicQuery("select ?x where { ?x <urn:pred> ?y.}");
+
+        final long now = System.currentTimeMillis();
+        final long expiredBin = now - 10 * maxBinAge;
+        final long currentBin = now - maxBinAge / 2;
+        ageOffStorage.addPeriodicQueryResults(id, Arrays.asList(makeResult(expiredBin, "uri:old"), makeResult(currentBin, "uri:new")));
+
+        final Set<BindingSet> actual = new HashSet<>();
+        try(CloseableIterator<BindingSet> iter = ageOffStorage.listResults(id, Optional.empty())) {
+            iter.forEachRemaining(x -> actual.add(x));
+        }
+        Assert.assertEquals(Collections.singleton(makeBindingSet(currentBin, "uri:new")), actual);
+        ageOffStorage.deletePeriodicQuery(id);
+    }
+
+    @Test
+    public void binAgeOffAppliedToExistingTables() throws Exception {
+        final String id = periodicStorage.createPeriodicQuery("select ?x where { ?x <urn:pred> ?y.}");
+        final long maxBinAge = 60_000L;
+        final long expiredBin = System.currentTimeMillis() - 10 * maxBinAge;
+        periodicStorage.addPeriodicQueryResults(id, Collections.singleton(makeResult(expiredBin, "uri:old")));
+
+        // The table was created without an age off, so the expired bin is still visible.
+        try(CloseableIterator<BindingSet> iter = periodicStorage.listResults(id, Optional.empty())) {
+            Assert.assertTrue(iter.hasNext());
+        }
+
+        new AccumuloPeriodicQueryResultStorage(super.getConnector(), RYA, Optional.of(maxBinAge)).applyBinAgeOff();
+        try(CloseableIterator<BindingSet> iter = periodicStorage.listResults(id, Optional.empty())) {
+            Assert.assertFalse(iter.hasNext());
+        }
+        periodicStorage.deletePeriodicQuery(id);
+    }
+
+    private static VisibilityBindingSet makeResult(final long binId, final String x) {
+        return new VisibilityBindingSet(makeBindingSet(binId, x), "U");
+    }
+
+    private static BindingSet makeBindingSet(final long binId, final String x) {
+        final QueryBindingSet bs = new QueryBindingSet();
+        bs.addBinding("periodicBinId", VF.createLiteral(binId));
+        bs.addBinding("x", VF.createIRI(x));
+        return bs;
+    }
 }
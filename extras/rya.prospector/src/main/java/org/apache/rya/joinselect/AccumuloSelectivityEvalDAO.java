@@ -27,6 +27,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
@@ -61,6 +62,15 @@ import com.google.common.collect.Sets;
 
 public class AccumuloSelectivityEvalDAO implements SelectivityEvalDAO<RdfCloudTripleStoreConfiguration> {
 
+  /**
+   * Whether join selectivity is estimated from the Prospector's predicate sketches when they can answer.
+   */
+  public static final String CONF_USE_SKETCHES = "joinselect.sketches.enabled";
+  /**
+   * How many minutes pass between reloads of the Prospector's predicate sketches.
+   */
+  public static final String CONF_SKETCH_REFRESH_MINUTES = "joinselect.sketches.refresh.minutes";
+
   private boolean initialized = false;
   private RdfCloudTripleStoreConfiguration conf;
   private Connector connector;
@@ -71,6 +81,7 @@ public class AccumuloSelectivityEvalDAO implements SelectivityEvalDAO<RdfCloudTr
   private static final String DELIM = "\u0000";
   private Map<String,Long> joinMap = new HashMap<String,Long>();
   private RdfEvalStatsDAO<RdfCloudTripleStoreConfiguration> resd;
+  private SketchJoinStatistics sketchStatistics;
 
   @Override
   public void init() throws RdfDAOException {
@@ -86,6 +97,11 @@ public class AccumuloSelectivityEvalDAO implements SelectivityEvalDAO<RdfCloudTr
       TableOperations tos = connector.tableOperations();
       AccumuloRdfUtils.createTableIfNotExist(tos, tableLayoutStrategy.getSelectivity());
       AccumuloRdfUtils.createTableIfNotExist(tos, tableLayoutStrategy.getProspects());
+      if (sketchStatistics == null && conf.getBoolean(CONF_USE_SKETCHES, false)) {
+        String[] auths = conf.getAuths();
+        sketchStatistics = new SketchJoinStatistics(connector, tableLayoutStrategy.getProspects(), auths == null ? new String[0] : auths);
+        sketchStatistics.start(conf.getLong(CONF_SKETCH_REFRESH_MINUTES, 10), TimeUnit.MINUTES);
+      }
       initialized = true;
     } catch (Exception e) {
       throw new RdfDAOException(e);
@@ -122,6 +138,9 @@ public class AccumuloSelectivityEvalDAO implements SelectivityEvalDAO<RdfCloudTr
     if (!isInitialized()) {
       throw new IllegalStateException("Not initialized");
     }
+    if (sketchStatistics != null) {
+      sketchStatistics.close();
+    }
     initialized = false;
   }
 
@@ -165,8 +184,27 @@ public class AccumuloSelectivityEvalDAO implements SelectivityEvalDAO<RdfCloudTr
       this.denormalized = denormalize;
   }
 
+  public SketchJoinStatistics getSketchStatistics() {
+    return sketchStatistics;
+  }
+
+  /**
+   * @param sketchStatistics - Estimates join selectivity in memory. When it can
+   *   answer for a pair of patterns, the selectivity table is not scanned.
+   */
+  public void setSketchStatistics(SketchJoinStatistics sketchStatistics) {
+    this.sketchStatistics = sketchStatistics;
+  }
+
   private double getJoinSelect(RdfCloudTripleStoreConfiguration conf, StatementPattern sp1, StatementPattern sp2) throws TableNotFoundException {
 
+    if (sketchStatistics != null && !filtered && !denormalized) {
+      Double select = sketchStatistics.getJoinSelectivity(sp1, sp2);
+      if (select != null) {
+        return select;
+      }
+    }
+
     if (FullTableCardinality == 0) {
       this.getTableSize(conf);
     }
@@ -0,0 +1,259 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.joinselect;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.log4j.Logger;
+import org.apache.rya.prospector.domain.TripleValueType;
+import org.apache.rya.prospector.plans.impl.SketchPlan;
+import org.apache.rya.prospector.service.ProspectorService;
+import org.apache.rya.prospector.sketch.ValueSketch;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.Var;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Holds the predicate sketches written by the latest Prospector run in memory
+ * and estimates join selectivity from them, so that the optimizer can cost a
+ * join without reading anything. The sketches are reloaded periodically.
+ */
+public class SketchJoinStatistics implements Closeable {
+    private static final Logger log = Logger.getLogger(SketchJoinStatistics.class);
+
+    private final Connector connector;
+    private final String tableName;
+    private final String[] auths;
+
+    private volatile Map<String, Map<TripleValueType, ValueSketch>> sketches = Collections.emptyMap();
+    private volatile long loadedProspectTime = -1;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param connector - The Accumulo Connector used to read the sketches. (not null)
+     * @param tableName - The name of the table the Prospector results are stored within. (not null)
+     * @param auths - The authorizations used to read the sketches. (not null)
+     */
+    public SketchJoinStatistics(final Connector connector, final String tableName, final String[] auths) {
+        this.connector = requireNonNull(connector);
+        this.tableName = requireNonNull(tableName);
+        this.auths = requireNonNull(auths);
+    }
+
+    /**
+     * Loads the sketches and reloads them in the background every {@code period}.
+     *
+     * @param period - How long to wait between reloads.
+     * @param unit - The unit of {@code period}. (not null)
+     */
+    public synchronized void start(final long period, final TimeUnit unit) {
+        if (scheduler != null) {
+            throw new IllegalStateException("Already started");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("Rya Sketch Statistics Refresh - %d")
+                .setDaemon(true)
+                .build());
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    refresh();
+                } catch (final Exception e) {
+                    log.warn("Could not refresh the join selectivity sketches.", e);
+                }
+            }
+        }, 0, period, unit);
+    }
+
+    /**
+     * Loads the sketches of the latest Prospector run, if it is not the one that is already loaded.
+     *
+     * @throws TableNotFoundException The Prospector table does not exist.
+     * @throws IOException A stored sketch could not be read.
+     */
+    public void refresh() throws TableNotFoundException, IOException {
+        final Iterator<Long> prospects;
+        try {
+            prospects = new ProspectorService(connector, tableName).getProspects(auths);
+        } catch (AccumuloException | AccumuloSecurityException e) {
+            throw new IOException(e);
+        }
+        if (!prospects.hasNext()) {
+            return;
+        }
+        // The newest run is listed first.
+        final long latest = prospects.next();
+        if (latest != loadedProspectTime) {
+            sketches = SketchPlan.load(connector, tableName, latest, auths);
+            loadedProspectTime = latest;
+        }
+    }
+
+    /**
+     * @param predicate - The predicate whose Statements were summarized. (not null)
+     * @param position - {@link TripleValueType#SUBJECT} or {@link TripleValueType#OBJECT}. (not null)
+     * @return The sketch of the values in that position, or {@code null} if none is loaded.
+     */
+    public ValueSketch getSketch(final String predicate, final TripleValueType position) {
+        final Map<TripleValueType, ValueSketch> predicateSketches = sketches.get(predicate);
+        return predicateSketches == null ? null : predicateSketches.get(position);
+    }
+
+    /**
+     * Estimates the fraction of the pairs of Statements matched by two patterns
+     * that join. Only patterns with a constant predicate that share a single
+     * variable in their subject or object can be estimated.
+     * <p>
+     * The values of the join variable are assumed to be drawn from the same
+     * domain, so the join of the two sides is their size product divided by
+     * the larger number of distinct values. When neither pattern fixes its
+     * other position, the heavy hitters of both sides are joined exactly and
+     * only the rest of the values are treated as uniform.
+     *
+     * @param sp1 - The first pattern. (not null)
+     * @param sp2 - The second pattern. (not null)
+     * @return The estimated join selectivity, or {@code null} if the sketches can not answer.
+     */
+    public Double getJoinSelectivity(final StatementPattern sp1, final StatementPattern sp2) {
+        final Side side1 = Side.of(sp1, sp2, this);
+        final Side side2 = Side.of(sp2, sp1, this);
+        if (side1 == null || side2 == null) {
+            return null;
+        }
+        if (side1.count == 0 || side2.count == 0) {
+            return 0.0;
+        }
+
+        final double pairs = (double) side1.count * side2.count;
+        if (side1.restricted || side2.restricted) {
+            return 1.0 / Math.max(side1.distinct, side2.distinct);
+        }
+
+        final Set<String> heavyValues = new HashSet<>(side1.sketch.getHeavyHitters().getCounts().keySet());
+        heavyValues.addAll(side2.sketch.getHeavyHitters().getCounts().keySet());
+        double joined = 0;
+        long covered1 = 0;
+        long covered2 = 0;
+        for (final String value : heavyValues) {
+            final long frequency1 = side1.sketch.getFrequency(value);
+            final long frequency2 = side2.sketch.getFrequency(value);
+            joined += (double) frequency1 * frequency2;
+            covered1 += frequency1;
+            covered2 += frequency2;
+        }
+        final long rest1 = Math.max(0, side1.count - covered1);
+        final long rest2 = Math.max(0, side2.count - covered2);
+        final long restDistinct = Math.max(1, Math.max(side1.distinct, side2.distinct) - heavyValues.size());
+        joined += (double) rest1 * rest2 / restDistinct;
+
+        return Math.min(1.0, joined / pairs);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * What the sketches say about the join variable of one pattern.
+     */
+    private static class Side {
+        private final ValueSketch sketch;
+        private final long count;
+        private final long distinct;
+        private final boolean restricted;
+
+        private Side(final ValueSketch sketch, final long count, final long distinct, final boolean restricted) {
+            this.sketch = sketch;
+            this.count = count;
+            this.distinct = distinct;
+            this.restricted = restricted;
+        }
+
+        static Side of(final StatementPattern sp, final StatementPattern other, final SketchJoinStatistics stats) {
+            final Value predicate = sp.getPredicateVar().getValue();
+            if (!(predicate instanceof IRI)) {
+                return null;
+            }
+
+            // Find the only position of this pattern whose variable also appears in the other pattern.
+            final List<Var> otherVars = other.getVarList();
+            TripleValueType joinPosition = null;
+            for (final TripleValueType position : new TripleValueType[] { TripleValueType.SUBJECT, TripleValueType.OBJECT }) {
+                final Var var = position == TripleValueType.SUBJECT ? sp.getSubjectVar() : sp.getObjectVar();
+                if (var.hasValue()) {
+                    continue;
+                }
+                for (final Var otherVar : otherVars) {
+                    if (!otherVar.hasValue() && otherVar.getName().equals(var.getName())) {
+                        if (joinPosition != null) {
+                            return null;
+                        }
+                        joinPosition = position;
+                        break;
+                    }
+                }
+            }
+            if (joinPosition == null) {
+                return null;
+            }
+
+            final ValueSketch sketch = stats.getSketch(predicate.stringValue(), joinPosition);
+            if (sketch == null) {
+                return null;
+            }
+            final Var fixed = joinPosition == TripleValueType.SUBJECT ? sp.getObjectVar() : sp.getSubjectVar();
+            if (!fixed.hasValue()) {
+                return new Side(sketch, sketch.getCount(), sketch.getDistinctCount(), false);
+            }
+
+            // The other position is a constant, so only the Statements with that value take part.
+            final ValueSketch fixedSketch = stats.getSketch(predicate.stringValue(),
+                    joinPosition == TripleValueType.SUBJECT ? TripleValueType.OBJECT : TripleValueType.SUBJECT);
+            if (fixedSketch == null) {
+                return null;
+            }
+            final long count = fixedSketch.getFrequency(fixed.getValue().stringValue());
+            return new Side(sketch, count, Math.max(1, Math.min(count, sketch.getDistinctCount())), true);
+        }
+    }
+}
@@ -62,4 +62,12 @@ public class ProspectorReducer extends Reducer<IntermediateProspect, LongWritabl
             plan.reduce(prospect, values, truncatedDate, context);
         }
     }
+
+    @Override
+    public void cleanup(Context context) throws IOException, InterruptedException {
+        for (final IndexWorkPlan plan : plans.values()) {
+            plan.cleanup(truncatedDate, context);
+        }
+        super.cleanup(context);
+    }
 }
\ No newline at end of file
@@ -33,6 +33,7 @@ import org.apache.rya.prospector.domain.IndexEntry;
 import org.apache.rya.prospector.domain.IntermediateProspect;
 import org.apache.rya.prospector.mr.ProspectorCombiner;
 import org.apache.rya.prospector.mr.ProspectorMapper;
+import org.apache.rya.prospector.mr.ProspectorReducer;
 import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
 
 /**
@@ -86,6 +87,19 @@ public interface IndexWorkPlan {
      */
     public void reduce(IntermediateProspect prospect, Iterable<LongWritable> counts, Date timestamp, Reducer.Context context) throws IOException, InterruptedException;
 
+    /**
+     * This method is invoked by {@link ProspectorReducer} once every prospect
+     * has been reduced. Plans that aggregate across several prospects use it
+     * to write what they are still holding.
+     *
+     * @param timestamp - The timestamp that identifies this Prospector run.
+     * @param context - The reducer context the remaining values will be written to.
+     * @throws IOException A problem was encountered while writing to the context.
+     * @throws InterruptedException Writes to the context were interrupted.
+     */
+    public default void cleanup(Date timestamp, Reducer.Context context) throws IOException, InterruptedException {
+    }
+
     /**
      * @return A unique name that indicates which {@link IndexEntry}s came from this plan.
      */
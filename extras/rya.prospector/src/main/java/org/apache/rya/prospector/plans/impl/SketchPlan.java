@@ -0,0 +1,271 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.prospector.plans.impl;
+
+import static org.apache.rya.prospector.utils.ProspectorConstants.SKETCH;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Reducer;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.prospector.domain.IndexEntry;
+import org.apache.rya.prospector.domain.IntermediateProspect;
+import org.apache.rya.prospector.domain.TripleValueType;
+import org.apache.rya.prospector.plans.IndexWorkPlan;
+import org.apache.rya.prospector.sketch.ValueSketch;
+import org.apache.rya.prospector.utils.CustomEntry;
+import org.apache.rya.prospector.utils.ProspectorUtils;
+import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
+
+/**
+ * An implementation of {@link IndexWorkPlan} that builds a {@link ValueSketch}
+ * of the subjects and of the objects of every predicate, so that join
+ * selectivity can be estimated without scanning any counts.
+ * <p>
+ * Each value is counted like {@link CountPlan} does, keyed by its predicate.
+ * The reducer sees the keys of a predicate one after another and adds them
+ * to the predicate's sketches, which are written once the predicate changes.
+ * Because keys are partitioned across reducers, every reducer writes its own
+ * partial sketch of a predicate; they are merged when they are read.
+ */
+public class SketchPlan implements IndexWorkPlan {
+
+    // The predicate whose sketches are being built by the reducer, keyed by position and visibility.
+    private String currentPredicate = null;
+    private final Map<String, ValueSketch> currentSketches = new HashMap<>();
+    private Date currentTimestamp = null;
+
+    @Override
+    public Collection<Map.Entry<IntermediateProspect, LongWritable>> map(final RyaStatement ryaStatement) {
+        final String predicate = ryaStatement.getPredicate().getData();
+        final String visibility = new String(ryaStatement.getColumnVisibility(), StandardCharsets.UTF_8);
+
+        final List<Map.Entry<IntermediateProspect, LongWritable>> entries = new ArrayList<>(2);
+        entries.add(new CustomEntry<IntermediateProspect, LongWritable>(
+                IntermediateProspect.builder()
+                    .setIndex(SKETCH)
+                    .setData(predicate + DELIM + ryaStatement.getSubject().getData())
+                    .setDataType(XMLSchema.STRING.stringValue())
+                    .setTripleValueType(TripleValueType.SUBJECT)
+                    .setVisibility(visibility)
+                    .build()
+                , ONE));
+        entries.add(new CustomEntry<IntermediateProspect, LongWritable>(
+                IntermediateProspect.builder()
+                    .setIndex(SKETCH)
+                    .setData(predicate + DELIM + ryaStatement.getObject().getData())
+                    .setDataType(XMLSchema.STRING.stringValue())
+                    .setTripleValueType(TripleValueType.OBJECT)
+                    .setVisibility(visibility)
+                    .build()
+                , ONE));
+        return entries;
+    }
+
+    @Override
+    public Collection<Map.Entry<IntermediateProspect, LongWritable>> combine(final IntermediateProspect prospect, final Iterable<LongWritable> counts) {
+        long sum = 0;
+        for(final LongWritable count : counts) {
+            sum += count.get();
+        }
+        return Collections.singleton( new CustomEntry<IntermediateProspect, LongWritable>(prospect, new LongWritable(sum)) );
+    }
+
+    @Override
+    public void reduce(final IntermediateProspect prospect, final Iterable<LongWritable> counts, final Date timestamp, final Reducer.Context context) throws IOException, InterruptedException {
+        long sum = 0;
+        for(final LongWritable count : counts) {
+            sum += count.get();
+        }
+
+        final String data = prospect.getData();
+        final int split = data.indexOf(DELIM);
+        final String predicate = data.substring(0, split);
+        final String value = data.substring(split + 1);
+
+        if(!predicate.equals(currentPredicate)) {
+            flush(context);
+            currentPredicate = predicate;
+        }
+        currentTimestamp = timestamp;
+
+        final String sketchKey = prospect.getTripleValueType().getIndexType() + DELIM + prospect.getVisibility();
+        ValueSketch sketch = currentSketches.get(sketchKey);
+        if(sketch == null) {
+            sketch = new ValueSketch();
+            currentSketches.put(sketchKey, sketch);
+        }
+        sketch.add(value, sum);
+    }
+
+    @Override
+    public void cleanup(final Date timestamp, final Reducer.Context context) throws IOException, InterruptedException {
+        flush(context);
+    }
+
+    private void flush(final Reducer.Context context) throws IOException, InterruptedException {
+        if(currentPredicate == null || currentSketches.isEmpty()) {
+            return;
+        }
+
+        // Every reducer writes its partial sketch under its own column qualifier.
+        final String partition = Integer.toString(context.getTaskAttemptID().getTaskID().getId());
+        final Mutation m = new Mutation(SKETCH + DELIM + currentPredicate + DELIM + ProspectorUtils.getReverseIndexDateTime(currentTimestamp));
+        for(final Entry<String, ValueSketch> entry : currentSketches.entrySet()) {
+            final String[] positionAndVisibility = entry.getKey().split(DELIM, 2);
+            m.put(positionAndVisibility[0], partition, new ColumnVisibility(positionAndVisibility[1]),
+                    currentTimestamp.getTime(), new Value(entry.getValue().toBytes()));
+        }
+        context.write(null, m);
+        currentSketches.clear();
+    }
+
+    @Override
+    public String getIndexType() {
+        return SKETCH;
+    }
+
+    @Override
+    public String getCompositeValue(final List<String> indices){
+        final Iterator<String> indexIt = indices.iterator();
+        String compositeIndex = indexIt.next();
+        while (indexIt.hasNext()){
+            compositeIndex += DELIM + indexIt.next();
+        }
+        return compositeIndex;
+    }
+
+    /**
+     * Returns one {@link IndexEntry} per prospect run for the sketch of a
+     * predicate's subjects or objects, whose count is the number of Statements
+     * that use the predicate.
+     */
+    @Override
+    public List<IndexEntry> query(final Connector connector, final String tableName, final List<Long> prospectTimes, final String type, final String predicate, final String dataType, final String[] auths) throws TableNotFoundException {
+        assert connector != null && tableName != null && type != null && predicate != null;
+
+        final Scanner scanner = connector.createScanner(tableName, new Authorizations(auths));
+        scanner.setRange(Range.prefix(SKETCH + DELIM + predicate + DELIM));
+        scanner.fetchColumnFamily(new Text(type));
+
+        // Merge the partial sketches written by each reducer for every prospect run.
+        final Map<Long, ValueSketch> merged = new HashMap<>();
+        for(final Entry<Key, Value> entry : scanner) {
+            final long timestamp = entry.getKey().getTimestamp();
+            if(prospectTimes != null && !prospectTimes.contains(timestamp)) {
+                continue;
+            }
+            mergeInto(merged, timestamp, entry.getValue());
+        }
+
+        final List<IndexEntry> indexEntries = new ArrayList<>();
+        for(final Entry<Long, ValueSketch> entry : merged.entrySet()) {
+            indexEntries.add(
+                    IndexEntry.builder()
+                        .setData(predicate)
+                        .setTripleValueType(type)
+                        .setIndex(SKETCH)
+                        .setDataType(XMLSchema.STRING.stringValue())
+                        .setVisibility("")
+                        .setCount(entry.getValue().getCount())
+                        .setTimestamp(entry.getKey())
+                        .build());
+        }
+        return indexEntries;
+    }
+
+    /**
+     * Reads the sketches that were written by a single prospect run, merging
+     * the partial sketches of every reducer and every visible visibility.
+     *
+     * @param connector - The Accumulo Connector used to read the table. (not null)
+     * @param tableName - The name of the table the Prospector results are stored within. (not null)
+     * @param prospectTime - The timestamp of the prospect run to read.
+     * @param auths - The authorizations used to read the sketches. (not null)
+     * @return The sketches of each predicate, keyed by the position they summarize.
+     * @throws TableNotFoundException No table exists for {@code tableName}.
+     * @throws IOException A stored sketch could not be read.
+     */
+    public static Map<String, Map<TripleValueType, ValueSketch>> load(final Connector connector, final String tableName,
+            final long prospectTime, final String[] auths) throws TableNotFoundException, IOException {
+        final String reverseTime = ProspectorUtils.getReverseIndexDateTime(new Date(prospectTime));
+        final Scanner scanner = connector.createScanner(tableName, new Authorizations(auths));
+        scanner.setRange(Range.prefix(SKETCH + DELIM));
+
+        final Map<String, Map<TripleValueType, ValueSketch>> sketches = new HashMap<>();
+        for(final Entry<Key, Value> entry : scanner) {
+            final String row = entry.getKey().getRow().toString();
+            if(!row.endsWith(DELIM + reverseTime)) {
+                continue;
+            }
+            final String predicate = row.substring(SKETCH.length() + 1, row.length() - reverseTime.length() - 1);
+            final TripleValueType position = TripleValueType.SUBJECT.getIndexType().equals(entry.getKey().getColumnFamily().toString()) ?
+                    TripleValueType.SUBJECT : TripleValueType.OBJECT;
+
+            Map<TripleValueType, ValueSketch> predicateSketches = sketches.get(predicate);
+            if(predicateSketches == null) {
+                predicateSketches = new HashMap<>();
+                sketches.put(predicate, predicateSketches);
+            }
+            final ValueSketch sketch = ValueSketch.fromBytes(entry.getValue().get());
+            final ValueSketch existing = predicateSketches.get(position);
+            if(existing == null) {
+                predicateSketches.put(position, sketch);
+            } else {
+                existing.merge(sketch);
+            }
+        }
+        return sketches;
+    }
+
+    private static void mergeInto(final Map<Long, ValueSketch> merged, final long timestamp, final Value value) {
+        try {
+            final ValueSketch sketch = ValueSketch.fromBytes(value.get());
+            final ValueSketch existing = merged.get(timestamp);
+            if(existing == null) {
+                merged.put(timestamp, sketch);
+            } else {
+                existing.merge(sketch);
+            }
+        } catch(final IOException e) {
+            throw new IllegalStateException("Could not read a stored sketch.", e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.prospector.sketch;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Estimates how many times each value has been added to it. An estimate is
+ * never lower than the true count, and it is higher by at most a small
+ * fraction of the total count with high probability.
+ */
+public class CountMinSketch {
+
+    public static final int DEFAULT_DEPTH = 4;
+    public static final int DEFAULT_WIDTH = 256;
+
+    private final int depth;
+    private final int width;
+    private final long[] counts;
+
+    /**
+     * Constructs an empty instance of {@link CountMinSketch} that uses the default depth and width.
+     */
+    public CountMinSketch() {
+        this(DEFAULT_DEPTH, DEFAULT_WIDTH);
+    }
+
+    /**
+     * @param depth - How many independent rows of counters are kept. (> 0)
+     * @param width - How many counters each row has. (> 0)
+     */
+    public CountMinSketch(final int depth, final int width) {
+        checkArgument(depth > 0 && width > 0, "depth and width must be greater than 0");
+        this.depth = depth;
+        this.width = width;
+        this.counts = new long[depth * width];
+    }
+
+    /**
+     * @param hash1 - The first 64 bits of a hash of the value.
+     * @param hash2 - The second 64 bits of the same hash.
+     * @param count - How many times the value is being added.
+     */
+    public void add(final long hash1, final long hash2, final long count) {
+        for (int row = 0; row < depth; row++) {
+            counts[row * width + bucket(hash1, hash2, row)] += count;
+        }
+    }
+
+    /**
+     * @param hash1 - The first 64 bits of a hash of the value.
+     * @param hash2 - The second 64 bits of the same hash.
+     * @return An estimate of how many times the value was added.
+     */
+    public long estimate(final long hash1, final long hash2) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counts[row * width + bucket(hash1, hash2, row)]);
+        }
+        return min;
+    }
+
+    /**
+     * Adds the counts of another sketch to this one.
+     *
+     * @param other - A sketch with the same depth and width. (not null)
+     */
+    public void merge(final CountMinSketch other) {
+        checkArgument(other.depth == depth && other.width == width, "Cannot merge sketches with different dimensions.");
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+    }
+
+    private int bucket(final long hash1, final long hash2, final int row) {
+        // Derives one hash per row from two, as described by Kirsch and Mitzenmacher.
+        final long combined = hash1 + row * hash2;
+        return (int) ((combined & Long.MAX_VALUE) % width);
+    }
+
+    public void write(final DataOutput out) throws IOException {
+        out.writeInt(depth);
+        out.writeInt(width);
+        for (final long count : counts) {
+            out.writeLong(count);
+        }
+    }
+
+    public static CountMinSketch read(final DataInput in) throws IOException {
+        final CountMinSketch cms = new CountMinSketch(in.readInt(), in.readInt());
+        for (int i = 0; i < cms.counts.length; i++) {
+            cms.counts[i] = in.readLong();
+        }
+        return cms;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.prospector.sketch;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Keeps the values with the largest counts that have been added to it. The
+ * Prospector adds each value with its total count, so the values that are kept
+ * and their counts are exact for the data a single reducer saw.
+ */
+public class HeavyHitters {
+
+    public static final int DEFAULT_CAPACITY = 32;
+
+    private final int capacity;
+    private final Map<String, Long> counts = new HashMap<>();
+
+    /**
+     * Constructs an empty instance of {@link HeavyHitters} that keeps {@link #DEFAULT_CAPACITY} values.
+     */
+    public HeavyHitters() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity - The maximum number of values that are kept. (> 0)
+     */
+    public HeavyHitters(final int capacity) {
+        checkArgument(capacity > 0, "capacity must be greater than 0");
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param value - The value that is being added. (not null)
+     * @param count - How many times the value is being added.
+     */
+    public void add(final String value, final long count) {
+        final Long current = counts.get(value);
+        counts.put(value, current == null ? count : current + count);
+        if (counts.size() > capacity) {
+            evictSmallest();
+        }
+    }
+
+    /**
+     * Adds the values kept by another instance to this one.
+     *
+     * @param other - The values to add. (not null)
+     */
+    public void merge(final HeavyHitters other) {
+        for (final Entry<String, Long> entry : other.counts.entrySet()) {
+            final Long current = counts.get(entry.getKey());
+            counts.put(entry.getKey(), current == null ? entry.getValue() : current + entry.getValue());
+        }
+        while (counts.size() > capacity) {
+            evictSmallest();
+        }
+    }
+
+    /**
+     * @return The values that are kept, mapped to their counts.
+     */
+    public Map<String, Long> getCounts() {
+        return Collections.unmodifiableMap(counts);
+    }
+
+    private void evictSmallest() {
+        String smallest = null;
+        long smallestCount = Long.MAX_VALUE;
+        for (final Entry<String, Long> entry : counts.entrySet()) {
+            if (entry.getValue() < smallestCount) {
+                smallest = entry.getKey();
+                smallestCount = entry.getValue();
+            }
+        }
+        counts.remove(smallest);
+    }
+
+    public void write(final DataOutput out) throws IOException {
+        out.writeInt(capacity);
+        out.writeInt(counts.size());
+        for (final Entry<String, Long> entry : counts.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeLong(entry.getValue());
+        }
+    }
+
+    public static HeavyHitters read(final DataInput in) throws IOException {
+        final HeavyHitters heavyHitters = new HeavyHitters(in.readInt());
+        final int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            heavyHitters.counts.put(in.readUTF(), in.readLong());
+        }
+        return heavyHitters;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.prospector.sketch;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * Summarizes the values that appear in one position of the Statements that
+ * use a predicate: how many Statements there are, how many distinct values
+ * they have, how often each value appears, and which values appear the most.
+ * Sketches built from different parts of the data may be merged.
+ */
+public class ValueSketch {
+
+    private static final int VERSION = 1;
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    private long count = 0;
+    private final HyperLogLog distinct;
+    private final CountMinSketch frequencies;
+    private final HeavyHitters heavyHitters;
+
+    /**
+     * Constructs an empty instance of {@link ValueSketch}.
+     */
+    public ValueSketch() {
+        this(new HyperLogLog(), new CountMinSketch(), new HeavyHitters());
+    }
+
+    private ValueSketch(final HyperLogLog distinct, final CountMinSketch frequencies, final HeavyHitters heavyHitters) {
+        this.distinct = distinct;
+        this.frequencies = frequencies;
+        this.heavyHitters = heavyHitters;
+    }
+
+    /**
+     * @param value - The value that is being added. (not null)
+     * @param valueCount - How many Statements have the value.
+     */
+    public void add(final String value, final long valueCount) {
+        requireNonNull(value);
+        final ByteBuffer hash = hash(value);
+        final long hash1 = hash.getLong();
+        final long hash2 = hash.getLong();
+        count += valueCount;
+        distinct.add(hash1);
+        frequencies.add(hash1, hash2, valueCount);
+        heavyHitters.add(value, valueCount);
+    }
+
+    /**
+     * Adds everything that was added to another sketch to this one.
+     *
+     * @param other - The sketch to add. (not null)
+     */
+    public void merge(final ValueSketch other) {
+        count += other.count;
+        distinct.merge(other.distinct);
+        frequencies.merge(other.frequencies);
+        heavyHitters.merge(other.heavyHitters);
+    }
+
+    /**
+     * @return How many Statements were summarized.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return An estimate of how many distinct values the Statements have.
+     */
+    public long getDistinctCount() {
+        return Math.max(1, Math.min(count, distinct.estimate()));
+    }
+
+    /**
+     * @param value - The value to look up. (not null)
+     * @return An estimate of how many Statements have the value. It is exact
+     *   when the value is one of the {@link #getHeavyHitters()}.
+     */
+    public long getFrequency(final String value) {
+        final Long exact = heavyHitters.getCounts().get(value);
+        if (exact != null) {
+            return exact;
+        }
+        final ByteBuffer hash = hash(value);
+        return Math.min(count, frequencies.estimate(hash.getLong(), hash.getLong()));
+    }
+
+    /**
+     * @return The values that appear the most, with their counts.
+     */
+    public HeavyHitters getHeavyHitters() {
+        return heavyHitters;
+    }
+
+    private static ByteBuffer hash(final String value) {
+        return ByteBuffer.wrap(HASH.hashString(value, StandardCharsets.UTF_8).asBytes());
+    }
+
+    /**
+     * @return The serialized form of the sketch.
+     * @throws IOException The sketch could not be serialized.
+     */
+    public byte[] toBytes() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(VERSION);
+        out.writeLong(count);
+        distinct.write(out);
+        frequencies.write(out);
+        heavyHitters.write(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param bytes - The output of {@link #toBytes()}. (not null)
+     * @return The sketch that was serialized.
+     * @throws IOException The bytes are not a serialized sketch.
+     */
+    public static ValueSketch fromBytes(final byte[] bytes) throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        final int version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported sketch version: " + version);
+        }
+        final long count = in.readLong();
+        final ValueSketch sketch = new ValueSketch(HyperLogLog.read(in), CountMinSketch.read(in), HeavyHitters.read(in));
+        sketch.count = count;
+        return sketch;
+    }
+}
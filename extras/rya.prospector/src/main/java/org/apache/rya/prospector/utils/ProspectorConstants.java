@@ -27,6 +27,11 @@ public class ProspectorConstants {
      */
     public static final String COUNT = "count";
 
+    /**
+     * The name of the Sketch index.
+     */
+    public static final String SKETCH = "sketch";
+
     /**
      * The Row ID within Accumulo for any metadata entry related to a Prospect run.
      */
@@ -19,6 +19,7 @@
 package org.apache.rya.prospector.mr;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -41,11 +42,16 @@ import org.apache.rya.accumulo.AccumuloRyaDAO;
 import org.apache.rya.api.domain.RyaStatement;
 import org.apache.rya.api.domain.RyaType;
 import org.apache.rya.api.domain.RyaIRI;
+import org.apache.rya.joinselect.SketchJoinStatistics;
 import org.apache.rya.prospector.domain.IndexEntry;
 import org.apache.rya.prospector.domain.TripleValueType;
 import org.apache.rya.prospector.service.ProspectorService;
+import org.apache.rya.prospector.sketch.ValueSketch;
 import org.apache.rya.prospector.utils.ProspectorConstants;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.Var;
 import org.junit.Test;
 
 import com.google.common.collect.Lists;
@@ -234,6 +240,64 @@ public class ProspectorTest {
         assertEquals(expectedSubjectObjectEntries, subjectObjectEntries);
     }
 
+    @Test
+    public void testSketches() throws Exception {
+        // Load some data into a mock Accumulo and run the Prospector MapReduce job.
+        final Instance mock = new MockInstance("accumulo");
+
+        final Connector connector = mock.getConnector("user", new PasswordToken("pass"));
+        final String outtable = "rya_prospects";
+        if (connector.tableOperations().exists(outtable)) {
+            connector.tableOperations().delete(outtable);
+        }
+        connector.tableOperations().create(outtable);
+
+        final AccumuloRyaDAO ryaDAO = new AccumuloRyaDAO();
+        ryaDAO.setConnector(connector);
+        ryaDAO.init();
+
+        ryaDAO.add(new RyaStatement(new RyaIRI("urn:gem:etype#1234"), new RyaIRI("urn:gem#pred"), new RyaType("mydata1")));
+        ryaDAO.add(new RyaStatement(new RyaIRI("urn:gem:etype#1234"), new RyaIRI("urn:gem#pred"), new RyaType("mydata2")));
+        ryaDAO.add(new RyaStatement(new RyaIRI("urn:gem:etype#1234"), new RyaIRI("urn:gem#pred"), new RyaType("12")));
+        ryaDAO.add(new RyaStatement(new RyaIRI("urn:gem:etype#1235"), new RyaIRI("urn:gem#pred"), new RyaType(XMLSchema.INTEGER, "12")));
+        ryaDAO.add(new RyaStatement(new RyaIRI("urn:gem:etype#1235"), new RyaIRI("urn:gem#pred1"), new RyaType("12")));
+
+        final String confFile = "stats_cluster_config.xml";
+        final Path confPath = new Path(getClass().getClassLoader().getResource(confFile).toString());
+        final String[] args = { confPath.toString() };
+        ToolRunner.run(new Prospector(), args);
+        ryaDAO.destroy();
+
+        final SketchJoinStatistics stats = new SketchJoinStatistics(connector, outtable, new String[] {"U", "FOUO"});
+        stats.refresh();
+
+        // Ensure the sketch of the predicate's subjects was created.
+        final ValueSketch subjects = stats.getSketch("urn:gem#pred", TripleValueType.SUBJECT);
+        assertNotNull(subjects);
+        assertEquals(4, subjects.getCount());
+        assertEquals(2, subjects.getDistinctCount());
+        assertEquals(3, subjects.getFrequency("urn:gem:etype#1234"));
+
+        // Ensure the sketch of the predicate's objects counts values regardless of their type.
+        final ValueSketch objects = stats.getSketch("urn:gem#pred", TripleValueType.OBJECT);
+        assertEquals(2, objects.getFrequency("12"));
+
+        // Only etype#1235 joins: 1 of the 4 x 1 pairs of statements.
+        final StatementPattern sp1 = new StatementPattern(new Var("x"), constant("urn:gem#pred"), new Var("y"));
+        final StatementPattern sp2 = new StatementPattern(new Var("x"), constant("urn:gem#pred1"), new Var("z"));
+        assertEquals(0.25, stats.getJoinSelectivity(sp1, sp2), 0.0001);
+
+        // Patterns that do not share a variable can not be estimated.
+        final StatementPattern sp3 = new StatementPattern(new Var("a"), constant("urn:gem#pred1"), new Var("b"));
+        assertEquals(null, stats.getJoinSelectivity(sp1, sp3));
+    }
+
+    private static Var constant(final String iri) {
+        final Var var = new Var("const_" + iri, SimpleValueFactory.getInstance().createIRI(iri));
+        var.setConstant(true);
+        return var;
+    }
+
     /**
      * Prints the content of an Accumulo table to standard out. Only use then when
      * debugging the test.
@@ -21,11 +21,21 @@ package org.apache.rya.shell;
 import static java.util.Objects.requireNonNull;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.apache.commons.io.FilenameUtils;
+import org.apache.hadoop.io.Text;
+import org.apache.rya.accumulo.AccumuloRdfConfiguration;
+import org.apache.rya.accumulo.utils.SplitPointAdvisor;
+import org.apache.rya.api.RdfCloudTripleStoreConstants.TABLE_LAYOUT;
 import org.apache.rya.api.client.CreatePCJ.ExportStrategy;
 import org.apache.rya.api.client.GetInstanceDetails;
 import org.apache.rya.api.client.Install.DuplicateInstanceNameException;
@@ -34,6 +44,8 @@ import org.apache.rya.api.client.InstanceDoesNotExistException;
 import org.apache.rya.api.client.RyaClient;
 import org.apache.rya.api.client.RyaClientException;
 import org.apache.rya.api.instance.RyaDetails;
+import org.apache.rya.api.resolver.RdfToRyaConversions;
+import org.apache.rya.api.resolver.triple.TripleRowResolverException;
 import org.apache.rya.shell.SharedShellState.ConnectionState;
 import org.apache.rya.shell.SharedShellState.ShellState;
 import org.apache.rya.shell.SharedShellState.StorageType;
@@ -42,6 +54,13 @@ import org.apache.rya.shell.util.InstanceNamesFormatter;
 import org.apache.rya.shell.util.RyaDetailsFormatter;
 import org.apache.rya.shell.util.SparqlPrompt;
 import org.apache.rya.shell.util.UninstallPrompt;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+import org.eclipse.rdf4j.rio.RDFParseException;
+import org.eclipse.rdf4j.rio.RDFParser;
+import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.helpers.AbstractRDFHandler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.shell.core.CommandMarker;
 import org.springframework.shell.core.annotation.CliAvailabilityIndicator;
@@ -68,6 +87,11 @@ public class RyaAdminCommands implements CommandMarker {
     public static final String INSTALL_MONGO_PARAMETERS_CMD = "install-with-mongo-parameters";
     public static final String LIST_INSTANCES_CMD = "list-instances";
     public static final String UNINSTALL_CMD = "uninstall";
+
+    /**
+     * The number of statements held in the sample that table split points are computed from.
+     */
+    private static final int SPLIT_SAMPLE_SIZE = 100_000;
     public static final String ADD_USER_CMD = "add-user";
     public static final String REMOVE_USER_CMD = "remove-user";
 
@@ -300,14 +324,20 @@ public class RyaAdminCommands implements CommandMarker {
             final boolean enablePcjIndex,
 
             @CliOption(key = {"fluoPcjAppName"}, mandatory = false, help = "Fluo Application Name for PCJ Index Updater (fluo app must be initialized and enablePcjIndex=true).")
-            final String fluoPcjAppName
+            final String fluoPcjAppName,
+
+            @CliOption(key = {"splitSampleFile"}, mandatory = false, help = "A local file of RDF Statements that is sampled to pre-split the core tables.")
+            final String splitSampleFile,
+
+            @CliOption(key = {"splitsPerTable"}, mandatory = false, help = "The number of split points computed for each core table from the sample file.", unspecifiedDefaultValue = "0")
+            final int splitsPerTable
             ) {
 
         // Fetch the commands that are connected to the store.
         final RyaClient commands = state.getShellState().getConnectedCommands().get();
 
         try {
-            final InstallConfiguration installConfig = InstallConfiguration.builder()
+            final InstallConfiguration.Builder builder = InstallConfiguration.builder()
                     .setEnableTableHashPrefix(enableTableHashPrefix)
                     .setEnableEntityCentricIndex(enableEntityCentricIndex)
                     .setEnableFreeTextIndex(enableFreeTextIndex)
@@ -315,8 +345,13 @@ public class RyaAdminCommands implements CommandMarker {
                     //                    .setEnableGeoIndex(enableGeospatialIndex)
                     .setEnableTemporalIndex(enableTemporalIndex)
                     .setEnablePcjIndex(enablePcjIndex)
-                    .setFluoPcjAppName(fluoPcjAppName)
-                    .build();
+                    .setFluoPcjAppName(fluoPcjAppName);
+
+            // Pre-split the core tables along a sample of the data that will be loaded.
+            if (splitSampleFile != null && splitsPerTable > 0) {
+                setSampledTableSplits(builder, splitSampleFile, enableTableHashPrefix, splitsPerTable);
+            }
+            final InstallConfiguration installConfig = builder.build();
 
             // Verify the configuration is what the user actually wants to do.
             if (!installPrompt.promptVerified(instanceName, installConfig)) {
@@ -334,6 +369,54 @@ public class RyaAdminCommands implements CommandMarker {
         }
     }
 
+    /**
+     * Samples a file of RDF Statements with a {@link SplitPointAdvisor} and stores the split
+     * points it computes for each core table in an installation configuration.
+     *
+     * @param builder - The installation configuration that receives the split points. (not null)
+     * @param file - A local file containing RDF Statements. (not null)
+     * @param enableTableHashPrefix - Whether the rows of the installed instance are prefixed with a hash.
+     * @param splitsPerTable - The number of split points to compute for each core table.
+     * @throws IOException The file could not be read or parsed.
+     */
+    private static void setSampledTableSplits(final InstallConfiguration.Builder builder, final String file,
+            final boolean enableTableHashPrefix, final int splitsPerTable) throws IOException {
+        final String userHome = FilenameUtils.separatorsToUnix(System.getProperty("user.home"));
+        final Path rootedFile = Paths.get( file.replaceFirst("^~", userHome) );
+        final RDFFormat rdfFormat = Rio.getParserFormatForFileName(rootedFile.getFileName().toString()).orElseThrow(
+                () -> new IOException("Unable to detect RDF Statement data input format for file: " + rootedFile));
+
+        // The rows are sampled exactly as the installed instance will serialize them.
+        final AccumuloRdfConfiguration conf = new AccumuloRdfConfiguration();
+        conf.setPrefixRowsWithHash(enableTableHashPrefix);
+        final SplitPointAdvisor advisor = new SplitPointAdvisor(conf, SPLIT_SAMPLE_SIZE);
+
+        final RDFParser parser = Rio.createParser(rdfFormat);
+        parser.setRDFHandler(new AbstractRDFHandler() {
+            @Override
+            public void handleStatement(final Statement statement) throws RDFHandlerException {
+                try {
+                    advisor.addStatement(RdfToRyaConversions.convertStatement(statement));
+                } catch (final TripleRowResolverException e) {
+                    throw new RDFHandlerException("Could not sample the statement: " + statement, e);
+                }
+            }
+        });
+        try (final InputStream in = Files.newInputStream(rootedFile)) {
+            parser.parse(in, rootedFile.toUri().toString());
+        } catch (final RDFParseException | RDFHandlerException e) {
+            throw new IOException("Could not sample the file: " + rootedFile, e);
+        }
+
+        for (final TABLE_LAYOUT layout : TABLE_LAYOUT.values()) {
+            final List<byte[]> splits = new ArrayList<>();
+            for (final Text split : advisor.getSplits(layout, splitsPerTable)) {
+                splits.add(split.copyBytes());
+            }
+            builder.setTableSplits(layout, splits);
+        }
+    }
+
     @CliCommand(value = INSTALL_MONGO_PARAMETERS_CMD, help = "Create a new MongoDB instance of Rya with command line parameters.")
     public String installWithMongoParameters(
             @CliOption(key = {"instanceName"}, mandatory = true, help = "The name of the Rya instance to create.")
@@ -19,18 +19,23 @@
 package org.apache.rya.shell;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
 import java.util.TimeZone;
 
+import org.apache.rya.api.RdfCloudTripleStoreConstants.TABLE_LAYOUT;
 import org.apache.rya.api.client.AddUser;
 import org.apache.rya.api.client.CreatePCJ;
 import org.apache.rya.api.client.CreatePCJ.ExportStrategy;
@@ -63,6 +68,7 @@ import org.apache.rya.shell.util.InstallPrompt;
 import org.apache.rya.shell.util.SparqlPrompt;
 import org.apache.rya.shell.util.UninstallPrompt;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
@@ -389,7 +395,7 @@ public class RyaAdminCommandsTest {
         when(mockInstallPrompt.promptVerified(eq(instanceName), eq(installConfig))).thenReturn(true);
 
         final RyaAdminCommands commands = new RyaAdminCommands(state, mockInstallPrompt, mock(SparqlPrompt.class), mock(UninstallPrompt.class));
-        final String message = commands.installWithAccumuloParameters(instanceName, enableTableHashPrefix, enableEntityCentricIndex, enableFreeTextIndex, enableTemporalIndex, enablePcjIndex, fluoPcjAppName);
+        final String message = commands.installWithAccumuloParameters(instanceName, enableTableHashPrefix, enableEntityCentricIndex, enableFreeTextIndex, enableTemporalIndex, enablePcjIndex, fluoPcjAppName, null, 0);
 
         // Verify the values that were provided to the command were passed through to the Install.
         verify(mockInstall).install(eq(instanceName), eq(installConfig));
@@ -434,13 +440,47 @@ public class RyaAdminCommandsTest {
         when(mockInstallPrompt.promptVerified(eq(instanceName), eq(installConfig))).thenReturn(false);
 
         final RyaAdminCommands commands = new RyaAdminCommands(state, mockInstallPrompt, mock(SparqlPrompt.class), mock(UninstallPrompt.class));
-        final String message = commands.installWithAccumuloParameters(instanceName, enableTableHashPrefix, enableEntityCentricIndex, enableFreeTextIndex, enableTemporalIndex, enablePcjIndex, fluoPcjAppName);
+        final String message = commands.installWithAccumuloParameters(instanceName, enableTableHashPrefix, enableEntityCentricIndex, enableFreeTextIndex, enableTemporalIndex, enablePcjIndex, fluoPcjAppName, null, 0);
 
         // Verify a message is returned that indicates the success of the operation.
         final String expected = "Skipping Installation.";
         assertEquals(expected, message);
     }
 
+    @Test
+    public void installWithAccumuloParameters_sampledSplits() throws Exception {
+        // Mock the object that performs the install operation.
+        final Install mockInstall = mock(Install.class);
+
+        final RyaClient mockCommands = mock(RyaClient.class);
+        when(mockCommands.getInstall()).thenReturn( mockInstall );
+
+        final SharedShellState state = new SharedShellState();
+        state.connectedToAccumulo(mock(AccumuloConnectionDetails.class), mockCommands);
+
+        // Write a sample of the data that will be loaded.
+        final File sampleFile = File.createTempFile("splitSample", ".nt");
+        sampleFile.deleteOnExit();
+        final StringBuilder triples = new StringBuilder();
+        for(int i = 0; i < 100; i++) {
+            triples.append(String.format("<urn:subject%03d> <urn:predicate%d> <urn:object%d> .%n", i, i % 10, i));
+        }
+        Files.write(sampleFile.toPath(), triples.toString().getBytes(StandardCharsets.UTF_8));
+
+        final InstallPrompt mockInstallPrompt = mock(InstallPrompt.class);
+        when(mockInstallPrompt.promptVerified(eq("unitTests"), any(InstallConfiguration.class))).thenReturn(true);
+
+        final RyaAdminCommands commands = new RyaAdminCommands(state, mockInstallPrompt, mock(SparqlPrompt.class), mock(UninstallPrompt.class));
+        commands.installWithAccumuloParameters("unitTests", false, false, false, false, false, null, sampleFile.getAbsolutePath(), 3);
+
+        // Verify the split points computed from the sample were passed through to the Install.
+        final ArgumentCaptor<InstallConfiguration> installConfig = ArgumentCaptor.forClass(InstallConfiguration.class);
+        verify(mockInstall).install(eq("unitTests"), installConfig.capture());
+        for(final TABLE_LAYOUT layout : TABLE_LAYOUT.values()) {
+            assertEquals(3, installConfig.getValue().getTableSplits(layout).size());
+        }
+    }
+
     @Test
     public void installWithMongoParameters() throws DuplicateInstanceNameException, RyaClientException, IOException {
         // Mock the object that performs the install operation.
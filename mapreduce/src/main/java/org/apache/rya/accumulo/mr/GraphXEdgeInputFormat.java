@@ -23,7 +23,12 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 
 import org.apache.accumulo.core.client.IteratorSetting;
@@ -81,6 +86,12 @@ public class GraphXEdgeInputFormat extends InputFormatBase<Object, Edge> {
 		conf.getConfiguration().set(MRUtils.TABLE_LAYOUT_PROP, layout.name());
 	}
 
+	/**
+	 * Number of statements whose vertex IDs are looked up together when the
+	 * vertex dictionary is used.
+	 */
+	private static final int DICTIONARY_BATCH_SIZE = 1000;
+
 	/**
 	 * Retrieves RyaStatementWritable objects from Accumulo tables.
 	 */
@@ -88,6 +99,9 @@ public class GraphXEdgeInputFormat extends InputFormatBase<Object, Edge> {
 			AbstractRecordReader<Object, Edge> {
 		private RyaTripleContext ryaContext;
 		private TABLE_LAYOUT tableLayout;
+		private VertexDictionary dictionary = null;
+		private final Deque<Entry<Key, RyaStatement>> pending = new ArrayDeque<>();
+		private Map<String, Long> pendingIds = null;
 
 		protected void setupIterators(final TaskAttemptContext context,
 				final Scanner scanner, final String tableName, final RangeInputSplit split) {
@@ -113,6 +127,9 @@ public class GraphXEdgeInputFormat extends InputFormatBase<Object, Edge> {
 			this.ryaContext = RyaTripleContext
 					.getInstance(new AccumuloRdfConfiguration(attempt
 							.getConfiguration()));
+			if (MRUtils.getUseVertexDictionary(attempt.getConfiguration())) {
+				this.dictionary = VertexDictionary.fromConfiguration(attempt.getConfiguration());
+			}
 		}
 
 		/**
@@ -127,16 +144,66 @@ public class GraphXEdgeInputFormat extends InputFormatBase<Object, Edge> {
 		 */
 		@Override
 		public boolean nextKeyValue() throws IOException {
+			if (dictionary != null) {
+				return nextDictionaryKeyValue();
+			}
 			if (!scannerIterator.hasNext()) {
                 return false;
             }
 			final Entry<Key, Value> entry = scannerIterator.next();
 			++numKeysRead;
 			currentKey = entry.getKey();
+			currentK = currentKey.getRow();
+			final RyaStatement stmt = readStatement(entry);
+
+			final long subHash = getVertexId(stmt.getSubject());
+			final long objHash = getVertexId(stmt.getObject());
+			currentV = createEdge(subHash, objHash, stmt);
+			return true;
+		}
+
+		/**
+		 * Reads statements ahead in batches so the IDs of their subjects and
+		 * objects can be fetched from the vertex dictionary together.
+		 */
+		private boolean nextDictionaryKeyValue() throws IOException {
+			if (pending.isEmpty()) {
+				final List<String> vertices = new ArrayList<>();
+				while (pending.size() < DICTIONARY_BATCH_SIZE && scannerIterator.hasNext()) {
+					final Entry<Key, Value> entry = scannerIterator.next();
+					++numKeysRead;
+					final RyaStatement stmt = readStatement(entry);
+					pending.add(new SimpleImmutableEntry<>(entry.getKey(), stmt));
+					vertices.add(VertexDictionary.getVertexKey(stmt.getSubject()));
+					vertices.add(VertexDictionary.getVertexKey(stmt.getObject()));
+				}
+				if (pending.isEmpty()) {
+					return false;
+				}
+				pendingIds = dictionary.getIds(vertices);
+			}
+
+			final Entry<Key, RyaStatement> next = pending.poll();
+			currentKey = next.getKey();
+			currentK = currentKey.getRow();
+			final RyaStatement stmt = next.getValue();
+			currentV = createEdge(getDictionaryId(stmt.getSubject()), getDictionaryId(stmt.getObject()), stmt);
+			return true;
+		}
+
+		private long getDictionaryId(final RyaType vertex) throws IOException {
+			final String vertexKey = VertexDictionary.getVertexKey(vertex);
+			final Long id = pendingIds.get(vertexKey);
+			if (id == null) {
+				throw new IOException("The vertex " + vertexKey + " is not in the vertex dictionary. "
+						+ "Rebuild the dictionary after loading new statements.");
+			}
+			return id;
+		}
+
+		private RyaStatement readStatement(final Entry<Key, Value> entry) throws IOException {
 			try {
-				currentK = currentKey.getRow();
-				final RyaTypeWritable rtw = new RyaTypeWritable();
-				final RyaStatement stmt = this.ryaContext.deserializeTriple(
+				return this.ryaContext.deserializeTriple(
 						this.tableLayout, new TripleRow(entry.getKey().getRow()
 								.getBytes(), entry.getKey().getColumnFamily()
 								.getBytes(), entry.getKey()
@@ -144,18 +211,15 @@ public class GraphXEdgeInputFormat extends InputFormatBase<Object, Edge> {
 								.getKey().getTimestamp(), entry.getKey()
 								.getColumnVisibility().getBytes(), entry
 								.getValue().get()));
-
-				final long subHash = getVertexId(stmt.getSubject());
-				final long objHash = getVertexId(stmt.getObject());
-				rtw.setRyaType(stmt.getPredicate());
-
-				final Edge<RyaTypeWritable> writable = new Edge<RyaTypeWritable>(
-						subHash, objHash, rtw);
-				currentV = writable;
 			} catch (final TripleRowResolverException e) {
 				throw new IOException(e);
 			}
-			return true;
+		}
+
+		private Edge<RyaTypeWritable> createEdge(final long srcId, final long dstId, final RyaStatement stmt) {
+			final RyaTypeWritable rtw = new RyaTypeWritable();
+			rtw.setRyaType(stmt.getPredicate());
+			return new Edge<RyaTypeWritable>(srcId, dstId, rtw);
 		}
 
 		protected List<IteratorSetting> contextIterators(
@@ -20,7 +20,12 @@ package org.apache.rya.accumulo.mr;
  */
 
 import java.io.IOException;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 
 import org.apache.rya.api.domain.RyaType;
@@ -41,6 +46,12 @@ public class GraphXInputFormat extends InputFormatBase<Object, RyaTypeWritable>
 
 	private static final int WHOLE_ROW_ITERATOR_PRIORITY = 23;
 
+	/**
+	 * Number of vertices whose IDs are looked up together when the vertex
+	 * dictionary is used.
+	 */
+	private static final int DICTIONARY_BATCH_SIZE = 1000;
+
 	/**
 	 * Instantiates a RecordReader for this InputFormat and a given task and
 	 * input split.
@@ -65,6 +76,10 @@ public class GraphXInputFormat extends InputFormatBase<Object, RyaTypeWritable>
 	 */
 	public class RyaStatementRecordReader extends
 			AbstractRecordReader<Object, RyaTypeWritable> {
+		private VertexDictionary dictionary = null;
+		private final Deque<Entry<Key, RyaType>> pending = new ArrayDeque<>();
+		private Map<String, Long> pendingIds = null;
+
 		protected void setupIterators(TaskAttemptContext context,
 				Scanner scanner, String tableName,
 				@SuppressWarnings("deprecation") RangeInputSplit split) {
@@ -87,6 +102,9 @@ public class GraphXInputFormat extends InputFormatBase<Object, RyaTypeWritable>
 		public void initialize(InputSplit inSplit, TaskAttemptContext attempt)
 				throws IOException {
 			super.initialize(inSplit, attempt);
+			if (MRUtils.getUseVertexDictionary(attempt.getConfiguration())) {
+				dictionary = VertexDictionary.fromConfiguration(attempt.getConfiguration());
+			}
 		}
 
 		/**
@@ -101,6 +119,8 @@ public class GraphXInputFormat extends InputFormatBase<Object, RyaTypeWritable>
 		 */
 		@Override
 		public boolean nextKeyValue() throws IOException {
+			if (dictionary != null)
+				return nextDictionaryKeyValue();
 			if (!scannerIterator.hasNext())
 				return false;
 			Entry<Key, Value> entry = scannerIterator.next();
@@ -119,6 +139,43 @@ public class GraphXInputFormat extends InputFormatBase<Object, RyaTypeWritable>
 			return true;
 		}
 
+		/**
+		 * Reads vertices ahead in batches so their IDs can be fetched from
+		 * the vertex dictionary together.
+		 */
+		private boolean nextDictionaryKeyValue() throws IOException {
+			if (pending.isEmpty()) {
+				List<String> vertices = new ArrayList<>();
+				while (pending.size() < DICTIONARY_BATCH_SIZE && scannerIterator.hasNext()) {
+					Entry<Key, Value> entry = scannerIterator.next();
+					++numKeysRead;
+					try {
+						RyaType type = EntityCentricIndex.getRyaType(entry.getKey(), entry.getValue());
+						pending.add(new SimpleImmutableEntry<>(entry.getKey(), type));
+						vertices.add(VertexDictionary.getVertexKey(type));
+					} catch (RyaTypeResolverException e) {
+						throw new IOException(e);
+					}
+				}
+				if (pending.isEmpty())
+					return false;
+				pendingIds = dictionary.getIds(vertices);
+			}
+
+			Entry<Key, RyaType> next = pending.poll();
+			currentKey = next.getKey();
+			String vertexKey = VertexDictionary.getVertexKey(next.getValue());
+			Long id = pendingIds.get(vertexKey);
+			if (id == null)
+				throw new IOException("The vertex " + vertexKey + " is not in the vertex dictionary. "
+						+ "Rebuild the dictionary after loading new statements.");
+			RyaTypeWritable writable = new RyaTypeWritable();
+			writable.setRyaType(next.getValue());
+			currentK = id;
+			currentV = writable;
+			return true;
+		}
+
 		protected List<IteratorSetting> contextIterators(
 				TaskAttemptContext context, String tableName) {
 			return getIterators(context);
@@ -86,6 +86,21 @@ public class MRUtils {
      * as opposed to through Accumulo itself.
      */
     public static final String AC_HDFS_INPUT_PROP = "ac.hdfsinput";
+    /**
+     * Property name for whether to load RDF files by writing RFiles and
+     * bulk importing them, as opposed to writing live mutations.
+     */
+    public static final String BULK_LOAD_PROP = "ac.bulkload";
+    /**
+     * Property name for the HDFS directory that holds the RFiles written
+     * for a bulk load. Must be readable and writable by Accumulo.
+     */
+    public static final String BULK_LOAD_DIR_PROP = "ac.bulkload.dir";
+    /**
+     * Property name for whether graph input formats should take vertex IDs
+     * from the vertex dictionary table instead of hashing each vertex.
+     */
+    public static final String VERTEX_DICTIONARY_PROP = "rdf.vertexdictionary";
     /**
      * Property name for the table layout to use when reading data from Rya.
      */
@@ -182,6 +197,16 @@ public class MRUtils {
         return conf.get(TABLE_PREFIX_PROPERTY);
     }
 
+    /**
+     * Gets whether graph input formats should use the vertex dictionary.
+     * @param conf  Configuration containing MapReduce tool options.
+     * @return  true if vertex IDs should be read from the vertex dictionary
+     *          table, false (the default) if they should be hashed.
+     */
+    public static boolean getUseVertexDictionary(Configuration conf) {
+        return conf.getBoolean(VERTEX_DICTIONARY_PROP, false);
+    }
+
     /**
      * Gets the table layout that determines which Rya table to scan for input.
      * @param   conf            Configuration containing MapReduce tool options.
@@ -267,6 +292,16 @@ public class MRUtils {
         conf.set(TABLE_PREFIX_PROPERTY, prefix);
     }
 
+    /**
+     * Sets whether graph input formats should use the vertex dictionary.
+     * @param conf  Configuration containing MapReduce tool options.
+     * @param useDictionary true to read vertex IDs from the vertex dictionary
+     *                      table, which must already have been built.
+     */
+    public static void setUseVertexDictionary(Configuration conf, boolean useDictionary) {
+        conf.setBoolean(VERTEX_DICTIONARY_PROP, useDictionary);
+    }
+
     /**
      * Sets the table layout in the given Configuration.
      * @param conf  Configuration containing MapReduce tool options.
@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.accumulo.mr;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.BatchScanner;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.Instance;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.client.ZooKeeperInstance;
+import org.apache.accumulo.core.client.mock.MockInstance;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.apache.rya.accumulo.AccumuloRdfConstants;
+import org.apache.rya.api.RdfCloudTripleStoreConstants;
+import org.apache.rya.api.domain.RyaType;
+import org.apache.rya.api.resolver.RyaContext;
+import org.apache.rya.api.resolver.RyaTypeResolverException;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.primitives.Longs;
+
+/**
+ * A persisted mapping between the vertices of a Rya graph and dense
+ * {@code long} IDs. Graph input formats use it instead of hashing each
+ * vertex, so IDs are compact, never collide, and can be translated back into
+ * the vertices they stand for.
+ * <p>
+ * The dictionary lives in a single table. Forward rows are a
+ * {@link #FORWARD_PREFIX} byte followed by the vertex's data, with the ID as
+ * the value. Reverse rows are a {@link #REVERSE_PREFIX} byte followed by the
+ * big-endian ID, with the serialized {@link RyaType} as the value. The table
+ * is built by {@link org.apache.rya.accumulo.mr.tools.VertexDictionaryTool}.
+ */
+public class VertexDictionary {
+    /**
+     * Suffix of the vertex dictionary table, appended to the Rya table prefix.
+     */
+    public static final String TABLE_SUFFIX = "vertex_dict";
+
+    public static final byte FORWARD_PREFIX = 0;
+    public static final byte REVERSE_PREFIX = 1;
+
+    private static final Text ID_CF = new Text("id");
+    private static final Text VALUE_CF = new Text("value");
+
+    private static final int DEFAULT_CACHE_SIZE = 100000;
+    private static final int QUERY_THREADS = 4;
+
+    private final Connector connector;
+    private final String tableName;
+    private final Authorizations authorizations;
+    private final Cache<String, Long> idCache;
+
+    /**
+     * Creates a dictionary that reads the given table.
+     * @param connector     Connects to the Accumulo instance holding the table.
+     * @param tableName     Name of the vertex dictionary table.
+     * @param authorizations    Authorizations used to scan the table.
+     * @param cacheSize     Number of vertex IDs to keep in memory.
+     */
+    public VertexDictionary(final Connector connector, final String tableName,
+            final Authorizations authorizations, final int cacheSize) {
+        this.connector = Preconditions.checkNotNull(connector);
+        this.tableName = Preconditions.checkNotNull(tableName);
+        this.authorizations = Preconditions.checkNotNull(authorizations);
+        this.idCache = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    /**
+     * Creates a dictionary for the Rya instance described by a MapReduce
+     * configuration. See {@link MRUtils} for the connection properties.
+     * @param conf  Configuration containing MapReduce tool options.
+     * @return  A dictionary reading the instance's vertex dictionary table.
+     * @throws IOException if connecting to Accumulo fails.
+     */
+    public static VertexDictionary fromConfiguration(final Configuration conf) throws IOException {
+        final String instanceName = MRUtils.getACInstance(conf);
+        final String userName = MRUtils.getACUserName(conf);
+        final String pwd = MRUtils.getACPwd(conf);
+        Preconditions.checkNotNull(instanceName, "Accumulo instance name [" + MRUtils.AC_INSTANCE_PROP + "] not set.");
+        Preconditions.checkNotNull(userName, "Accumulo username [" + MRUtils.AC_USERNAME_PROP + "] not set.");
+        Preconditions.checkNotNull(pwd, "Accumulo password [" + MRUtils.AC_PWD_PROP + "] not set.");
+
+        final Instance instance;
+        if (MRUtils.getACMock(conf, false)) {
+            instance = new MockInstance(instanceName);
+        } else {
+            instance = new ZooKeeperInstance(instanceName, MRUtils.getACZK(conf));
+        }
+
+        final String authString = conf.get(MRUtils.AC_AUTH_PROP);
+        final Authorizations authorizations = authString == null || authString.isEmpty()
+                ? AccumuloRdfConstants.ALL_AUTHORIZATIONS : new Authorizations(authString.split(","));
+
+        String tablePrefix = MRUtils.getTablePrefix(conf);
+        if (tablePrefix == null) {
+            tablePrefix = RdfCloudTripleStoreConstants.TBL_PRFX_DEF;
+        }
+
+        try {
+            final Connector connector = instance.getConnector(userName, new PasswordToken(pwd));
+            return new VertexDictionary(connector, getTableName(tablePrefix), authorizations, DEFAULT_CACHE_SIZE);
+        } catch (AccumuloException | AccumuloSecurityException e) {
+            throw new IOException("Could not connect to the vertex dictionary.", e);
+        }
+    }
+
+    /**
+     * @param tablePrefix   Prefix of the Rya instance's tables.
+     * @return  The name of the instance's vertex dictionary table.
+     */
+    public static String getTableName(final String tablePrefix) {
+        return tablePrefix + TABLE_SUFFIX;
+    }
+
+    /**
+     * @param vertex    A subject or object of a statement, may be null.
+     * @return  The value the vertex is stored under in the dictionary.
+     */
+    public static String getVertexKey(final RyaType vertex) {
+        return vertex == null ? "" : vertex.getData();
+    }
+
+    /**
+     * Creates the forward and reverse entries for one vertex.
+     * @param vertex    The vertex being added.
+     * @param id    The vertex's ID.
+     * @param cv    Visibility of the new entries.
+     * @return  Mutations that add the vertex to the dictionary table.
+     * @throws IOException if the vertex cannot be serialized.
+     */
+    public static List<Mutation> createMutations(final RyaType vertex, final long id, final ColumnVisibility cv) throws IOException {
+        final Mutation forward = new Mutation(forwardRow(getVertexKey(vertex)));
+        forward.put(ID_CF, RdfCloudTripleStoreConstants.EMPTY_TEXT, cv, new Value(Longs.toByteArray(id)));
+
+        final Mutation reverse = new Mutation(reverseRow(id));
+        try {
+            reverse.put(VALUE_CF, RdfCloudTripleStoreConstants.EMPTY_TEXT, cv, new Value(RyaContext.getInstance().serialize(vertex)));
+        } catch (final RyaTypeResolverException e) {
+            throw new IOException("Could not serialize vertex " + vertex, e);
+        }
+        return Arrays.asList(forward, reverse);
+    }
+
+    /**
+     * @return  The range holding every reverse entry of the dictionary table.
+     */
+    public static Range getReverseRange() {
+        return new Range(new Text(new byte[] { REVERSE_PREFIX }), true, new Text(new byte[] { REVERSE_PREFIX + 1 }), false);
+    }
+
+    /**
+     * @param key   Key of a reverse entry.
+     * @return  The vertex ID the entry is for.
+     */
+    public static long getReverseId(final Key key) {
+        final byte[] row = key.getRow().copyBytes();
+        return Longs.fromByteArray(Arrays.copyOfRange(row, 1, row.length));
+    }
+
+    /**
+     * @param value Value of a reverse entry.
+     * @return  The vertex the entry is for.
+     * @throws IOException if the vertex cannot be deserialized.
+     */
+    public static RyaType getReverseVertex(final Value value) throws IOException {
+        try {
+            return RyaContext.getInstance().deserialize(value.get());
+        } catch (final RyaTypeResolverException e) {
+            throw new IOException("Could not deserialize a vertex from the dictionary.", e);
+        }
+    }
+
+    /**
+     * Looks up the IDs of a batch of vertices, reading any that are not cached
+     * with a single batch scan.
+     * @param vertices  Vertex keys, as returned by {@link #getVertexKey(RyaType)}.
+     * @return  The ID of each vertex found in the dictionary. Vertices that
+     *          are not in the dictionary are left out.
+     * @throws IOException if the dictionary table cannot be read.
+     */
+    public Map<String, Long> getIds(final Collection<String> vertices) throws IOException {
+        final Map<String, Long> ids = new HashMap<>();
+        final List<Range> ranges = new ArrayList<>();
+        for (final String vertex : vertices) {
+            if (ids.containsKey(vertex)) {
+                continue;
+            }
+            final Long id = idCache.getIfPresent(vertex);
+            if (id != null) {
+                ids.put(vertex, id);
+            } else {
+                ranges.add(Range.exact(forwardRow(vertex)));
+            }
+        }
+
+        if (!ranges.isEmpty()) {
+            for (final Entry<Key, Value> entry : scan(ranges, ID_CF)) {
+                final byte[] row = entry.getKey().getRow().copyBytes();
+                final String vertex = new String(row, 1, row.length - 1, StandardCharsets.UTF_8);
+                final long id = Longs.fromByteArray(entry.getValue().get());
+                ids.put(vertex, id);
+                idCache.put(vertex, id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Translates a batch of vertex IDs back into the vertices they stand for.
+     * @param ids   IDs assigned by the dictionary.
+     * @return  The vertex for each ID found in the dictionary.
+     * @throws IOException if the dictionary table cannot be read.
+     */
+    public Map<Long, RyaType> getVertices(final Collection<Long> ids) throws IOException {
+        final Map<Long, RyaType> vertices = new HashMap<>();
+        if (ids.isEmpty()) {
+            return vertices;
+        }
+        final List<Range> ranges = new ArrayList<>();
+        for (final Long id : ids) {
+            ranges.add(Range.exact(reverseRow(id)));
+        }
+        for (final Entry<Key, Value> entry : scan(ranges, VALUE_CF)) {
+            vertices.put(getReverseId(entry.getKey()), getReverseVertex(entry.getValue()));
+        }
+        return vertices;
+    }
+
+    private List<Entry<Key, Value>> scan(final List<Range> ranges, final Text columnFamily) throws IOException {
+        final List<Entry<Key, Value>> entries = new ArrayList<>();
+        BatchScanner scanner = null;
+        try {
+            scanner = connector.createBatchScanner(tableName, authorizations, QUERY_THREADS);
+            scanner.setRanges(ranges);
+            scanner.fetchColumnFamily(columnFamily);
+            for (final Entry<Key, Value> entry : scanner) {
+                entries.add(entry);
+            }
+        } catch (final TableNotFoundException e) {
+            throw new IOException("The vertex dictionary table " + tableName + " does not exist.", e);
+        } finally {
+            if (scanner != null) {
+                scanner.close();
+            }
+        }
+        return entries;
+    }
+
+    private static Text forwardRow(final String vertex) {
+        final byte[] data = vertex.getBytes(StandardCharsets.UTF_8);
+        final byte[] row = new byte[data.length + 1];
+        row[0] = FORWARD_PREFIX;
+        System.arraycopy(data, 0, row, 1, data.length);
+        return new Text(row);
+    }
+
+    private static Text reverseRow(final long id) {
+        final byte[] row = new byte[Longs.BYTES + 1];
+        row[0] = REVERSE_PREFIX;
+        System.arraycopy(Longs.toByteArray(id), 0, row, 1, Longs.BYTES);
+        return new Text(row);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.accumulo.mr;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map.Entry;
+
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.mapreduce.InputFormatBase;
+import org.apache.accumulo.core.client.mapreduce.RangeInputSplit;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+
+/**
+ * Reads the reverse entries of a {@link VertexDictionary} table as (vertex ID,
+ * vertex) pairs. Joining graph results keyed by vertex ID against this input
+ * translates them back into the vertices they describe.
+ */
+public class VertexDictionaryInputFormat extends InputFormatBase<Object, RyaTypeWritable> {
+
+    /**
+     * Configures a job to read the given vertex dictionary table.
+     * @param job   Job to configure. The connection must be configured separately.
+     * @param tableName Name of the vertex dictionary table.
+     */
+    public static void setDictionaryTable(final Job job, final String tableName) {
+        setInputTableName(job, tableName);
+        setRanges(job, Collections.singleton(VertexDictionary.getReverseRange()));
+    }
+
+    @Override
+    public RecordReader<Object, RyaTypeWritable> createRecordReader(final InputSplit split, final TaskAttemptContext context) {
+        return new VertexRecordReader();
+    }
+
+    /**
+     * Converts each reverse entry into a vertex ID and the vertex it stands for.
+     */
+    public class VertexRecordReader extends AbstractRecordReader<Object, RyaTypeWritable> {
+        @Override
+        protected void setupIterators(final TaskAttemptContext context, final Scanner scanner, final String tableName,
+                final RangeInputSplit split) {
+        }
+
+        @Override
+        public boolean nextKeyValue() throws IOException {
+            if (!scannerIterator.hasNext()) {
+                return false;
+            }
+            final Entry<Key, Value> entry = scannerIterator.next();
+            ++numKeysRead;
+            currentKey = entry.getKey();
+            final RyaTypeWritable writable = new RyaTypeWritable();
+            writable.setRyaType(VertexDictionary.getReverseVertex(entry.getValue()));
+            currentK = VertexDictionary.getReverseId(currentKey);
+            currentV = writable;
+            return true;
+        }
+    }
+}
@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
 
+import org.apache.accumulo.core.client.admin.TableOperations;
 import org.apache.accumulo.core.client.mapreduce.AccumuloInputFormat;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Mutation;
@@ -39,6 +40,7 @@ import org.apache.hadoop.util.Tool;
 import org.apache.hadoop.util.ToolRunner;
 import org.apache.rya.accumulo.AccumuloRdfConfiguration;
 import org.apache.rya.accumulo.AccumuloRdfConstants;
+import org.apache.rya.accumulo.EvalStatsDeltas;
 import org.apache.rya.accumulo.mr.AbstractAccumuloMRTool;
 import org.apache.rya.accumulo.mr.MRUtils;
 import org.apache.rya.api.RdfCloudTripleStoreConstants;
@@ -60,11 +62,21 @@ import com.google.common.io.ByteStreams;
  * Class RdfCloudTripleStoreCountTool
  * Date: Apr 12, 2011
  * Time: 10:39:40 AM
+ * <p>
+ * When the eval table sums incremental deltas (see {@link EvalStatsDeltas}), each
+ * count this tool writes deletes the cell's earlier count and deltas, so a rerun
+ * replaces the counts instead of adding to them.
  * @deprecated
  */
 @Deprecated
 public class AccumuloRdfCountTool extends AbstractAccumuloMRTool implements Tool {
 
+    /**
+     * Set when the eval table has the delta combiner. Counts replace whatever their
+     * cells held up to this time.
+     */
+    public static final String REPLACE_BEFORE_PROP = "rdf.count.replaceBefore";
+
     public static void main(final String[] args) {
         try {
 
@@ -85,6 +97,12 @@ public class AccumuloRdfCountTool extends AbstractAccumuloMRTool implements Tool
         //initialize
         init();
 
+        final String outputTable = MRUtils.getTablePrefix(conf) + RdfCloudTripleStoreConstants.TBL_EVAL_SUFFIX;
+        final TableOperations tableOps = getConnector().tableOperations();
+        if (tableOps.exists(outputTable) && tableOps.listIterators(outputTable).containsKey(EvalStatsDeltas.COMBINER_NAME)) {
+            conf.setLong(REPLACE_BEFORE_PROP, System.currentTimeMillis());
+        }
+
         final Job job = new Job(conf);
         job.setJarByClass(AccumuloRdfCountTool.class);
         setupAccumuloInput(job);
@@ -101,7 +119,6 @@ public class AccumuloRdfCountTool extends AbstractAccumuloMRTool implements Tool
         job.setCombinerClass(CountPiecesCombiner.class);
         job.setReducerClass(CountPiecesReducer.class);
 
-        final String outputTable = MRUtils.getTablePrefix(conf) + RdfCloudTripleStoreConstants.TBL_EVAL_SUFFIX;
         setupAccumuloOutput(job, outputTable);
 
         // Submit the job
@@ -218,6 +235,7 @@ public class AccumuloRdfCountTool extends AbstractAccumuloMRTool implements Tool
         private String tablePrefix;
         protected Text table;
         private ColumnVisibility cv = AccumuloRdfConstants.EMPTY_CV;
+        private long replaceBefore = -1;
 
         @Override
         protected void setup(final Context context) throws IOException, InterruptedException {
@@ -228,6 +246,7 @@ public class AccumuloRdfCountTool extends AbstractAccumuloMRTool implements Tool
             if (cv_s != null) {
                 cv = new ColumnVisibility(cv_s);
             }
+            replaceBefore = context.getConfiguration().getLong(REPLACE_BEFORE_PROP, -1);
         }
 
         @Override
@@ -254,7 +273,17 @@ public class AccumuloRdfCountTool extends AbstractAccumuloMRTool implements Tool
             row.set(v);
             final Mutation m = new Mutation(row);
             v_out.set((count + "").getBytes(StandardCharsets.UTF_8));
-            m.put(cat_txt, columnQualifier, cv, v_out);
+            if (replaceBefore < 0) {
+                m.put(cat_txt, columnQualifier, cv, v_out);
+            } else {
+                // The combiner would add this count to the old one, so the old count and
+                // the deltas, which are written without a visibility, are deleted first.
+                m.putDelete(cat_txt, columnQualifier, cv, replaceBefore);
+                if (!cv.equals(AccumuloRdfConstants.EMPTY_CV)) {
+                    m.putDelete(cat_txt, columnQualifier, AccumuloRdfConstants.EMPTY_CV, replaceBefore);
+                }
+                m.put(cat_txt, columnQualifier, cv, replaceBefore + 1, v_out);
+            }
             context.write(table, m);
         }
 
@@ -19,16 +19,66 @@ package org.apache.rya.accumulo.mr.tools;
  * under the License.
  */
 
+import static org.apache.rya.api.RdfCloudTripleStoreConstants.DELIM;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.admin.TableOperations;
+import org.apache.accumulo.core.client.mapreduce.AccumuloFileOutputFormat;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.conf.Configurable;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableComparable;
 import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.Partitioner;
+import org.apache.hadoop.mapreduce.Reducer;
+import org.apache.hadoop.mapreduce.lib.input.SequenceFileInputFormat;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.hadoop.mapreduce.lib.output.LazyOutputFormat;
+import org.apache.hadoop.mapreduce.lib.output.MultipleOutputs;
+import org.apache.hadoop.mapreduce.lib.output.SequenceFileOutputFormat;
 import org.apache.hadoop.util.Tool;
 import org.apache.hadoop.util.ToolRunner;
+import org.apache.log4j.Logger;
+import org.apache.rya.accumulo.AccumuloRdfConfiguration;
+import org.apache.rya.accumulo.AccumuloRdfConstants;
+import org.apache.rya.accumulo.EvalStatsDeltas;
 import org.apache.rya.accumulo.mr.AbstractAccumuloMRTool;
 import org.apache.rya.accumulo.mr.MRUtils;
+import org.apache.rya.accumulo.mr.RyaStatementWritable;
+import org.apache.rya.api.RdfCloudTripleStoreConstants;
+import org.apache.rya.api.RdfCloudTripleStoreConstants.TABLE_LAYOUT;
+import org.apache.rya.api.RdfCloudTripleStoreUtils;
+import org.apache.rya.api.domain.RyaIRI;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.resolver.RyaTripleContext;
+import org.apache.rya.api.resolver.triple.TripleRow;
+import org.apache.rya.api.resolver.triple.TripleRowResolverException;
+import org.apache.rya.indexing.accumulo.ConfigUtils;
 import org.eclipse.rdf4j.rio.RDFFormat;
 
+import com.google.common.base.Preconditions;
+
 /**
  * Reads RDF data from one or more file(s) and inserts statements into Rya.
  * <p>
@@ -48,8 +98,52 @@ import org.eclipse.rdf4j.rio.RDFFormat;
  *   {@link org.apache.rya.indexing.accumulo.ConfigUtils} (enable or disable freetext,
  *   geo, temporal, and entity indexing, and specify predicates for each
  *   indexer). If not given, no secondary indexing is done.
+ * <p>
+ * - Optionally, {@link MRUtils#BULK_LOAD_PROP} to load the core tables by bulk
+ *   import instead of live mutations. The statements are sorted into RFiles
+ *   per table, partitioned along each table's existing splits, and imported
+ *   once the job succeeds. Repeated statements are only loaded once. The
+ *   distinct statements are counted into the same eval table cells that
+ *   {@link EvalStatsDeltas} maintains (subject, predicate, subject-predicate,
+ *   subject-object, and predicate-object), which a second job sorts into RFiles
+ *   for the eval table. They are added to the existing counts by the eval
+ *   table's {@link EvalStatsDeltas} combiner, so a statement that was already
+ *   stored before the load is counted again. The combiner is attached to an
+ *   empty eval table; the tool refuses to run against an eval table that holds
+ *   counts but has no combiner, since the new counts would replace the old ones.
+ *   The RFiles are written beneath {@link MRUtils#BULK_LOAD_DIR_PROP}. Secondary
+ *   indexing, including geo and PCJ indexing, is not supported in this mode.
  */
 public class RdfFileInputTool extends AbstractAccumuloMRTool implements Tool {
+    private static final String BULK_LOAD_TABLES = "ac.bulkload.tables";
+    private static final String BULK_LOAD_SPLITS = "ac.bulkload.splits.";
+    private static final String BULK_LOAD_TIME = "ac.bulkload.time";
+    private static final String EVAL_COUNTS = "evalCounts";
+
+    // The number of eval table cells a reducer sums before writing them out.
+    private static final int MAX_EVAL_COUNTS = 10000;
+
+    private static final Logger logger = Logger.getLogger(RdfFileInputTool.class);
+
+    /**
+     * The geo indexers live in an optional module, so their switches are named here.
+     */
+    private static final String USE_GEO = "sc.use_geo";
+    private static final String USE_GEOTEMPORAL = "sc.use_geotemporal";
+
+    /**
+     * The index of the eval table within a bulk load's tables; the core
+     * tables are indexed by their {@link TABLE_LAYOUT} ordinal.
+     */
+    private static final int EVAL_TABLE = TABLE_LAYOUT.values().length;
+
+    /**
+     * Counters reported by a bulk load.
+     */
+    public static enum BulkLoadCounter {
+        STATEMENTS
+    }
+
     public static void main(String[] args) {
         try {
             ToolRunner.run(new Configuration(), new RdfFileInputTool(), args);
@@ -66,25 +160,477 @@ public class RdfFileInputTool extends AbstractAccumuloMRTool implements Tool {
 
         String inputPath = conf.get(MRUtils.INPUT_PATH, args[0]);
         setupFileInput(job, inputPath, RDFFormat.RDFXML);
-        setupRyaOutput(job);
-        job.setNumReduceTasks(0);
+
+        final boolean bulkLoad = conf.getBoolean(MRUtils.BULK_LOAD_PROP, false);
+        Path bulkLoadDir = null;
+        if (bulkLoad) {
+            bulkLoadDir = setupBulkLoadOutput(job);
+        } else {
+            setupRyaOutput(job);
+            job.setNumReduceTasks(0);
+        }
 
         Date startTime = new Date();
         System.out.println("Job started: " + startTime);
         int exitCode = job.waitForCompletion(true) ? 0 : 1;
 
         if (exitCode == 0) {
+            long n;
+            if (bulkLoad) {
+                final Path evalDir = new Path(bulkLoadDir, EVAL_COUNTS);
+                if (!runEvalCountJob(job.getConfiguration(), bulkLoadDir, evalDir)) {
+                    System.out.println("Job Failed!!!");
+                    return 1;
+                }
+                final String[] tables = job.getConfiguration().getStrings(BULK_LOAD_TABLES);
+                importBulkLoadOutput(job.getConfiguration(), bulkLoadDir, Arrays.copyOf(tables, EVAL_TABLE));
+                importBulkLoadOutput(job.getConfiguration(), evalDir, tables[EVAL_TABLE]);
+                n = job.getCounters().findCounter(BulkLoadCounter.STATEMENTS).getValue();
+            } else {
+                n = job.getCounters()
+                        .findCounter("org.apache.hadoop.mapred.Task$Counter", "MAP_OUTPUT_RECORDS").getValue();
+            }
             Date end_time = new Date();
             System.out.println("Job ended: " + end_time);
             System.out.println("The job took "
                     + (end_time.getTime() - startTime.getTime()) / 1000
                     + " seconds.");
-            long n = job.getCounters()
-                    .findCounter("org.apache.hadoop.mapred.Task$Counter", "MAP_OUTPUT_RECORDS").getValue();
             System.out.println(n + " statement(s) inserted to Rya.");
         } else {
             System.out.println("Job Failed!!!");
         }
         return exitCode;
     }
+
+    /**
+     * Configures the job to sort statements into RFiles for each core table and
+     * the eval table, with one reducer per tablet of each (possibly pre-split) table.
+     * @param   job Job to configure
+     * @return  The directory the RFiles will be written to.
+     */
+    private Path setupBulkLoadOutput(Job job) throws Exception {
+        Preconditions.checkArgument(!ConfigUtils.getUseFreeText(conf) && !ConfigUtils.getUseTemporal(conf)
+                && !ConfigUtils.getUseEntity(conf) && !conf.getBoolean(USE_GEO, false)
+                && !conf.getBoolean(USE_GEOTEMPORAL, false) && !ConfigUtils.getUsePCJ(conf)
+                && !ConfigUtils.getUsePcjUpdaterIndex(conf), "Secondary indexing is not supported when bulk loading.");
+        final Configuration jobConf = job.getConfiguration();
+
+        final List<String> tables = new ArrayList<>();
+        for (final TABLE_LAYOUT layout : TABLE_LAYOUT.values()) {
+            tables.add(RdfCloudTripleStoreUtils.layoutPrefixToTable(layout, tablePrefix));
+        }
+        tables.add(tablePrefix + RdfCloudTripleStoreConstants.TBL_EVAL_SUFFIX);
+        jobConf.setStrings(BULK_LOAD_TABLES, tables.toArray(new String[tables.size()]));
+        jobConf.setLong(BULK_LOAD_TIME, System.currentTimeMillis());
+
+        final TableOperations tableOps = getConnector().tableOperations();
+        int numReduceTasks = 0;
+        for (int i = 0; i < tables.size(); i++) {
+            final String table = tables.get(i);
+            if (!tableOps.exists(table)) {
+                tableOps.create(table);
+            }
+            final Collection<Text> splits = tableOps.listSplits(table);
+            TablePartitioner.setSplits(jobConf, i, splits);
+            numReduceTasks += splits.size() + 1;
+        }
+        ensureEvalCombiner(tableOps, tables.get(EVAL_TABLE));
+
+        job.setMapperClass(BulkLoadMapper.class);
+        job.setCombinerClass(BulkLoadCombiner.class);
+        job.setPartitionerClass(TablePartitioner.class);
+        job.setReducerClass(BulkLoadReducer.class);
+        job.setNumReduceTasks(numReduceTasks);
+        job.setMapOutputKeyClass(TableKey.class);
+        job.setMapOutputValueClass(Value.class);
+        job.setOutputKeyClass(Key.class);
+        job.setOutputValueClass(Value.class);
+
+        final Path bulkLoadDir = new Path(conf.get(MRUtils.BULK_LOAD_DIR_PROP,
+                new Path(conf.get("hadoop.tmp.dir"), "rya_bulkload_" + System.currentTimeMillis()).toString()));
+        FileOutputFormat.setOutputPath(job, bulkLoadDir);
+        LazyOutputFormat.setOutputFormatClass(job, AccumuloFileOutputFormat.class);
+        MultipleOutputs.addNamedOutput(job, EVAL_COUNTS, SequenceFileOutputFormat.class, TableKey.class, Value.class);
+        return bulkLoadDir;
+    }
+
+    /**
+     * Sorts the eval table counts that the bulk load's reducers gathered from the
+     * distinct statements into RFiles for the eval table's tablets.
+     * @param   loadConf The configuration of the bulk load job.
+     * @param   bulkLoadDir The directory the bulk load job wrote to.
+     * @param   evalDir The directory to write the eval table's RFiles to.
+     * @return  {@code true} if the job succeeded.
+     */
+    private boolean runEvalCountJob(Configuration loadConf, Path bulkLoadDir, Path evalDir) throws Exception {
+        final Path counts = new Path(bulkLoadDir, EVAL_COUNTS);
+        if (!counts.getFileSystem(loadConf).exists(counts)) {
+            // Nothing was loaded.
+            return true;
+        }
+        final Job job = Job.getInstance(loadConf, "Rdf File Input Eval Counts");
+        job.setJarByClass(RdfFileInputTool.class);
+        job.setInputFormatClass(SequenceFileInputFormat.class);
+        SequenceFileInputFormat.addInputPath(job, new Path(counts, "part*"));
+        job.setMapperClass(Mapper.class);
+        job.setCombinerClass(BulkLoadCombiner.class);
+        job.setPartitionerClass(TablePartitioner.class);
+        job.setReducerClass(BulkLoadReducer.class);
+        // Every key belongs to the eval table, so one reducer per tablet of it is enough.
+        final String[] evalSplits = loadConf.getStrings(BULK_LOAD_SPLITS + EVAL_TABLE);
+        job.setNumReduceTasks(evalSplits == null ? 1 : evalSplits.length + 1);
+        job.setMapOutputKeyClass(TableKey.class);
+        job.setMapOutputValueClass(Value.class);
+        job.setOutputKeyClass(Key.class);
+        job.setOutputValueClass(Value.class);
+        FileOutputFormat.setOutputPath(job, evalDir);
+        LazyOutputFormat.setOutputFormatClass(job, AccumuloFileOutputFormat.class);
+        return job.waitForCompletion(true);
+    }
+
+    /**
+     * Makes sure the counts written to the eval table are added to the counts that are
+     * already there. Without the combiner, the newest count for a cell hides the others.
+     * @param   tableOps Used to configure the eval table.
+     * @param   evalTable The name of the eval table.
+     * @throws  IllegalStateException if the eval table holds counts but has no combiner.
+     */
+    private void ensureEvalCombiner(TableOperations tableOps, String evalTable) throws Exception {
+        if (tableOps.listIterators(evalTable).containsKey(EvalStatsDeltas.COMBINER_NAME)) {
+            return;
+        }
+        final Scanner scanner = getConnector().createScanner(evalTable, authorizations);
+        try {
+            if (scanner.iterator().hasNext()) {
+                throw new IllegalStateException("The eval table " + evalTable + " holds counts that a bulk load would "
+                        + "replace. Enable incremental statistics on the store before bulk loading.");
+            }
+        } finally {
+            scanner.close();
+        }
+        EvalStatsDeltas.attachCombiner(getConnector(), evalTable);
+    }
+
+    /**
+     * Imports the RFiles written for each table.
+     * @param   jobConf The configuration of the job that wrote the RFiles.
+     * @param   bulkLoadDir The directory the RFiles were written to.
+     * @param   tables The tables to import RFiles into.
+     * @throws  IOException if any file could not be imported.
+     */
+    private void importBulkLoadOutput(Configuration jobConf, Path bulkLoadDir, String... tables) throws Exception {
+        final FileSystem fs = bulkLoadDir.getFileSystem(jobConf);
+        final TableOperations tableOps = getConnector().tableOperations();
+        for (final String table : tables) {
+            final Path files = new Path(bulkLoadDir, table + "/files");
+            if (!fs.exists(files)) {
+                // No statements were written to this table.
+                continue;
+            }
+            final Path failures = new Path(bulkLoadDir, table + "/failures");
+            if (fs.exists(failures)) {
+                fs.delete(failures, true);
+            }
+            fs.mkdirs(failures);
+            logger.info("Importing " + files + " into " + table);
+            tableOps.importDirectory(table, files.toString(), failures.toString(), false);
+            if (fs.listStatus(failures).length > 0) {
+                throw new IOException("Some files could not be imported into " + table + "; see " + failures);
+            }
+        }
+    }
+
+    /**
+     * An Accumulo {@link Key} tagged with the index of the table it belongs to.
+     * Sorts by table, then by key.
+     */
+    public static class TableKey implements WritableComparable<TableKey> {
+        private int table;
+        private Key key = new Key();
+
+        public TableKey() {
+        }
+
+        public TableKey(int table, Key key) {
+            set(table, key);
+        }
+
+        public void set(int table, Key key) {
+            this.table = table;
+            this.key = key;
+        }
+
+        public int getTable() {
+            return table;
+        }
+
+        public Key getKey() {
+            return key;
+        }
+
+        @Override
+        public void write(DataOutput out) throws IOException {
+            out.writeInt(table);
+            key.write(out);
+        }
+
+        @Override
+        public void readFields(DataInput in) throws IOException {
+            table = in.readInt();
+            key.readFields(in);
+        }
+
+        @Override
+        public int compareTo(TableKey other) {
+            final int result = Integer.compare(table, other.table);
+            return result != 0 ? result : key.compareTo(other.key);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TableKey)) {
+                return false;
+            }
+            final TableKey other = (TableKey) o;
+            return table == other.table && key.equals(other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * table + key.hashCode();
+        }
+    }
+
+    /**
+     * Serializes each statement into its row in every core table.
+     */
+    public static class BulkLoadMapper extends Mapper<LongWritable, RyaStatementWritable, TableKey, Value> {
+        private final TableKey keyOut = new TableKey();
+        private RyaTripleContext ryaContext;
+        private byte[] cv = AccumuloRdfConstants.EMPTY_CV.getExpression();
+        private RyaIRI defaultContext = null;
+
+        @Override
+        protected void setup(Context context) throws IOException, InterruptedException {
+            super.setup(context);
+            final Configuration conf = context.getConfiguration();
+            ryaContext = RyaTripleContext.getInstance(new AccumuloRdfConfiguration(conf));
+            final String cv_s = conf.get(MRUtils.AC_CV_PROP);
+            if (cv_s != null) {
+                cv = cv_s.getBytes(StandardCharsets.UTF_8);
+            }
+            final String context_s = conf.get(MRUtils.NAMED_GRAPH_PROP);
+            if (context_s != null) {
+                defaultContext = new RyaIRI(context_s);
+            }
+        }
+
+        @Override
+        protected void map(LongWritable key, RyaStatementWritable value, Context context) throws IOException, InterruptedException {
+            final RyaStatement statement = value.getRyaStatement();
+            if (statement.getColumnVisibility() == null) {
+                statement.setColumnVisibility(cv);
+            }
+            if (statement.getContext() == null) {
+                statement.setContext(defaultContext);
+            }
+
+            final Map<TABLE_LAYOUT, TripleRow> rows;
+            try {
+                rows = ryaContext.serializeTriple(statement);
+            } catch (final TripleRowResolverException e) {
+                throw new IOException(e);
+            }
+            for (final Map.Entry<TABLE_LAYOUT, TripleRow> entry : rows.entrySet()) {
+                final TripleRow row = entry.getValue();
+                final byte[] rowValue = row.getValue();
+                keyOut.set(entry.getKey().ordinal(), new Key(row.getRow(), emptyIfNull(row.getColumnFamily()),
+                        emptyIfNull(row.getColumnQualifier()), emptyIfNull(row.getColumnVisibility()), row.getTimestamp()));
+                context.write(keyOut, rowValue == null ? AccumuloRdfConstants.EMPTY_VALUE : new Value(rowValue));
+            }
+        }
+
+        private static byte[] emptyIfNull(byte[] bytes) {
+            return bytes == null ? new byte[0] : bytes;
+        }
+    }
+
+    /**
+     * Sums eval table counts and drops repeated core table entries.
+     */
+    public static class BulkLoadCombiner extends Reducer<TableKey, Value, TableKey, Value> {
+        @Override
+        protected void reduce(TableKey key, Iterable<Value> values, Context context) throws IOException, InterruptedException {
+            context.write(key, reduceValues(key, values));
+        }
+    }
+
+    /**
+     * Writes each table's sorted entries to RFiles beneath a directory named after the table.
+     * <p>
+     * The reducers for the SPO table also count each distinct statement into the eval
+     * table cells. The counts are summed in memory and written unsorted to the
+     * eval counts output, which a second job sorts into the eval table's RFiles.
+     */
+    public static class BulkLoadReducer extends Reducer<TableKey, Value, Key, Value> {
+        private MultipleOutputs<Key, Value> mos;
+        private String[] tables;
+        private RyaTripleContext ryaContext;
+        private long timestamp;
+        private Key lastStatement = null;
+        private final Map<Key, Long> evalCounts = new HashMap<>();
+
+        @Override
+        protected void setup(Context context) throws IOException, InterruptedException {
+            super.setup(context);
+            final Configuration conf = context.getConfiguration();
+            tables = conf.getStrings(BULK_LOAD_TABLES);
+            ryaContext = RyaTripleContext.getInstance(new AccumuloRdfConfiguration(conf));
+            // Every reducer uses the same timestamp so the counts for a cell are combined
+            // before they are written; the eval table's combiner adds them to the existing counts.
+            timestamp = conf.getLong(BULK_LOAD_TIME, 0L);
+            mos = new MultipleOutputs<>(context);
+        }
+
+        @Override
+        protected void cleanup(Context context) throws IOException, InterruptedException {
+            if (mos != null) {
+                writeEvalCounts();
+                mos.close();
+            }
+        }
+
+        @Override
+        protected void reduce(TableKey key, Iterable<Value> values, Context context) throws IOException, InterruptedException {
+            final Value value = reduceValues(key, values);
+            mos.write(key.getKey(), value, tables[key.getTable()] + "/files/part");
+            if (key.getTable() == TABLE_LAYOUT.SPO.ordinal()) {
+                countStatement(key.getKey(), value, context);
+            }
+        }
+
+        private void countStatement(Key key, Value value, Context context) throws IOException, InterruptedException {
+            // A statement that was read more than once was given a different timestamp each time.
+            if (lastStatement != null && lastStatement.equals(key, PartialKey.ROW_COLFAM_COLQUAL_COLVIS)) {
+                return;
+            }
+            lastStatement = new Key(key);
+
+            final RyaStatement statement;
+            try {
+                statement = ryaContext.deserializeTriple(TABLE_LAYOUT.SPO, new TripleRow(key.getRowData().toArray(),
+                        key.getColumnFamilyData().toArray(), key.getColumnQualifierData().toArray(), key.getTimestamp(),
+                        key.getColumnVisibilityData().toArray(), value.get()));
+            } catch (final TripleRowResolverException e) {
+                throw new IOException(e);
+            }
+            final String subj = statement.getSubject().getData();
+            final String pred = statement.getPredicate().getData();
+            final String obj = statement.getObject().getData();
+            final byte[] cq = statement.getContext() == null ? new byte[0]
+                    : statement.getContext().getData().getBytes(StandardCharsets.UTF_8);
+            final byte[] cv = key.getColumnVisibilityData().toArray();
+            count(subj, RdfCloudTripleStoreConstants.SUBJECT_CF, cq, cv);
+            count(pred, RdfCloudTripleStoreConstants.PRED_CF, cq, cv);
+            count(subj + DELIM + pred, RdfCloudTripleStoreConstants.SUBJECTPRED_CF, cq, cv);
+            count(subj + DELIM + obj, RdfCloudTripleStoreConstants.SUBJECTOBJECT_CF, cq, cv);
+            count(pred + DELIM + obj, RdfCloudTripleStoreConstants.PREDOBJECT_CF, cq, cv);
+            context.getCounter(BulkLoadCounter.STATEMENTS).increment(1);
+
+            if (evalCounts.size() >= MAX_EVAL_COUNTS) {
+                writeEvalCounts();
+            }
+        }
+
+        private void count(String row, String cf, byte[] cq, byte[] cv) {
+            final Key cell = new Key(row.getBytes(StandardCharsets.UTF_8), cf.getBytes(StandardCharsets.UTF_8), cq, cv, timestamp);
+            final Long current = evalCounts.get(cell);
+            evalCounts.put(cell, current == null ? 1L : current + 1L);
+        }
+
+        private void writeEvalCounts() throws IOException, InterruptedException {
+            for (final Map.Entry<Key, Long> entry : evalCounts.entrySet()) {
+                mos.write(EVAL_COUNTS, new TableKey(EVAL_TABLE, entry.getKey()),
+                        new Value(Long.toString(entry.getValue()).getBytes(StandardCharsets.UTF_8)), EVAL_COUNTS + "/part");
+            }
+            evalCounts.clear();
+        }
+    }
+
+    private static Value reduceValues(TableKey key, Iterable<Value> values) {
+        if (key.getTable() != EVAL_TABLE) {
+            // The same entry in a core table only needs to be written once.
+            return new Value(values.iterator().next());
+        }
+        long count = 0;
+        for (final Value value : values) {
+            count += Long.parseLong(new String(value.get(), StandardCharsets.UTF_8));
+        }
+        return new Value(Long.toString(count).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sends every key to the reducer for the tablet of its table that will hold
+     * it, so each RFile can be imported into a single tablet.
+     */
+    public static class TablePartitioner extends Partitioner<TableKey, Value> implements Configurable {
+        private Configuration conf;
+        private List<List<Text>> splits;
+        private int[] offsets;
+
+        /**
+         * Records the split points of one of the tables being loaded.
+         * @param   conf    The job's configuration.
+         * @param   table   The index of the table.
+         * @param   tableSplits The table's split points.
+         */
+        public static void setSplits(Configuration conf, int table, Collection<Text> tableSplits) {
+            final List<String> encoded = new ArrayList<>();
+            for (final Text split : tableSplits) {
+                encoded.add(Base64.getEncoder().encodeToString(split.copyBytes()));
+            }
+            conf.setStrings(BULK_LOAD_SPLITS + table, encoded.toArray(new String[encoded.size()]));
+        }
+
+        @Override
+        public void setConf(Configuration conf) {
+            this.conf = conf;
+            final int numTables = conf.getStrings(BULK_LOAD_TABLES).length;
+            splits = new ArrayList<>(numTables);
+            offsets = new int[numTables];
+            int offset = 0;
+            for (int i = 0; i < numTables; i++) {
+                final List<Text> tableSplits = new ArrayList<>();
+                final String[] encoded = conf.getStrings(BULK_LOAD_SPLITS + i);
+                if (encoded != null) {
+                    for (final String split : encoded) {
+                        tableSplits.add(new Text(Base64.getDecoder().decode(split)));
+                    }
+                }
+                Collections.sort(tableSplits);
+                splits.add(tableSplits);
+                offsets[i] = offset;
+                offset += tableSplits.size() + 1;
+            }
+        }
+
+        @Override
+        public Configuration getConf() {
+            return conf;
+        }
+
+        @Override
+        public int getPartition(TableKey key, Value value, int numPartitions) {
+            final List<Text> tableSplits = splits.get(key.getTable());
+            int tablet = Collections.binarySearch(tableSplits, key.getKey().getRow());
+            if (tablet < 0) {
+                // A tablet holds the rows up to and including its end row.
+                tablet = -tablet - 1;
+            }
+            return (offsets[key.getTable()] + tablet) % numPartitions;
+        }
+    }
 }
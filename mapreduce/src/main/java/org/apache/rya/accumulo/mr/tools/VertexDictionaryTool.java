@@ -0,0 +1,290 @@
+package org.apache.rya.accumulo.mr.tools;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.Date;
+
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.admin.TableOperations;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.Reducer;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.hadoop.mapreduce.lib.input.SequenceFileInputFormat;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.hadoop.mapreduce.lib.output.SequenceFileOutputFormat;
+import org.apache.hadoop.util.Tool;
+import org.apache.hadoop.util.ToolRunner;
+import org.apache.rya.accumulo.AccumuloRdfConstants;
+import org.apache.rya.accumulo.mr.AbstractAccumuloMRTool;
+import org.apache.rya.accumulo.mr.MRUtils;
+import org.apache.rya.accumulo.mr.RyaStatementWritable;
+import org.apache.rya.accumulo.mr.VertexDictionary;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.domain.RyaType;
+import org.apache.rya.api.resolver.RyaContext;
+import org.apache.rya.api.resolver.RyaTypeResolverException;
+
+/**
+ * Builds the {@link VertexDictionary} of a Rya instance by assigning an ID
+ * to every subject and object in its statements. Any existing dictionary is
+ * replaced, so IDs from an earlier build should not be mixed with new ones.
+ * <p>
+ * The dictionary is built in two passes that use the same reducers. The first
+ * pass finds the distinct vertices and counts how many each reducer receives.
+ * Each reducer of the second pass numbers its vertices from the sum of the
+ * counts of the reducers before it, so the IDs of all vertices are dense.
+ */
+public class VertexDictionaryTool extends AbstractAccumuloMRTool implements Tool {
+
+    /**
+     * The first ID assigned by each reducer of the second pass.
+     */
+    private static final String PARTITION_OFFSETS = "vertex.dictionary.offsets";
+
+    /**
+     * The directory each reducer of the first pass writes its vertex count to.
+     */
+    private static final String COUNTS_DIR = "vertex.dictionary.counts.dir";
+
+    public static void main(final String[] args) {
+        try {
+            ToolRunner.run(new Configuration(), new VertexDictionaryTool(), args);
+        } catch (final Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public int run(final String[] strings) throws Exception {
+        conf.set(MRUtils.JOB_NAME_PROP, "Build Vertex Dictionary");
+
+        //initialize
+        init();
+
+        final String outputTable = VertexDictionary.getTableName(tablePrefix);
+        final Connector connector = getConnector();
+        final TableOperations tableOps = connector.tableOperations();
+        if (tableOps.exists(outputTable)) {
+            tableOps.delete(outputTable);
+        }
+        tableOps.create(outputTable);
+
+        final Path workDir = new Path(conf.get("hadoop.tmp.dir"), "rya_vertex_dictionary_" + System.currentTimeMillis());
+        final Path verticesDir = new Path(workDir, "vertices");
+        final Path countsDir = new Path(workDir, "counts");
+        final FileSystem fs = workDir.getFileSystem(conf);
+
+        // The first pass finds the distinct vertices and counts them per reducer.
+        final Job findJob = Job.getInstance(conf, conf.get(MRUtils.JOB_NAME_PROP) + " - Find Vertices");
+        findJob.setJarByClass(VertexDictionaryTool.class);
+        setupRyaInput(findJob);
+        findJob.getConfiguration().set(COUNTS_DIR, countsDir.toString());
+
+        findJob.setMapOutputKeyClass(Text.class);
+        findJob.setMapOutputValueClass(BytesWritable.class);
+        findJob.setOutputKeyClass(Text.class);
+        findJob.setOutputValueClass(BytesWritable.class);
+
+        findJob.setMapperClass(VertexMapper.class);
+        findJob.setCombinerClass(VertexCombiner.class);
+        findJob.setReducerClass(VertexCountReducer.class);
+
+        findJob.setOutputFormatClass(SequenceFileOutputFormat.class);
+        FileOutputFormat.setOutputPath(findJob, verticesDir);
+
+        // Submit the job
+        final Date startTime = new Date();
+        System.out.println("Job started: " + startTime);
+        boolean succeeded = false;
+        try {
+            if (findJob.waitForCompletion(true)) {
+                // The second pass numbers the vertices on the same reducers.
+                final int numPartitions = findJob.getNumReduceTasks();
+                final Job numberJob = Job.getInstance(conf, conf.get(MRUtils.JOB_NAME_PROP) + " - Number Vertices");
+                numberJob.setJarByClass(VertexDictionaryTool.class);
+                numberJob.getConfiguration().setStrings(PARTITION_OFFSETS, getPartitionOffsets(fs, countsDir, numPartitions));
+
+                numberJob.setInputFormatClass(SequenceFileInputFormat.class);
+                FileInputFormat.addInputPath(numberJob, verticesDir);
+                numberJob.setMapOutputKeyClass(Text.class);
+                numberJob.setMapOutputValueClass(BytesWritable.class);
+                numberJob.setOutputKeyClass(Text.class);
+                numberJob.setOutputValueClass(Mutation.class);
+
+                numberJob.setMapperClass(Mapper.class);
+                numberJob.setReducerClass(VertexReducer.class);
+                numberJob.setNumReduceTasks(numPartitions);
+
+                setupAccumuloOutput(numberJob, outputTable);
+                succeeded = numberJob.waitForCompletion(true);
+            }
+        } finally {
+            fs.delete(workDir, true);
+        }
+
+        if (succeeded) {
+            final Date end_time = new Date();
+            System.out.println("Job ended: " + end_time);
+            System.out.println("The job took "
+                    + (end_time.getTime() - startTime.getTime()) / 1000
+                    + " seconds.");
+            return 0;
+        } else {
+            System.out.println("Job Failed!!!");
+        }
+
+        return -1;
+    }
+
+    /**
+     * Reads the number of vertices each reducer of the first pass received.
+     * @param   fs The file system the counts were written to.
+     * @param   countsDir The directory the counts were written to.
+     * @param   numPartitions The number of reducers.
+     * @return  The first ID of each reducer: the sum of the counts of the reducers before it.
+     */
+    private static String[] getPartitionOffsets(final FileSystem fs, final Path countsDir, final int numPartitions) throws IOException {
+        final String[] offsets = new String[numPartitions];
+        long offset = 0;
+        for (int partition = 0; partition < numPartitions; partition++) {
+            offsets[partition] = Long.toString(offset);
+            final Path countFile = new Path(countsDir, Integer.toString(partition));
+            // A reducer that received no vertices may not have written a count.
+            if (fs.exists(countFile)) {
+                try (FSDataInputStream in = fs.open(countFile)) {
+                    offset += in.readLong();
+                }
+            }
+        }
+        return offsets;
+    }
+
+    /**
+     * Emits the subject and object of each statement, keyed by the value the
+     * dictionary stores them under.
+     */
+    public static class VertexMapper extends Mapper<Text, RyaStatementWritable, Text, BytesWritable> {
+        private final Text keyOut = new Text();
+        private final BytesWritable valOut = new BytesWritable();
+
+        @Override
+        protected void map(final Text key, final RyaStatementWritable value, final Context context) throws IOException, InterruptedException {
+            final RyaStatement statement = value.getRyaStatement();
+            write(statement.getSubject(), context);
+            write(statement.getObject(), context);
+        }
+
+        private void write(final RyaType vertex, final Context context) throws IOException, InterruptedException {
+            try {
+                final byte[] bytes = RyaContext.getInstance().serialize(vertex);
+                keyOut.set(VertexDictionary.getVertexKey(vertex));
+                valOut.set(bytes, 0, bytes.length);
+                context.write(keyOut, valOut);
+            } catch (final RyaTypeResolverException e) {
+                throw new IOException(e);
+            }
+        }
+    }
+
+    /**
+     * Keeps one occurrence of each vertex.
+     */
+    public static class VertexCombiner extends Reducer<Text, BytesWritable, Text, BytesWritable> {
+        @Override
+        protected void reduce(final Text key, final Iterable<BytesWritable> values, final Context context) throws IOException, InterruptedException {
+            context.write(key, values.iterator().next());
+        }
+    }
+
+    /**
+     * Keeps one occurrence of each vertex and records how many distinct
+     * vertices this reducer received.
+     */
+    public static class VertexCountReducer extends Reducer<Text, BytesWritable, Text, BytesWritable> {
+        private long count = 0;
+
+        @Override
+        protected void reduce(final Text key, final Iterable<BytesWritable> values, final Context context) throws IOException, InterruptedException {
+            context.write(key, values.iterator().next());
+            count++;
+        }
+
+        @Override
+        protected void cleanup(final Context context) throws IOException, InterruptedException {
+            final Configuration conf = context.getConfiguration();
+            final Path countFile = new Path(conf.get(COUNTS_DIR), Integer.toString(context.getTaskAttemptID().getTaskID().getId()));
+            // A retried attempt overwrites the count of the attempt it replaces.
+            try (FSDataOutputStream out = countFile.getFileSystem(conf).create(countFile, true)) {
+                out.writeLong(count);
+            }
+            super.cleanup(context);
+        }
+    }
+
+    /**
+     * Assigns each vertex the next ID of this reducer, starting from the
+     * reducer's offset, and writes both directions of the mapping.
+     */
+    public static class VertexReducer extends Reducer<Text, BytesWritable, Text, Mutation> {
+        private Text table;
+        private ColumnVisibility cv = AccumuloRdfConstants.EMPTY_CV;
+        private long nextId;
+
+        @Override
+        protected void setup(final Context context) throws IOException, InterruptedException {
+            super.setup(context);
+            final Configuration conf = context.getConfiguration();
+            table = new Text(VertexDictionary.getTableName(MRUtils.getTablePrefix(conf)));
+            final String cv_s = conf.get(MRUtils.AC_CV_PROP);
+            if (cv_s != null) {
+                cv = new ColumnVisibility(cv_s);
+            }
+            final int partition = context.getTaskAttemptID().getTaskID().getId();
+            nextId = Long.parseLong(conf.getStrings(PARTITION_OFFSETS)[partition]);
+        }
+
+        @Override
+        protected void reduce(final Text key, final Iterable<BytesWritable> values, final Context context) throws IOException, InterruptedException {
+            final BytesWritable value = values.iterator().next();
+            final RyaType vertex;
+            try {
+                vertex = RyaContext.getInstance().deserialize(value.copyBytes());
+            } catch (final RyaTypeResolverException e) {
+                throw new IOException(e);
+            }
+
+            final long id = nextId++;
+            for (final Mutation m : VertexDictionary.createMutations(vertex, id, cv)) {
+                context.write(table, m);
+            }
+        }
+    }
+}
@@ -35,7 +35,9 @@ import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.accumulo.core.security.TablePermission;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.util.ToolRunner;
 import org.apache.rya.accumulo.AccumuloRdfConfiguration;
 import org.apache.rya.accumulo.AccumuloRyaDAO;
 import org.apache.rya.api.RdfCloudTripleStoreConstants;
@@ -275,4 +277,51 @@ public class AccumuloRdfCountToolTest {
         }
         assertEquals(2, count);
     }
+
+    @Test
+    public void testRerunWithIncrementalStats() throws Exception {
+        AccumuloRdfConfiguration statsConf = new AccumuloRdfConfiguration();
+        statsConf.setTablePrefix(tablePrefix);
+        statsConf.setIncrementalStats(true);
+        AccumuloRyaDAO statsDao = new AccumuloRyaDAO();
+        statsDao.setConnector(connector);
+        statsDao.setConf(statsConf);
+        statsDao.init();
+        try {
+            RyaIRI test1 = RdfToRyaConversions.convertIRI(VF.createIRI(litdupsNS, "test1"));
+            RyaIRI pred1 = RdfToRyaConversions.convertIRI(VF.createIRI(litdupsNS, "pred1"));
+            for (int i = 0; i < 11; i++) {
+                statsDao.add(new RyaStatement(test1, pred1, RdfToRyaConversions.convertLiteral(VF.createLiteral(i))));
+            }
+            assertEquals(11, readPredicateCount(pred1));
+
+            // Each run replaces the count and the deltas instead of adding to them.
+            for (int run = 0; run < 2; run++) {
+                assertEquals(0, ToolRunner.run(new Configuration(), new AccumuloRdfCountTool(), new String[]{
+                        "-Dac.mock=true",
+                        "-Dac.instance=" + instance,
+                        "-Dac.username=" + user,
+                        "-Dac.pwd=" + pwd,
+                        "-Drdf.tablePrefix=" + tablePrefix,
+                }));
+                assertEquals(11, readPredicateCount(pred1));
+            }
+
+            statsDao.add(new RyaStatement(test1, pred1, RdfToRyaConversions.convertLiteral(VF.createLiteral(11))));
+            assertEquals(12, readPredicateCount(pred1));
+        } finally {
+            statsDao.destroy();
+        }
+    }
+
+    private long readPredicateCount(RyaIRI predicate) throws Exception {
+        Scanner scanner = connector.createScanner(tablePrefix + RdfCloudTripleStoreConstants.TBL_EVAL_SUFFIX, auths);
+        scanner.setRange(Range.exact(new Text(predicate.getData()), RdfCloudTripleStoreConstants.PRED_CF_TXT,
+                RdfCloudTripleStoreConstants.EMPTY_TEXT));
+        long count = 0;
+        for (Map.Entry<Key, Value> entry : scanner) {
+            count += Long.parseLong(entry.getValue().toString());
+        }
+        return count;
+    }
 }
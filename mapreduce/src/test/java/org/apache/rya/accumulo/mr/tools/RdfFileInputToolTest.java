@@ -19,13 +19,31 @@ package org.apache.rya.accumulo.mr.tools;
  * under the License.
  */
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+
 import junit.framework.TestCase;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.BatchWriterConfig;
 import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.Scanner;
 import org.apache.accumulo.core.client.admin.SecurityOperations;
 import org.apache.accumulo.core.client.mock.MockInstance;
 import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.core.security.ColumnVisibility;
 import org.apache.accumulo.core.security.TablePermission;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.util.ToolRunner;
 import org.apache.rya.accumulo.AccumuloRdfConfiguration;
 import org.apache.rya.accumulo.mr.TestUtils;
 import org.apache.rya.api.RdfCloudTripleStoreConstants;
@@ -126,4 +144,135 @@ public class RdfFileInputToolTest extends TestCase {
         conf.setAuths(auths.toString());
         TestUtils.verify(connector, conf, rs);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testBulkLoad() throws Exception {
+        String bulkLoadDir = new File("target", "bulkload-" + UUID.randomUUID()).getAbsolutePath();
+        RdfFileInputTool.main(new String[]{
+                "-Dac.mock=true",
+                "-Dac.instance=" + instance,
+                "-Dac.username=" + user,
+                "-Dac.pwd=" + pwd,
+                "-Dac.auth=" + auths.toString(),
+                "-Dac.cv=" + auths.toString(),
+                "-Dac.bulkload=true",
+                "-Dac.bulkload.dir=" + bulkLoadDir,
+                "-Drdf.tablePrefix=" + tablePrefix,
+                "-Drdf.format=" + RDFFormat.NTRIPLES.getName(),
+                "src/test/resources/test.ntriples",
+        });
+        RyaStatement rs = new RyaStatement(new RyaIRI("urn:lubm:rdfts#GraduateStudent01"),
+                new RyaIRI("urn:lubm:rdfts#hasFriend"),
+                new RyaIRI("urn:lubm:rdfts#GraduateStudent02"));
+        rs.setColumnVisibility(auths.toString().getBytes());
+        AccumuloRdfConfiguration conf = new AccumuloRdfConfiguration();
+        conf.setTablePrefix(tablePrefix);
+        conf.setAuths(auths.toString());
+        TestUtils.verify(connector, conf, rs);
+
+        // The predicate's count was written to the eval table in the same pass.
+        Scanner scanner = connector.createScanner(tablePrefix + RdfCloudTripleStoreConstants.TBL_EVAL_SUFFIX, auths);
+        scanner.setRange(new Range("urn:lubm:rdfts#hasFriend"));
+        scanner.fetchColumnFamily(new Text(RdfCloudTripleStoreConstants.PRED_CF));
+        Iterator<Map.Entry<Key, Value>> counts = scanner.iterator();
+        assertTrue(counts.hasNext());
+        assertEquals("3", new String(counts.next().getValue().get(), StandardCharsets.UTF_8));
+        assertFalse(counts.hasNext());
+    }
+
+    @Test
+    public void testBulkLoadAddsToExistingCounts() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            RdfFileInputTool.main(bulkLoadArgs());
+        }
+
+        // The second load adds to the first load's counts rather than replacing them.
+        assertEquals("6", readPredicateCount("urn:lubm:rdfts#hasFriend"));
+    }
+
+    @Test
+    public void testBulkLoadCountsEachStatementOnce() throws Exception {
+        File input = new File("target", "bulkload-dups-" + UUID.randomUUID() + ".ntriples");
+        String friend = "<urn:lubm:rdfts#GraduateStudent01> <urn:lubm:rdfts#hasFriend> <urn:lubm:rdfts#GraduateStudent02> .\n";
+        Files.write(input.toPath(), (friend + friend
+                + "<urn:lubm:rdfts#GraduateStudent01> <urn:lubm:rdfts#hasFriend> <urn:lubm:rdfts#GraduateStudent03> .\n")
+                .getBytes(StandardCharsets.UTF_8));
+        String[] args = bulkLoadArgs();
+        args[args.length - 1] = input.getAbsolutePath();
+        ToolRunner.run(new Configuration(), new RdfFileInputTool(), args);
+
+        // The repeated statement is only counted once, in every cell the live updates maintain.
+        assertEquals("2", readPredicateCount("urn:lubm:rdfts#hasFriend"));
+        assertEquals("2", readCount("urn:lubm:rdfts#GraduateStudent01", RdfCloudTripleStoreConstants.SUBJECT_CF));
+        assertEquals("2", readCount("urn:lubm:rdfts#GraduateStudent01" + RdfCloudTripleStoreConstants.DELIM
+                + "urn:lubm:rdfts#hasFriend", RdfCloudTripleStoreConstants.SUBJECTPRED_CF));
+        assertEquals("1", readCount("urn:lubm:rdfts#GraduateStudent01" + RdfCloudTripleStoreConstants.DELIM
+                + "urn:lubm:rdfts#GraduateStudent02", RdfCloudTripleStoreConstants.SUBJECTOBJECT_CF));
+        assertEquals("1", readCount("urn:lubm:rdfts#hasFriend" + RdfCloudTripleStoreConstants.DELIM
+                + "urn:lubm:rdfts#GraduateStudent03", RdfCloudTripleStoreConstants.PREDOBJECT_CF));
+    }
+
+    @Test
+    public void testBulkLoadRefusesEvalTableWithoutCombiner() throws Exception {
+        BatchWriter writer = connector.createBatchWriter(tablePrefix + RdfCloudTripleStoreConstants.TBL_EVAL_SUFFIX, new BatchWriterConfig());
+        Mutation m = new Mutation("urn:lubm:rdfts#hasFriend");
+        m.put(new Text(RdfCloudTripleStoreConstants.PRED_CF), new Text(""), new ColumnVisibility(auths.toString()),
+                new Value("10".getBytes(StandardCharsets.UTF_8)));
+        writer.addMutation(m);
+        writer.close();
+
+        try {
+            ToolRunner.run(new Configuration(), new RdfFileInputTool(), bulkLoadArgs());
+            fail("A bulk load must not replace counts that have no combiner.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertEquals("10", readPredicateCount("urn:lubm:rdfts#hasFriend"));
+    }
+
+    @Test
+    public void testBulkLoadRefusesGeoIndexing() throws Exception {
+        String[] args = bulkLoadArgs();
+        String[] geoArgs = new String[args.length + 1];
+        geoArgs[0] = "-Dsc.use_geo=true";
+        System.arraycopy(args, 0, geoArgs, 1, args.length);
+        try {
+            ToolRunner.run(new Configuration(), new RdfFileInputTool(), geoArgs);
+            fail("Geo indexing is not supported when bulk loading.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private String[] bulkLoadArgs() {
+        String bulkLoadDir = new File("target", "bulkload-" + UUID.randomUUID()).getAbsolutePath();
+        return new String[]{
+                "-Dac.mock=true",
+                "-Dac.instance=" + instance,
+                "-Dac.username=" + user,
+                "-Dac.pwd=" + pwd,
+                "-Dac.auth=" + auths.toString(),
+                "-Dac.cv=" + auths.toString(),
+                "-Dac.bulkload=true",
+                "-Dac.bulkload.dir=" + bulkLoadDir,
+                "-Drdf.tablePrefix=" + tablePrefix,
+                "-Drdf.format=" + RDFFormat.NTRIPLES.getName(),
+                "src/test/resources/test.ntriples",
+        };
+    }
+
+    private String readPredicateCount(String predicate) throws Exception {
+        return readCount(predicate, RdfCloudTripleStoreConstants.PRED_CF);
+    }
+
+    private String readCount(String row, String cf) throws Exception {
+        Scanner scanner = connector.createScanner(tablePrefix + RdfCloudTripleStoreConstants.TBL_EVAL_SUFFIX, auths);
+        scanner.setRange(new Range(row));
+        scanner.fetchColumnFamily(new Text(cf));
+        Iterator<Map.Entry<Key, Value>> counts = scanner.iterator();
+        assertTrue(counts.hasNext());
+        String count = new String(counts.next().getValue().get(), StandardCharsets.UTF_8);
+        assertFalse(counts.hasNext());
+        return count;
+    }
+}
@@ -0,0 +1,182 @@
+package org.apache.rya.accumulo.mr.tools;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.mock.MockInstance;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.TaskID;
+import org.apache.hadoop.mapreduce.task.JobContextImpl;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.apache.hadoop.util.ToolRunner;
+import org.apache.rya.accumulo.AccumuloRdfConfiguration;
+import org.apache.rya.accumulo.AccumuloRyaDAO;
+import org.apache.rya.accumulo.mr.GraphXEdgeInputFormat;
+import org.apache.rya.accumulo.mr.MRUtils;
+import org.apache.rya.accumulo.mr.VertexDictionary;
+import org.apache.rya.api.RdfCloudTripleStoreConstants;
+import org.apache.rya.api.RdfCloudTripleStoreConstants.TABLE_LAYOUT;
+import org.apache.rya.api.domain.RyaIRI;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.domain.RyaType;
+import org.apache.spark.graphx.Edge;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class VertexDictionaryToolTest {
+
+    private final String user = "root";
+    private final String pwd = "";
+    private final String instance = VertexDictionaryToolTest.class.getSimpleName() + ".myinstance";
+    private final String tablePrefix = "vd_";
+    private Connector connector;
+    private AccumuloRyaDAO dao;
+
+    private final RyaIRI alice = new RyaIRI("urn:alice");
+    private final RyaIRI bob = new RyaIRI("urn:bob");
+    private final RyaType name = new RyaType("Bob");
+    private final RyaIRI knows = new RyaIRI("urn:knows");
+    private final RyaIRI hasName = new RyaIRI("urn:name");
+
+    @Before
+    public void setUp() throws Exception {
+        connector = new MockInstance(instance).getConnector(user, new PasswordToken(pwd));
+        final AccumuloRdfConfiguration conf = new AccumuloRdfConfiguration();
+        conf.setTablePrefix(tablePrefix);
+        conf.setDisplayQueryPlan(false);
+        dao = new AccumuloRyaDAO();
+        dao.setConnector(connector);
+        dao.setConf(conf);
+        dao.init();
+
+        dao.add(new RyaStatement(alice, knows, bob));
+        dao.add(new RyaStatement(bob, hasName, name));
+        dao.add(new RyaStatement(alice, hasName, new RyaType("Alice")));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        dao.dropAndDestroy();
+        final String dictionaryTable = VertexDictionary.getTableName(tablePrefix);
+        if (connector.tableOperations().exists(dictionaryTable)) {
+            connector.tableOperations().delete(dictionaryTable);
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Test
+    public void testBuildDictionary() throws Exception {
+        assertEquals(0, ToolRunner.run(new Configuration(), new VertexDictionaryTool(), new String[] {
+                "-Dac.mock=true",
+                "-Dac.instance=" + instance,
+                "-Dac.username=" + user,
+                "-Dac.pwd=" + pwd,
+                "-Drdf.tablePrefix=" + tablePrefix,
+                "-Drdf.tablelayout=" + TABLE_LAYOUT.SPO.name()
+        }));
+
+        final VertexDictionary dictionary = new VertexDictionary(connector,
+                VertexDictionary.getTableName(tablePrefix), new Authorizations(), 100);
+        final List<String> vertices = Arrays.asList("urn:alice", "urn:bob", "Bob", "Alice");
+        final Map<String, Long> ids = dictionary.getIds(vertices);
+
+        // Four vertices from a single reducer are numbered densely.
+        assertEquals(vertices.size(), ids.size());
+        assertEquals(new HashSet<>(Arrays.asList(0L, 1L, 2L, 3L)), new HashSet<>(ids.values()));
+
+        final Map<Long, RyaType> reverse = dictionary.getVertices(ids.values());
+        assertEquals(bob, reverse.get(ids.get("urn:bob")));
+        assertEquals(name, reverse.get(ids.get("Bob")));
+
+        // The edge input format reads the same IDs back.
+        final Job job = Job.getInstance();
+        GraphXEdgeInputFormat.setMockInstance(job, instance);
+        GraphXEdgeInputFormat.setConnectorInfo(job, user, new PasswordToken(pwd));
+        GraphXEdgeInputFormat.setTableLayout(job, TABLE_LAYOUT.SPO);
+        GraphXEdgeInputFormat.setInputTableName(job, tablePrefix + RdfCloudTripleStoreConstants.TBL_SPO_SUFFIX);
+        final Configuration jobConf = job.getConfiguration();
+        MRUtils.setACMock(jobConf, true);
+        MRUtils.setACInstance(jobConf, instance);
+        MRUtils.setACUserName(jobConf, user);
+        MRUtils.setACPwd(jobConf, pwd);
+        MRUtils.setTablePrefix(jobConf, tablePrefix);
+        MRUtils.setUseVertexDictionary(jobConf, true);
+
+        final GraphXEdgeInputFormat inputFormat = new GraphXEdgeInputFormat();
+        final JobContext context = new JobContextImpl(jobConf, job.getJobID());
+        final List<InputSplit> splits = inputFormat.getSplits(context);
+        final TaskAttemptContext taskAttemptContext = new TaskAttemptContextImpl(jobConf, new TaskAttemptID(new TaskID(), 1));
+        final RecordReader<Object, Edge> reader = inputFormat.createRecordReader(splits.get(0), taskAttemptContext);
+        reader.initialize(splits.get(0), taskAttemptContext);
+
+        boolean foundKnows = false;
+        int count = 0;
+        while (reader.nextKeyValue()) {
+            final Edge<?> edge = reader.getCurrentValue();
+            if (edge.dstId() == ids.get("urn:bob")) {
+                assertEquals(ids.get("urn:alice").longValue(), edge.srcId());
+                foundKnows = true;
+            }
+            count++;
+        }
+        reader.close();
+        assertEquals(3, count);
+        assertTrue(foundKnows);
+    }
+
+    @Test
+    public void testBuildDictionaryManyReducers() throws Exception {
+        assertEquals(0, ToolRunner.run(new Configuration(), new VertexDictionaryTool(), new String[] {
+                "-Dac.mock=true",
+                "-Dac.instance=" + instance,
+                "-Dac.username=" + user,
+                "-Dac.pwd=" + pwd,
+                "-Drdf.tablePrefix=" + tablePrefix,
+                "-Drdf.tablelayout=" + TABLE_LAYOUT.SPO.name(),
+                "-Dmapreduce.job.reduces=3"
+        }));
+
+        final VertexDictionary dictionary = new VertexDictionary(connector,
+                VertexDictionary.getTableName(tablePrefix), new Authorizations(), 100);
+        final List<String> vertices = Arrays.asList("urn:alice", "urn:bob", "Bob", "Alice");
+        final Map<String, Long> ids = dictionary.getIds(vertices);
+
+        // The vertices of every reducer are numbered after those of the reducers before it.
+        assertEquals(vertices.size(), ids.size());
+        assertEquals(new HashSet<>(Arrays.asList(0L, 1L, 2L, 3L)), new HashSet<>(ids.values()));
+    }
+}
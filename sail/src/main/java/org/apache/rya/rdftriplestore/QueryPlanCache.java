@@ -0,0 +1,266 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.rya.rdftriplestore;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.rya.api.RdfCloudTripleStoreConfiguration;
+import org.apache.rya.api.persist.query.QueryPlanVersion;
+import org.eclipse.rdf4j.query.Binding;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.Dataset;
+import org.eclipse.rdf4j.query.algebra.TupleExpr;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * Caches the optimized query plans of a {@link RdfCloudTripleStore} so that queries
+ * with the same shape skip the optimizers, the statistics lookups, and the
+ * configuration clone that preparing a query plan involves.
+ * <p>
+ * A plan is keyed on the query's algebra, its dataset, the query configuration that
+ * was passed in as bindings, and the names of the remaining bindings. The values of
+ * those remaining bindings are not part of the key. They are left out of
+ * optimization and are supplied as the initial bindings when a copy of the cached plan
+ * is evaluated, so one plan serves every value a parameterized query is run with.
+ * Constants that appear in the query text are kept in the key because the index
+ * optimizers fold them into the plan.
+ * <p>
+ * Each plan remembers the {@link QueryPlanVersion} it was optimized under, and it is
+ * not used once that version has changed. Creating or dropping a PCJ changes the
+ * version, and so does writing statistics for a large number of statements. Plans also
+ * expire after the configured TTL, which bounds how long they miss smaller statistics
+ * changes and changes made by other processes or to the inference rules. Everything is invalidated when the store's configuration, statistics, or
+ * inference engine are replaced.
+ *
+ * @param <C> - The type of configuration the store uses.
+ */
+public class QueryPlanCache<C extends RdfCloudTripleStoreConfiguration> {
+
+    /**
+     * The bindings that carry query configuration instead of values for the query's variables.
+     */
+    private static final Set<String> CONFIG_BINDING_NAMES = new HashSet<>(Arrays.asList(
+            RdfCloudTripleStoreConfiguration.CONF_QUERYPLAN_FLAG,
+            RdfCloudTripleStoreConfiguration.CONF_QUERY_AUTH,
+            RdfCloudTripleStoreConfiguration.CONF_TTL,
+            RdfCloudTripleStoreConfiguration.CONF_STARTTIME,
+            RdfCloudTripleStoreConfiguration.CONF_PERFORMANT,
+            RdfCloudTripleStoreConfiguration.CONF_INFER,
+            RdfCloudTripleStoreConfiguration.CONF_USE_STATS,
+            RdfCloudTripleStoreConfiguration.CONF_OFFSET,
+            RdfCloudTripleStoreConfiguration.CONF_LIMIT));
+
+    private final Cache<Key, Plan<C>> plans;
+
+    /**
+     * Constructs an instance of {@link QueryPlanCache}.
+     *
+     * @param maxSize - The maximum number of plans that are cached.
+     * @param ttlMillis - How long a plan is used before it expires.
+     */
+    public QueryPlanCache(final int maxSize, final long ttlMillis) {
+        plans = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @param key - Identifies the query plan. (not null)
+     * @return The cached plan, or null if there isn't one or it was optimized under
+     *   an older {@link QueryPlanVersion}.
+     */
+    public Plan<C> get(final Key key) {
+        final Plan<C> plan = plans.getIfPresent( requireNonNull(key) );
+        if(plan != null && plan.version != QueryPlanVersion.get()) {
+            plans.invalidate(key);
+            return null;
+        }
+        return plan;
+    }
+
+    /**
+     * @param key - Identifies the query plan. (not null)
+     * @param plan - The optimized plan. It must not be evaluated directly. (not null)
+     */
+    public void put(final Key key, final Plan<C> plan) {
+        plans.put(requireNonNull(key), requireNonNull(plan));
+    }
+
+    /**
+     * Removes every cached plan.
+     */
+    public void invalidateAll() {
+        plans.invalidateAll();
+    }
+
+    /**
+     * @return The hit, miss, and eviction counts of the cache.
+     */
+    public CacheStats getStats() {
+        return plans.stats();
+    }
+
+    /**
+     * @param bindings - The bindings a query was evaluated with. (not null)
+     * @return Only the bindings that carry query configuration.
+     */
+    public static BindingSet getConfigBindings(final BindingSet bindings) {
+        requireNonNull(bindings);
+        final QueryBindingSet configBindings = new QueryBindingSet();
+        for(final Binding binding : bindings) {
+            if(CONFIG_BINDING_NAMES.contains(binding.getName())) {
+                configBindings.addBinding(binding);
+            }
+        }
+        return configBindings;
+    }
+
+    /**
+     * @param bindings - The bindings a query was evaluated with. (not null)
+     * @return Only the bindings that supply values for the query's variables.
+     */
+    public static BindingSet getValueBindings(final BindingSet bindings) {
+        requireNonNull(bindings);
+        final QueryBindingSet valueBindings = new QueryBindingSet();
+        for(final Binding binding : bindings) {
+            if(!CONFIG_BINDING_NAMES.contains(binding.getName())) {
+                valueBindings.addBinding(binding);
+            }
+        }
+        return valueBindings;
+    }
+
+    /**
+     * An optimized query and the configuration it was optimized for. Neither may be
+     * modified, so a copy of the query is evaluated each time the plan is used.
+     *
+     * @param <C> - The type of configuration the store uses.
+     */
+    public static class Plan<C extends RdfCloudTripleStoreConfiguration> {
+        private final TupleExpr tupleExpr;
+        private final C queryConf;
+        private final long version;
+
+        /**
+         * @param tupleExpr - The optimized query. (not null)
+         * @param queryConf - The configuration it was optimized for. (not null)
+         * @param version - The {@link QueryPlanVersion} read before optimization started.
+         */
+        public Plan(final TupleExpr tupleExpr, final C queryConf, final long version) {
+            this.tupleExpr = requireNonNull(tupleExpr);
+            this.queryConf = requireNonNull(queryConf);
+            this.version = version;
+        }
+
+        /**
+         * @return A copy of the optimized query that may be evaluated.
+         */
+        public TupleExpr getTupleExpr() {
+            return tupleExpr.clone();
+        }
+
+        public C getQueryConf() {
+            return queryConf;
+        }
+    }
+
+    /**
+     * Identifies the queries that may share a plan.
+     */
+    public static class Key {
+        private final String algebra;
+        private final String dataset;
+        private final SortedMap<String, String> configBindings;
+        private final Set<String> valueBindingNames;
+
+        private Key(final String algebra, final String dataset, final SortedMap<String, String> configBindings, final Set<String> valueBindingNames) {
+            this.algebra = algebra;
+            this.dataset = dataset;
+            this.configBindings = configBindings;
+            this.valueBindingNames = valueBindingNames;
+        }
+
+        /**
+         * @param tupleExpr - The query before it has been optimized. (not null)
+         * @param dataset - The query's dataset. (may be null)
+         * @param bindings - The bindings the query is evaluated with. (not null)
+         * @return The key of the query's plan.
+         */
+        public static Key of(final TupleExpr tupleExpr, final Dataset dataset, final BindingSet bindings) {
+            requireNonNull(tupleExpr);
+            requireNonNull(bindings);
+
+            final SortedMap<String, String> configBindings = new TreeMap<>();
+            final Set<String> valueBindingNames = new HashSet<>();
+            for(final Binding binding : bindings) {
+                if(CONFIG_BINDING_NAMES.contains(binding.getName())) {
+                    configBindings.put(binding.getName(), binding.getValue().stringValue());
+                } else {
+                    valueBindingNames.add(binding.getName());
+                }
+            }
+
+            return new Key(tupleExpr.toString(), Objects.toString(dataset), configBindings, valueBindingNames);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if(this == o) {
+                return true;
+            }
+            if(o instanceof Key) {
+                final Key other = (Key) o;
+                return Objects.equals(algebra, other.algebra) &&
+                        Objects.equals(dataset, other.dataset) &&
+                        Objects.equals(configBindings, other.configBindings) &&
+                        Objects.equals(valueBindingNames, other.valueBindingNames);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(algebra, dataset, configBindings, valueBindingNames);
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder();
+            for(final Map.Entry<String, String> entry : configBindings.entrySet()) {
+                sb.append(entry.getKey()).append('=').append(entry.getValue()).append(' ');
+            }
+            return sb.append(valueBindingNames).append('\n').append(algebra).toString();
+        }
+    }
+}
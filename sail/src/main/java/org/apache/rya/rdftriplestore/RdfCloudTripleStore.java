@@ -25,6 +25,7 @@ import org.apache.rya.api.persist.RdfEvalStatsDAO;
 import org.apache.rya.api.persist.RyaDAO;
 import org.apache.rya.api.persist.RyaDAOException;
 import org.apache.rya.api.persist.joinselect.SelectivityEvalDAO;
+import org.apache.rya.api.persist.query.QueryPlanVersion;
 import org.apache.rya.rdftriplestore.inference.InferenceEngine;
 import org.apache.rya.rdftriplestore.namespace.NamespaceManager;
 import org.apache.rya.rdftriplestore.provenance.ProvenanceCollector;
@@ -44,6 +45,7 @@ public class RdfCloudTripleStore<C extends RdfCloudTripleStoreConfiguration> ext
     protected SelectivityEvalDAO<C> selectEvalDAO;
     private NamespaceManager namespaceManager;
     protected ProvenanceCollector provenanceCollector;
+    private QueryPlanCache<C> queryPlanCache;
 
     private static final ValueFactory VF = SimpleValueFactory.getInstance();
 
@@ -116,6 +118,30 @@ public class RdfCloudTripleStore<C extends RdfCloudTripleStoreConfiguration> ext
 
     public synchronized void setConf(final C conf) {
         this.conf = conf;
+        // The cache is sized by the configuration, so it is rebuilt the next time it is used.
+        this.queryPlanCache = null;
+    }
+
+    /**
+     * @return The cache of optimized query plans, or null if the configuration disables it.
+     */
+    public synchronized QueryPlanCache<C> getQueryPlanCache() {
+        if (queryPlanCache == null && conf != null && conf.getQueryPlanCacheSize() > 0) {
+            queryPlanCache = new QueryPlanCache<>(conf.getQueryPlanCacheSize(), conf.getQueryPlanCacheTtl());
+        }
+        return queryPlanCache;
+    }
+
+    /**
+     * Discards the cached query plans. PCJ changes and large statistics changes made in
+     * this process already make the plans stale through {@link QueryPlanVersion}. This must be called
+     * when something else the plans were optimized with, such as the secondary indices,
+     * changes.
+     */
+    public synchronized void invalidateQueryPlans() {
+        if (queryPlanCache != null) {
+            queryPlanCache.invalidateAll();
+        }
     }
 
     public RdfEvalStatsDAO<C> getRdfEvalStatsDAO() {
@@ -124,6 +150,7 @@ public class RdfCloudTripleStore<C extends RdfCloudTripleStoreConfiguration> ext
 
     public void setRdfEvalStatsDAO(final RdfEvalStatsDAO<C> rdfEvalStatsDAO) {
         this.rdfEvalStatsDAO = rdfEvalStatsDAO;
+        invalidateQueryPlans();
     }
 
     public SelectivityEvalDAO<C> getSelectEvalDAO() {
@@ -132,6 +159,7 @@ public class RdfCloudTripleStore<C extends RdfCloudTripleStoreConfiguration> ext
 
     public void setSelectEvalDAO(final SelectivityEvalDAO<C> selectEvalDAO) {
         this.selectEvalDAO = selectEvalDAO;
+        invalidateQueryPlans();
     }
 
     public synchronized RyaDAO<C> getRyaDAO() {
@@ -148,6 +176,7 @@ public class RdfCloudTripleStore<C extends RdfCloudTripleStoreConfiguration> ext
 
     public synchronized void setInferenceEngine(final InferenceEngine inferenceEngine) {
         this.inferenceEngine = inferenceEngine;
+        invalidateQueryPlans();
     }
 
     public NamespaceManager getNamespaceManager() {
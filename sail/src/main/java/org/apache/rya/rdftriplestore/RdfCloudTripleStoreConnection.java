@@ -40,6 +40,7 @@ import org.apache.rya.api.persist.RdfEvalStatsDAO;
 import org.apache.rya.api.persist.RyaDAO;
 import org.apache.rya.api.persist.RyaDAOException;
 import org.apache.rya.api.persist.joinselect.SelectivityEvalDAO;
+import org.apache.rya.api.persist.query.QueryPlanVersion;
 import org.apache.rya.api.persist.utils.RyaDAOHelper;
 import org.apache.rya.api.resolver.RdfToRyaConversions;
 import org.apache.rya.rdftriplestore.evaluation.FilterRangeVisitor;
@@ -226,6 +227,30 @@ public class RdfCloudTripleStoreConnection<C extends RdfCloudTripleStoreConfigur
             }
         }
         tupleExpr = tupleExpr.clone();
+        if (bindings == null) {
+            bindings = new QueryBindingSet();
+        }
+
+        // Queries with the same shape share a plan that was optimized without the values of their
+        // bindings. Those values are supplied when a copy of the plan is evaluated.
+        final QueryPlanCache<C> planCache = store.getQueryPlanCache();
+        final QueryPlanCache.Key planKey = planCache == null ? null : QueryPlanCache.Key.of(tupleExpr, dataset, bindings);
+        // Read before optimizing so a change made while optimizing marks the new plan as stale.
+        final long planVersion = QueryPlanVersion.get();
+        if (planKey != null) {
+            final QueryPlanCache.Plan<C> plan = planCache.get(planKey);
+            if (plan != null) {
+                logger.trace("Evaluating the cached query plan for:\n{}", planKey);
+                final C planConf = plan.getQueryConf();
+                final ParallelEvaluationStrategyImpl strategy = new ParallelEvaluationStrategyImpl(
+                        new StoreTripleSource<C>(planConf, ryaDAO), inferenceEngine, dataset, planConf);
+                try {
+                    return evaluate(strategy, plan.getTupleExpr(), QueryPlanCache.getValueBindings(bindings));
+                } catch (final QueryEvaluationException e) {
+                    throw new SailException(e);
+                }
+            }
+        }
 
         final C queryConf = (C) store.getConf().clone();
         if (queryConf == null) {
@@ -277,10 +302,11 @@ public class RdfCloudTripleStoreConnection<C extends RdfCloudTripleStoreConfigur
             if (limitBinding != null) {
                 queryConf.setLimit(Long.parseLong(limitBinding.getValue().stringValue()));
             }
-        } else {
-            bindings = new QueryBindingSet();
         }
 
+        // A plan that will be cached may not depend on the values of the query's bindings.
+        final BindingSet optimizeBindings = planKey == null ? bindings : QueryPlanCache.getConfigBindings(bindings);
+
         if (!(tupleExpr instanceof QueryRoot)) {
             tupleExpr = new QueryRoot(tupleExpr);
         }
@@ -302,26 +328,26 @@ public class RdfCloudTripleStoreConnection<C extends RdfCloudTripleStoreConfigur
                 if (opt instanceof Configurable) {
                     ((Configurable) opt).setConf(conf);
                 }
-                opt.optimize(tupleExpr, dataset, bindings);
+                opt.optimize(tupleExpr, dataset, optimizeBindings);
             }
 
             final ParallelEvaluationStrategyImpl strategy = new ParallelEvaluationStrategyImpl(
                     new StoreTripleSource<C>(queryConf, ryaDAO), inferenceEngine, dataset, queryConf);
 
-                (new BindingAssigner()).optimize(tupleExpr, dataset, bindings);
+                (new BindingAssigner()).optimize(tupleExpr, dataset, optimizeBindings);
                 (new ConstantOptimizer(strategy)).optimize(tupleExpr, dataset,
-                        bindings);
-                (new CompareOptimizer()).optimize(tupleExpr, dataset, bindings);
+                        optimizeBindings);
+                (new CompareOptimizer()).optimize(tupleExpr, dataset, optimizeBindings);
                 (new ConjunctiveConstraintSplitter()).optimize(tupleExpr, dataset,
-                        bindings);
+                        optimizeBindings);
                 (new DisjunctiveConstraintOptimizer()).optimize(tupleExpr, dataset,
-                        bindings);
+                        optimizeBindings);
                 (new SameTermFilterOptimizer()).optimize(tupleExpr, dataset,
-                        bindings);
-                (new QueryModelNormalizer()).optimize(tupleExpr, dataset, bindings);
+                        optimizeBindings);
+                (new QueryModelNormalizer()).optimize(tupleExpr, dataset, optimizeBindings);
 
                 (new IterativeEvaluationOptimizer()).optimize(tupleExpr, dataset,
-                        bindings);
+                        optimizeBindings);
 
             if (!optimizers.isEmpty()) {
                 for (final Class<QueryOptimizer> optclz : optimizers) {
@@ -342,12 +368,12 @@ public class RdfCloudTripleStoreConnection<C extends RdfCloudTripleStoreConfigur
                     if (result instanceof Configurable) {
                         ((Configurable) result).setConf(conf);
                     }
-                    result.optimize(tupleExpr, dataset, bindings);
+                    result.optimize(tupleExpr, dataset, optimizeBindings);
                 }
             }
 
-            (new FilterOptimizer()).optimize(tupleExpr, dataset, bindings);
-            (new OrderLimitOptimizer()).optimize(tupleExpr, dataset, bindings);
+            (new FilterOptimizer()).optimize(tupleExpr, dataset, optimizeBindings);
+            (new OrderLimitOptimizer()).optimize(tupleExpr, dataset, optimizeBindings);
 
             logger.trace("Optimized query model:\n{}", tupleExpr.toString());
 
@@ -398,39 +424,18 @@ public class RdfCloudTripleStoreConnection<C extends RdfCloudTripleStoreConfigur
 
                 if (stats instanceof RdfCloudTripleStoreSelectivityEvaluationStatistics) {
                     final QueryJoinSelectOptimizer qjso = new QueryJoinSelectOptimizer(stats, selectEvalDAO);
-                    qjso.optimize(tupleExpr, dataset, bindings);
+                    qjso.optimize(tupleExpr, dataset, optimizeBindings);
                 } else {
                     final QueryJoinOptimizer qjo = new QueryJoinOptimizer(stats);
-                    qjo.optimize(tupleExpr, dataset, bindings); // TODO: Make pluggable
+                    qjo.optimize(tupleExpr, dataset, optimizeBindings); // TODO: Make pluggable
                 }
             }
 
-            final CloseableIteration<BindingSet, QueryEvaluationException> iter = strategy
-                    .evaluate(tupleExpr, EmptyBindingSet.getInstance());
-            final CloseableIteration<BindingSet, QueryEvaluationException> iterWrap = new CloseableIteration<BindingSet, QueryEvaluationException>() {
-
-                @Override
-                public void remove() throws QueryEvaluationException {
-                  iter.remove();
-                }
-
-                @Override
-                public BindingSet next() throws QueryEvaluationException {
-                    return iter.next();
-                }
-
-                @Override
-                public boolean hasNext() throws QueryEvaluationException {
-                    return iter.hasNext();
-                }
-
-                @Override
-                public void close() throws QueryEvaluationException {
-                    iter.close();
-                    strategy.shutdown();
-                }
-            };
-            return iterWrap;
+            if (planKey != null) {
+                planCache.put(planKey, new QueryPlanCache.Plan<>(tupleExpr.clone(), queryConf, planVersion));
+                return evaluate(strategy, tupleExpr, QueryPlanCache.getValueBindings(bindings));
+            }
+            return evaluate(strategy, tupleExpr, EmptyBindingSet.getInstance());
         } catch (final QueryEvaluationException e) {
             throw new SailException(e);
         } catch (final Exception e) {
@@ -438,6 +443,37 @@ public class RdfCloudTripleStoreConnection<C extends RdfCloudTripleStoreConfigur
         }
     }
 
+    /**
+     * Evaluates an optimized query and shuts down its evaluation strategy when the results are closed.
+     */
+    private CloseableIteration<BindingSet, QueryEvaluationException> evaluate(final ParallelEvaluationStrategyImpl strategy,
+            final TupleExpr tupleExpr, final BindingSet bindings) throws QueryEvaluationException {
+        final CloseableIteration<BindingSet, QueryEvaluationException> iter = strategy.evaluate(tupleExpr, bindings);
+        return new CloseableIteration<BindingSet, QueryEvaluationException>() {
+
+            @Override
+            public void remove() throws QueryEvaluationException {
+              iter.remove();
+            }
+
+            @Override
+            public BindingSet next() throws QueryEvaluationException {
+                return iter.next();
+            }
+
+            @Override
+            public boolean hasNext() throws QueryEvaluationException {
+                return iter.hasNext();
+            }
+
+            @Override
+            public void close() throws QueryEvaluationException {
+                iter.close();
+                strategy.shutdown();
+            }
+        };
+    }
+
     @Override
     protected CloseableIteration<? extends Resource, SailException> getContextIDsInternal()
             throws SailException {
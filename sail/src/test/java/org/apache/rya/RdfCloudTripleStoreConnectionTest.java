@@ -30,6 +30,7 @@ import org.apache.rya.accumulo.AccumuloRdfConfiguration;
 import org.apache.rya.accumulo.AccumuloRyaDAO;
 import org.apache.rya.api.RdfCloudTripleStoreConfiguration;
 import org.apache.rya.api.RdfCloudTripleStoreConstants;
+import org.apache.rya.api.persist.query.QueryPlanVersion;
 import org.apache.rya.rdftriplestore.RdfCloudTripleStore;
 import org.apache.rya.rdftriplestore.RyaSailRepository;
 import org.apache.rya.rdftriplestore.inference.InferenceEngine;
@@ -200,6 +201,72 @@ public class RdfCloudTripleStoreConnectionTest extends TestCase {
         assertEquals(cth.getCount(), 1);
     }
 
+    public void testEvaluateCachedPlan() throws Exception {
+        store.getConf().setQueryPlanCacheSize(10);
+        RepositoryConnection conn = repository.getConnection();
+        IRI loadPerc = VF.createIRI(litdupsNS, "loadPerc");
+        IRI pred2 = VF.createIRI(litdupsNS, "pred2");
+        IRI cpu2 = VF.createIRI(litdupsNS, "cpu2");
+        conn.add(cpu, loadPerc, VF.createIRI(litdupsNS, "uri1"));
+        conn.add(cpu, pred2, VF.createIRI(litdupsNS, "uri2"));
+        conn.add(cpu2, loadPerc, VF.createIRI(litdupsNS, "uri3"));
+        conn.commit();
+
+        String query = "select * where {" +
+                "?x <" + loadPerc.stringValue() + "> ?o1." +
+                "OPTIONAL { ?x <" + pred2.stringValue() + "> ?o2. }" +
+                "}";
+
+        // The second and third evaluations reuse the plan of the first one with different values for ?x.
+        TupleQuery tupleQuery = conn.prepareTupleQuery(QueryLanguage.SPARQL, query);
+        tupleQuery.setBinding("x", cpu);
+        CountTupleHandler cth = new CountTupleHandler();
+        tupleQuery.evaluate(cth);
+        assertEquals(1, cth.getCount());
+
+        tupleQuery.setBinding("x", cpu2);
+        cth = new CountTupleHandler();
+        tupleQuery.evaluate(cth);
+        assertEquals(1, cth.getCount());
+
+        tupleQuery.setBinding("x", VF.createIRI(litdupsNS, "cpu3"));
+        cth = new CountTupleHandler();
+        tupleQuery.evaluate(cth);
+        assertEquals(0, cth.getCount());
+        conn.close();
+
+        assertEquals(1, store.getQueryPlanCache().getStats().missCount());
+        assertEquals(2, store.getQueryPlanCache().getStats().hitCount());
+    }
+
+    public void testCachedPlanStaleAfterVersionChange() throws Exception {
+        store.getConf().setQueryPlanCacheSize(10);
+        RepositoryConnection conn = repository.getConnection();
+        IRI loadPerc = VF.createIRI(litdupsNS, "loadPerc");
+        conn.add(cpu, loadPerc, VF.createIRI(litdupsNS, "uri1"));
+        conn.commit();
+
+        String query = "select * where { ?x <" + loadPerc.stringValue() + "> ?o1. }";
+        TupleQuery tupleQuery = conn.prepareTupleQuery(QueryLanguage.SPARQL, query);
+        CountTupleHandler cth = new CountTupleHandler();
+        tupleQuery.evaluate(cth);
+        assertEquals(1, cth.getCount());
+
+        // A PCJ was created or dropped, or statistics were written, so the plan is optimized again.
+        QueryPlanVersion.increment();
+        cth = new CountTupleHandler();
+        tupleQuery.evaluate(cth);
+        assertEquals(1, cth.getCount());
+
+        cth = new CountTupleHandler();
+        tupleQuery.evaluate(cth);
+        assertEquals(1, cth.getCount());
+        conn.close();
+
+        assertEquals(2, store.getQueryPlanCache().getStats().missCount());
+        assertEquals(1, store.getQueryPlanCache().getStats().hitCount());
+    }
+
     public void testPOObjRange() throws Exception {
         RepositoryConnection conn = repository.getConnection();
         IRI loadPerc = VF.createIRI(litdupsNS, "loadPerc");
@@ -27,6 +27,8 @@ import org.apache.rya.accumulo.mr.GraphXInputFormat;
 import org.apache.rya.accumulo.mr.MRUtils;
 import org.apache.rya.accumulo.mr.RyaInputFormat;
 import org.apache.rya.accumulo.mr.RyaTypeWritable;
+import org.apache.rya.accumulo.mr.VertexDictionary;
+import org.apache.rya.accumulo.mr.VertexDictionaryInputFormat;
 import org.apache.rya.api.RdfCloudTripleStoreConfiguration;
 import org.apache.rya.api.RdfCloudTripleStoreConstants;
 import org.apache.rya.api.RdfCloudTripleStoreConstants.TABLE_LAYOUT;
@@ -165,6 +167,54 @@ public class GraphXGraphGenerator {
         return sc.newAPIHadoopRDD(job.getConfiguration(), GraphXEdgeInputFormat.class, Object.class, Edge.class);
     }
 
+    /**
+     * Reads the vertex dictionary as (vertex ID, vertex) pairs. When
+     * {@link MRUtils#VERTEX_DICTIONARY_PROP} is set, the vertex and edge RDDs
+     * use IDs from the dictionary, and results keyed by vertex ID can be
+     * joined with this RDD to translate them back into vertices.
+     */
+    public RDD<Tuple2<Object, RyaTypeWritable>> getVertexDictionaryRDD(SparkContext sc, Configuration conf) throws IOException, AccumuloSecurityException{
+        // Load configuration parameters
+        zk = MRUtils.getACZK(conf);
+        instance = MRUtils.getACInstance(conf);
+        userName = MRUtils.getACUserName(conf);
+        pwd = MRUtils.getACPwd(conf);
+        mock = MRUtils.getACMock(conf, false);
+        tablePrefix = MRUtils.getTablePrefix(conf);
+        // Set authorizations if specified
+        String authString = conf.get(MRUtils.AC_AUTH_PROP);
+        if (authString != null && !authString.isEmpty()) {
+            authorizations = new Authorizations(authString.split(","));
+        }
+        else {
+            authorizations = AccumuloRdfConstants.ALL_AUTHORIZATIONS;
+        }
+        // Set table prefix to the default if not set
+        if (tablePrefix == null) {
+            tablePrefix = RdfCloudTripleStoreConstants.TBL_PRFX_DEF;
+            MRUtils.setTablePrefix(conf, tablePrefix);
+        }
+        // Check for required configuration parameters
+        Preconditions.checkNotNull(instance, "Accumulo instance name [" + MRUtils.AC_INSTANCE_PROP + "] not set.");
+        Preconditions.checkNotNull(userName, "Accumulo username [" + MRUtils.AC_USERNAME_PROP + "] not set.");
+        Preconditions.checkNotNull(pwd, "Accumulo password [" + MRUtils.AC_PWD_PROP + "] not set.");
+
+        Job job = Job.getInstance(conf, sc.appName());
+
+        ClientConfiguration clientConfig = new ClientConfiguration().with(ClientProperty.INSTANCE_NAME, instance).with(ClientProperty.INSTANCE_ZK_HOST, zk);
+
+        VertexDictionaryInputFormat.setDictionaryTable(job, VertexDictionary.getTableName(tablePrefix));
+        VertexDictionaryInputFormat.setConnectorInfo(job, userName, new PasswordToken(pwd));
+        if (mock) {
+            VertexDictionaryInputFormat.setMockInstance(job, instance);
+        } else {
+            VertexDictionaryInputFormat.setZooKeeperInstance(job, clientConfig);
+        }
+        VertexDictionaryInputFormat.setScanAuthorizations(job, authorizations);
+
+        return sc.newAPIHadoopRDD(job.getConfiguration(), VertexDictionaryInputFormat.class, Object.class, RyaTypeWritable.class);
+    }
+
     public Graph<RyaTypeWritable, RyaTypeWritable> createGraph(SparkContext sc, Configuration conf) throws IOException, AccumuloSecurityException{
         StorageLevel storageLvl1 = StorageLevel.MEMORY_ONLY();
         StorageLevel storageLvl2 = StorageLevel.MEMORY_ONLY();
@@ -0,0 +1,56 @@
+package org.apache.rya.accumulo.spark;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.HashMap;
+
+import org.apache.spark.sql.SQLContext;
+import org.apache.spark.sql.sources.BaseRelation;
+import org.apache.spark.sql.sources.DataSourceRegister;
+import org.apache.spark.sql.sources.RelationProvider;
+
+import scala.collection.JavaConversions;
+import scala.collection.immutable.Map;
+
+/**
+ * Spark SQL data source that reads the statements stored in Rya, for example:
+ * <pre>
+ * sqlContext.read().format("rya")
+ *         .option("ac.instance", "instance").option("ac.zk", "zoo1:2181")
+ *         .option("ac.username", "root").option("ac.pwd", "secret")
+ *         .option("rdf.tablePrefix", "rya_")
+ *         .load()
+ *         .filter("predicate = 'urn:worksAt'");
+ * </pre>
+ * Options use the same property names as the Rya MapReduce tools; see {@link RyaRelation}
+ * for the schema.
+ */
+public class RyaDataSource implements RelationProvider, DataSourceRegister {
+
+    @Override
+    public String shortName() {
+        return "rya";
+    }
+
+    @Override
+    public BaseRelation createRelation(final SQLContext sqlContext, final Map<String, String> parameters) {
+        return new RyaRelation(sqlContext, new HashMap<>(JavaConversions.mapAsJavaMap(parameters)));
+    }
+}
@@ -0,0 +1,187 @@
+package org.apache.rya.accumulo.spark;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.ClientConfiguration;
+import org.apache.accumulo.core.client.ClientConfiguration.ClientProperty;
+import org.apache.accumulo.core.client.mapreduce.AccumuloInputFormat;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.core.util.Pair;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.rya.accumulo.AccumuloRdfConfiguration;
+import org.apache.rya.accumulo.AccumuloRdfConstants;
+import org.apache.rya.accumulo.mr.MRUtils;
+import org.apache.rya.accumulo.mr.RyaInputFormat;
+import org.apache.rya.accumulo.mr.RyaStatementWritable;
+import org.apache.rya.api.RdfCloudTripleStoreConstants;
+import org.apache.rya.api.RdfCloudTripleStoreUtils;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.resolver.RyaTripleContext;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.api.java.function.Function;
+import org.apache.spark.rdd.RDD;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.RowFactory;
+import org.apache.spark.sql.SQLContext;
+import org.apache.spark.sql.sources.BaseRelation;
+import org.apache.spark.sql.sources.Filter;
+import org.apache.spark.sql.sources.PrunedFilteredScan;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A table of the statements in a Rya instance, with one row per statement.
+ * Filters on the statement's parts are used to pick the core table and range
+ * to scan (see {@link RyaScanPlan}), and only the requested columns are built.
+ */
+public class RyaRelation extends BaseRelation implements PrunedFilteredScan, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final String SUBJECT = "subject";
+    public static final String PREDICATE = "predicate";
+    public static final String OBJECT = "object";
+    public static final String OBJECT_TYPE = "object_type";
+    public static final String CONTEXT = "context";
+
+    private static final StructType SCHEMA = DataTypes.createStructType(new StructField[] {
+            DataTypes.createStructField(SUBJECT, DataTypes.StringType, false),
+            DataTypes.createStructField(PREDICATE, DataTypes.StringType, false),
+            DataTypes.createStructField(OBJECT, DataTypes.StringType, false),
+            DataTypes.createStructField(OBJECT_TYPE, DataTypes.StringType, false),
+            DataTypes.createStructField(CONTEXT, DataTypes.StringType, true) });
+
+    private final transient SQLContext sqlContext;
+    private final Map<String, String> options;
+
+    /**
+     * @param sqlContext    The context queries against this relation run in.
+     * @param options   Connection properties, keyed like the {@link MRUtils} properties.
+     */
+    public RyaRelation(final SQLContext sqlContext, final Map<String, String> options) {
+        this.sqlContext = sqlContext;
+        this.options = options;
+    }
+
+    @Override
+    public SQLContext sqlContext() {
+        return sqlContext;
+    }
+
+    @Override
+    public StructType schema() {
+        return SCHEMA;
+    }
+
+    @Override
+    public RDD<Row> buildScan(final String[] requiredColumns, final Filter[] filters) {
+        final Configuration conf = new Configuration();
+        for (final Map.Entry<String, String> option : options.entrySet()) {
+            conf.set(option.getKey(), option.getValue());
+        }
+        final String instance = MRUtils.getACInstance(conf);
+        final String zk = MRUtils.getACZK(conf);
+        final String userName = MRUtils.getACUserName(conf);
+        final String pwd = MRUtils.getACPwd(conf);
+        final boolean mock = MRUtils.getACMock(conf, false);
+        String tablePrefix = MRUtils.getTablePrefix(conf);
+        if (tablePrefix == null) {
+            tablePrefix = RdfCloudTripleStoreConstants.TBL_PRFX_DEF;
+            MRUtils.setTablePrefix(conf, tablePrefix);
+        }
+        Preconditions.checkNotNull(instance, "Accumulo instance name [" + MRUtils.AC_INSTANCE_PROP + "] not set.");
+        Preconditions.checkNotNull(userName, "Accumulo username [" + MRUtils.AC_USERNAME_PROP + "] not set.");
+        Preconditions.checkNotNull(pwd, "Accumulo password [" + MRUtils.AC_PWD_PROP + "] not set.");
+        final String authString = conf.get(MRUtils.AC_AUTH_PROP);
+        final Authorizations authorizations = authString == null || authString.isEmpty()
+                ? AccumuloRdfConstants.ALL_AUTHORIZATIONS : new Authorizations(authString.split(","));
+
+        try {
+            final RyaScanPlan plan = RyaScanPlan.plan(filters, RyaTripleContext.getInstance(new AccumuloRdfConfiguration(conf)));
+
+            final Job job = Job.getInstance(conf);
+            RyaInputFormat.setConnectorInfo(job, userName, new PasswordToken(pwd));
+            if (mock) {
+                RyaInputFormat.setMockInstance(job, instance);
+            } else {
+                RyaInputFormat.setZooKeeperInstance(job, new ClientConfiguration()
+                        .with(ClientProperty.INSTANCE_NAME, instance).with(ClientProperty.INSTANCE_ZK_HOST, zk));
+            }
+            RyaInputFormat.setScanAuthorizations(job, authorizations);
+            RyaInputFormat.setTableLayout(job, plan.getLayout());
+            AccumuloInputFormat.setInputTableName(job, RdfCloudTripleStoreUtils.layoutPrefixToTable(plan.getLayout(), tablePrefix));
+            // The input format splits the range on tablet boundaries, so each tablet becomes a partition.
+            AccumuloInputFormat.setRanges(job, Collections.singleton(plan.getRange()));
+            if (plan.getContext() != null) {
+                AccumuloInputFormat.fetchColumns(job, Collections.singleton(
+                        new Pair<Text, Text>(new Text(plan.getContext()), null)));
+            }
+
+            final JavaSparkContext sc = JavaSparkContext.fromSparkContext(sqlContext.sparkContext());
+            return sc.newAPIHadoopRDD(job.getConfiguration(), RyaInputFormat.class, Text.class, RyaStatementWritable.class)
+                    .values()
+                    .map(new StatementToRow(requiredColumns))
+                    .rdd();
+        } catch (IOException | AccumuloSecurityException e) {
+            throw new IllegalStateException("Could not set up a scan of the Rya tables.", e);
+        }
+    }
+
+    /**
+     * Builds a row holding the requested columns of a statement.
+     */
+    private static class StatementToRow implements Function<RyaStatementWritable, Row> {
+        private static final long serialVersionUID = 1L;
+
+        private final String[] columns;
+
+        public StatementToRow(final String[] columns) {
+            this.columns = columns;
+        }
+
+        @Override
+        public Row call(final RyaStatementWritable writable) {
+            final RyaStatement statement = writable.getRyaStatement();
+            final Object[] values = new Object[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                switch (columns[i]) {
+                    case SUBJECT: values[i] = statement.getSubject().getData(); break;
+                    case PREDICATE: values[i] = statement.getPredicate().getData(); break;
+                    case OBJECT: values[i] = statement.getObject().getData(); break;
+                    case OBJECT_TYPE: values[i] = statement.getObject().getDataType().stringValue(); break;
+                    case CONTEXT: values[i] = statement.getContext() == null ? null : statement.getContext().getData(); break;
+                    default: throw new IllegalArgumentException("Unknown column: " + columns[i]);
+                }
+            }
+            return RowFactory.create(values);
+        }
+    }
+}
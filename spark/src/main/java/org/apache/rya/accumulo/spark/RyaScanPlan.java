@@ -0,0 +1,192 @@
+package org.apache.rya.accumulo.spark;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.accumulo.core.data.Range;
+import org.apache.hadoop.io.Text;
+import org.apache.rya.api.RdfCloudTripleStoreConstants.TABLE_LAYOUT;
+import org.apache.rya.api.domain.RyaIRI;
+import org.apache.rya.api.domain.RyaIRIRange;
+import org.apache.rya.api.domain.RyaType;
+import org.apache.rya.api.domain.RyaTypeRange;
+import org.apache.rya.api.query.strategy.ByteRange;
+import org.apache.rya.api.query.strategy.TriplePatternStrategy;
+import org.apache.rya.api.resolver.RyaTripleContext;
+import org.apache.spark.sql.sources.And;
+import org.apache.spark.sql.sources.EqualTo;
+import org.apache.spark.sql.sources.Filter;
+import org.apache.spark.sql.sources.GreaterThan;
+import org.apache.spark.sql.sources.GreaterThanOrEqual;
+import org.apache.spark.sql.sources.LessThan;
+import org.apache.spark.sql.sources.LessThanOrEqual;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+
+/**
+ * Turns the filters Spark pushes down to a {@link RyaRelation} into the table
+ * and range to scan, the same way {@code AccumuloRyaQueryEngine} turns a
+ * statement pattern into a scan. The pattern is built from:
+ * <ul>
+ *   <li>equality on {@code subject}, {@code predicate} and {@code context},</li>
+ *   <li>a range on {@code subject} from {@code >}, {@code >=}, {@code <} and {@code <=},</li>
+ *   <li>equality or a closed range on {@code object}, only when {@code object_type}
+ *       is also fixed, since the stored form of an object depends on its datatype.</li>
+ * </ul>
+ * Any other filter is left for Spark to evaluate. Spark evaluates the pushed
+ * filters again as well, so ranges only need to cover the matching rows.
+ */
+public class RyaScanPlan {
+
+    private final TABLE_LAYOUT layout;
+    private final Range range;
+    private final String context;
+
+    private RyaScanPlan(final TABLE_LAYOUT layout, final Range range, final String context) {
+        this.layout = layout;
+        this.range = range;
+        this.context = context;
+    }
+
+    /**
+     * @return The core table to scan.
+     */
+    public TABLE_LAYOUT getLayout() {
+        return layout;
+    }
+
+    /**
+     * @return The rows of the table to scan.
+     */
+    public Range getRange() {
+        return range;
+    }
+
+    /**
+     * @return The context every matching statement is in, or null if any context matches.
+     */
+    public String getContext() {
+        return context;
+    }
+
+    /**
+     * Plans the scan for a set of pushed down filters.
+     * @param filters   Filters that every returned row must satisfy.
+     * @param ryaContext    Chooses the triple pattern strategy for the pattern.
+     * @return  The table and range to scan.
+     * @throws IOException if the range cannot be serialized.
+     */
+    public static RyaScanPlan plan(final Filter[] filters, final RyaTripleContext ryaContext) throws IOException {
+        final List<Filter> flattened = new ArrayList<>();
+        for (final Filter filter : filters) {
+            flatten(filter, flattened);
+        }
+
+        String subject = null, subjectLower = null, subjectUpper = null;
+        String predicate = null, context = null;
+        String object = null, objectLower = null, objectUpper = null, objectType = null;
+        for (final Filter filter : flattened) {
+            if (filter instanceof EqualTo) {
+                final EqualTo equalTo = (EqualTo) filter;
+                final String value = String.valueOf(equalTo.value());
+                switch (equalTo.attribute()) {
+                    case RyaRelation.SUBJECT: subject = value; break;
+                    case RyaRelation.PREDICATE: predicate = value; break;
+                    case RyaRelation.OBJECT: object = value; break;
+                    case RyaRelation.OBJECT_TYPE: objectType = value; break;
+                    case RyaRelation.CONTEXT: context = value; break;
+                    default: break;
+                }
+            } else if (filter instanceof GreaterThan || filter instanceof GreaterThanOrEqual) {
+                final String attribute = filter instanceof GreaterThan ? ((GreaterThan) filter).attribute() : ((GreaterThanOrEqual) filter).attribute();
+                final String value = String.valueOf(filter instanceof GreaterThan ? ((GreaterThan) filter).value() : ((GreaterThanOrEqual) filter).value());
+                if (RyaRelation.SUBJECT.equals(attribute)) {
+                    subjectLower = value;
+                } else if (RyaRelation.OBJECT.equals(attribute)) {
+                    objectLower = value;
+                }
+            } else if (filter instanceof LessThan || filter instanceof LessThanOrEqual) {
+                final String attribute = filter instanceof LessThan ? ((LessThan) filter).attribute() : ((LessThanOrEqual) filter).attribute();
+                final String value = String.valueOf(filter instanceof LessThan ? ((LessThan) filter).value() : ((LessThanOrEqual) filter).value());
+                if (RyaRelation.SUBJECT.equals(attribute)) {
+                    subjectUpper = value;
+                } else if (RyaRelation.OBJECT.equals(attribute)) {
+                    objectUpper = value;
+                }
+            }
+        }
+
+        RyaIRI subjectPattern = null;
+        if (subject != null) {
+            subjectPattern = new RyaIRI(subject);
+        } else if (subjectLower != null || subjectUpper != null) {
+            subjectPattern = new RyaIRIRange(new RyaIRI(subjectLower == null ? "" : subjectLower),
+                    subjectUpper == null ? RyaIRIRange.LAST_IRI : new RyaIRI(subjectUpper));
+        }
+        final RyaIRI predicatePattern = predicate == null ? null : new RyaIRI(predicate);
+        RyaType objectPattern = null;
+        if (objectType != null) {
+            final SimpleValueFactory vf = SimpleValueFactory.getInstance();
+            if (object != null) {
+                objectPattern = new RyaType(vf.createIRI(objectType), object);
+            } else if (objectLower != null && objectUpper != null) {
+                objectPattern = new RyaTypeRange(new RyaType(vf.createIRI(objectType), objectLower),
+                        new RyaType(vf.createIRI(objectType), objectUpper));
+            }
+        }
+
+        // Not every combination of ranges has a table that serves it, so ranges are dropped until one does.
+        Map.Entry<TABLE_LAYOUT, ByteRange> entry = defineRange(subjectPattern, predicatePattern, objectPattern, ryaContext);
+        if (entry == null && subjectPattern instanceof RyaIRIRange) {
+            subjectPattern = null;
+            entry = defineRange(subjectPattern, predicatePattern, objectPattern, ryaContext);
+        }
+        if (entry == null && objectPattern instanceof RyaTypeRange) {
+            objectPattern = null;
+            entry = defineRange(subjectPattern, predicatePattern, objectPattern, ryaContext);
+        }
+        if (entry == null) {
+            return new RyaScanPlan(TABLE_LAYOUT.SPO, new Range(), context);
+        }
+        final ByteRange byteRange = entry.getValue();
+        return new RyaScanPlan(entry.getKey(), new Range(new Text(byteRange.getStart()), new Text(byteRange.getEnd())), context);
+    }
+
+    private static Map.Entry<TABLE_LAYOUT, ByteRange> defineRange(final RyaIRI subject, final RyaIRI predicate,
+            final RyaType object, final RyaTripleContext ryaContext) throws IOException {
+        final TriplePatternStrategy strategy = ryaContext.retrieveStrategy(subject, predicate, object, null);
+        if (strategy == null) {
+            return null;
+        }
+        return strategy.defineRange(subject, predicate, object, null, null);
+    }
+
+    private static void flatten(final Filter filter, final List<Filter> flattened) {
+        if (filter instanceof And) {
+            flatten(((And) filter).left(), flattened);
+            flatten(((And) filter).right(), flattened);
+        } else {
+            flattened.add(filter);
+        }
+    }
+}
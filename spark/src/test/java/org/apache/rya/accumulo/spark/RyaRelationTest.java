@@ -0,0 +1,152 @@
+package org.apache.rya.accumulo.spark;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.mock.MockInstance;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.rya.accumulo.AccumuloRdfConfiguration;
+import org.apache.rya.accumulo.AccumuloRyaDAO;
+import org.apache.rya.accumulo.mr.MRUtils;
+import org.apache.rya.api.domain.RyaIRI;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.domain.RyaType;
+import org.apache.spark.SparkConf;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.SQLContext;
+import org.apache.spark.sql.sources.EqualTo;
+import org.apache.spark.sql.sources.Filter;
+import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests scanning the statements of a mock Rya instance through {@link RyaRelation}
+ * and the {@link RyaDataSource}.
+ */
+public class RyaRelationTest {
+
+    private final String user = "root";
+    private final String pwd = "";
+    private final String instance = RyaRelationTest.class.getSimpleName() + ".myinstance";
+    private final String tablePrefix = "rr_";
+    private AccumuloRyaDAO dao;
+    private JavaSparkContext sc;
+    private SQLContext sqlContext;
+
+    private final RyaIRI alice = new RyaIRI("urn:alice");
+    private final RyaIRI bob = new RyaIRI("urn:bob");
+    private final RyaIRI worksAt = new RyaIRI("urn:worksAt");
+    private final RyaIRI age = new RyaIRI("urn:age");
+
+    @Before
+    public void setUp() throws Exception {
+        final Connector connector = new MockInstance(instance).getConnector(user, new PasswordToken(pwd));
+        final AccumuloRdfConfiguration conf = new AccumuloRdfConfiguration();
+        conf.setTablePrefix(tablePrefix);
+        conf.setDisplayQueryPlan(false);
+        dao = new AccumuloRyaDAO();
+        dao.setConnector(connector);
+        dao.setConf(conf);
+        dao.init();
+
+        dao.add(new RyaStatement(alice, worksAt, new RyaIRI("urn:acme")));
+        dao.add(new RyaStatement(alice, age, new RyaType(XMLSchema.INTEGER, "30")));
+        dao.add(new RyaStatement(bob, worksAt, new RyaIRI("urn:globex"), new RyaIRI("urn:hr")));
+        dao.add(new RyaStatement(bob, age, new RyaType(XMLSchema.INTEGER, "50")));
+
+        sc = new JavaSparkContext(new SparkConf().setMaster("local").setAppName(RyaRelationTest.class.getSimpleName()));
+        sqlContext = new SQLContext(sc);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        sc.stop();
+        dao.dropAndDestroy();
+    }
+
+    private Map<String, String> options() {
+        final Map<String, String> options = new HashMap<>();
+        options.put(MRUtils.AC_MOCK_PROP, "true");
+        options.put(MRUtils.AC_INSTANCE_PROP, instance);
+        options.put(MRUtils.AC_USERNAME_PROP, user);
+        options.put(MRUtils.AC_PWD_PROP, pwd);
+        options.put(MRUtils.TABLE_PREFIX_PROPERTY, tablePrefix);
+        return options;
+    }
+
+    @Test
+    public void testScanPrunesColumns() throws Exception {
+        final RyaRelation relation = new RyaRelation(sqlContext, options());
+        final List<Row> rows = relation.buildScan(new String[] { RyaRelation.OBJECT, RyaRelation.SUBJECT },
+                new Filter[] { new EqualTo(RyaRelation.PREDICATE, "urn:worksAt") }).toJavaRDD().collect();
+
+        final Set<List<Object>> expected = new HashSet<>();
+        expected.add(Arrays.<Object>asList("urn:acme", "urn:alice"));
+        expected.add(Arrays.<Object>asList("urn:globex", "urn:bob"));
+        assertEquals(expected, values(rows));
+    }
+
+    @Test
+    public void testScanContext() throws Exception {
+        final RyaRelation relation = new RyaRelation(sqlContext, options());
+        final List<Row> rows = relation.buildScan(new String[] { RyaRelation.SUBJECT, RyaRelation.CONTEXT },
+                new Filter[] { new EqualTo(RyaRelation.CONTEXT, "urn:hr") }).toJavaRDD().collect();
+
+        final Set<List<Object>> expected = new HashSet<>();
+        expected.add(Arrays.<Object>asList("urn:bob", "urn:hr"));
+        assertEquals(expected, values(rows));
+    }
+
+    @Test
+    public void testDataSourceQuery() throws Exception {
+        final List<Row> rows = sqlContext.read().format("rya").options(options()).load()
+                .filter("predicate = 'urn:age' AND object_type = '" + XMLSchema.INTEGER.stringValue() + "' AND object >= '40' AND object <= '60'")
+                .select(RyaRelation.SUBJECT, RyaRelation.OBJECT)
+                .collectAsList();
+
+        final Set<List<Object>> expected = new HashSet<>();
+        expected.add(Arrays.<Object>asList("urn:bob", "50"));
+        assertEquals(expected, values(rows));
+    }
+
+    private static Set<List<Object>> values(final List<Row> rows) {
+        final Set<List<Object>> values = new HashSet<>();
+        for (final Row row : rows) {
+            final Object[] columns = new Object[row.length()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = row.get(i);
+            }
+            values.add(Arrays.asList(columns));
+        }
+        return values;
+    }
+}
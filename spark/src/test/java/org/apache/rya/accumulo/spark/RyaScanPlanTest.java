@@ -0,0 +1,231 @@
+package org.apache.rya.accumulo.spark;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.hadoop.io.Text;
+import org.apache.rya.accumulo.AccumuloRdfConfiguration;
+import org.apache.rya.api.RdfCloudTripleStoreConstants.TABLE_LAYOUT;
+import org.apache.rya.api.domain.RyaIRI;
+import org.apache.rya.api.domain.RyaStatement;
+import org.apache.rya.api.domain.RyaType;
+import org.apache.rya.api.resolver.RyaTripleContext;
+import org.apache.spark.sql.sources.And;
+import org.apache.spark.sql.sources.EqualTo;
+import org.apache.spark.sql.sources.Filter;
+import org.apache.spark.sql.sources.GreaterThanOrEqual;
+import org.apache.spark.sql.sources.LessThan;
+import org.apache.spark.sql.sources.LessThanOrEqual;
+import org.apache.spark.sql.sources.StringStartsWith;
+import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
+import org.junit.Test;
+
+/**
+ * Tests which table and range {@link RyaScanPlan} picks for the filters Spark pushes down.
+ */
+public class RyaScanPlanTest {
+    private static final String INTEGER = XMLSchema.INTEGER.stringValue();
+    private static final String ANY_URI = XMLSchema.ANYURI.stringValue();
+
+    private final RyaTripleContext ryaContext = RyaTripleContext.getInstance(new AccumuloRdfConfiguration());
+
+    private final RyaStatement aliceWorksAtAcme = new RyaStatement(new RyaIRI("urn:alice"), new RyaIRI("urn:worksAt"), new RyaIRI("urn:acme"));
+    private final RyaStatement aliceAge = new RyaStatement(new RyaIRI("urn:alice"), new RyaIRI("urn:age"), new RyaType(XMLSchema.INTEGER, "30"));
+    private final RyaStatement bobWorksAtGlobex = new RyaStatement(new RyaIRI("urn:bob"), new RyaIRI("urn:worksAt"), new RyaIRI("urn:globex"));
+    private final RyaStatement bobAge = new RyaStatement(new RyaIRI("urn:bob"), new RyaIRI("urn:age"), new RyaType(XMLSchema.INTEGER, "50"));
+    private final RyaStatement carolWorksAtAcme = new RyaStatement(new RyaIRI("urn:carol"), new RyaIRI("urn:worksAt"), new RyaIRI("urn:acme"));
+
+    @Test
+    public void noFilters() throws Exception {
+        final RyaScanPlan plan = plan();
+        assertEquals(TABLE_LAYOUT.SPO, plan.getLayout());
+        assertScans(plan, aliceWorksAtAcme, aliceAge, bobWorksAtGlobex, bobAge, carolWorksAtAcme);
+        assertNull(plan.getContext());
+    }
+
+    @Test
+    public void subject() throws Exception {
+        final RyaScanPlan plan = plan(new EqualTo(RyaRelation.SUBJECT, "urn:alice"));
+        assertEquals(TABLE_LAYOUT.SPO, plan.getLayout());
+        assertScans(plan, aliceWorksAtAcme, aliceAge);
+        assertSkips(plan, bobWorksAtGlobex, bobAge, carolWorksAtAcme);
+    }
+
+    @Test
+    public void predicate() throws Exception {
+        final RyaScanPlan plan = plan(new EqualTo(RyaRelation.PREDICATE, "urn:worksAt"));
+        assertEquals(TABLE_LAYOUT.PO, plan.getLayout());
+        assertScans(plan, aliceWorksAtAcme, bobWorksAtGlobex, carolWorksAtAcme);
+        assertSkips(plan, aliceAge, bobAge);
+    }
+
+    @Test
+    public void object() throws Exception {
+        final RyaScanPlan plan = plan(
+                new EqualTo(RyaRelation.OBJECT, "urn:acme"),
+                new EqualTo(RyaRelation.OBJECT_TYPE, ANY_URI));
+        assertEquals(TABLE_LAYOUT.OSP, plan.getLayout());
+        assertScans(plan, aliceWorksAtAcme, carolWorksAtAcme);
+        assertSkips(plan, bobWorksAtGlobex, aliceAge, bobAge);
+    }
+
+    @Test
+    public void subjectPredicate() throws Exception {
+        final RyaScanPlan plan = plan(
+                new EqualTo(RyaRelation.SUBJECT, "urn:alice"),
+                new EqualTo(RyaRelation.PREDICATE, "urn:worksAt"));
+        assertEquals(TABLE_LAYOUT.SPO, plan.getLayout());
+        assertScans(plan, aliceWorksAtAcme);
+        assertSkips(plan, aliceAge, bobWorksAtGlobex, carolWorksAtAcme);
+    }
+
+    @Test
+    public void predicateObject() throws Exception {
+        final RyaScanPlan plan = plan(
+                new EqualTo(RyaRelation.PREDICATE, "urn:worksAt"),
+                new EqualTo(RyaRelation.OBJECT, "urn:acme"),
+                new EqualTo(RyaRelation.OBJECT_TYPE, ANY_URI));
+        assertEquals(TABLE_LAYOUT.PO, plan.getLayout());
+        assertScans(plan, aliceWorksAtAcme, carolWorksAtAcme);
+        assertSkips(plan, bobWorksAtGlobex, aliceAge);
+    }
+
+    @Test
+    public void subjectObject() throws Exception {
+        final RyaScanPlan plan = plan(
+                new EqualTo(RyaRelation.SUBJECT, "urn:carol"),
+                new EqualTo(RyaRelation.OBJECT, "urn:acme"),
+                new EqualTo(RyaRelation.OBJECT_TYPE, ANY_URI));
+        assertEquals(TABLE_LAYOUT.OSP, plan.getLayout());
+        assertScans(plan, carolWorksAtAcme);
+        assertSkips(plan, aliceWorksAtAcme, bobWorksAtGlobex);
+    }
+
+    @Test
+    public void subjectPredicateObject() throws Exception {
+        final RyaScanPlan plan = plan(
+                new EqualTo(RyaRelation.SUBJECT, "urn:alice"),
+                new EqualTo(RyaRelation.PREDICATE, "urn:worksAt"),
+                new EqualTo(RyaRelation.OBJECT, "urn:acme"),
+                new EqualTo(RyaRelation.OBJECT_TYPE, ANY_URI));
+        assertEquals(TABLE_LAYOUT.SPO, plan.getLayout());
+        assertScans(plan, aliceWorksAtAcme);
+        assertSkips(plan, aliceAge, carolWorksAtAcme);
+    }
+
+    @Test
+    public void subjectRange() throws Exception {
+        final RyaScanPlan plan = plan(
+                new GreaterThanOrEqual(RyaRelation.SUBJECT, "urn:b"),
+                new LessThan(RyaRelation.SUBJECT, "urn:c"));
+        assertEquals(TABLE_LAYOUT.SPO, plan.getLayout());
+        assertScans(plan, bobWorksAtGlobex, bobAge);
+        assertSkips(plan, aliceWorksAtAcme, aliceAge);
+    }
+
+    @Test
+    public void subjectRangeWithPredicate() throws Exception {
+        // No table serves a subject range with a fixed predicate, so only the predicate is used.
+        final RyaScanPlan plan = plan(
+                new GreaterThanOrEqual(RyaRelation.SUBJECT, "urn:b"),
+                new EqualTo(RyaRelation.PREDICATE, "urn:worksAt"));
+        assertEquals(TABLE_LAYOUT.PO, plan.getLayout());
+        assertScans(plan, aliceWorksAtAcme, bobWorksAtGlobex, carolWorksAtAcme);
+        assertSkips(plan, bobAge);
+    }
+
+    @Test
+    public void objectRange() throws Exception {
+        final RyaScanPlan plan = plan(
+                new EqualTo(RyaRelation.PREDICATE, "urn:age"),
+                new GreaterThanOrEqual(RyaRelation.OBJECT, "40"),
+                new LessThanOrEqual(RyaRelation.OBJECT, "60"),
+                new EqualTo(RyaRelation.OBJECT_TYPE, INTEGER));
+        assertEquals(TABLE_LAYOUT.PO, plan.getLayout());
+        assertScans(plan, bobAge);
+        assertSkips(plan, aliceAge, bobWorksAtGlobex);
+    }
+
+    @Test
+    public void objectWithoutTypeIgnored() throws Exception {
+        // The stored form of an object depends on its type, so an untyped value can not pick a range.
+        final RyaScanPlan plan = plan(
+                new EqualTo(RyaRelation.PREDICATE, "urn:age"),
+                new EqualTo(RyaRelation.OBJECT, "50"));
+        assertEquals(TABLE_LAYOUT.PO, plan.getLayout());
+        assertScans(plan, aliceAge, bobAge);
+    }
+
+    @Test
+    public void openObjectRangeIgnored() throws Exception {
+        final RyaScanPlan plan = plan(
+                new EqualTo(RyaRelation.PREDICATE, "urn:age"),
+                new GreaterThanOrEqual(RyaRelation.OBJECT, "40"),
+                new EqualTo(RyaRelation.OBJECT_TYPE, INTEGER));
+        assertEquals(TABLE_LAYOUT.PO, plan.getLayout());
+        assertScans(plan, aliceAge, bobAge);
+    }
+
+    @Test
+    public void nestedAndFlattened() throws Exception {
+        final RyaScanPlan plan = plan(new And(
+                new EqualTo(RyaRelation.SUBJECT, "urn:alice"),
+                new And(new EqualTo(RyaRelation.PREDICATE, "urn:age"), new EqualTo(RyaRelation.CONTEXT, "urn:graph"))));
+        assertEquals(TABLE_LAYOUT.SPO, plan.getLayout());
+        assertScans(plan, aliceAge);
+        assertSkips(plan, aliceWorksAtAcme, bobAge);
+        assertEquals("urn:graph", plan.getContext());
+    }
+
+    @Test
+    public void unsupportedFiltersLeftToSpark() throws Exception {
+        final RyaScanPlan plan = plan(
+                new StringStartsWith(RyaRelation.SUBJECT, "urn:a"),
+                new EqualTo("unknown", "value"));
+        assertEquals(TABLE_LAYOUT.SPO, plan.getLayout());
+        assertScans(plan, aliceWorksAtAcme, aliceAge, bobWorksAtGlobex, bobAge, carolWorksAtAcme);
+        assertNull(plan.getContext());
+    }
+
+    private RyaScanPlan plan(final Filter... filters) throws Exception {
+        return RyaScanPlan.plan(filters, ryaContext);
+    }
+
+    private Key rowOf(final RyaStatement statement, final TABLE_LAYOUT layout) throws Exception {
+        return new Key(new Text(ryaContext.serializeTriple(statement).get(layout).getRow()));
+    }
+
+    private void assertScans(final RyaScanPlan plan, final RyaStatement... statements) throws Exception {
+        for (final RyaStatement statement : statements) {
+            assertTrue("Should scan " + statement, plan.getRange().contains(rowOf(statement, plan.getLayout())));
+        }
+    }
+
+    private void assertSkips(final RyaScanPlan plan, final RyaStatement... statements) throws Exception {
+        for (final RyaStatement statement : statements) {
+            assertFalse("Should skip " + statement, plan.getRange().contains(rowOf(statement, plan.getLayout())));
+        }
+    }
+}
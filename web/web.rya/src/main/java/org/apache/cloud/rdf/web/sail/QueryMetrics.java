@@ -0,0 +1,127 @@
+package org.apache.cloud.rdf.web.sail;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the queries {@link RdfController} evaluates by how they ended, along with
+ * how long they took. The counts may be read over JMX through {@link QueryMetricsMXBean}.
+ */
+public class QueryMetrics implements QueryMetricsMXBean {
+
+    /**
+     * How a query ended.
+     */
+    public static enum Status {
+        SUCCEEDED,
+        FAILED,
+        TIMED_OUT,
+        REJECTED
+    }
+
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong results = new AtomicLong();
+    private final AtomicLong totalMillis = new AtomicLong();
+    private final AtomicLong maxMillis = new AtomicLong();
+
+    /**
+     * Records a query that was turned away before it was evaluated.
+     */
+    public void rejected() {
+        rejected.incrementAndGet();
+    }
+
+    /**
+     * Records a query that was evaluated.
+     *
+     * @param status - How the query ended. (not null)
+     * @param millis - How long the query ran before it ended.
+     * @param resultCount - The number of results it streamed.
+     */
+    public void ended(final Status status, final long millis, final long resultCount) {
+        switch (status) {
+            case SUCCEEDED:
+                succeeded.incrementAndGet();
+                break;
+            case FAILED:
+                failed.incrementAndGet();
+                break;
+            case TIMED_OUT:
+                timedOut.incrementAndGet();
+                break;
+            case REJECTED:
+                rejected.incrementAndGet();
+                return;
+        }
+        results.addAndGet(resultCount);
+        totalMillis.addAndGet(millis);
+        long max;
+        while (millis > (max = maxMillis.get()) && !maxMillis.compareAndSet(max, millis)) {
+            // Another query raised the maximum first; compare against its time.
+        }
+    }
+
+    @Override
+    public long getSucceeded() {
+        return succeeded.get();
+    }
+
+    @Override
+    public long getFailed() {
+        return failed.get();
+    }
+
+    @Override
+    public long getTimedOut() {
+        return timedOut.get();
+    }
+
+    @Override
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    @Override
+    public long getResults() {
+        return results.get();
+    }
+
+    @Override
+    public double getMeanQueryMillis() {
+        final long ended = succeeded.get() + failed.get() + timedOut.get();
+        return ended == 0 ? 0 : (double) totalMillis.get() / ended;
+    }
+
+    @Override
+    public long getMaxQueryMillis() {
+        return maxMillis.get();
+    }
+
+    @Override
+    public String toString() {
+        return "succeeded=" + getSucceeded() + ";failed=" + getFailed() + ";timedOut=" + getTimedOut()
+                + ";rejected=" + getRejected() + ";results=" + getResults() + ";meanQueryMillis=" + getMeanQueryMillis()
+                + ";maxQueryMillis=" + getMaxQueryMillis();
+    }
+}
@@ -0,0 +1,62 @@
+package org.apache.cloud.rdf.web.sail;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * The counts and latencies of the queries {@link RdfController} has evaluated,
+ * as they are published over JMX.
+ */
+public interface QueryMetricsMXBean {
+
+    /**
+     * @return The number of queries that streamed all of their results.
+     */
+    public long getSucceeded();
+
+    /**
+     * @return The number of queries that failed while they were evaluated.
+     */
+    public long getFailed();
+
+    /**
+     * @return The number of queries that were cancelled because they ran too long.
+     */
+    public long getTimedOut();
+
+    /**
+     * @return The number of queries that were turned away because too many were running.
+     */
+    public long getRejected();
+
+    /**
+     * @return The number of results the queries have streamed.
+     */
+    public long getResults();
+
+    /**
+     * @return The mean time in milliseconds the evaluated queries took to end.
+     */
+    public double getMeanQueryMillis();
+
+    /**
+     * @return The longest time in milliseconds an evaluated query took to end.
+     */
+    public long getMaxQueryMillis();
+}
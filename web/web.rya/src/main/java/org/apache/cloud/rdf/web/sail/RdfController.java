@@ -22,12 +22,31 @@ package org.apache.cloud.rdf.web.sail;
 import static org.apache.rya.api.RdfCloudTripleStoreConstants.VALUE_FACTORY;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringReader;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
-
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -35,21 +54,23 @@ import javax.servlet.http.HttpServletResponse;
 import org.apache.commons.lang3.StringEscapeUtils;
 import org.apache.log4j.Logger;
 import org.apache.rya.api.RdfCloudTripleStoreConfiguration;
+import org.apache.rya.api.client.resultio.BinaryQueryResults;
+import org.apache.rya.api.client.resultio.BinaryQueryResultsWriter;
 import org.apache.rya.api.log.LogUtils;
 import org.apache.rya.api.security.SecurityProvider;
 import org.apache.rya.rdftriplestore.RdfCloudTripleStoreConnection;
 import org.apache.rya.rdftriplestore.utils.RdfFormatUtils;
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.GraphQuery;
+import org.eclipse.rdf4j.query.GraphQueryResult;
 import org.eclipse.rdf4j.query.MalformedQueryException;
-import org.eclipse.rdf4j.query.QueryEvaluationException;
 import org.eclipse.rdf4j.query.QueryLanguage;
-import org.eclipse.rdf4j.query.QueryResultHandlerException;
 import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
 import org.eclipse.rdf4j.query.TupleQueryResultHandler;
-import org.eclipse.rdf4j.query.TupleQueryResultHandlerException;
 import org.eclipse.rdf4j.query.Update;
 import org.eclipse.rdf4j.query.UpdateExecutionException;
 import org.eclipse.rdf4j.query.parser.ParsedGraphQuery;
@@ -65,16 +86,21 @@ import org.eclipse.rdf4j.repository.sail.SailRepository;
 import org.eclipse.rdf4j.repository.sail.SailRepositoryConnection;
 import org.eclipse.rdf4j.rio.RDFFormat;
 import org.eclipse.rdf4j.rio.RDFHandler;
-import org.eclipse.rdf4j.rio.RDFHandlerException;
 import org.eclipse.rdf4j.rio.RDFParseException;
 import org.eclipse.rdf4j.rio.rdfxml.RDFXMLWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * Class RdfController
@@ -87,14 +113,65 @@ public class RdfController {
 
     private static final int QUERY_TIME_OUT_SECONDS = 120;
 
+    /**
+     * How much longer than a query's timeout the container waits before it completes the request itself.
+     */
+    private static final long ASYNC_TIMEOUT_MARGIN_MILLIS = 10000;
+
+    /**
+     * The name the query metrics are published under over JMX.
+     */
+    private static final String METRICS_NAME = "org.apache.rya.web:type=QueryMetrics";
+
+    /**
+     * Results are flushed to the client after this many rows, so large results are streamed in chunks.
+     */
+    private static final int FLUSH_INTERVAL_ROWS = 1000;
+
+    private static final int QUERY_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final int MAX_QUEUED_QUERIES = 100;
+
+    private final ExecutorService queryExecutor;
+    private final ScheduledExecutorService timeoutScheduler;
+    private final long queryTimeoutMillis;
+    private final QueryMetrics metrics = new QueryMetrics();
+
+    /**
+     * Connections that have only been used to evaluate queries, kept open so later queries may reuse them.
+     */
+    private final BlockingQueue<SailRepositoryConnection> idleConnections;
+
     @Autowired
     SailRepository repository;
 
     @Autowired
     SecurityProvider provider;
 
+    public RdfController() {
+        this(QUERY_THREADS, MAX_QUEUED_QUERIES, TimeUnit.SECONDS.toMillis(QUERY_TIME_OUT_SECONDS));
+    }
+
+    /**
+     * @param queryThreads - The number of queries that are evaluated at once.
+     * @param maxQueuedQueries - The number of queries that may wait for a thread before
+     *   new queries are turned away. A value of 0 turns them away as soon as every thread is busy.
+     * @param queryTimeoutMillis - How long a query may run before it is cancelled.
+     */
+    @VisibleForTesting
+    RdfController(final int queryThreads, final int maxQueuedQueries, final long queryTimeoutMillis) {
+        final BlockingQueue<Runnable> queue = maxQueuedQueries > 0 ?
+                new ArrayBlockingQueue<>(maxQueuedQueries) : new SynchronousQueue<>();
+        queryExecutor = new ThreadPoolExecutor(queryThreads, queryThreads, 0L, TimeUnit.MILLISECONDS, queue,
+                new ThreadFactoryBuilder().setNameFormat("Rya Query - %d").setDaemon(true).build());
+        timeoutScheduler = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("Rya Query Timeout - %d").setDaemon(true).build());
+        idleConnections = new ArrayBlockingQueue<>(queryThreads);
+        this.queryTimeoutMillis = queryTimeoutMillis;
+    }
+
     @RequestMapping(value = "/queryrdf", method = {RequestMethod.GET, RequestMethod.POST})
-    public void queryRdf(@RequestParam("query") final String query,
+    @ResponseStatus(HttpStatus.OK)
+    public DeferredResult<Void> queryRdf(@RequestParam("query") final String query,
                          @RequestParam(value = RdfCloudTripleStoreConfiguration.CONF_QUERY_AUTH, required = false) String auth,
                          @RequestParam(value = RdfCloudTripleStoreConfiguration.CONF_CV, required = false) final String vis,
                          @RequestParam(value = RdfCloudTripleStoreConfiguration.CONF_INFER, required = false) final String infer,
@@ -107,22 +184,14 @@ public class RdfController {
         // WARNING: if you add to the above request variables,
         // Be sure to validate and encode since they come from the outside and could contain odd damaging character sequences.
         SailRepositoryConnection conn = null;
-        final Thread queryThread = Thread.currentThread();
+        boolean submitted = false;
+        // Updates change the connection's configuration, so those connections are not reused.
+        boolean reusable = false;
         auth = StringUtils.arrayToCommaDelimitedString(provider.getUserAuths(request));
-        final Timer timer = new Timer();
-        timer.schedule(new TimerTask() {
-
-            @Override
-            public void run() {
-                log.debug("interrupting");
-                queryThread.interrupt();
-
-            }
-        }, QUERY_TIME_OUT_SECONDS * 1000);
 
         try {
             final ServletOutputStream os = response.getOutputStream();
-            conn = repository.getConnection();
+            conn = borrowConnection();
 
             final Boolean isBlankQuery = StringUtils.isEmpty(query);
             final ParsedOperation operation = QueryParserUtil.parseOperation(QueryLanguage.SPARQL, query, null);
@@ -130,25 +199,31 @@ public class RdfController {
             final Boolean requestedCallback = !StringUtils.isEmpty(callback);
             final Boolean requestedFormat = !StringUtils.isEmpty(emit);
 
+            // Queries write through a stream that stops passing writes on once they are cancelled.
+            final CancellableOutputStream out = new CancellableOutputStream(os);
+            QueryEvaluation evaluation = null;
             if (!isBlankQuery) {
                 if (operation instanceof ParsedGraphQuery) {
                     // Perform Graph Query
-                    final RDFHandler handler = new RDFXMLWriter(os);
+                    final RDFHandler handler = new RDFXMLWriter(out);
                     response.setContentType("text/xml");
-                    performGraphQuery(query, conn, auth, infer, nullout, handler);
+                    evaluation = new GraphQueryEvaluation(query, conn, auth, infer, nullout, handler, out, requestedCallback);
                 } else if (operation instanceof ParsedTupleQuery) {
                     // Perform Tuple Query
                     TupleQueryResultHandler handler;
 
                     if (requestedFormat && emit.equalsIgnoreCase("json")) {
-                        handler = new SPARQLResultsJSONWriter(os);
+                        handler = new SPARQLResultsJSONWriter(out);
                         response.setContentType("application/json");
+                    } else if (requestedFormat && emit.equalsIgnoreCase(BinaryQueryResults.FORMAT_NAME)) {
+                        handler = new BinaryQueryResultsWriter(out);
+                        response.setContentType(BinaryQueryResults.MIME_TYPE);
                     } else {
-                        handler = new SPARQLResultsXMLWriter(os);
+                        handler = new SPARQLResultsXMLWriter(out);
                         response.setContentType("text/xml");
                     }
 
-                    performQuery(query, conn, auth, infer, nullout, handler);
+                    evaluation = new TupleQueryEvaluation(query, conn, auth, infer, nullout, handler, out, requestedCallback);
                 } else if (operation instanceof ParsedUpdate) {
                     // Perform Update Query
                     performUpdate(query, conn, os, infer, vis);
@@ -157,114 +232,425 @@ public class RdfController {
                 }
             }
 
+            if (evaluation != null) {
+                final DeferredResult<Void> result = submit(evaluation, conn, response);
+                // The evaluation releases the connection once it ends.
+                submitted = result != null;
+                reusable = true;
+                return result;
+            }
+            reusable = !(operation instanceof ParsedUpdate);
+
             if (requestedCallback) {
                 os.print(")");
             }
+            return null;
         } catch (final Exception e) {
             log.error("Error running query", e);
+            reusable = false;
             throw new RuntimeException(e);
         } finally {
-            if (conn != null) {
+            if (conn != null && !submitted) {
+                releaseConnection(conn, reusable);
+            }
+        }
+    }
+
+    /**
+     * Starts a query on the bounded query executor. The request is completed
+     * once the query has streamed its results. A query that runs too long is
+     * cancelled by closing its result iteration, which releases the scanners
+     * beneath it, and by shutting its output so nothing more reaches the
+     * response; the request then fails with a {@link TimeoutException}. The
+     * query returns its connection once it has ended.
+     *
+     * @return The result that completes the request, or {@code null} if the query
+     *   was turned away because too many are running.
+     */
+    private DeferredResult<Void> submit(final QueryEvaluation evaluation, final SailRepositoryConnection conn,
+            final HttpServletResponse response) throws IOException {
+        // The container's own timeout is only a backstop for the one below.
+        final DeferredResult<Void> result = new DeferredResult<>(queryTimeoutMillis + ASYNC_TIMEOUT_MARGIN_MILLIS);
+        final long startTime = System.currentTimeMillis();
+        final AtomicReference<Future<?>> timeout = new AtomicReference<>();
+        final Runnable timeOut = () -> {
+            log.debug("cancelling");
+            evaluation.cancel();
+            if (result.setErrorResult(new TimeoutException("The query did not finish within " + queryTimeoutMillis + " ms."))) {
+                ended(evaluation, QueryMetrics.Status.TIMED_OUT, startTime);
+            }
+        };
+        result.onTimeout(timeOut);
+
+        try {
+            queryExecutor.execute(() -> {
+                boolean succeeded = false;
                 try {
-                    conn.close();
-                } catch (final RepositoryException e) {
-                    log.error("Error closing connection", e);
+                    evaluation.call();
+                    succeeded = !evaluation.isCancelled();
+                    if (succeeded && result.setResult(null)) {
+                        ended(evaluation, QueryMetrics.Status.SUCCEEDED, startTime);
+                    }
+                } catch (final Exception e) {
+                    if (result.setErrorResult(e)) {
+                        log.error("Error running query", e);
+                        ended(evaluation, QueryMetrics.Status.FAILED, startTime);
+                    }
+                } finally {
+                    final Future<?> pending = timeout.get();
+                    if (pending != null) {
+                        pending.cancel(false);
+                    }
+                    releaseConnection(conn, succeeded);
                 }
+            });
+        } catch (final RejectedExecutionException e) {
+            log.warn("Rejected a query because too many queries are running.");
+            metrics.rejected();
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many queries are running. Try again later.");
+            return null;
+        }
+        final Future<?> pending = timeoutScheduler.schedule(timeOut, queryTimeoutMillis, TimeUnit.MILLISECONDS);
+        timeout.set(pending);
+        if (result.isSetOrExpired()) {
+            // The query ended before its timeout was scheduled.
+            pending.cancel(false);
+        }
+        return result;
+    }
+
+    private void ended(final QueryEvaluation evaluation, final QueryMetrics.Status status, final long startTime) {
+        final long millis = System.currentTimeMillis() - startTime;
+        metrics.ended(status, millis, evaluation.getCount());
+        log.info(String.format("Query Type = %s   Query Time = %.3f   Result Count = %d   Status = %s\n",
+                evaluation.getType(),
+                millis / 1000.,
+                evaluation.getCount(),
+                status));
+    }
+
+    /**
+     * @return The counts and latencies of the queries this controller has evaluated.
+     */
+    public QueryMetrics getQueryMetrics() {
+        return metrics;
+    }
+
+    private SailRepositoryConnection borrowConnection() throws RepositoryException {
+        SailRepositoryConnection conn;
+        while ((conn = idleConnections.poll()) != null) {
+            if (conn.isOpen()) {
+                return conn;
             }
         }
+        return repository.getConnection();
+    }
 
-        timer.cancel();
+    private void releaseConnection(final SailRepositoryConnection conn, final boolean reusable) {
+        try {
+            if (!reusable || !conn.isOpen() || conn.isActive() || !idleConnections.offer(conn)) {
+                conn.close();
+            }
+        } catch (final RepositoryException e) {
+            log.error("Error closing connection", e);
+        }
     }
 
-    private void performQuery(final String query, final RepositoryConnection conn, final String auth, final String infer, final String nullout, final TupleQueryResultHandler handler) throws RepositoryException, MalformedQueryException, QueryEvaluationException, TupleQueryResultHandlerException {
-        final TupleQuery tupleQuery = conn.prepareTupleQuery(QueryLanguage.SPARQL, query);
-        if (auth != null && auth.length() > 0) {
-            tupleQuery.setBinding(RdfCloudTripleStoreConfiguration.CONF_QUERY_AUTH, VALUE_FACTORY.createLiteral(auth));
+    /**
+     * Publishes the query metrics over JMX.
+     */
+    @PostConstruct
+    public void registerMetrics() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(METRICS_NAME));
+        } catch (final JMException e) {
+            log.warn("Could not publish the query metrics over JMX.", e);
         }
-        if (infer != null && infer.length() > 0) {
-            tupleQuery.setBinding(RdfCloudTripleStoreConfiguration.CONF_INFER, VALUE_FACTORY.createLiteral(Boolean.parseBoolean(infer)));
+    }
+
+    /**
+     * Stops the query executor and closes the pooled connections.
+     */
+    @PreDestroy
+    public void shutdown() {
+        queryExecutor.shutdownNow();
+        timeoutScheduler.shutdownNow();
+        try {
+            final ObjectName name = new ObjectName(METRICS_NAME);
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (final JMException e) {
+            log.warn("Could not stop publishing the query metrics over JMX.", e);
         }
-        if (nullout != null && nullout.length() > 0) {
-            //output nothing, but still run query
-            tupleQuery.evaluate(new TupleQueryResultHandler() {
-                @Override
-                public void startQueryResult(final List<String> strings) throws TupleQueryResultHandlerException {
-                }
+        SailRepositoryConnection conn;
+        while ((conn = idleConnections.poll()) != null) {
+            try {
+                conn.close();
+            } catch (final RepositoryException e) {
+                log.error("Error closing connection", e);
+            }
+        }
+    }
 
-                @Override
-                public void endQueryResult() throws TupleQueryResultHandlerException {
-                }
+    /**
+     * Passes writes on to the response until it is shut, after which they fail. Shutting
+     * waits for a write that is under way, so once it returns nothing more reaches the
+     * response, which the container may already be reusing for another request.
+     */
+    private static final class CancellableOutputStream extends OutputStream {
+        private final OutputStream out;
 
-                @Override
-                public void handleSolution(final BindingSet bindings) throws TupleQueryResultHandlerException {
-                }
+        // Guarded by this.
+        private boolean shut = false;
+
+        public CancellableOutputStream(final OutputStream out) {
+            this.out = out;
+        }
+
+        public synchronized void shut() {
+            shut = true;
+        }
+
+        private void checkOpen() throws IOException {
+            if (shut) {
+                throw new IOException("The query was cancelled.");
+            }
+        }
+
+        @Override
+        public synchronized void write(final int b) throws IOException {
+            checkOpen();
+            out.write(b);
+        }
+
+        @Override
+        public synchronized void write(final byte[] b, final int off, final int len) throws IOException {
+            checkOpen();
+            out.write(b, off, len);
+        }
+
+        @Override
+        public synchronized void flush() throws IOException {
+            checkOpen();
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // The container closes the response.
+            flush();
+        }
+    }
+
+    /**
+     * Evaluates a query and streams its results to the client. It may be
+     * cancelled from another thread.
+     */
+    private abstract static class QueryEvaluation implements Callable<Long> {
+        private final CancellableOutputStream out;
+        private final boolean requestedCallback;
+        private volatile boolean cancelled = false;
+        private volatile CloseableIteration<?, ?> result = null;
+        private volatile long count = 0;
+
+        public QueryEvaluation(final CancellableOutputStream out, final boolean requestedCallback) {
+            this.out = out;
+            this.requestedCallback = requestedCallback;
+        }
+
+        /**
+         * @return The kind of query being evaluated.
+         */
+        public abstract String getType();
+
+        /**
+         * Evaluates the query and streams its results.
+         */
+        protected abstract void evaluate() throws Exception;
 
-                @Override
-                public void handleBoolean(final boolean arg0) throws QueryResultHandlerException {
+        @Override
+        public Long call() throws Exception {
+            try {
+                evaluate();
+                if (!cancelled) {
+                    if (requestedCallback) {
+                        out.write(')');
+                    }
+                    out.flush();
+                }
+            } catch (final Exception e) {
+                if (!cancelled) {
+                    throw e;
                 }
+            } finally {
+                final CloseableIteration<?, ?> current = result;
+                if (current != null) {
+                    current.close();
+                }
+            }
+            return count;
+        }
 
-                @Override
-                public void handleLinks(final List<String> arg0) throws QueryResultHandlerException {
+        /**
+         * Stops the evaluation by shutting its output and closing the query's results.
+         */
+        public void cancel() {
+            cancelled = true;
+            out.shut();
+            final CloseableIteration<?, ?> current = result;
+            if (current != null) {
+                try {
+                    current.close();
+                } catch (final Exception e) {
+                    log.warn("Error closing a cancelled query's results", e);
                 }
-            });
-        } else {
-            final CountingTupleQueryResultHandlerWrapper sparqlWriter = new CountingTupleQueryResultHandlerWrapper(handler);
-            final long startTime = System.currentTimeMillis();
-            tupleQuery.evaluate(sparqlWriter);
-            log.info(String.format("Query Time = %.3f   Result Count = %s\n",
-                                   (System.currentTimeMillis() - startTime) / 1000.,
-                                   sparqlWriter.getCount()));
+            }
+        }
+
+        /**
+         * @return The number of results streamed so far.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        protected void setResult(final CloseableIteration<?, ?> result) {
+            this.result = result;
+        }
+
+        protected boolean isCancelled() {
+            return cancelled;
         }
 
+        /**
+         * Counts a result that was just written and flushes a full batch to the client.
+         */
+        protected void resultWritten() throws IOException {
+            count++;
+            if (count % FLUSH_INTERVAL_ROWS == 0) {
+                out.flush();
+            }
+        }
     }
 
-    private void performGraphQuery(final String query, final RepositoryConnection conn, final String auth, final String infer, final String nullout, final RDFHandler handler) throws RepositoryException, MalformedQueryException, QueryEvaluationException, RDFHandlerException {
-        final GraphQuery graphQuery = conn.prepareGraphQuery(QueryLanguage.SPARQL, query);
-        if (auth != null && auth.length() > 0) {
-            graphQuery.setBinding(RdfCloudTripleStoreConfiguration.CONF_QUERY_AUTH, VALUE_FACTORY.createLiteral(auth));
+    private static final class TupleQueryEvaluation extends QueryEvaluation {
+        private final TupleQuery tupleQuery;
+        private final boolean nullout;
+        private final TupleQueryResultHandler handler;
+
+        public TupleQueryEvaluation(final String query, final RepositoryConnection conn, final String auth, final String infer,
+                final String nullout, final TupleQueryResultHandler handler, final CancellableOutputStream out,
+                final boolean requestedCallback) throws RepositoryException, MalformedQueryException {
+            super(out, requestedCallback);
+            tupleQuery = conn.prepareTupleQuery(QueryLanguage.SPARQL, query);
+            if (auth != null && auth.length() > 0) {
+                tupleQuery.setBinding(RdfCloudTripleStoreConfiguration.CONF_QUERY_AUTH, VALUE_FACTORY.createLiteral(auth));
+            }
+            if (infer != null && infer.length() > 0) {
+                tupleQuery.setBinding(RdfCloudTripleStoreConfiguration.CONF_INFER, VALUE_FACTORY.createLiteral(Boolean.parseBoolean(infer)));
+            }
+            this.nullout = nullout != null && nullout.length() > 0;
+            this.handler = handler;
         }
-        if (infer != null && infer.length() > 0) {
-            graphQuery.setBinding(RdfCloudTripleStoreConfiguration.CONF_INFER, VALUE_FACTORY.createLiteral(Boolean.parseBoolean(infer)));
-        }
-        if (nullout != null && nullout.length() > 0) {
-            //output nothing, but still run query
-            // TODO this seems like a strange use case.
-            graphQuery.evaluate(new RDFHandler() {
-                @Override
-                public void startRDF() throws RDFHandlerException {
-                }
 
-                @Override
-                public void endRDF() throws RDFHandlerException {
+        @Override
+        public String getType() {
+            return "TUPLE";
+        }
+
+        @Override
+        protected void evaluate() throws Exception {
+            final TupleQueryResult result = tupleQuery.evaluate();
+            setResult(result);
+            if (nullout) {
+                //output nothing, but still run query
+                while (!isCancelled() && result.hasNext()) {
+                    result.next();
                 }
+                return;
+            }
 
-                @Override
-                public void handleNamespace(final String prefix, final String uri)
-                        throws RDFHandlerException {
+            handler.startQueryResult(result.getBindingNames());
+            while (!isCancelled() && result.hasNext()) {
+                final BindingSet bindingSet = result.next();
+                // The query may have been cancelled while it found the result.
+                if (isCancelled()) {
+                    return;
                 }
+                handler.handleSolution(bindingSet);
+                resultWritten();
+            }
+            if (!isCancelled()) {
+                handler.endQueryResult();
+            }
+        }
+    }
 
-                @Override
-                public void handleStatement(final Statement st)
-                        throws RDFHandlerException {
+    private static final class GraphQueryEvaluation extends QueryEvaluation {
+        private final GraphQuery graphQuery;
+        private final boolean nullout;
+        private final RDFHandler handler;
+
+        public GraphQueryEvaluation(final String query, final RepositoryConnection conn, final String auth, final String infer,
+                final String nullout, final RDFHandler handler, final CancellableOutputStream out,
+                final boolean requestedCallback) throws RepositoryException, MalformedQueryException {
+            super(out, requestedCallback);
+            graphQuery = conn.prepareGraphQuery(QueryLanguage.SPARQL, query);
+            if (auth != null && auth.length() > 0) {
+                graphQuery.setBinding(RdfCloudTripleStoreConfiguration.CONF_QUERY_AUTH, VALUE_FACTORY.createLiteral(auth));
+            }
+            if (infer != null && infer.length() > 0) {
+                graphQuery.setBinding(RdfCloudTripleStoreConfiguration.CONF_INFER, VALUE_FACTORY.createLiteral(Boolean.parseBoolean(infer)));
+            }
+            this.nullout = nullout != null && nullout.length() > 0;
+            this.handler = handler;
+        }
+
+        @Override
+        public String getType() {
+            return "GRAPH";
+        }
+
+        @Override
+        protected void evaluate() throws Exception {
+            final GraphQueryResult result = graphQuery.evaluate();
+            setResult(result);
+            if (nullout) {
+                //output nothing, but still run query
+                // TODO this seems like a strange use case.
+                while (!isCancelled() && result.hasNext()) {
+                    result.next();
                 }
+                return;
+            }
 
-                @Override
-                public void handleComment(final String comment)
-                        throws RDFHandlerException {
+            handler.startRDF();
+            for (final Map.Entry<String, String> namespace : result.getNamespaces().entrySet()) {
+                handler.handleNamespace(namespace.getKey(), namespace.getValue());
+            }
+            while (!isCancelled() && result.hasNext()) {
+                final Statement statement = result.next();
+                // The query may have been cancelled while it found the statement.
+                if (isCancelled()) {
+                    return;
                 }
-            });
-        } else {
-            final long startTime = System.currentTimeMillis();
-            graphQuery.evaluate(handler);
-            log.info(String.format("Query Time = %.3f\n", (System.currentTimeMillis() - startTime) / 1000.));
+                handler.handleStatement(statement);
+                resultWritten();
+            }
+            if (!isCancelled()) {
+                handler.endRDF();
+            }
         }
-
     }
+
     private void performUpdate(final String query, final SailRepositoryConnection conn, final ServletOutputStream os, final String infer, final String vis) throws RepositoryException, MalformedQueryException, IOException {
         final Update update = conn.prepareUpdate(QueryLanguage.SPARQL, query);
         if (infer != null && infer.length() > 0) {
             update.setBinding(RdfCloudTripleStoreConfiguration.CONF_INFER, VALUE_FACTORY.createLiteral(Boolean.parseBoolean(infer)));
         }
+        update.setMaxExecutionTime(QUERY_TIME_OUT_SECONDS);
 
         if (conn.getSailConnection() instanceof RdfCloudTripleStoreConnection && vis != null) {
             final RdfCloudTripleStoreConnection<?> sailConnection = (RdfCloudTripleStoreConnection<?>) conn.getSailConnection();
@@ -284,44 +670,6 @@ public class RdfController {
         log.info(String.format("Update Time = %.3f\n", (System.currentTimeMillis() - startTime) / 1000.));
     }
 
-    private static final class CountingTupleQueryResultHandlerWrapper implements TupleQueryResultHandler {
-        private final TupleQueryResultHandler indir;
-        private int count = 0;
-
-        public CountingTupleQueryResultHandlerWrapper(final TupleQueryResultHandler indir){
-            this.indir = indir;
-        }
-
-        public int getCount() {
-            return count;
-        }
-
-        @Override
-        public void endQueryResult() throws TupleQueryResultHandlerException {
-            indir.endQueryResult();
-        }
-
-        @Override
-        public void handleSolution(final BindingSet bindingSet) throws TupleQueryResultHandlerException {
-            count++;
-            indir.handleSolution(bindingSet);
-        }
-
-        @Override
-        public void startQueryResult(final List<String> bindingNames) throws TupleQueryResultHandlerException {
-            count = 0;
-            indir.startQueryResult(bindingNames);
-        }
-
-        @Override
-        public void handleBoolean(final boolean arg0) throws QueryResultHandlerException {
-        }
-
-        @Override
-        public void handleLinks(final List<String> arg0) throws QueryResultHandlerException {
-        }
-    }
-
     @RequestMapping(value = "/loadrdf", method = RequestMethod.POST)
     public void loadRdf(@RequestParam(required = false) final String format,
             @RequestParam(value = RdfCloudTripleStoreConfiguration.CONF_CV, required = false) final String cv,
@@ -48,6 +48,8 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
 import org.springframework.test.web.servlet.ResultActions;
 
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -81,13 +83,13 @@ public class RdfControllerAccumuloTest {
 
     @Test
     public void emptyQuery() throws Exception {
-        mockMvc.perform(get("/queryrdf?query="))
+        perform(get("/queryrdf?query="))
                 .andExpect(status().isOk());
     }
 
     @Test
     public void emptyQueryXMLFormat() throws Exception {
-        this.mockMvc.perform(get("/queryrdf")
+        perform(get("/queryrdf")
                 .param("query", "SELECT * WHERE { ?s a <http://mynamespace/ProductType> . }")
                 .param("query.resultformat", "xml"))
                 .andExpect(status().isOk())
@@ -109,14 +111,14 @@ public class RdfControllerAccumuloTest {
                 .andExpect(status().isOk());
         
         ResultActions actions;
-        actions = this.mockMvc.perform(get("/queryrdf")
+        actions = perform(get("/queryrdf")
                 .param("query.resultformat", "xml")
                 .param("query", "SELECT (COUNT(?s) as ?c) WHERE {?s <http://loadDataWithVisibilities#pred1> ?o}"))
                 .andExpect(status().isOk());
 
         validateCount(actions.andReturn().getResponse(), 0);
 
-        actions = this.mockMvc.perform(get("/queryrdf")
+        actions = perform(get("/queryrdf")
                 .param("query.resultformat", "xml")
                 .param("query.auth", "A")
                 .param("query", "SELECT (COUNT(?s) as ?c) WHERE {?s <http://loadDataWithVisibilities#pred1> ?o}"))
@@ -124,7 +126,7 @@ public class RdfControllerAccumuloTest {
 
         validateCount(actions.andReturn().getResponse(), 0);
 
-        actions = this.mockMvc.perform(get("/queryrdf")
+        actions = perform(get("/queryrdf")
                 .param("query.resultformat", "xml")
                 .param("query.auth", "A,B")
                 .param("query", "SELECT (COUNT(?s) as ?c) WHERE {?s <http://loadDataWithVisibilities#pred1> ?o}"))
@@ -132,7 +134,7 @@ public class RdfControllerAccumuloTest {
 
         validateCount(actions.andReturn().getResponse(), 1);
 
-        actions = this.mockMvc.perform(get("/queryrdf")
+        actions = perform(get("/queryrdf")
                 .param("query.resultformat", "xml")
                 .param("query.auth", "B,C")
                 .param("query", "SELECT (COUNT(?s) as ?c) WHERE {?s <http://loadDataWithVisibilities#pred1> ?o}"))
@@ -140,7 +142,7 @@ public class RdfControllerAccumuloTest {
 
         validateCount(actions.andReturn().getResponse(), 1);
 
-        actions = this.mockMvc.perform(get("/queryrdf")
+        actions = perform(get("/queryrdf")
                 .param("query.resultformat", "xml")
                 .param("query.auth", "A,B,C")
                 .param("query", "SELECT (COUNT(?s) as ?c) WHERE {?s <http://loadDataWithVisibilities#pred1> ?o}"))
@@ -165,24 +167,24 @@ public class RdfControllerAccumuloTest {
 
     @Test
     public void updateQueryWithVisibilities() throws Exception {
-        this.mockMvc.perform(get("/queryrdf")
+        perform(get("/queryrdf")
                 .param("query", "INSERT DATA { <http://mynamespace/ProductType1_AB> <http://mynamespace#pred1> \"test_AB\" }")
                 .param("conf.cv", "A&B"))
                 .andExpect(status().isOk());
-        this.mockMvc.perform(get("/queryrdf")
+        perform(get("/queryrdf")
                 .param("query", "INSERT DATA { <http://mynamespace/ProductType1_BC> <http://mynamespace#pred1> \"test_BC\" }")
                 .param("conf.cv", "B&C"))
                 .andExpect(status().isOk());
 
         ResultActions actions;
-        actions = this.mockMvc.perform(get("/queryrdf")
+        actions = perform(get("/queryrdf")
                 .param("query.resultformat", "xml")
                 .param("query", "SELECT (COUNT(?s) as ?c) WHERE {?s <http://mynamespace#pred1> ?o}"))
                 .andExpect(status().isOk());
 
         validateCount(actions.andReturn().getResponse(), 0);
 
-        actions = this.mockMvc.perform(get("/queryrdf")
+        actions = perform(get("/queryrdf")
                 .param("query.resultformat", "xml")
                 .param("query.auth", "A")
                 .param("query", "SELECT (COUNT(?s) as ?c) WHERE {?s <http://mynamespace#pred1> ?o}"))
@@ -190,7 +192,7 @@ public class RdfControllerAccumuloTest {
 
         validateCount(actions.andReturn().getResponse(), 0);
 
-        actions = this.mockMvc.perform(get("/queryrdf")
+        actions = perform(get("/queryrdf")
                 .param("query.resultformat", "xml")
                 .param("query.auth", "A,B")
                 .param("query", "SELECT (COUNT(?s) as ?c) WHERE {?s <http://mynamespace#pred1> ?o}"))
@@ -198,7 +200,7 @@ public class RdfControllerAccumuloTest {
 
         validateCount(actions.andReturn().getResponse(), 1);
 
-        actions = this.mockMvc.perform(get("/queryrdf")
+        actions = perform(get("/queryrdf")
                 .param("query.resultformat", "xml")
                 .param("query.auth", "B,C")
                 .param("query", "SELECT (COUNT(?s) as ?c) WHERE {?s <http://mynamespace#pred1> ?o}"))
@@ -206,7 +208,7 @@ public class RdfControllerAccumuloTest {
 
         validateCount(actions.andReturn().getResponse(), 1);
 
-        actions = this.mockMvc.perform(get("/queryrdf")
+        actions = perform(get("/queryrdf")
                 .param("query.resultformat", "xml")
                 .param("query.auth", "A,B,C")
                 .param("query", "SELECT (COUNT(?s) as ?c) WHERE {?s <http://mynamespace#pred1> ?o}"))
@@ -215,4 +217,15 @@ public class RdfControllerAccumuloTest {
         validateCount(actions.andReturn().getResponse(), 2);
     }
 
+    /**
+     * Performs a request and waits for any query it started to finish streaming its results.
+     */
+    private ResultActions perform(final RequestBuilder request) throws Exception {
+        final ResultActions actions = mockMvc.perform(request);
+        final MvcResult result = actions.andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result.getAsyncResult();
+        }
+        return actions;
+    }
 }
@@ -0,0 +1,197 @@
+package org.apache.cloud.rdf.web.sail;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.rya.api.security.SecurityProvider;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.QueryLanguage;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.query.impl.MapBindingSet;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.repository.sail.SailRepositoryConnection;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.util.NestedServletException;
+
+/**
+ * Tests how {@link RdfController} bounds, times out, and cancels the queries it evaluates.
+ */
+public class RdfControllerExecutorTest {
+    private static final String QUERY = "SELECT * WHERE { ?s ?p ?o . }";
+
+    private SailRepositoryConnection conn;
+    private TupleQueryResult result;
+    private RdfController controller;
+
+    @Before
+    public void setup() throws Exception {
+        conn = mock(SailRepositoryConnection.class);
+        final TupleQuery tupleQuery = mock(TupleQuery.class);
+        result = mock(TupleQueryResult.class);
+        when(conn.prepareTupleQuery(QueryLanguage.SPARQL, QUERY)).thenReturn(tupleQuery);
+        when(tupleQuery.evaluate()).thenReturn(result);
+        when(result.getBindingNames()).thenReturn(Collections.<String>emptyList());
+    }
+
+    @After
+    public void teardown() {
+        if (controller != null) {
+            controller.shutdown();
+        }
+    }
+
+    private MockMvc createMockMvc(final int queryThreads, final int maxQueuedQueries, final long queryTimeoutMillis) throws Exception {
+        controller = new RdfController(queryThreads, maxQueuedQueries, queryTimeoutMillis);
+        controller.repository = mock(SailRepository.class);
+        when(controller.repository.getConnection()).thenReturn(conn);
+        controller.provider = mock(SecurityProvider.class);
+        return standaloneSetup(controller).build();
+    }
+
+    private static void assertTimesOut(final MockMvc mockMvc, final MvcResult started) throws Exception {
+        try {
+            mockMvc.perform(asyncDispatch(started));
+            fail("The query should have timed out.");
+        } catch (final NestedServletException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+    }
+
+    @Test
+    public void cancelledQueryReleasesConnection() throws Exception {
+        // The results block until the query is cancelled by closing them.
+        final CountDownLatch closed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            closed.countDown();
+            return null;
+        }).when(result).close();
+        when(result.hasNext()).thenAnswer(invocation -> !closed.await(10, TimeUnit.SECONDS));
+
+        final MockMvc mockMvc = createMockMvc(1, 1, 100);
+        final MvcResult started = mockMvc.perform(get("/queryrdf").param("query", QUERY))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertTimesOut(mockMvc, started);
+
+        // The query ends once its results are closed and releases the connection.
+        verify(conn, timeout(5000)).close();
+        assertEquals(1, controller.getQueryMetrics().getTimedOut());
+    }
+
+    @Test
+    public void timedOutQueryClosesConnectionOnceItEnds() throws Exception {
+        // The results ignore the cancellation until they are released.
+        final CountDownLatch release = new CountDownLatch(1);
+        when(result.hasNext()).thenAnswer(invocation -> !release.await(10, TimeUnit.SECONDS));
+
+        final MockMvc mockMvc = createMockMvc(1, 1, 100);
+        final MvcResult started = mockMvc.perform(get("/queryrdf").param("query", QUERY)).andReturn();
+        assertTimesOut(mockMvc, started);
+
+        // The connection stays open while the query is still using it.
+        verify(conn, never()).close();
+
+        release.countDown();
+        verify(conn, timeout(5000)).close();
+    }
+
+    @Test
+    public void cancelledQueryWritesNothingMore() throws Exception {
+        // A result is still being found when the query is cancelled.
+        final CountDownLatch closed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            closed.countDown();
+            return null;
+        }).when(result).close();
+        when(result.getBindingNames()).thenReturn(Arrays.asList("x"));
+        when(result.hasNext()).thenReturn(true);
+        final MapBindingSet inFlight = new MapBindingSet();
+        inFlight.addBinding("x", SimpleValueFactory.getInstance().createLiteral("inFlight"));
+        when(result.next()).thenAnswer(invocation -> {
+            closed.await(10, TimeUnit.SECONDS);
+            return inFlight;
+        });
+
+        final MockMvc mockMvc = createMockMvc(1, 1, 100);
+        final MvcResult started = mockMvc.perform(get("/queryrdf").param("query", QUERY)).andReturn();
+        assertTimesOut(mockMvc, started);
+        verify(conn, timeout(5000)).close();
+
+        // Neither the result nor the end of the results reached the response.
+        final String content = started.getResponse().getContentAsString();
+        assertFalse(content.contains("inFlight"));
+        assertFalse(content.contains("</sparql>"));
+    }
+
+    @Test
+    public void tooManyQueriesRejected() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        when(result.hasNext()).thenAnswer(invocation -> {
+            started.countDown();
+            return !release.await(10, TimeUnit.SECONDS);
+        });
+
+        // A single query thread with no queue.
+        final MockMvc mockMvc = createMockMvc(1, 0, 10000);
+        final MvcResult running = mockMvc.perform(get("/queryrdf").param("query", QUERY))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        try {
+            // The running query does not hold the request thread.
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            mockMvc.perform(get("/queryrdf").param("query", QUERY))
+                    .andExpect(status().isServiceUnavailable());
+        } finally {
+            release.countDown();
+        }
+        mockMvc.perform(asyncDispatch(running)).andExpect(status().isOk());
+
+        final QueryMetrics metrics = controller.getQueryMetrics();
+        assertEquals(1, metrics.getRejected());
+        assertEquals(1, metrics.getSucceeded());
+    }
+}
@@ -21,16 +21,24 @@ package org.apache.cloud.rdf.web.sail;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
 
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+
 import org.apache.rya.api.RdfCloudTripleStoreConfiguration;
+import org.apache.rya.api.client.resultio.BinaryQueryResults;
+import org.apache.rya.api.client.resultio.BinaryQueryResultsParser;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Literal;
 import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.query.TupleQueryResult;
 import org.eclipse.rdf4j.repository.Repository;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.eclipse.rdf4j.rio.RDFFormat;
@@ -45,6 +53,8 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.web.context.WebApplicationContext;
 import org.springframework.web.util.NestedServletException;
@@ -82,13 +92,13 @@ public class RdfControllerTest {
 
     @Test
     public void emptyQuery() throws Exception {
-        this.mockMvc.perform(get("/queryrdf?query="))
+        perform(get("/queryrdf?query="))
                 .andExpect(status().isOk());
     }
 
     @Test
     public void emptyQueryXMLFormat() throws Exception {
-        this.mockMvc.perform(get("/queryrdf")
+        perform(get("/queryrdf")
                 .param("query", "SELECT * WHERE { ?s ?p ?o . }")
                 .param("query.resultformat", "xml"))
                 .andExpect(status().isOk())
@@ -97,16 +107,33 @@ public class RdfControllerTest {
 
     @Test
     public void emptyQueryJSONFormat() throws Exception {
-        this.mockMvc.perform(get("/queryrdf")
+        perform(get("/queryrdf")
                 .param("query", "SELECT * WHERE { ?s ?p ?o . }")
                 .param("query.resultformat", "json"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
     }
 
+    @Test
+    public void binaryFormat() throws Exception {
+        final MvcResult result = perform(get("/queryrdf")
+                .param("query", "SELECT ?label WHERE { <http://mynamespace/ProductType1> <http://www.w3.org/2000/01/rdf-schema#label> ?label . }")
+                .param("query.resultformat", BinaryQueryResults.FORMAT_NAME))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BinaryQueryResults.MIME_TYPE))
+                .andReturn();
+
+        final TupleQueryResult results = BinaryQueryResultsParser.parse(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()));
+        assertEquals(Arrays.asList("label"), results.getBindingNames());
+        assertTrue(results.hasNext());
+        assertEquals("Thing", results.next().getValue("label").stringValue());
+        assertFalse(results.hasNext());
+        results.close();
+    }
+
     @Test
     public void emptyQueryNoFormat() throws Exception {
-        this.mockMvc.perform(get("/queryrdf")
+        perform(get("/queryrdf")
                 .param("query", "SELECT * WHERE { ?s ?p ?o . }"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.TEXT_XML));
@@ -120,7 +147,7 @@ public class RdfControllerTest {
      */
     @Test
     public void callbackEncodeCorrectlyJson() throws Exception {
-        this.mockMvc.perform(get("/queryrdf") //
+        perform(get("/queryrdf") //
                         .param("query", "select ?x where { BIND( '''testbad\\\\or\"bad\"''' AS ?x) }") //
                         .param(RdfCloudTripleStoreConfiguration.CONF_QUERY_AUTH    , "test<bad>or{bad}or\"bad\"") //
                         .param(RdfCloudTripleStoreConfiguration.CONF_CV            , "test<bad>or{bad}or\"bad\"") //
@@ -140,7 +167,7 @@ public class RdfControllerTest {
      */
 @Test
     public void encodeCorrectlyXml() throws Exception {
-        this.mockMvc.perform(get("/queryrdf") //
+        perform(get("/queryrdf") //
                         .param("query", "select ?x where { BIND( '''test<bad>or&bador&apos;bador&quot;bad&quot;''' AS ?x ) }") //
                     .param(RdfCloudTripleStoreConfiguration.CONF_QUERY_AUTH    , "test<bad>or{bad}or\"bad\"") //
                     .param(RdfCloudTripleStoreConfiguration.CONF_CV            , "test<bad>or{bad}or\"bad\"") //
@@ -154,16 +181,27 @@ public class RdfControllerTest {
                         .andExpect(content().string(not(containsString("\"bad")))); // &amp;&quot; converted from &quot;
 }
 
+    @Test
+    public void repeatedQueryStreamsResults() throws Exception {
+        // The second query runs on the connection the first one returned to the pool.
+        for (int i = 0; i < 2; i++) {
+            perform(get("/queryrdf")
+                    .param("query", "SELECT ?label WHERE { <http://mynamespace/ProductType1> <http://www.w3.org/2000/01/rdf-schema#label> ?label . }"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(containsString("Thing")));
+        }
+    }
+
     @Test
     public void malformedQuery() throws Exception {
         thrown.expect(NestedServletException.class);
-        this.mockMvc.perform(get("/queryrdf")
+        perform(get("/queryrdf")
                 .param("query", "SELECT nothing WHERE { ?s ?p ?o }"));
     }
 
     @Test
     public void updateQuery() throws Exception {
-        this.mockMvc.perform(get("/queryrdf")
+        perform(get("/queryrdf")
                 .param("query", "INSERT \n DATA\n {\n <http://mynamespace/ProductType1> <http://mynamespace#pred1> \"test\" }"))
                 .andExpect(status().isOk());
 
@@ -179,15 +217,26 @@ public class RdfControllerTest {
     
     @Test
     public void constructQuery() throws Exception {
-        this.mockMvc.perform(get("/queryrdf")
+        perform(get("/queryrdf")
                 .param("query", "INSERT DATA { <http://mynamespace/ProductType1> <http://mynamespace#pred1> \"test\" }"))
                 .andExpect(status().isOk());
         
-        ResultActions actions = this.mockMvc.perform(get("/queryrdf")
+        ResultActions actions = perform(get("/queryrdf")
                 .param("query", "CONSTRUCT {?subj  <http://mynamespace#pred1> \"test2\"} WHERE { ?subj  <http://mynamespace#pred1> \"test\" }"))
                 .andExpect(status().isOk());
 //        System.out.println(actions.andReturn().getResponse().getContentAsString());
 
     }
 
+    /**
+     * Performs a request and waits for any query it started to finish streaming its results.
+     */
+    private ResultActions perform(final RequestBuilder request) throws Exception {
+        final ResultActions actions = mockMvc.perform(request);
+        final MvcResult result = actions.andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result.getAsyncResult();
+        }
+        return actions;
+    }
 }